@@ -0,0 +1,108 @@
+package io.github.moshkabortmanstar.benchmark;
+
+import io.github.moshkabortmanstar.data.MicroBatch;
+import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.TransactionBatch;
+import io.github.moshkabortmanstar.decode.PgoutSession;
+import io.github.moshkabortmanstar.decode.impl.PgoutHendlerImpl;
+import io.github.moshkabortmanstar.decode.impl.PgoutMsgDecoderImpl;
+import io.github.moshkabortmanstar.engine.dispatch.LsnWatermark;
+import io.github.moshkabortmanstar.engine.dispatch.impl.MicroBatchDispatcher;
+import io.github.moshkabortmanstar.engine.dispatch.impl.PartitionedDispatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatch of decoded transactions: LSN watermark, micro batching and lanes
+ * The lanes benchmark waits until all lanes complete the transaction, so it includes the hand over between threads
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DispatchBenchmark {
+
+    private static final int ROWS = 100;
+    private static final int COLUMNS = 8;
+
+    private final LsnWatermark watermark = new LsnWatermark();
+    private MicroBatchDispatcher microBatchDispatcher;
+    private PartitionedDispatcher partitionedDispatcher;
+    private List<RowChangesStructure> changes;
+    private long lsn;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var hendler = new PgoutHendlerImpl(new PgoutMsgDecoderImpl());
+        var session = new PgoutSession();
+        changes = new ArrayList<>(ROWS);
+        hendler.decodeHandle(PgoutFixtures.slice(PgoutFixtures.relation(COLUMNS)), session, changes, rows -> {
+        });
+        for (int i = 0; i < ROWS; i++) {
+            hendler.decodeHandle(PgoutFixtures.slice(PgoutFixtures.insert(COLUMNS, i)), session, changes, rows -> {
+            });
+        }
+        microBatchDispatcher = new MicroBatchDispatcher(this::consume, 1000, 1024 * 1024L, 10L);
+        partitionedDispatcher = new PartitionedDispatcher("benchmark", 4, 256, rows -> {
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        microBatchDispatcher.close();
+        partitionedDispatcher.close();
+    }
+
+    @Benchmark
+    public long watermark() {
+        var ticket = watermark.register(++lsn);
+        watermark.complete(ticket);
+        return watermark.getLsn();
+    }
+
+    @Benchmark
+    public long microBatch() {
+        microBatchDispatcher.dispatch(batch(++lsn));
+        return microBatchDispatcher.getWatermark().getLsn();
+    }
+
+    @Benchmark
+    public long lanes() throws InterruptedException {
+        long transactionLsn = ++lsn;
+        partitionedDispatcher.dispatch(batch(transactionLsn));
+        while (partitionedDispatcher.getWatermark().getLsn() < transactionLsn) {
+            Thread.onSpinWait();
+        }
+        return transactionLsn;
+    }
+
+    private TransactionBatch batch(long endLsn) {
+        return TransactionBatch.builder()
+                .transactionId(endLsn)
+                .commitLsn(endLsn)
+                .endLsn(endLsn)
+                .changes(changes)
+                .build();
+    }
+
+    private void consume(MicroBatch microBatch) {
+        //the batch is dropped, the benchmark measures only batching and confirmation
+    }
+
+}
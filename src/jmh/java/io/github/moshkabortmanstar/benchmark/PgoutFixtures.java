@@ -0,0 +1,153 @@
+package io.github.moshkabortmanstar.benchmark;
+
+import io.github.moshkabortmanstar.data.enums.DataType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * PgoutFixtures builds pgoutput messages in the same layout as the server sends them (protocol version 1, text values)
+ * Values depend only on the column index and row number, so every run decodes the same bytes
+ */
+public final class PgoutFixtures {
+
+    public static final int RELATION_ID = 16385;
+
+    //column types cycle in wide rows, the first column is the bigint key
+    private static final DataType[] COLUMN_TYPES = {
+            DataType.BIGINT, DataType.VARCHAR, DataType.NUMERIC, DataType.TIMESTAMP,
+            DataType.BOOLEAN, DataType.INTEGER, DataType.TEXT, DataType.UUID
+    };
+
+    private PgoutFixtures() {
+    }
+
+    public static byte[] relation(int columns) {
+        var message = new Message().b('R').i(RELATION_ID).cs("public").cs("orders_" + columns).b('d').s(columns);
+        for (int i = 0; i < columns; i++) {
+            message.b(i == 0 ? 1 : 0).cs("column_" + i).i(COLUMN_TYPES[i % COLUMN_TYPES.length].getOid()).i(-1);
+        }
+        return message.bytes();
+    }
+
+    public static byte[] begin(long xid) {
+        return new Message().b('B').l(0x16B3748L + xid).l(757_000_000_000_000L).i((int) xid).bytes();
+    }
+
+    public static byte[] commit(long xid) {
+        return new Message().b('C').b(0).l(0x16B3748L + xid).l(0x16B3780L + xid).l(757_000_000_000_000L).bytes();
+    }
+
+    public static byte[] insert(int columns, long row) {
+        return tuple(new Message().b('I').i(RELATION_ID).b('N'), columns, row).bytes();
+    }
+
+    //update with the old key, as it is sent for tables with replica identity default when the key changes
+    public static byte[] update(int columns, long row) {
+        var message = new Message().b('U').i(RELATION_ID).b('K').s(columns);
+        message.t(value(0, row - 1));
+        for (int i = 1; i < columns; i++) {
+            message.b('n');
+        }
+        return tuple(message.b('N'), columns, row).bytes();
+    }
+
+    public static byte[] delete(int columns, long row) {
+        var message = new Message().b('D').i(RELATION_ID).b('K').s(columns);
+        message.t(value(0, row));
+        for (int i = 1; i < columns; i++) {
+            message.b('n');
+        }
+        return message.bytes();
+    }
+
+    /**
+     * Message in the buffer that is a slice of the larger array with offset, like the buffers of the driver
+     */
+    public static ByteBuffer slice(byte[] message) {
+        byte[] wire = new byte[message.length + 25];
+        System.arraycopy(message, 0, wire, 25, message.length);
+        return ByteBuffer.wrap(wire, 25, message.length).slice();
+    }
+
+    private static Message tuple(Message message, int columns, long row) {
+        message.s(columns);
+        for (int i = 0; i < columns; i++) {
+            message.t(value(i, row));
+        }
+        return message;
+    }
+
+    private static String value(int column, long row) {
+        return switch (COLUMN_TYPES[column % COLUMN_TYPES.length]) {
+            case BIGINT -> Long.toString(1_000_000L + row);
+            case VARCHAR -> "customer-" + (row % 1000) + "-" + column;
+            case NUMERIC -> (row % 10_000) + "." + String.format("%02d", column % 100);
+            case TIMESTAMP -> "2024-04-02 10:15:" + String.format("%02d", row % 60) + ".123456";
+            case BOOLEAN -> row % 2 == 0 ? "t" : "f";
+            case INTEGER -> Integer.toString((int) (row % 100_000) * 7);
+            case UUID -> String.format("a0eebc99-9c0b-4ef8-bb6d-%012d", row);
+            default -> "description of the order " + row + " with some text of the column " + column;
+        };
+    }
+
+    private static final class Message {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        private Message b(int value) {
+            return write(() -> out.writeByte(value));
+        }
+
+        private Message s(int value) {
+            return write(() -> out.writeShort(value));
+        }
+
+        private Message i(int value) {
+            return write(() -> out.writeInt(value));
+        }
+
+        private Message l(long value) {
+            return write(() -> out.writeLong(value));
+        }
+
+        private Message cs(String value) {
+            return write(() -> {
+                out.write(value.getBytes(StandardCharsets.UTF_8));
+                out.writeByte(0);
+            });
+        }
+
+        private Message t(String value) {
+            byte[] data = value.getBytes(StandardCharsets.UTF_8);
+            return write(() -> {
+                out.writeByte('t');
+                out.writeInt(data.length);
+                out.write(data);
+            });
+        }
+
+        private byte[] bytes() {
+            return bytes.toByteArray();
+        }
+
+        private Message write(Write write) {
+            try {
+                write.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return this;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Write {
+        void run() throws IOException;
+    }
+
+}
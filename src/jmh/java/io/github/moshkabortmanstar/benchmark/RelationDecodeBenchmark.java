@@ -0,0 +1,51 @@
+package io.github.moshkabortmanstar.benchmark;
+
+import io.github.moshkabortmanstar.data.RelationMetaInfo;
+import io.github.moshkabortmanstar.decode.PgoutSession;
+import io.github.moshkabortmanstar.decode.impl.PgoutMsgDecoderImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relation message parsing at different column counts
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RelationDecodeBenchmark {
+
+    @Param({"4", "16", "64"})
+    private int columns;
+
+    private final PgoutMsgDecoderImpl decoder = new PgoutMsgDecoderImpl();
+    private final PgoutSession session = new PgoutSession();
+    private ByteBuffer relation;
+
+    @Setup
+    public void setUp() {
+        relation = PgoutFixtures.slice(PgoutFixtures.relation(columns));
+    }
+
+    @Benchmark
+    public RelationMetaInfo relation() {
+        //skip the message type byte
+        relation.position(1);
+        return decoder.crateRelationMetaInfo(relation, session);
+    }
+
+}
@@ -0,0 +1,77 @@
+package io.github.moshkabortmanstar.benchmark;
+
+import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import io.github.moshkabortmanstar.decode.PgoutSession;
+import io.github.moshkabortmanstar.decode.impl.PgoutMsgDecoderImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert, Update and Delete decode for narrow (4 columns) and wide (64 columns) rows in eager and lazy mode
+ * The map of the row is iterated, so eager and lazy rows decode the same values
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RowDecodeBenchmark {
+
+    @Param({"INSERT", "UPDATE", "DELETE"})
+    private OperationEnum operation;
+
+    @Param({"4", "64"})
+    private int columns;
+
+    @Param({"false", "true"})
+    private boolean lazyRows;
+
+    private PgoutMsgDecoderImpl decoder;
+    private PgoutSession session;
+    private ByteBuffer message;
+
+    @Setup
+    public void setUp() {
+        decoder = new PgoutMsgDecoderImpl(lazyRows);
+        session = new PgoutSession();
+        var relation = PgoutFixtures.slice(PgoutFixtures.relation(columns));
+        relation.position(1);
+        session.getRelationRegistry().put(decoder.crateRelationMetaInfo(relation, session));
+        message = PgoutFixtures.slice(switch (operation) {
+            case UPDATE -> PgoutFixtures.update(columns, 42);
+            case DELETE -> PgoutFixtures.delete(columns, 42);
+            default -> PgoutFixtures.insert(columns, 42);
+        });
+    }
+
+    @Benchmark
+    public RowChangesStructure decode() {
+        message.position(1);
+        return decoder.createRowChangesStructure(message, operation, session);
+    }
+
+    @Benchmark
+    public void decodeAndRead(Blackhole blackhole) {
+        message.position(1);
+        var row = decoder.createRowChangesStructure(message, operation, session);
+        for (var value : row.getColumnsData().values()) {
+            blackhole.consume(value);
+        }
+    }
+
+}
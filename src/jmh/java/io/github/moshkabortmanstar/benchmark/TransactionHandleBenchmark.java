@@ -0,0 +1,87 @@
+package io.github.moshkabortmanstar.benchmark;
+
+import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.RowCursor;
+import io.github.moshkabortmanstar.decode.PgoutSession;
+import io.github.moshkabortmanstar.decode.impl.PgoutHendlerImpl;
+import io.github.moshkabortmanstar.decode.impl.PgoutMsgDecoderImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Full transaction through decodeHandle: BEGIN, inserts and COMMIT, score is the time of one row
+ * Compares rows collected to the list with the borrowed row cursor
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@OperationsPerInvocation(TransactionHandleBenchmark.ROWS)
+public class TransactionHandleBenchmark {
+
+    static final int ROWS = 100;
+
+    @Param({"4", "16"})
+    private int columns;
+
+    private PgoutHendlerImpl hendler;
+    private PgoutSession session;
+    private final List<RowChangesStructure> changes = new ArrayList<>(ROWS);
+    private final RowCursor cursor = new RowCursor();
+    private ByteBuffer[] transaction;
+    private Blackhole blackhole;
+    private Consumer<RowCursor> cursorConsumer;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        hendler = new PgoutHendlerImpl(new PgoutMsgDecoderImpl());
+        session = new PgoutSession();
+        hendler.decodeHandle(PgoutFixtures.slice(PgoutFixtures.relation(columns)), session, changes, rows -> {
+        });
+        transaction = new ByteBuffer[ROWS + 2];
+        transaction[0] = PgoutFixtures.slice(PgoutFixtures.begin(1));
+        for (int i = 0; i < ROWS; i++) {
+            transaction[i + 1] = PgoutFixtures.slice(PgoutFixtures.insert(columns, i));
+        }
+        transaction[ROWS + 1] = PgoutFixtures.slice(PgoutFixtures.commit(1));
+        cursorConsumer = row -> this.blackhole.consume(row.getLong(0));
+    }
+
+    @Benchmark
+    public List<RowChangesStructure> rows() {
+        changes.clear();
+        for (ByteBuffer message : transaction) {
+            hendler.decodeHandle(message.position(0), session, changes, rows -> {
+            });
+        }
+        return changes;
+    }
+
+    @Benchmark
+    public void cursor() {
+        for (ByteBuffer message : transaction) {
+            hendler.decodeHandle(message.position(0), session, cursor, cursorConsumer);
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package io.github.moshkabortmanstar.cache;
+
+import java.util.Map;
+
+/**
+ * CopyOnWriteIntMap is a map with primitive int keys in open addressing table for rarely changed metadata
+ * Every change copies the table and publishes it through volatile field, lookups are lock free
+ * Key 0 is not supported, it marks an empty slot (oid 0 is invalid in postgres)
+ */
+public class CopyOnWriteIntMap<V> {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int EMPTY_KEY = 0;
+
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        return (V) table.get(key);
+    }
+
+    public synchronized void put(int key, V value) {
+        var current = table;
+        int capacity = (current.size + 1) * 2 > current.keys.length ? current.keys.length * 2 : current.keys.length;
+        var next = current.copy(capacity);
+        next.put(key, value);
+        table = next;
+    }
+
+    /**
+     * Put all entries with one copy of the table, readers see either none or all of them
+     */
+    public synchronized void putAll(Map<Integer, ? extends V> entries) {
+        var current = table;
+        int capacity = current.keys.length;
+        while ((current.size + entries.size()) * 2 > capacity) {
+            capacity *= 2;
+        }
+        var next = current.copy(capacity);
+        entries.forEach(next::put);
+        table = next;
+    }
+
+    public synchronized void remove(int key) {
+        var current = table;
+        if (current.get(key) == null) {
+            return;
+        }
+        var next = new Table(current.keys.length);
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.keys[i] != EMPTY_KEY && current.keys[i] != key) {
+                next.put(current.keys[i], current.values[i]);
+            }
+        }
+        table = next;
+    }
+
+    public synchronized void clear() {
+        table = new Table(INITIAL_CAPACITY);
+    }
+
+    public int size() {
+        return table.size;
+    }
+
+    private static final class Table {
+        private final int[] keys;
+        private final Object[] values;
+        private final int mask;
+        private int size;
+
+        private Table(int capacity) {
+            this.keys = new int[capacity];
+            this.values = new Object[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private Object get(int key) {
+            for (int i = index(key); ; i = (i + 1) & mask) {
+                int slotKey = keys[i];
+                if (slotKey == key) {
+                    return values[i];
+                }
+                if (slotKey == EMPTY_KEY) {
+                    return null;
+                }
+            }
+        }
+
+        private void put(int key, Object value) {
+            for (int i = index(key); ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                if (keys[i] == EMPTY_KEY) {
+                    keys[i] = key;
+                    values[i] = value;
+                    size++;
+                    return;
+                }
+            }
+        }
+
+        private Table copy(int capacity) {
+            var copy = new Table(capacity);
+            if (capacity == keys.length) {
+                System.arraycopy(keys, 0, copy.keys, 0, keys.length);
+                System.arraycopy(values, 0, copy.values, 0, values.length);
+                copy.size = size;
+                return copy;
+            }
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY_KEY) {
+                    copy.put(keys[i], values[i]);
+                }
+            }
+            return copy;
+        }
+
+        //fibonacci hashing spreads sequential oids over the table
+        private int index(int key) {
+            return (key * 0x9E3779B9) >>> Integer.numberOfLeadingZeros(mask);
+        }
+    }
+
+}
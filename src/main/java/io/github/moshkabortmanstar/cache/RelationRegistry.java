@@ -0,0 +1,47 @@
+package io.github.moshkabortmanstar.cache;
+
+import io.github.moshkabortmanstar.data.RelationMetaInfo;
+
+/**
+ * RelationRegistry holds the relations of one engine keyed by the relation id
+ * Relation messages are rare, so relations are kept in CopyOnWriteIntMap, lookups are lock free
+ * and can be done from any decoder thread
+ * Relation received again gets the next version, rows created before keep the previous RelationMetaInfo
+ */
+public class RelationRegistry {
+
+    private final CopyOnWriteIntMap<RelationMetaInfo> relations = new CopyOnWriteIntMap<>();
+
+    /**
+     * @return relation or null if the relation was not received yet
+     */
+    public RelationMetaInfo get(int relationId) {
+        return relations.get(relationId);
+    }
+
+    /**
+     * Register the relation, the version of the relation is set by the registry
+     * @return registered relation
+     */
+    public synchronized RelationMetaInfo put(RelationMetaInfo relationMetaInfo) {
+        var previous = relations.get(relationMetaInfo.getRelationId());
+        relationMetaInfo.setVersion(previous == null ? 1 : previous.getVersion() + 1);
+        //columns array is created before the relation is visible to other threads
+        relationMetaInfo.getColumns();
+        relations.put(relationMetaInfo.getRelationId(), relationMetaInfo);
+        return relationMetaInfo;
+    }
+
+    public void remove(int relationId) {
+        relations.remove(relationId);
+    }
+
+    public void clear() {
+        relations.clear();
+    }
+
+    public int size() {
+        return relations.size();
+    }
+
+}
@@ -0,0 +1,16 @@
+package io.github.moshkabortmanstar.cache;
+
+import io.github.moshkabortmanstar.data.PgType;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * TypeLoader reads types from pg_type, it is called by TypeRegistry when the server sends unknown type
+ */
+@FunctionalInterface
+public interface TypeLoader {
+
+    List<PgType> load() throws SQLException;
+
+}
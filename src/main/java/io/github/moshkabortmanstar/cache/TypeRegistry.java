@@ -0,0 +1,241 @@
+package io.github.moshkabortmanstar.cache;
+
+import io.github.moshkabortmanstar.data.PgType;
+import io.github.moshkabortmanstar.data.enums.DataType;
+import io.github.moshkabortmanstar.decode.value.ArrayBinaryValueDecoder;
+import io.github.moshkabortmanstar.decode.value.ArrayTextValueDecoder;
+import io.github.moshkabortmanstar.decode.value.BinaryValueDecoders;
+import io.github.moshkabortmanstar.decode.value.MoneyFormat;
+import io.github.moshkabortmanstar.decode.value.TextValueDecoder;
+import io.github.moshkabortmanstar.decode.value.ValueDecoder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TypeRegistry resolves column types that are not builtin DataType: arrays, enums, domains and extension types
+ * Types are loaded from pg_type once per connection and reloaded when the server sends Type message of unknown type,
+ * decoders are resolved on load, so the columns get them without extra cost per message
+ * Builtin types are resolved by DataType and do not need the registry
+ */
+@Slf4j
+public class TypeRegistry {
+
+    //domains over domains and arrays of domains are resolved up to this depth
+    private static final int MAX_RESOLVE_DEPTH = 8;
+
+    private final CopyOnWriteIntMap<ResolvedType> types = new CopyOnWriteIntMap<>();
+    private final TypeLoader loader;
+    //TimeZone of the replication session, binary timestamptz values are rendered in it as in text mode
+    private volatile ZoneId sessionZone = ZoneOffset.UTC;
+    //lc_monetary of the replication session, binary money values are rendered in it as in text mode
+    private volatile MoneyFormat moneyFormat = MoneyFormat.DEFAULT;
+
+    public TypeRegistry() {
+        this(null);
+    }
+
+    /**
+     * @param loader - loader of pg_type used on Type message of unknown type, null disables reloading
+     */
+    public TypeRegistry(TypeLoader loader) {
+        this.loader = loader;
+    }
+
+    public ZoneId getSessionZone() {
+        return sessionZone;
+    }
+
+    /**
+     * Set the time zone of the session, it must be set before the types are loaded
+     */
+    public void setSessionZone(ZoneId sessionZone) {
+        this.sessionZone = sessionZone;
+    }
+
+    public MoneyFormat getMoneyFormat() {
+        return moneyFormat;
+    }
+
+    /**
+     * Set the money format of the session, it must be set before the types are loaded
+     */
+    public void setMoneyFormat(MoneyFormat moneyFormat) {
+        this.moneyFormat = moneyFormat == null ? MoneyFormat.DEFAULT : moneyFormat;
+    }
+
+    /**
+     * Register the types and resolve their decoders, types with the same oid are replaced
+     * The resolved types are published at once, so the registry is copied once per load
+     */
+    public synchronized void load(List<PgType> pgTypes) {
+        Map<Integer, PgType> loading = new HashMap<>(pgTypes.size() * 2);
+        for (PgType pgType : pgTypes) {
+            loading.put(pgType.getOid(), pgType);
+        }
+        Map<Integer, ResolvedType> resolved = new HashMap<>(loading.size() * 2);
+        for (PgType pgType : loading.values()) {
+            resolved.put(pgType.getOid(), resolve(pgType, 0, loading));
+        }
+        types.putAll(resolved);
+        log.debug("Type registry loaded {} types", pgTypes.size());
+    }
+
+    /**
+     * Reload the types with the loader
+     * @return false if the loader is not set or failed
+     */
+    public boolean reload() {
+        if (loader == null) {
+            return false;
+        }
+        try {
+            load(loader.load());
+            return true;
+        } catch (SQLException e) {
+            log.warn("Types cannot be loaded from pg_type, error {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Type message is sent before the first relation that uses non builtin type,
+     * unknown type is loaded from pg_type, it is registered by name only if it cannot be loaded
+     */
+    public void onTypeMessage(int oid, String schemaName, String typeName) {
+        if (DataType.findByOid(oid) != null || types.get(oid) != null) {
+            return;
+        }
+        log.info("Type {}.{} with oid {} is not known, reload types", schemaName, typeName, oid);
+        if (!reload() || types.get(oid) == null) {
+            load(List.of(PgType.builder()
+                    .oid(oid)
+                    .schemaName(schemaName)
+                    .typeName(typeName)
+                    .typeType(PgType.BASE)
+                    .build()));
+        }
+    }
+
+    /**
+     * @return registered type or null for builtin and unknown types
+     */
+    public PgType get(int oid) {
+        var resolved = types.get(oid);
+        return resolved == null ? null : resolved.pgType();
+    }
+
+    /**
+     * Data type of the column, domain has data type of its base type, arrays, enums and unknown types are TEXT,
+     * arrays are told apart by elementDataTypeFor and enums by the registered type
+     */
+    public DataType dataTypeFor(int oid) {
+        var dataType = DataType.findByOid(oid);
+        if (dataType != null) {
+            return dataType;
+        }
+        var resolved = types.get(oid);
+        return resolved == null || resolved.dataType() == null ? DataType.TEXT : resolved.dataType();
+    }
+
+    /**
+     * Data type of the array element, domain over array has the element of its base type
+     * @return null if the type is not an array
+     */
+    public DataType elementDataTypeFor(int oid) {
+        var resolved = types.get(oid);
+        return resolved == null ? null : resolved.elementDataType();
+    }
+
+    public ValueDecoder textDecoderFor(int oid) {
+        var resolved = types.get(oid);
+        return resolved == null || resolved.textDecoder() == null ? builtinTextDecoder(dataTypeFor(oid)) : resolved.textDecoder();
+    }
+
+    public ValueDecoder binaryDecoderFor(int oid) {
+        var dataType = DataType.findByOid(oid);
+        if (dataType != null) {
+            return builtinBinaryDecoder(dataType, oid);
+        }
+        var resolved = types.get(oid);
+        return resolved == null || resolved.binaryDecoder() == null ? BinaryValueDecoders.RAW : resolved.binaryDecoder();
+    }
+
+    public int size() {
+        return types.size();
+    }
+
+    //loading - types of the current load, they are not registered yet
+    private ResolvedType resolve(PgType pgType, int depth, Map<Integer, PgType> loading) {
+        if (depth > MAX_RESOLVE_DEPTH) {
+            return new ResolvedType(pgType, DataType.TEXT, null, TextValueDecoder.GENERIC, BinaryValueDecoders.RAW);
+        }
+        var builtin = DataType.findByOid(pgType.getOid());
+        if (builtin != null) {
+            return new ResolvedType(pgType, builtin, null, builtinTextDecoder(builtin), builtinBinaryDecoder(builtin, pgType.getOid()));
+        }
+        if (pgType.isDomain()) {
+            var base = resolveOid(pgType.getBaseTypeOid(), depth + 1, loading);
+            return new ResolvedType(pgType, base.dataType(), base.elementDataType(), base.textDecoder(), base.binaryDecoder());
+        }
+        if (pgType.isEnum()) {
+            //binary value of enum is its label
+            return new ResolvedType(pgType, DataType.TEXT, null, TextValueDecoder.GENERIC,
+                    BinaryValueDecoders.forType(DataType.TEXT, DataType.TEXT.getOid()));
+        }
+        if (pgType.isArray()) {
+            var element = resolveOid(pgType.getElementOid(), depth + 1, loading);
+            char delimiter = delimiterOf(pgType.getElementOid(), element.pgType());
+            return new ResolvedType(pgType, DataType.TEXT, element.dataType(),
+                    new ArrayTextValueDecoder(pgType.getTypeName(), element.textDecoder(), delimiter),
+                    new ArrayBinaryValueDecoder(pgType.getTypeName(), element.binaryDecoder(), delimiter));
+        }
+        return new ResolvedType(pgType, DataType.TEXT, null, TextValueDecoder.GENERIC, BinaryValueDecoders.RAW);
+    }
+
+    private ResolvedType resolveOid(int oid, int depth, Map<Integer, PgType> loading) {
+        var pgType = loading.get(oid);
+        if (pgType != null) {
+            return resolve(pgType, depth, loading);
+        }
+        var registered = types.get(oid);
+        if (registered != null) {
+            return resolve(registered.pgType(), depth, loading);
+        }
+        var builtin = DataType.findByOid(oid);
+        if (builtin != null) {
+            return new ResolvedType(null, builtin, null, builtinTextDecoder(builtin), builtinBinaryDecoder(builtin, oid));
+        }
+        return new ResolvedType(null, DataType.TEXT, null, TextValueDecoder.GENERIC, BinaryValueDecoders.RAW);
+    }
+
+    //builtin element types are not loaded from pg_type, box is the only one with typdelim other than comma
+    private static char delimiterOf(int elementOid, PgType elementType) {
+        if (elementType != null) {
+            return elementType.getDelimiter();
+        }
+        return elementOid == DataType.BOX.getOid() ? ';' : ',';
+    }
+
+    //money and timestamptz decoders depend on the settings of the session
+    private ValueDecoder builtinTextDecoder(DataType dataType) {
+        return dataType == DataType.MONEY ? TextValueDecoder.money(moneyFormat) : TextValueDecoder.forType(dataType);
+    }
+
+    private ValueDecoder builtinBinaryDecoder(DataType dataType, int oid) {
+        if (dataType == DataType.MONEY && dataType.getOid() == oid) {
+            return BinaryValueDecoders.money(moneyFormat);
+        }
+        return BinaryValueDecoders.forType(dataType, oid, sessionZone);
+    }
+
+    //elementDataType - data type of the array element, null if the type is not an array
+    private record ResolvedType(PgType pgType, DataType dataType, DataType elementDataType, ValueDecoder textDecoder, ValueDecoder binaryDecoder) {
+    }
+
+}
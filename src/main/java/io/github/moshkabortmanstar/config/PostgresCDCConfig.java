@@ -6,7 +6,12 @@ import io.github.moshkabortmanstar.decode.PgoutMsgDecoder;
 import io.github.moshkabortmanstar.decode.impl.PgoutHendlerImpl;
 import io.github.moshkabortmanstar.decode.impl.PgoutMsgDecoderImpl;
 import io.github.moshkabortmanstar.service.ReplicationSlotPublicationService;
+import io.github.moshkabortmanstar.service.ShardLeaseService;
+import io.github.moshkabortmanstar.service.ShardPlanner;
 import io.github.moshkabortmanstar.service.impl.ReplicationSlotPublicationServiceImpl;
+import io.github.moshkabortmanstar.service.impl.ShardLeaseServiceImpl;
+import io.github.moshkabortmanstar.service.impl.ShardPlannerImpl;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,8 +21,8 @@ import org.springframework.context.annotation.Configuration;
 public class PostgresCDCConfig {
 
     @Bean
-    public PgoutMsgDecoder pgoutMsgDecoder() {
-        return new PgoutMsgDecoderImpl();
+    public PgoutMsgDecoder pgoutMsgDecoder(@Value("${postgres-cdc.decoder.lazy-rows:false}") boolean lazyRows) {
+        return new PgoutMsgDecoderImpl(lazyRows);
     }
 
     @Bean
@@ -30,4 +35,14 @@ public class PostgresCDCConfig {
         return new ReplicationSlotPublicationServiceImpl();
     }
 
+    @Bean
+    ShardPlanner shardPlanner(ReplicationSlotPublicationService replicationSlotPublicationService) {
+        return new ShardPlannerImpl(replicationSlotPublicationService);
+    }
+
+    @Bean
+    ShardLeaseService shardLeaseService(@Value("${postgres-cdc.shard.lease-table:" + ShardLeaseServiceImpl.DEFAULT_LEASE_TABLE + "}") String leaseTable) {
+        return new ShardLeaseServiceImpl(leaseTable);
+    }
+
 }
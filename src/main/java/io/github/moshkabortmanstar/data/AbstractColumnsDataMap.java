@@ -0,0 +1,141 @@
+package io.github.moshkabortmanstar.data;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * AbstractColumnsDataMap is a read view of the row values as columns data map
+ * Columns are shared with the relation, the row keeps only its values, absent values are not a part of the map
+ * The first modification copies the values to LinkedHashMap and all next operations are delegated to it
+ */
+public abstract class AbstractColumnsDataMap extends AbstractMap<String, String> {
+
+    private final Map<String, Column> columnsType;
+    private final Column[] columns;
+    private Map<String, String> materialized;
+
+    protected AbstractColumnsDataMap(RelationMetaInfo relationMetaInfo) {
+        this.columnsType = relationMetaInfo.getColumnsMap();
+        this.columns = relationMetaInfo.getColumns();
+    }
+
+    /**
+     * @return true if the value of the column with index is unchanged TOASTed or not projected
+     */
+    protected abstract boolean isAbsent(int index);
+
+    protected abstract String valueOf(Column column);
+
+    @Override
+    public String get(Object key) {
+        if (materialized != null) {
+            return materialized.get(key);
+        }
+        var column = columnsType.get(key);
+        return column == null ? null : valueOf(column);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (materialized != null) {
+            return materialized.containsKey(key);
+        }
+        var column = columnsType.get(key);
+        return column != null && !isAbsent(column.getIndex());
+    }
+
+    @Override
+    public String put(String key, String value) {
+        return materialize().put(key, value);
+    }
+
+    @Override
+    public String remove(Object key) {
+        return materialize().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        materialize().clear();
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        if (materialized != null) {
+            return materialized.entrySet();
+        }
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new ValuesIterator();
+            }
+
+            @Override
+            public int size() {
+                return valuesSize();
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return materialized != null ? materialized.size() : valuesSize();
+    }
+
+    private int valuesSize() {
+        int size = 0;
+        for (Column column : columns) {
+            if (!isAbsent(column.getIndex())) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    private Map<String, String> materialize() {
+        if (materialized == null) {
+            var copy = new LinkedHashMap<String, String>();
+            for (Column column : columns) {
+                if (!isAbsent(column.getIndex())) {
+                    copy.put(column.getName(), valueOf(column));
+                }
+            }
+            materialized = copy;
+        }
+        return materialized;
+    }
+
+    private class ValuesIterator implements Iterator<Entry<String, String>> {
+
+        private int next = skipAbsent(0);
+
+        @Override
+        public boolean hasNext() {
+            return next < columns.length;
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            var column = columns[next];
+            next = skipAbsent(next + 1);
+            return new SimpleImmutableEntry<>(column.getName(), valueOf(column));
+        }
+
+        private int skipAbsent(int from) {
+            int i = from;
+            while (i < columns.length && isAbsent(columns[i].getIndex())) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+}
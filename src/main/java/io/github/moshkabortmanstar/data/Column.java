@@ -2,10 +2,15 @@ package io.github.moshkabortmanstar.data;
 
 
 import io.github.moshkabortmanstar.data.enums.DataType;
+import io.github.moshkabortmanstar.decode.value.BinaryValueDecoders;
+import io.github.moshkabortmanstar.decode.value.TextValueDecoder;
+import io.github.moshkabortmanstar.decode.value.ValueDecoder;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data
 @Builder
@@ -15,5 +20,52 @@ public class Column {
 
     private String name;
     private DataType dataType;
+    //position of the column in the relation, the same as position in TupleData
+    private int index;
+    //column is part of the replica identity key
+    private boolean key;
+    private int typeOid;
+    private int typeModifier;
+    //name of the type from pg_type for arrays, enums, domains and extension types, null for builtin types
+    private String typeName;
+    //type from pg_type for arrays, enums, domains and extension types, null for builtin types
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private PgType pgType;
+    //data type of the array element, null if the column is not an array, dataType of arrays is TEXT
+    private DataType elementDataType;
+    //decoder of the column values, chosen once by the data type
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ValueDecoder valueDecoder;
+    //decoder of the column values sent in binary format
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ValueDecoder binaryValueDecoder;
+
+    /**
+     * Values of array columns are decoded to elements by RowCursor.getArray and RowChangesStructure.getArray
+     */
+    public boolean isArray() {
+        return elementDataType != null;
+    }
+
+    public boolean isEnum() {
+        return pgType != null && pgType.isEnum();
+    }
+
+    public ValueDecoder getValueDecoder() {
+        if (valueDecoder == null) {
+            valueDecoder = TextValueDecoder.forType(dataType);
+        }
+        return valueDecoder;
+    }
+
+    public ValueDecoder getBinaryValueDecoder() {
+        if (binaryValueDecoder == null) {
+            binaryValueDecoder = BinaryValueDecoders.forType(dataType, typeOid);
+        }
+        return binaryValueDecoder;
+    }
 
 }
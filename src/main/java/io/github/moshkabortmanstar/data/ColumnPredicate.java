@@ -0,0 +1,45 @@
+package io.github.moshkabortmanstar.data;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * ColumnPredicate is a simple condition on the column value in its text form
+ * Null value never matches, unchanged TOASTed value is not known to the decoder and always matches
+ * DELETE with the default replica identity sends only the key columns, predicates on the other columns match it,
+ * so deletes of the rows that were filtered out reach the consumer too, use replica identity FULL to filter them
+ * Range bounds are inclusive and compared as numbers for numeric columns and as strings for other columns
+ */
+@Data
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ColumnPredicate {
+
+    public enum Type {
+        EQUALS,
+        IN,
+        RANGE
+    }
+
+    private final String column;
+    private final Type type;
+    private final List<String> values;
+    //null bound is open
+    private final String lowerBound;
+    private final String upperBound;
+
+    public static ColumnPredicate equalTo(String column, String value) {
+        return new ColumnPredicate(column, Type.EQUALS, List.of(value), null, null);
+    }
+
+    public static ColumnPredicate in(String column, List<String> values) {
+        return new ColumnPredicate(column, Type.IN, List.copyOf(values), null, null);
+    }
+
+    public static ColumnPredicate between(String column, String lowerBound, String upperBound) {
+        return new ColumnPredicate(column, Type.RANGE, List.of(), lowerBound, upperBound);
+    }
+
+}
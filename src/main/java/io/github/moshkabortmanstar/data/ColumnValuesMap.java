@@ -0,0 +1,33 @@
+package io.github.moshkabortmanstar.data;
+
+/**
+ * ColumnValuesMap is a columns data map over the flat array of decoded values in relation column order
+ * The row keeps one array instead of map entries, names and types of the columns are shared by the relation
+ */
+public class ColumnValuesMap extends AbstractColumnsDataMap {
+
+    //marks the value that is not a part of the columns data, compared by reference
+    @SuppressWarnings("StringOperationCanBeSimplified")
+    public static final String ABSENT = new String("");
+
+    private final String[] values;
+
+    /**
+     * @param values - values by column index, null for null value and ABSENT for unchanged TOASTed or not projected value
+     */
+    public ColumnValuesMap(RelationMetaInfo relationMetaInfo, String[] values) {
+        super(relationMetaInfo);
+        this.values = values;
+    }
+
+    @Override
+    protected boolean isAbsent(int index) {
+        return index >= values.length || values[index] == ABSENT;
+    }
+
+    @Override
+    protected String valueOf(Column column) {
+        return isAbsent(column.getIndex()) ? null : values[column.getIndex()];
+    }
+
+}
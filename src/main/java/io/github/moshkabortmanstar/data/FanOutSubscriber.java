@@ -0,0 +1,34 @@
+package io.github.moshkabortmanstar.data;
+
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * FanOutSubscriber receives the changes of its tables from the shared replication stream of the engine
+ * Every subscriber has its own queue and thread, the rows are shared between subscribers and must not be modified
+ */
+@Data
+@Builder
+public class FanOutSubscriber {
+
+    private String name;
+    //tables with schema (public.orders), empty - all tables
+    @Builder.Default
+    private List<String> tables = new ArrayList<>();
+    //empty - all operations
+    @Builder.Default
+    private Set<OperationEnum> operations = new HashSet<>();
+    //receives the part of the committed transaction with the rows of the subscriber, transactions without them are skipped
+    private Consumer<TransactionBatch> consumer;
+    //transactions waiting for the subscriber, the engine stops reading while the queue is full
+    @Builder.Default
+    private int queueSize = 256;
+
+}
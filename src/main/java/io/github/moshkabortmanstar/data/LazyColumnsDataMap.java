@@ -0,0 +1,26 @@
+package io.github.moshkabortmanstar.data;
+
+/**
+ * LazyColumnsDataMap is a read view of the TupleData as columns data map, the values are decoded on access
+ * The map keeps the order of the relation columns, unchanged TOASTed and not projected values are absent
+ */
+public class LazyColumnsDataMap extends AbstractColumnsDataMap {
+
+    private final TupleData tupleData;
+
+    public LazyColumnsDataMap(RelationMetaInfo relationMetaInfo, TupleData tupleData) {
+        super(relationMetaInfo);
+        this.tupleData = tupleData;
+    }
+
+    @Override
+    protected boolean isAbsent(int index) {
+        return tupleData.isAbsent(index);
+    }
+
+    @Override
+    protected String valueOf(Column column) {
+        return tupleData.getString(column);
+    }
+
+}
@@ -0,0 +1,41 @@
+package io.github.moshkabortmanstar.data;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MicroBatch holds consecutive committed transactions that are delivered and confirmed together
+ */
+@Data
+@Builder
+public class MicroBatch {
+
+    //transactions in commit order, every one keeps its own xid and changes
+    @Builder.Default
+    private List<TransactionBatch> transactions = new ArrayList<>();
+    private int rowCount;
+    //estimated size of the changes in bytes
+    private long sizeBytes;
+
+    /**
+     * Position that is confirmed to the server after the batch is processed
+     */
+    public long getEndLsn() {
+        return transactions.isEmpty() ? 0L : transactions.get(transactions.size() - 1).getEndLsn();
+    }
+
+    /**
+     * Changes of all transactions in commit order
+     */
+    public List<RowChangesStructure> getChanges() {
+        List<RowChangesStructure> changes = new ArrayList<>(rowCount);
+        for (TransactionBatch transaction : transactions) {
+            changes.addAll(transaction.getChanges());
+        }
+        return changes;
+    }
+
+}
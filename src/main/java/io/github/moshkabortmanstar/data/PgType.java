@@ -0,0 +1,45 @@
+package io.github.moshkabortmanstar.data;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * PgType is a row of pg_type that is needed to resolve the column type
+ */
+@Data
+@Builder
+public class PgType {
+
+    public static final char BASE = 'b';
+    public static final char ENUM = 'e';
+    public static final char DOMAIN = 'd';
+    public static final char ARRAY_CATEGORY = 'A';
+
+    private int oid;
+    private String schemaName;
+    private String typeName;
+    //typtype: b - base, c - composite, d - domain, e - enum, p - pseudo, r - range, m - multirange
+    private char typeType;
+    //typcategory, A for arrays
+    private char typeCategory;
+    //type of the array element, 0 if the type is not an array
+    private int elementOid;
+    //base type of the domain, 0 if the type is not a domain
+    private int baseTypeOid;
+    //typdelim, delimiter of the elements in arrays of this type
+    @Builder.Default
+    private char delimiter = ',';
+
+    public boolean isArray() {
+        return typeCategory == ARRAY_CATEGORY && elementOid != 0;
+    }
+
+    public boolean isDomain() {
+        return typeType == DOMAIN && baseTypeOid != 0;
+    }
+
+    public boolean isEnum() {
+        return typeType == ENUM;
+    }
+
+}
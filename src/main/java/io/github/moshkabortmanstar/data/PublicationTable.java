@@ -0,0 +1,55 @@
+package io.github.moshkabortmanstar.data;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PublicationTable describes the table of the publication with optional column list and row filter (Postgres 15+)
+ * Rows and columns are filtered by the server before the changes are sent
+ */
+@Data
+@Builder
+public class PublicationTable {
+
+    //table name with schema, for example public.orders, written to the statement as it is
+    private String tableName;
+    //published column names as they are in the table, written to the statement as quoted identifiers,
+    //all columns are published when the list is empty
+    @Builder.Default
+    private List<String> columns = new ArrayList<>();
+    //boolean expression of the row filter without WHERE, for example status = 'PAID'
+    //it is trusted SQL of the configuration and is written to the statement as it is, never pass user input here
+    private String rowFilter;
+
+    /**
+     * Table specification of ALTER PUBLICATION ... ADD TABLE
+     */
+    public String toPublicationClause() {
+        var clause = new StringBuilder(tableName);
+        if (columns != null && !columns.isEmpty()) {
+            clause.append(" (");
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    clause.append(", ");
+                }
+                clause.append(quoteIdentifier(columns.get(i)));
+            }
+            clause.append(')');
+        }
+        if (rowFilter != null && !rowFilter.isBlank()) {
+            clause.append(" WHERE (").append(rowFilter).append(')');
+        }
+        return clause.toString();
+    }
+
+    /**
+     * Identifier in double quotes, so names with upper case letters, spaces or of keywords are kept as they are
+     */
+    public static String quoteIdentifier(String name) {
+        return '"' + name.replace("\"", "\"\"") + '"';
+    }
+
+}
@@ -2,6 +2,8 @@ package io.github.moshkabortmanstar.data;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -9,16 +11,51 @@ import java.util.Map;
 
 /**
  * RelationMetaInfo is a data class that holds the meta information of the relation (table)
+ * One instance is shared as the schema of all rows decoded after the relation message, it is not modified after decoding
  * Author: MoshkaBortman
 * */
 @Data
 @Builder
 public class RelationMetaInfo {
 
+    private int relationId;
     private String schemaName;
     private String tableName;
+    //replica identity setting of the relation: d - default, n - nothing, f - full, i - index
+    private char replicaIdentity;
+    //incremented by the registry when the relation is received again, for example after ALTER TABLE
+    private int version;
 
     @Builder.Default
     private Map<String, Column> columnsMap = new LinkedHashMap<>();
 
+    //columns in relation order, shared by all rows of the relation
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Column[] columns;
+
+    public Column[] getColumns() {
+        if (columns == null) {
+            columns = columnsMap.values().toArray(new Column[0]);
+        }
+        return columns;
+    }
+
+    /**
+     * @return index of the column in relation order or -1 if the relation has no such column
+     */
+    public int indexOf(String columnName) {
+        var column = columnsMap.get(columnName);
+        return column == null ? -1 : column.getIndex();
+    }
+
+    public Column getColumn(int index) {
+        return getColumns()[index];
+    }
+
+    public void setColumnsMap(Map<String, Column> columnsMap) {
+        this.columnsMap = columnsMap;
+        this.columns = null;
+    }
+
 }
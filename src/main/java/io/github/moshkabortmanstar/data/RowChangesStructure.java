@@ -1,11 +1,23 @@
 package io.github.moshkabortmanstar.data;
 
 import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import io.github.moshkabortmanstar.decode.value.ValueDecoder;
+import io.github.moshkabortmanstar.exception.ColumnValueDecodingException;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiFunction;
 
 /**
  * RowChangesStructure is a data class that holds the data of the row changes
@@ -18,9 +30,155 @@ public class RowChangesStructure {
     private String tableName;
     private String schemaName;
     private OperationEnum operationEnum;
+    //xid of the transaction, for streamed transactions it is the xid of the (sub)transaction that made the change
+    private long transactionId;
+    //decoded rows keep a view over the flat values of the row, ColumnValuesMap or LazyColumnsDataMap
     @Builder.Default
     private Map<String, String> columnsData = new LinkedHashMap<>();
+    //columns of the relation, shared by all rows of the relation
     @Builder.Default
     private Map<String, Column> columnsType = new LinkedHashMap<>();
+    //columns with unchanged TOASTed value, the server does not send their value, so they are absent in columnsData
+    @Builder.Default
+    private Set<String> unchangedToastColumns = Collections.emptySet();
+    //compact copy of the tuple bytes, present when the decoder works in lazy rows mode
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private TupleData tupleData;
+
+    /**
+     * Check if the column value is unchanged TOASTed value that was not sent by the server
+     * @param columnName - name of the column
+     * @return true if the value of the column is unknown
+     */
+    public boolean isUnchangedToast(String columnName) {
+        return unchangedToastColumns.contains(columnName);
+    }
+
+    /**
+     * Check if the column value is null or unknown
+     * @param columnName - name of the column
+     * @return true if the value is null or unchanged TOASTed value
+     */
+    public boolean isNull(String columnName) {
+        var column = column(columnName);
+        if (tupleData != null) {
+            return tupleData.getOffset(column.getIndex()) < 0;
+        }
+        return columnsData.get(columnName) == null;
+    }
+
+    /*
+     * Typed accessors parse the value by the column ValueDecoder,
+     * in lazy rows mode the value is parsed directly from the tuple bytes, in eager mode from the chars of the String value
+     * Primitive accessors throw ColumnValueDecodingException for null values, object accessors return null
+     */
+
+    public long getLong(String columnName) {
+        var column = column(columnName);
+        if (tupleData != null) {
+            int index = requireTupleValue(column);
+            return tupleData.decoderFor(column).decodeLong(tupleData.getData(), tupleData.getOffset(index), tupleData.getLength(index));
+        }
+        return column.getValueDecoder().decodeLong(requireStringValue(column));
+    }
+
+    public int getInt(String columnName) {
+        var column = column(columnName);
+        if (tupleData != null) {
+            int index = requireTupleValue(column);
+            return tupleData.decoderFor(column).decodeInt(tupleData.getData(), tupleData.getOffset(index), tupleData.getLength(index));
+        }
+        return column.getValueDecoder().decodeInt(requireStringValue(column));
+    }
+
+    public double getDouble(String columnName) {
+        var column = column(columnName);
+        if (tupleData != null) {
+            int index = requireTupleValue(column);
+            return tupleData.decoderFor(column).decodeDouble(tupleData.getData(), tupleData.getOffset(index), tupleData.getLength(index));
+        }
+        return column.getValueDecoder().decodeDouble(requireStringValue(column));
+    }
+
+    public boolean getBoolean(String columnName) {
+        var column = column(columnName);
+        if (tupleData != null) {
+            int index = requireTupleValue(column);
+            return tupleData.decoderFor(column).decodeBoolean(tupleData.getData(), tupleData.getOffset(index), tupleData.getLength(index));
+        }
+        return column.getValueDecoder().decodeBoolean(requireStringValue(column));
+    }
+
+    public UUID getUuid(String columnName) {
+        return decodeObject(columnName, ValueDecoder::decodeUuid, ValueDecoder::decodeUuid);
+    }
+
+    public LocalDateTime getTimestamp(String columnName) {
+        return decodeObject(columnName, ValueDecoder::decodeTimestamp, ValueDecoder::decodeTimestamp);
+    }
+
+    public LocalDate getDate(String columnName) {
+        return decodeObject(columnName, ValueDecoder::decodeDate, ValueDecoder::decodeDate);
+    }
+
+    public BigDecimal getBigDecimal(String columnName) {
+        return decodeObject(columnName, ValueDecoder::decodeBigDecimal, ValueDecoder::decodeBigDecimal);
+    }
+
+    public byte[] getBytes(String columnName) {
+        return decodeObject(columnName, ValueDecoder::decodeBytes, ValueDecoder::decodeBytes);
+    }
+
+    /**
+     * Elements of the array column rendered as in text mode, see ValueDecoder.decodeArray
+     */
+    public List<Object> getArray(String columnName) {
+        return decodeObject(columnName, ValueDecoder::decodeArray, ValueDecoder::decodeArray);
+    }
+
+    private <T> T decodeObject(String columnName, ObjectValueFunction<T> function, BiFunction<ValueDecoder, CharSequence, T> stringFunction) {
+        var column = column(columnName);
+        if (tupleData != null) {
+            int index = column.getIndex();
+            if (tupleData.getOffset(index) < 0) {
+                return null;
+            }
+            return function.apply(tupleData.decoderFor(column), tupleData.getData(), tupleData.getOffset(index), tupleData.getLength(index));
+        }
+        String value = columnsData.get(columnName);
+        if (value == null) {
+            return null;
+        }
+        return stringFunction.apply(column.getValueDecoder(), value);
+    }
+
+    private Column column(String columnName) {
+        var column = columnsType.get(columnName);
+        if (column == null) {
+            throw new ColumnValueDecodingException("Column " + columnName + " not found in " + schemaName + "." + tableName);
+        }
+        return column;
+    }
+
+    private int requireTupleValue(Column column) {
+        if (tupleData.getOffset(column.getIndex()) < 0) {
+            throw new ColumnValueDecodingException("Value of column " + column.getName() + " is null");
+        }
+        return column.getIndex();
+    }
+
+    private String requireStringValue(Column column) {
+        String value = columnsData.get(column.getName());
+        if (value == null) {
+            throw new ColumnValueDecodingException("Value of column " + column.getName() + " is null");
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    private interface ObjectValueFunction<T> {
+        T apply(ValueDecoder decoder, byte[] data, int offset, int length);
+    }
 
 }
@@ -0,0 +1,260 @@
+package io.github.moshkabortmanstar.data;
+
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import io.github.moshkabortmanstar.decode.value.ValueDecoder;
+import io.github.moshkabortmanstar.exception.ColumnValueDecodingException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * RowCursor is a reusable view of one change in the received message, the decoder refills it for every change
+ * Values are read directly from the wire bytes, so the cursor is valid only during the consumer call,
+ * use toRowChangesStructure to keep the row after the call
+ * Primitive accessors do not allocate, they throw ColumnValueDecodingException for null values
+ */
+public final class RowCursor {
+
+    //kind byte and int length are placed before the value
+    private static final int KIND_SHIFT = 5;
+    private static final int LENGTH_SHIFT = 4;
+    private static final char BINARY_VALUE = 'b';
+
+    private RelationMetaInfo relation;
+    private OperationEnum operation;
+    private long transactionId;
+    private byte[] data;
+    //position of the tuple start in data, offsets of the values are relative to it
+    private int base;
+    private int[] offsets = new int[16];
+    private int size;
+    //copy of the tuple when the message is not backed by array
+    private byte[] scratch = new byte[0];
+
+    /**
+     * Prepare the cursor for the next change, called by the decoder
+     * @return array of the value offsets with at least columns length of the relation
+     */
+    public int[] reset(RelationMetaInfo relation, OperationEnum operation, long transactionId) {
+        this.relation = relation;
+        this.operation = operation;
+        this.transactionId = transactionId;
+        this.size = relation.getColumns().length;
+        if (offsets.length < size) {
+            offsets = new int[Math.max(size, offsets.length * 2)];
+        }
+        Arrays.fill(offsets, 0, size, TupleData.NULL_OFFSET);
+        this.data = null;
+        this.base = 0;
+        return offsets;
+    }
+
+    /**
+     * Set the bytes the offsets are relative to, called by the decoder
+     */
+    public void setData(byte[] data, int base) {
+        this.data = data;
+        this.base = base;
+    }
+
+    /**
+     * Reusable array for the tuple copy, called by the decoder
+     */
+    public byte[] scratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        return scratch;
+    }
+
+    public RelationMetaInfo getRelation() {
+        return relation;
+    }
+
+    public String getSchemaName() {
+        return relation.getSchemaName();
+    }
+
+    public String getTableName() {
+        return relation.getTableName();
+    }
+
+    public OperationEnum getOperation() {
+        return operation;
+    }
+
+    public long getTransactionId() {
+        return transactionId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return index of the column or -1 if the relation has no such column
+     */
+    public int indexOf(String columnName) {
+        return relation.indexOf(columnName);
+    }
+
+    public boolean isNull(int index) {
+        return offsets[index] == TupleData.NULL_OFFSET;
+    }
+
+    public boolean isUnchangedToast(int index) {
+        return offsets[index] == TupleData.UNCHANGED_TOAST_OFFSET;
+    }
+
+    /**
+     * Value is unchanged TOASTed or not projected by the table filter
+     */
+    public boolean isAbsent(int index) {
+        return offsets[index] == TupleData.UNCHANGED_TOAST_OFFSET || offsets[index] == TupleData.SKIPPED_OFFSET;
+    }
+
+    public boolean isBinary(int index) {
+        return offsets[index] >= 0 && data[base + offsets[index] - KIND_SHIFT] == BINARY_VALUE;
+    }
+
+    /**
+     * Wire bytes of the message, use together with offset and length of the column
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getOffset(int index) {
+        return offsets[index] < 0 ? offsets[index] : base + offsets[index];
+    }
+
+    public int getLength(int index) {
+        if (offsets[index] < 0) {
+            return 0;
+        }
+        int lengthPosition = base + offsets[index] - LENGTH_SHIFT;
+        return ((data[lengthPosition] & 0xFF) << 24)
+                | ((data[lengthPosition + 1] & 0xFF) << 16)
+                | ((data[lengthPosition + 2] & 0xFF) << 8)
+                | (data[lengthPosition + 3] & 0xFF);
+    }
+
+    /**
+     * Decoder of the column value depending on the format the value was sent in
+     */
+    public ValueDecoder decoderFor(int index) {
+        var column = relation.getColumn(index);
+        return isBinary(index) ? column.getBinaryValueDecoder() : column.getValueDecoder();
+    }
+
+    public long getLong(int index) {
+        int offset = requireValue(index);
+        return decoderFor(index).decodeLong(data, offset, getLength(index));
+    }
+
+    public int getInt(int index) {
+        int offset = requireValue(index);
+        return decoderFor(index).decodeInt(data, offset, getLength(index));
+    }
+
+    public double getDouble(int index) {
+        int offset = requireValue(index);
+        return decoderFor(index).decodeDouble(data, offset, getLength(index));
+    }
+
+    public boolean getBoolean(int index) {
+        int offset = requireValue(index);
+        return decoderFor(index).decodeBoolean(data, offset, getLength(index));
+    }
+
+    /**
+     * Decode the value to String, it allocates the String
+     * @return value or null for null, unchanged TOASTed and not projected values
+     */
+    public String getString(int index) {
+        if (offsets[index] < 0) {
+            return null;
+        }
+        return decoderFor(index).decodeString(data, getOffset(index), getLength(index));
+    }
+
+    /**
+     * Decode the value of array column to elements rendered as in text mode
+     * @return elements or null for null, unchanged TOASTed and not projected values
+     */
+    public List<Object> getArray(int index) {
+        if (offsets[index] < 0) {
+            return null;
+        }
+        return decoderFor(index).decodeArray(data, getOffset(index), getLength(index));
+    }
+
+    public long getLong(String columnName) {
+        return getLong(requireIndex(columnName));
+    }
+
+    public int getInt(String columnName) {
+        return getInt(requireIndex(columnName));
+    }
+
+    public double getDouble(String columnName) {
+        return getDouble(requireIndex(columnName));
+    }
+
+    public boolean getBoolean(String columnName) {
+        return getBoolean(requireIndex(columnName));
+    }
+
+    public String getString(String columnName) {
+        return getString(requireIndex(columnName));
+    }
+
+    public List<Object> getArray(String columnName) {
+        return getArray(requireIndex(columnName));
+    }
+
+    /**
+     * Copy the current change to RowChangesStructure that stays valid after the consumer call
+     */
+    public RowChangesStructure toRowChangesStructure() {
+        String[] values = new String[size];
+        Set<String> unchangedToastColumns = Collections.emptySet();
+        for (int i = 0; i < size; i++) {
+            if (isUnchangedToast(i)) {
+                if (unchangedToastColumns.isEmpty()) {
+                    unchangedToastColumns = new HashSet<>();
+                }
+                unchangedToastColumns.add(relation.getColumn(i).getName());
+            }
+            values[i] = isAbsent(i) ? ColumnValuesMap.ABSENT : getString(i);
+        }
+        return RowChangesStructure.builder()
+                .tableName(relation.getTableName())
+                .schemaName(relation.getSchemaName())
+                .operationEnum(operation)
+                .transactionId(transactionId)
+                .columnsData(new ColumnValuesMap(relation, values))
+                .columnsType(relation.getColumnsMap())
+                .unchangedToastColumns(unchangedToastColumns)
+                .build();
+    }
+
+    private int requireValue(int index) {
+        if (offsets[index] < 0) {
+            throw new ColumnValueDecodingException("Value of column " + relation.getColumn(index).getName() + " is null");
+        }
+        return base + offsets[index];
+    }
+
+    private int requireIndex(String columnName) {
+        int index = relation.indexOf(columnName);
+        if (index < 0) {
+            throw new ColumnValueDecodingException("Column " + columnName + " not found in " + relation.getSchemaName() + "." + relation.getTableName());
+        }
+        return index;
+    }
+
+}
@@ -0,0 +1,24 @@
+package io.github.moshkabortmanstar.data;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SlotShard is one slot/publication pair of the sharding plan, the publication has the same name as the slot
+ */
+@Data
+@Builder
+public class SlotShard {
+
+    private int index;
+    private String slotName;
+    //tables with schema assigned to the shard
+    @Builder.Default
+    private List<String> tables = new ArrayList<>();
+    //sum of the weights of the tables
+    private long weight;
+
+}
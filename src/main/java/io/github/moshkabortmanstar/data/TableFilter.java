@@ -0,0 +1,33 @@
+package io.github.moshkabortmanstar.data;
+
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * TableFilter is evaluated by the decoder while the tuple is decoded
+ * Rows of other operations or rows that do not match all predicates are dropped before they are created,
+ * only projected columns are decoded and put to the columns data
+ */
+@Data
+@Builder
+public class TableFilter {
+
+    //table name with schema, for example public.orders
+    private String tableName;
+    //accepted operations, all operations are accepted when the set is empty
+    @Builder.Default
+    private Set<OperationEnum> operations = new HashSet<>();
+    //projected columns, all columns are projected when the set is empty
+    @Builder.Default
+    private Set<String> columns = new HashSet<>();
+    //all predicates must match, predicate column does not have to be projected
+    @Builder.Default
+    private List<ColumnPredicate> predicates = new ArrayList<>();
+
+}
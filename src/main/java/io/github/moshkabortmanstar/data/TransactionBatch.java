@@ -0,0 +1,40 @@
+package io.github.moshkabortmanstar.data;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TransactionBatch holds the changes of one committed transaction with its position in WAL
+ */
+@Data
+@Builder(toBuilder = true)
+public class TransactionBatch {
+
+    private long transactionId;
+    private long commitLsn;
+    //position that is confirmed to the server when the batch is processed
+    private long endLsn;
+    //commit time in microseconds since 1970-01-01
+    private long commitTimeMicros;
+    @Builder.Default
+    private List<RowChangesStructure> changes = new ArrayList<>();
+    //set by the engine when the transaction is confirmed by the consumer
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Runnable acknowledgement;
+
+    /**
+     * Confirm that the transaction is processed, the engine can advance the flushed LSN past it
+     */
+    public void acknowledge() {
+        if (acknowledgement != null) {
+            acknowledgement.run();
+        }
+    }
+
+}
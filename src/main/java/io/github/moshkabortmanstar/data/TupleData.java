@@ -0,0 +1,109 @@
+package io.github.moshkabortmanstar.data;
+
+import io.github.moshkabortmanstar.decode.value.ValueDecoder;
+
+/**
+ * TupleData is a compact copy of the pgoutput TupleData bytes with offsets of the column values
+ * Values are decoded only when they are accessed
+ * The copy keeps the wire layout, so the kind byte and the length of the value are placed right before its offset
+ */
+public final class TupleData {
+
+    public static final int NULL_OFFSET = -1;
+    public static final int UNCHANGED_TOAST_OFFSET = -2;
+    //value is not projected by the table filter
+    public static final int SKIPPED_OFFSET = -3;
+
+    //kind byte and int length are placed before the value
+    private static final int KIND_SHIFT = 5;
+    private static final int LENGTH_SHIFT = 4;
+    private static final char BINARY_VALUE = 'b';
+
+    private final byte[] data;
+    private final int[] offsets;
+    private String[] decoded;
+
+    public TupleData(byte[] data, int[] offsets) {
+        this.data = data;
+        this.offsets = offsets;
+    }
+
+    public int size() {
+        return offsets.length;
+    }
+
+    public boolean isNull(int index) {
+        return offsets[index] == NULL_OFFSET;
+    }
+
+    public boolean isUnchangedToast(int index) {
+        return offsets[index] == UNCHANGED_TOAST_OFFSET;
+    }
+
+    public boolean isSkipped(int index) {
+        return offsets[index] == SKIPPED_OFFSET;
+    }
+
+    /**
+     * Value is not a part of the columns data, it is unchanged TOASTed or not projected
+     */
+    public boolean isAbsent(int index) {
+        return offsets[index] == UNCHANGED_TOAST_OFFSET || offsets[index] == SKIPPED_OFFSET;
+    }
+
+    public boolean isBinary(int index) {
+        return offsets[index] >= 0 && data[offsets[index] - KIND_SHIFT] == BINARY_VALUE;
+    }
+
+    /**
+     * Raw bytes of the tuple, use together with offset and length of the column
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getOffset(int index) {
+        return offsets[index];
+    }
+
+    public int getLength(int index) {
+        int offset = offsets[index];
+        if (offset < 0) {
+            return 0;
+        }
+        int lengthPosition = offset - LENGTH_SHIFT;
+        return ((data[lengthPosition] & 0xFF) << 24)
+                | ((data[lengthPosition + 1] & 0xFF) << 16)
+                | ((data[lengthPosition + 2] & 0xFF) << 8)
+                | (data[lengthPosition + 3] & 0xFF);
+    }
+
+    /**
+     * Decoder of the column value depending on the format the value was sent in
+     */
+    public ValueDecoder decoderFor(Column column) {
+        return isBinary(column.getIndex()) ? column.getBinaryValueDecoder() : column.getValueDecoder();
+    }
+
+    /**
+     * Decode the value of the column to String, the decoded value is cached
+     * @param column - column of the relation
+     * @return value of the column or null for null, unchanged TOASTed and skipped values
+     */
+    public String getString(Column column) {
+        int index = column.getIndex();
+        if (offsets[index] < 0) {
+            return null;
+        }
+        if (decoded == null) {
+            decoded = new String[offsets.length];
+        }
+        String value = decoded[index];
+        if (value == null) {
+            value = decoderFor(column).decodeString(data, offsets[index], getLength(index));
+            decoded[index] = value;
+        }
+        return value;
+    }
+
+}
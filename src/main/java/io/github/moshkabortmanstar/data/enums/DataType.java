@@ -1,56 +1,85 @@
 package io.github.moshkabortmanstar.data.enums;
 
+import lombok.Getter;
+
+@Getter
 public enum DataType {
 
-    BIGINT(20), // BIGSERIAL(20), SERIAL(20)
+    BIGINT(20), // BIGSERIAL(20)
     BIT(1560),
     BIT_VARYING(1562),
     BOOLEAN(16),
     BOX(603),
     BYTEA(17),
+    CHAR(18),
     CHARACTER(1042),
+    CIDR(650),
+    CIRCLE(718),
     DATE(1082),
+    DOUBLE_PRECISION(701),
     INET(869),
-    INTEGER(23),
+    INTEGER(23), // SERIAL(23)
+    INTERVAL(1186),
     JSON(114),
-    JSONB(3823),
+    JSONB(3802),
     LINE(628),
     LSEG(601),
     MACADDR(829),
     MACADDR8(774),
     MONEY(790),
-    NUMERIC(1775), // DECIMAL(1775) too
+    NAME(19),
+    NUMERIC(1700), // DECIMAL(1700) too
+    OID(26),
     PATH(602),
-    PG_LSN(3311),
-    PG_SNAPSHOT(5103),
+    PG_LSN(3220),
+    PG_SNAPSHOT(5038),
     POINT(600),
     POLYGON(604),
-    REAL(751),
-    SMALLINT(21), // SMALLSERIAL(21),
+    REAL(700),
+    SMALLINT(21), // SMALLSERIAL(21)
     TEXT(25),
     TIME(1083),
-    TIME_WITH_TIME_ZONE(1263), //INTERVAL(1263) too
+    TIME_WITH_TIME_ZONE(1266),
     TIMESTAMP(1114),
+    TIMESTAMP_WITH_TIME_ZONE(1184),
     TSQUERY(3615),
     TSVECTOR(3614),
-    UUID(3055),  //TXID_SNAPSHOT(3055) too
+    TXID_SNAPSHOT(2970),
+    UUID(2950),
     VARCHAR(1043), // CHARACTER_VARYING(1043)
-    XML(239);
+    XML(142);
 
-    private int oid;
+    private final int oid;
 
     DataType(int oid) {
         this.oid = oid;
     }
 
-    public static DataType fromOid(int oid) {
-        for (DataType dt : DataType.values()) {
-            if (dt.oid == oid) {
-                return dt;
-            }
+    //data types indexed by oid, builtin oids are small, so the array stays compact
+    private static final DataType[] BY_OID;
+
+    static {
+        int maxOid = 0;
+        for (DataType dt : values()) {
+            maxOid = Math.max(maxOid, dt.oid);
         }
+        BY_OID = new DataType[maxOid + 1];
+        for (DataType dt : values()) {
+            BY_OID[dt.oid] = dt;
+        }
+    }
 
+    public static DataType fromOid(int oid) {
+        var dataType = findByOid(oid);
         //default TEXT because text possible to store any data type
-        return TEXT;
+        return dataType != null ? dataType : TEXT;
+    }
+
+    /**
+     * @return data type or null if the oid is not a known builtin type
+     */
+    public static DataType findByOid(int oid) {
+        return oid >= 0 && oid < BY_OID.length ? BY_OID[oid] : null;
     }
+
 }
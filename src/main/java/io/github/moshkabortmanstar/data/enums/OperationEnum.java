@@ -12,6 +12,7 @@ public enum OperationEnum {
     BEGIN((char) 66, 2),
     COMMIT((char) 67, 2),
     RELATION((char) 82, 5),
+    TYPE((char) 89, 0),
 
     //DML operation
     INSERT((char) 73, 2),
@@ -21,6 +22,12 @@ public enum OperationEnum {
     //DDL operation
     TRUNCATE((char) 84, 6),
 
+    //streaming of in-progress transactions, protocol version 2
+    STREAM_START((char) 83, 0),
+    STREAM_STOP((char) 69, 0),
+    STREAM_COMMIT((char) 99, 0),
+    STREAM_ABORT((char) 65, 0),
+
     //value operation
     NEW_VALUE_REPLACED((char) 78, 2),
     OLD_VALUE_REPLACED((char) 79, 2),
@@ -38,12 +45,21 @@ public enum OperationEnum {
     }
 
 
+    //operations indexed by the ascii constant, the first operation wins for the shared constants
+    private static final OperationEnum[] BY_CONSTANT = new OperationEnum[128];
+
+    static {
+        for (OperationEnum operationEnum : values()) {
+            if (BY_CONSTANT[operationEnum.constant] == null) {
+                BY_CONSTANT[operationEnum.constant] = operationEnum;
+            }
+        }
+    }
+
     //get OperationEnum by constant
     public static OperationEnum getOperationEnum(char constant) {
-        for (OperationEnum operationEnum : OperationEnum.values()) {
-            if (operationEnum.getConstant() == constant) {
-                return operationEnum;
-            }
+        if (constant < BY_CONSTANT.length && BY_CONSTANT[constant] != null) {
+            return BY_CONSTANT[constant];
         }
         log.error("Unknown operation constant: " + constant);
         return UNKNOWN_OPERATION;
@@ -0,0 +1,19 @@
+package io.github.moshkabortmanstar.data.enums;
+
+/**
+ * What the reactive engine does with a transaction when the buffer is full and there is no downstream demand
+ * DROP_LATEST and DROP_OLDEST confirm the dropped transaction, the slot moves past it once the previous transactions
+ * are confirmed, so it is lost for good and is not sent again after restart
+ */
+public enum OverflowStrategyEnum {
+
+    //stop reading the stream until the downstream requests more
+    BACKPRESSURE,
+    //drop the new transaction, it is confirmed to the server without delivery and is never sent again
+    DROP_LATEST,
+    //drop the oldest buffered transaction, it is confirmed to the server without delivery and is never sent again
+    DROP_OLDEST,
+    //stop the engine with error, the rejected transaction is not confirmed and is sent again after restart
+    ERROR
+
+}
@@ -0,0 +1,15 @@
+package io.github.moshkabortmanstar.data.enums;
+
+/**
+ * Strategy of waiting for the next message of the replication stream
+ */
+public enum ReadStrategyEnum {
+
+    //readPending with fixed sleep when nothing is pending
+    POLLING,
+    //blocking read on the reader thread, the engine thread waits for it at most pollIntervalMillis
+    BLOCKING,
+    //readPending with spin, then yield, then park with growing timeout, resets when data arrives
+    ADAPTIVE_BACKOFF
+
+}
@@ -9,6 +9,8 @@ public enum SlotOptionEnum {
 
     PROTO_VERSION("proto_version"),
     PUBLICATION_NAME("publication_names"),
+    BINARY("binary"),
+    STREAMING("streaming"),
     PGOUTPUT("pgoutput");
 
     private final String optionName;
@@ -16,11 +16,21 @@ public interface PgoutMsgDecoder {
 
     /**
      * Crate RelationMetaInfo from the buffer
-     * @param buffer - ByteBuffer that holds the message data
+     * @param buffer - ByteBuffer that holds the message data, positioned right after the message type byte
      * @return RelationMetaInfo - RelationMetaInfo that holds the meta information of the relation (table)
     * */
     RelationMetaInfo crateRelationMetaInfo(ByteBuffer buffer);
 
+    /**
+     * Crate RelationMetaInfo and resolve the column types that are not builtin with the type registry of the session
+     * @param buffer - ByteBuffer that holds the message data, positioned right after the message type byte
+     * @param session - PgoutSession of the stream
+     * @return RelationMetaInfo - RelationMetaInfo that holds the meta information of the relation (table)
+    * */
+    default RelationMetaInfo crateRelationMetaInfo(ByteBuffer buffer, PgoutSession session) {
+        return crateRelationMetaInfo(buffer);
+    }
+
     /**
      * Create RowChangesStructure from the buffer
      * @param byteMsg - ByteBuffer that holds the message data
@@ -30,4 +40,17 @@ public interface PgoutMsgDecoder {
     RowChangesStructure createRowChangesStructure(ByteBuffer byteMsg,
                                                   OperationEnum operation);
 
+    /**
+     * Create RowChangesStructure and apply table filters of the session
+     * @param byteMsg - ByteBuffer that holds the message data
+     * @param operation - OperationEnum that holds the operation type
+     * @param session - PgoutSession of the stream
+     * @return RowChangesStructure or null if the row is filtered out
+    * */
+    default RowChangesStructure createRowChangesStructure(ByteBuffer byteMsg,
+                                                          OperationEnum operation,
+                                                          PgoutSession session) {
+        return createRowChangesStructure(byteMsg, operation);
+    }
+
 }
@@ -0,0 +1,54 @@
+package io.github.moshkabortmanstar.decode;
+
+import io.github.moshkabortmanstar.cache.RelationRegistry;
+import io.github.moshkabortmanstar.cache.TypeRegistry;
+import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.decode.filter.TableFilterRegistry;
+import io.github.moshkabortmanstar.metrics.CdcMetrics;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.function.Consumer;
+
+/**
+ * PgoutSession holds the decoding state of one replication stream
+ * The session is created by the engine and passed to every decodeHandle call of the stream
+ */
+@Getter
+@Setter
+public class PgoutSession {
+
+    //microseconds between 1970-01-01 and 2000-01-01, postgres timestamps are counted from 2000-01-01
+    public static final long POSTGRES_EPOCH_MICROS = 946_684_800_000_000L;
+
+    //messages between STREAM_START and STREAM_STOP contain xid after the message type
+    private boolean streaming;
+    //xid of the current transaction, for stream messages it is the xid of the top level transaction
+    private long transactionId;
+    //xid of the aborted subtransaction, equals to transactionId when the whole transaction is aborted
+    private long subTransactionId;
+    private long commitLsn;
+    //end of the commit record, the position to confirm after the transaction is processed
+    private long endLsn;
+    //commit time in microseconds since 1970-01-01
+    private long commitTimeMicros;
+    //relations received by the stream, the engine shares one registry between its sessions
+    private RelationRegistry relationRegistry = new RelationRegistry();
+    //types that are not builtin DataType, null when only builtin types are resolved
+    private TypeRegistry typeRegistry;
+    //client side filters of the rows, null when rows are not filtered
+    private TableFilterRegistry tableFilters;
+    //metrics of the engine of the stream
+    private CdcMetrics metrics = CdcMetrics.NOOP;
+    //heartbeat table of the engine, its rows are passed to heartbeatConsumer instead of the changes, null when not set
+    private String heartbeatSchemaName;
+    private String heartbeatTableName;
+    private Consumer<RowChangesStructure> heartbeatConsumer;
+    //relation id of the heartbeat table, known after its Relation message, 0 is never a relation id
+    private int heartbeatRelationId;
+
+    public void setCommitTimestamp(long postgresMicros) {
+        this.commitTimeMicros = postgresMicros + POSTGRES_EPOCH_MICROS;
+    }
+
+}
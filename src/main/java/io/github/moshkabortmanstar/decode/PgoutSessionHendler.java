@@ -0,0 +1,29 @@
+package io.github.moshkabortmanstar.decode;
+
+import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * PgoutSessionHendler is a PgoutHendler that keeps the decoding state of the stream in PgoutSession:
+ * transaction boundaries and LSNs, relations, types, table filters and protocol version 2 streaming
+ * The engine requires it and checks it before the start, PgoutHendlerImpl implements it
+ */
+public interface PgoutSessionHendler extends PgoutHendler {
+
+    /**
+     * Decode the message of the stream with the session state, required for protocol version 2 with streaming
+     * @param buffer - ByteBuffer that holds the message data
+     * @param session - PgoutSession that holds the decoding state of the stream
+     * @param rowChangesStructureList - List of RowChangesStructure that holds the data of the row changes
+     * @param changesStructureConsumer - Consumer that accept the List of RowChangesStructure
+     * */
+    OperationEnum decodeHandle(ByteBuffer buffer,
+                               PgoutSession session,
+                               List<RowChangesStructure> rowChangesStructureList,
+                               Consumer<List<RowChangesStructure>> changesStructureConsumer);
+
+}
@@ -0,0 +1,25 @@
+package io.github.moshkabortmanstar.decode;
+
+import io.github.moshkabortmanstar.data.RowCursor;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+
+import java.nio.ByteBuffer;
+
+/**
+ * RowCursorDecoder is a PgoutMsgDecoder that fills the reusable RowCursor with the change,
+ * PgoutHendlerImpl supports the row cursor only with such decoder
+ */
+public interface RowCursorDecoder extends PgoutMsgDecoder {
+
+    /**
+     * Fill the reusable cursor with the change instead of creating RowChangesStructure
+     * @param byteMsg - ByteBuffer that holds the message data, the cursor reads the values from its bytes
+     * @param operation - INSERT, UPDATE, DELETE or TRUNCATE
+     * @param session - PgoutSession of the stream
+     * @param transactionId - xid of the change
+     * @param cursor - cursor to fill
+     * @return false if the change is filtered out
+    * */
+    boolean fillRowCursor(ByteBuffer byteMsg, OperationEnum operation, PgoutSession session, long transactionId, RowCursor cursor);
+
+}
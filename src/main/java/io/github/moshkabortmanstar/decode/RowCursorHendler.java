@@ -0,0 +1,34 @@
+package io.github.moshkabortmanstar.decode;
+
+import io.github.moshkabortmanstar.data.RowCursor;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * RowCursorHendler decodes the changes into a reusable RowCursor instead of creating rows,
+ * the engine checks it before the start when the row cursor consumer is set
+ */
+public interface RowCursorHendler extends PgoutSessionHendler {
+
+    /**
+     * Decode the message without creating rows, every change is filled to the cursor and passed to the cursor consumer
+     * @param buffer - ByteBuffer that holds the message data, it must not be reused until the method returns
+     * @param session - PgoutSession that holds the decoding state of the stream
+     * @param cursor - RowCursor reused for every change
+     * @param cursorConsumer - Consumer that accept the cursor, it is valid only during the call
+     * */
+    OperationEnum decodeHandle(ByteBuffer buffer,
+                               PgoutSession session,
+                               RowCursor cursor,
+                               Consumer<RowCursor> cursorConsumer);
+
+    /**
+     * @return false if the cursor cannot be filled, for example the message decoder is not RowCursorDecoder
+     */
+    default boolean supportsRowCursor() {
+        return true;
+    }
+
+}
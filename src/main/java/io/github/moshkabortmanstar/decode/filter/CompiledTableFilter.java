@@ -0,0 +1,176 @@
+package io.github.moshkabortmanstar.decode.filter;
+
+import io.github.moshkabortmanstar.data.Column;
+import io.github.moshkabortmanstar.data.ColumnPredicate;
+import io.github.moshkabortmanstar.data.RelationMetaInfo;
+import io.github.moshkabortmanstar.data.TableFilter;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import io.github.moshkabortmanstar.decode.value.ValueDecoder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * TableFilter resolved against the columns of one relation
+ * Equality is checked on the raw text bytes, numeric ranges are decoded without creating Strings
+ */
+@Slf4j
+public final class CompiledTableFilter {
+
+    private final Set<OperationEnum> operations;
+    //null when all columns are projected
+    private final boolean[] projection;
+    private final Column[] predicateColumns;
+    private final Predicate[] predicates;
+
+    CompiledTableFilter(TableFilter tableFilter, RelationMetaInfo relationMetaInfo) {
+        this.operations = tableFilter.getOperations() == null || tableFilter.getOperations().isEmpty()
+                ? null
+                : EnumSet.copyOf(tableFilter.getOperations());
+        this.projection = createProjection(tableFilter, relationMetaInfo);
+
+        List<Column> columns = new ArrayList<>();
+        List<Predicate> compiled = new ArrayList<>();
+        if (tableFilter.getPredicates() != null) {
+            for (ColumnPredicate predicate : tableFilter.getPredicates()) {
+                var column = relationMetaInfo.getColumnsMap().get(predicate.getColumn());
+                if (column == null) {
+                    log.warn("Predicate column {} is not found in relation {}, predicate is ignored",
+                            predicate.getColumn(), relationMetaInfo.getTableName());
+                    continue;
+                }
+                columns.add(column);
+                compiled.add(compile(predicate, column));
+            }
+        }
+        this.predicateColumns = columns.toArray(new Column[0]);
+        this.predicates = compiled.toArray(new Predicate[0]);
+    }
+
+    public boolean acceptsOperation(OperationEnum operation) {
+        return operations == null || operations.contains(operation);
+    }
+
+    public boolean isProjected(int columnIndex) {
+        return projection == null || projection[columnIndex];
+    }
+
+    public boolean hasPredicates() {
+        return predicates.length > 0;
+    }
+
+    public int getPredicateCount() {
+        return predicates.length;
+    }
+
+    /**
+     * Index of the relation column the predicate is evaluated on
+     */
+    public int getPredicateColumnIndex(int predicate) {
+        return predicateColumns[predicate].getIndex();
+    }
+
+    /**
+     * Key tuple of DELETE sends the key columns only, the other predicate columns are not known then
+     */
+    public boolean isPredicateColumnKey(int predicate) {
+        return predicateColumns[predicate].isKey();
+    }
+
+    /**
+     * Test the value of the predicate column
+     * @param binary - the value was sent in binary format
+     */
+    public boolean test(int predicate, byte[] source, int offset, int length, boolean binary) {
+        var column = predicateColumns[predicate];
+        return predicates[predicate].test(binary ? column.getBinaryValueDecoder() : column.getValueDecoder(),
+                source, offset, length, binary);
+    }
+
+    private static boolean[] createProjection(TableFilter tableFilter, RelationMetaInfo relationMetaInfo) {
+        if (tableFilter.getColumns() == null || tableFilter.getColumns().isEmpty()) {
+            return null;
+        }
+        var columns = relationMetaInfo.getColumns();
+        boolean[] projection = new boolean[columns.length];
+        for (Column column : columns) {
+            projection[column.getIndex()] = tableFilter.getColumns().contains(column.getName());
+        }
+        return projection;
+    }
+
+    private static Predicate compile(ColumnPredicate predicate, Column column) {
+        if (predicate.getType() != ColumnPredicate.Type.RANGE) {
+            return new ValuesPredicate(predicate.getValues());
+        }
+        String lower = predicate.getLowerBound();
+        String upper = predicate.getUpperBound();
+        return switch (column.getDataType()) {
+            case BIGINT, INTEGER, SMALLINT, OID -> {
+                long min = lower == null ? Long.MIN_VALUE : Long.parseLong(lower);
+                long max = upper == null ? Long.MAX_VALUE : Long.parseLong(upper);
+                yield (decoder, source, offset, length, binary) -> {
+                    long value = decoder.decodeLong(source, offset, length);
+                    return value >= min && value <= max;
+                };
+            }
+            case REAL, DOUBLE_PRECISION -> {
+                double min = lower == null ? Double.NEGATIVE_INFINITY : Double.parseDouble(lower);
+                double max = upper == null ? Double.POSITIVE_INFINITY : Double.parseDouble(upper);
+                yield (decoder, source, offset, length, binary) -> {
+                    double value = decoder.decodeDouble(source, offset, length);
+                    return value >= min && value <= max;
+                };
+            }
+            case NUMERIC -> {
+                BigDecimal min = lower == null ? null : new BigDecimal(lower);
+                BigDecimal max = upper == null ? null : new BigDecimal(upper);
+                yield (decoder, source, offset, length, binary) -> {
+                    BigDecimal value = decoder.decodeBigDecimal(source, offset, length);
+                    return (min == null || value.compareTo(min) >= 0) && (max == null || value.compareTo(max) <= 0);
+                };
+            }
+            default -> (decoder, source, offset, length, binary) -> {
+                String value = decoder.decodeString(source, offset, length);
+                return (lower == null || value.compareTo(lower) >= 0) && (upper == null || value.compareTo(upper) <= 0);
+            };
+        };
+    }
+
+    @FunctionalInterface
+    private interface Predicate {
+        boolean test(ValueDecoder decoder, byte[] source, int offset, int length, boolean binary);
+    }
+
+    private static final class ValuesPredicate implements Predicate {
+        private final List<String> values;
+        private final byte[][] encodedValues;
+
+        private ValuesPredicate(List<String> values) {
+            this.values = values;
+            this.encodedValues = new byte[values.size()][];
+            for (int i = 0; i < encodedValues.length; i++) {
+                encodedValues[i] = values.get(i).getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        @Override
+        public boolean test(ValueDecoder decoder, byte[] source, int offset, int length, boolean binary) {
+            if (binary) {
+                return values.contains(decoder.decodeString(source, offset, length));
+            }
+            for (byte[] value : encodedValues) {
+                if (Arrays.equals(source, offset, offset + length, value, 0, value.length)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
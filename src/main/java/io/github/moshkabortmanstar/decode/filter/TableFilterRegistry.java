@@ -0,0 +1,40 @@
+package io.github.moshkabortmanstar.decode.filter;
+
+import io.github.moshkabortmanstar.data.RelationMetaInfo;
+import io.github.moshkabortmanstar.data.TableFilter;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TableFilterRegistry resolves the filters by the relation, the filter is compiled once for every relation message
+ * The registry belongs to the session and is used by one decoding thread
+ */
+public class TableFilterRegistry {
+
+    private final Map<String, TableFilter> filters = new HashMap<>();
+    private final Map<RelationMetaInfo, CompiledTableFilter> compiled = new IdentityHashMap<>();
+
+    public TableFilterRegistry(List<TableFilter> tableFilters) {
+        for (TableFilter tableFilter : tableFilters) {
+            filters.put(tableFilter.getTableName(), tableFilter);
+        }
+    }
+
+    /**
+     * @return compiled filter or null if the table is not filtered
+     */
+    public CompiledTableFilter forRelation(RelationMetaInfo relationMetaInfo) {
+        var compiledFilter = compiled.get(relationMetaInfo);
+        if (compiledFilter != null || compiled.containsKey(relationMetaInfo)) {
+            return compiledFilter;
+        }
+        var tableFilter = filters.get(relationMetaInfo.getSchemaName() + "." + relationMetaInfo.getTableName());
+        compiledFilter = tableFilter == null ? null : new CompiledTableFilter(tableFilter, relationMetaInfo);
+        compiled.put(relationMetaInfo, compiledFilter);
+        return compiledFilter;
+    }
+
+}
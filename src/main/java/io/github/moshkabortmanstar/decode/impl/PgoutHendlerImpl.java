@@ -1,12 +1,17 @@
 package io.github.moshkabortmanstar.decode.impl;
 
 
-import io.github.moshkabortmanstar.cache.RelationMetaInfoCache;
+import io.github.moshkabortmanstar.data.RelationMetaInfo;
 import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.RowCursor;
 import io.github.moshkabortmanstar.data.enums.OperationEnum;
-import io.github.moshkabortmanstar.decode.PgoutHendler;
 import io.github.moshkabortmanstar.decode.PgoutMsgDecoder;
+import io.github.moshkabortmanstar.decode.PgoutSession;
+import io.github.moshkabortmanstar.decode.RowCursorDecoder;
+import io.github.moshkabortmanstar.decode.RowCursorHendler;
+import io.github.moshkabortmanstar.decode.util.PgoutBufferUtil;
 import io.github.moshkabortmanstar.exception.ReplicationStreamReadingException;
+import io.github.moshkabortmanstar.metrics.CdcMetrics;
 import lombok.extern.slf4j.Slf4j;
 
 import java.nio.ByteBuffer;
@@ -18,41 +23,160 @@ import static io.github.moshkabortmanstar.data.enums.OperationEnum.getOperationE
 
 
 @Slf4j
-public class PgoutHendlerImpl implements PgoutHendler {
+public class PgoutHendlerImpl implements RowCursorHendler {
 
     private final PgoutMsgDecoder pgoutMsgDecoder;
+    //the same decoder when it supports the row cursor, null otherwise
+    private final RowCursorDecoder rowCursorDecoder;
+    //session of the calls without session, it keeps the relations between the calls
+    private final PgoutSession defaultSession = new PgoutSession();
 
     public PgoutHendlerImpl(PgoutMsgDecoder pgoutMsgDecoder) {
         this.pgoutMsgDecoder = pgoutMsgDecoder;
+        this.rowCursorDecoder = pgoutMsgDecoder instanceof RowCursorDecoder cursorDecoder ? cursorDecoder : null;
     }
 
+    /**
+     * Decode the message without session, supports protocol version 1 only
+     */
     @Override
     public OperationEnum decodeHandle(ByteBuffer buffer,
                                       List<RowChangesStructure> rowChangesStructureList,
                                       Consumer<List<RowChangesStructure>> changesStructureConsumer) {
+        return decodeHandle(buffer, defaultSession, rowChangesStructureList, changesStructureConsumer);
+    }
+
+    @Override
+    public OperationEnum decodeHandle(ByteBuffer buffer,
+                                      PgoutSession session,
+                                      List<RowChangesStructure> rowChangesStructureList,
+                                      Consumer<List<RowChangesStructure>> changesStructureConsumer) {
+        return decode(buffer, session, rowChangesStructureList, null, null);
+    }
+
+    @Override
+    public OperationEnum decodeHandle(ByteBuffer buffer,
+                                      PgoutSession session,
+                                      RowCursor cursor,
+                                      Consumer<RowCursor> cursorConsumer) {
+        if (rowCursorDecoder == null) {
+            throw new IllegalStateException("Row cursor is not supported by " + pgoutMsgDecoder.getClass().getName());
+        }
+        return decode(buffer, session, null, cursor, cursorConsumer);
+    }
+
+    @Override
+    public boolean supportsRowCursor() {
+        return rowCursorDecoder != null;
+    }
+
+    /**
+     * Changes are added to the list or, when the cursor is set, passed to the cursor consumer one by one
+     */
+    private OperationEnum decode(ByteBuffer buffer,
+                                 PgoutSession session,
+                                 List<RowChangesStructure> rowChangesStructureList,
+                                 RowCursor cursor,
+                                 Consumer<RowCursor> cursorConsumer) {
         if (buffer.remaining() < 1) {
             log.warn("Buffer is empty");
             throw new ReplicationStreamReadingException("Buffer is empty");
         }
+        int messageBytes = buffer.remaining();
         var operationByte = (char) buffer.get();
         var operation = getOperationEnum(operationByte);
-        var cobyBuffer = buffer.duplicate();
 
         switch (operation) {
             case BEGIN:
-                log.info("Transaction {} start, size of changes {}", operation.name(), rowChangesStructureList.size());
+                //final lsn, commit timestamp, xid
+                buffer.getLong();
+                session.setCommitTimestamp(buffer.getLong());
+                session.setTransactionId(Integer.toUnsignedLong(buffer.getInt()));
+                //guarded, boxing of xid would allocate on every transaction
+                if (log.isDebugEnabled()) {
+                    log.debug("Transaction {} start", session.getTransactionId());
+                }
                 return operation;
             case RELATION:
-                int relationId = buffer.getInt();
-                var relationDto = pgoutMsgDecoder.crateRelationMetaInfo(buffer);
-                RelationMetaInfoCache.put(relationId, relationDto);
-                log.info("RelationDto {}", relationDto);
+                skipStreamTransactionId(buffer, session);
+                var relationDto = pgoutMsgDecoder.crateRelationMetaInfo(buffer, session);
+                session.getRelationRegistry().put(relationDto);
+                if (isHeartbeatRelation(relationDto, session)) {
+                    session.setHeartbeatRelationId(relationDto.getRelationId());
+                }
+                log.debug("RelationDto {}", relationDto);
+                return operation;
+            case TYPE:
+                //type oid, namespace, type name
+                skipStreamTransactionId(buffer, session);
+                int typeOid = buffer.getInt();
+                var typeSchema = PgoutBufferUtil.readCString(buffer);
+                var typeName = PgoutBufferUtil.readCString(buffer);
+                if (session.getTypeRegistry() != null) {
+                    session.getTypeRegistry().onTypeMessage(typeOid, typeSchema, typeName);
+                }
+                log.debug("Type {}.{} with oid {}", typeSchema, typeName, typeOid);
                 return operation;
             case INSERT, UPDATE, DELETE, TRUNCATE:
-                rowChangesStructureList.add(pgoutMsgDecoder.createRowChangesStructure(cobyBuffer, operation));
+                long transactionId = session.isStreaming() ? Integer.toUnsignedLong(buffer.getInt()) : session.getTransactionId();
+                if (session.getMetrics() != CdcMetrics.NOOP && operation != OperationEnum.TRUNCATE) {
+                    recordRow(buffer, session, operation, messageBytes);
+                }
+                if (operation != OperationEnum.TRUNCATE && buffer.getInt(buffer.position()) == session.getHeartbeatRelationId()) {
+                    var heartbeat = pgoutMsgDecoder.createRowChangesStructure(buffer, operation, session);
+                    if (heartbeat != null) {
+                        session.getHeartbeatConsumer().accept(heartbeat);
+                    }
+                    return operation;
+                }
+                if (cursor != null) {
+                    if (rowCursorDecoder.fillRowCursor(buffer, operation, session, transactionId, cursor)) {
+                        cursorConsumer.accept(cursor);
+                    }
+                    return operation;
+                }
+                var rowChangesStructure = pgoutMsgDecoder.createRowChangesStructure(buffer, operation, session);
+                if (rowChangesStructure == null) {
+                    //filtered out by the table filter
+                    return operation;
+                }
+                rowChangesStructure.setTransactionId(transactionId);
+                rowChangesStructureList.add(rowChangesStructure);
                 return operation;
             case COMMIT:
-                log.info("Transaction {} end", operation.name());
+                //flags, commit lsn, end lsn, commit timestamp
+                buffer.get();
+                session.setCommitLsn(buffer.getLong());
+                session.setEndLsn(buffer.getLong());
+                session.setCommitTimestamp(buffer.getLong());
+                //guarded, boxing of xid would allocate on every transaction
+                if (log.isDebugEnabled()) {
+                    log.debug("Transaction {} end", session.getTransactionId());
+                }
+                return operation;
+            case STREAM_START:
+                session.setStreaming(true);
+                session.setTransactionId(Integer.toUnsignedLong(buffer.getInt()));
+                log.debug("Stream of transaction {} start", session.getTransactionId());
+                return operation;
+            case STREAM_STOP:
+                session.setStreaming(false);
+                log.debug("Stream of transaction {} stop", session.getTransactionId());
+                return operation;
+            case STREAM_COMMIT:
+                //xid, flags, commit lsn, end lsn, commit timestamp
+                session.setTransactionId(Integer.toUnsignedLong(buffer.getInt()));
+                buffer.get();
+                session.setCommitLsn(buffer.getLong());
+                session.setEndLsn(buffer.getLong());
+                session.setCommitTimestamp(buffer.getLong());
+                log.info("Streamed transaction {} commit", session.getTransactionId());
+                return operation;
+            case STREAM_ABORT:
+                //xid, subtransaction xid
+                session.setTransactionId(Integer.toUnsignedLong(buffer.getInt()));
+                session.setSubTransactionId(Integer.toUnsignedLong(buffer.getInt()));
+                log.info("Streamed transaction {} abort, subtransaction {}", session.getTransactionId(), session.getSubTransactionId());
                 return operation;
             default:
                 log.error("Unsupported command: {}", operationByte);
@@ -60,4 +184,26 @@ public class PgoutHendlerImpl implements PgoutHendler {
         }
     }
 
-}
\ No newline at end of file
+    //compared once per Relation message, rows are recognised by the relation id
+    private boolean isHeartbeatRelation(RelationMetaInfo relation, PgoutSession session) {
+        return session.getHeartbeatConsumer() != null
+                && relation.getTableName().equals(session.getHeartbeatTableName())
+                && relation.getSchemaName().equals(session.getHeartbeatSchemaName());
+    }
+
+    //relation id follows, the position is not changed
+    private void recordRow(ByteBuffer buffer, PgoutSession session, OperationEnum operation, int messageBytes) {
+        var relation = session.getRelationRegistry().get(buffer.getInt(buffer.position()));
+        if (relation != null) {
+            session.getMetrics().onRow(relation, operation, messageBytes);
+        }
+    }
+
+    //messages inside the stream contain xid of the transaction after the message type
+    private void skipStreamTransactionId(ByteBuffer buffer, PgoutSession session) {
+        if (session.isStreaming()) {
+            buffer.getInt();
+        }
+    }
+
+}
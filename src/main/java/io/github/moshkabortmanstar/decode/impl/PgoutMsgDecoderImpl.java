@@ -1,216 +1,438 @@
 package io.github.moshkabortmanstar.decode.impl;
 
 
-import io.github.moshkabortmanstar.cache.RelationMetaInfoCache;
 import io.github.moshkabortmanstar.data.Column;
+import io.github.moshkabortmanstar.data.ColumnValuesMap;
+import io.github.moshkabortmanstar.data.LazyColumnsDataMap;
 import io.github.moshkabortmanstar.data.RelationMetaInfo;
 import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.RowCursor;
+import io.github.moshkabortmanstar.data.TupleData;
 import io.github.moshkabortmanstar.data.enums.DataType;
 import io.github.moshkabortmanstar.data.enums.OperationEnum;
-import io.github.moshkabortmanstar.decode.PgoutMsgDecoder;
+import io.github.moshkabortmanstar.decode.PgoutSession;
+import io.github.moshkabortmanstar.decode.RowCursorDecoder;
+import io.github.moshkabortmanstar.decode.filter.CompiledTableFilter;
+import io.github.moshkabortmanstar.decode.util.PgoutBufferUtil;
+import io.github.moshkabortmanstar.decode.value.BinaryValueDecoders;
+import io.github.moshkabortmanstar.decode.value.TextValueDecoder;
 import io.github.moshkabortmanstar.exception.RelationMetaInfoNotFoundException;
+import io.github.moshkabortmanstar.exception.StringDecodingException;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Slf4j
-public class PgoutMsgDecoderImpl implements PgoutMsgDecoder {
+public class PgoutMsgDecoderImpl implements RowCursorDecoder {
+
+    //flag of the column that marks it as part of the key
+    private static final int KEY_COLUMN_FLAG = 1;
+
+    //submessage markers of the tuple
+    private static final char KEY_TUPLE = 'K';
+    private static final char OLD_TUPLE = 'O';
+    private static final char NEW_TUPLE = 'N';
+
+    //kinds of the column value in TupleData
+    private static final char NULL_VALUE = 'n';
+    private static final char UNCHANGED_TOAST_VALUE = 'u';
+    private static final char TEXT_VALUE = 't';
+    private static final char BINARY_VALUE = 'b';
+
+    //values are kept as TupleData and decoded on access
+    private final boolean lazyRows;
+    //session of the calls without session, relations have to be registered in its registry by the caller
+    @Getter
+    private final PgoutSession defaultSession = new PgoutSession();
+
+    public PgoutMsgDecoderImpl() {
+        this(false);
+    }
+
+    public PgoutMsgDecoderImpl(boolean lazyRows) {
+        this.lazyRows = lazyRows;
+    }
 
+    /**
+     * Read relation message in one pass, layout after the message type byte:
+     * relation id, namespace, relation name, replica identity, number of columns
+     * and for every column: flags, name, type oid, type modifier
+     */
     public RelationMetaInfo crateRelationMetaInfo(ByteBuffer buffer) {
-        var relationMsg = new String(buffer.array(), buffer.arrayOffset(), buffer.array().length - buffer.arrayOffset(),
-                StandardCharsets.UTF_8);
-        buffer = ByteBuffer.wrap(relationMsg.getBytes(StandardCharsets.UTF_8));
-        Map<String, Column> columnsMap = new LinkedHashMap<>();
-        String copyString = relationMsg;
-        byte[] bytes = copyString.getBytes(StandardCharsets.UTF_8);
-        relationMsg = relationMsg.substring(OperationEnum.RELATION.getAdditionallyBytes()); //lengthen unnecessary bytes
-        String schema = decodeRelationMsg(relationMsg);
-        log.info("Schema {}", schema);
-
-        //one byte between schema and table name in UTF-8 code
-        relationMsg = relationMsg.substring(schema.length() + 1);
-        String tableName = decodeRelationMsg(relationMsg);
-        log.info("Table name {}", tableName);
-
-        //five byte between table name and columns in UTF-8 code
-        relationMsg = relationMsg.substring(tableName.length() + OperationEnum.RELATION.getAdditionallyBytes());
-        boolean isRelationMsgFinish = false;
-
-        while (!isRelationMsgFinish && !relationMsg.isEmpty()) {
-            //find column name
-            String columnName = decodeRelationMsg(relationMsg);
-            //find buffer position of column name
-            var position = copyString.indexOf(columnName) + columnName.length() + 1;
-            int bytePosition = findBytePosition(bytes, position);
-            //set buffer position to column name for reading type
-            buffer.position(bytePosition);
-            int typeId = buffer.getInt();
-            columnsMap.put(columnName, Column.builder().name(columnName).dataType(DataType.fromOid(typeId)).build());
-
-            if (relationMsg.length() < columnName.length() + 2 * OperationEnum.RELATION.getAdditionallyBytes()) {
-                isRelationMsgFinish = true;
-                continue;
+        return crateRelationMetaInfo(buffer, defaultSession);
+    }
+
+    /**
+     * Builtin types are resolved by DataType, other types by the type registry of the session when it is set
+     */
+    @Override
+    public RelationMetaInfo crateRelationMetaInfo(ByteBuffer buffer, PgoutSession session) {
+        var typeRegistry = session.getTypeRegistry();
+        int relationId = buffer.getInt();
+        String schema = PgoutBufferUtil.readCString(buffer);
+        String tableName = PgoutBufferUtil.readCString(buffer);
+        char replicaIdentity = (char) buffer.get();
+        int numberOfColumns = buffer.getShort();
+
+        Map<String, Column> columnsMap = new LinkedHashMap<>(capacityFor(numberOfColumns));
+        for (int i = 0; i < numberOfColumns; i++) {
+            byte flags = buffer.get();
+            String columnName = PgoutBufferUtil.readCString(buffer);
+            int typeOid = buffer.getInt();
+            int typeModifier = buffer.getInt();
+            var column = Column.builder()
+                    .name(columnName)
+                    .index(i)
+                    .key((flags & KEY_COLUMN_FLAG) != 0)
+                    .typeOid(typeOid)
+                    .typeModifier(typeModifier);
+            if (typeRegistry != null) {
+                //builtin types are resolved by the registry too, money and timestamptz depend on the session
+                var pgType = typeRegistry.get(typeOid);
+                column.dataType(typeRegistry.dataTypeFor(typeOid))
+                        .typeName(pgType == null ? null : pgType.getTypeName())
+                        .pgType(pgType)
+                        .elementDataType(typeRegistry.elementDataTypeFor(typeOid))
+                        .valueDecoder(typeRegistry.textDecoderFor(typeOid))
+                        .binaryValueDecoder(typeRegistry.binaryDecoderFor(typeOid));
+            } else {
+                var dataType = DataType.fromOid(typeOid);
+                column.dataType(dataType)
+                        .valueDecoder(TextValueDecoder.forType(dataType))
+                        .binaryValueDecoder(BinaryValueDecoders.forType(dataType, typeOid));
             }
-            //ten byte between columns in UTF-8 code
-            relationMsg = relationMsg.substring(columnName.length() + 10);
+            columnsMap.put(columnName, column.build());
         }
-        log.info("Columns {}", columnsMap);
-
+        log.debug("Relation {}.{} columns {}", schema, tableName, columnsMap);
 
         return RelationMetaInfo.builder()
+                .relationId(relationId)
                 .schemaName(schema)
                 .tableName(tableName)
-                .columnsMap(columnsMap)
+                .replicaIdentity(replicaIdentity)
+                .columnsMap(Collections.unmodifiableMap(columnsMap))
                 .build();
     }
 
-    private int findBytePosition(byte[] bytes, int charPosition) {
-        return new String(bytes, StandardCharsets.UTF_8)
-                .substring(0, charPosition)
-                .getBytes(StandardCharsets.UTF_8).length;
+    private static int capacityFor(int size) {
+        return (int) (size / 0.75f) + 1;
     }
 
 
     /**
      * Create RowChangesStructure from byte message
+     * The buffer is positioned right after the message type byte, the message is read by pgoutput layout:
+     * INSERT - relation id, 'N', TupleData
+     * UPDATE - relation id, optional 'K' or 'O' with TupleData, 'N', TupleData
+     * DELETE - relation id, 'K' or 'O', TupleData
+     * TRUNCATE - number of relations, options, relation ids
      */
     public RowChangesStructure createRowChangesStructure(ByteBuffer byteMsg,
                                                          OperationEnum operation) {
-        int relationId;
-        if (operation == OperationEnum.TRUNCATE) {
-            relationId = byteMsg.position(operation.getAdditionallyBytes()).getInt();
-            var relationMetaInfo = getRelationMetaInfo(relationId);
+        return createRowChangesStructure(byteMsg, operation, defaultSession);
+    }
 
+    /**
+     * Operation filter is checked right after the relation id, predicates are checked on the raw tuple bytes
+     * before the values are decoded, so filtered out rows are not created at all
+     */
+    @Override
+    public RowChangesStructure createRowChangesStructure(ByteBuffer byteMsg,
+                                                         OperationEnum operation,
+                                                         PgoutSession session) {
+        var tableFilters = session.getTableFilters();
+        if (operation == OperationEnum.TRUNCATE) {
+            //skip number of relations and options, changes structure is created for the first relation
+            byteMsg.getInt();
+            byteMsg.get();
+            var relationMetaInfo = getRelationMetaInfo(session, byteMsg.getInt());
+            var filter = tableFilters == null ? null : tableFilters.forRelation(relationMetaInfo);
+            if (filter != null && !filter.acceptsOperation(operation)) {
+                return null;
+            }
             return createRowChangesStructure(relationMetaInfo,
-                    createEmptyValuesList(relationMetaInfo.getColumnsMap().size()),
+                    createEmptyValues(relationMetaInfo.getColumns().length),
+                    Collections.emptySet(),
                     operation);
         }
 
-        //get id for relation
-        relationId = byteMsg.getInt();
+        RelationMetaInfo relationMetaInfo = getRelationMetaInfo(session, byteMsg.getInt());
+        var filter = tableFilters == null ? null : tableFilters.forRelation(relationMetaInfo);
+        if (filter != null && !filter.acceptsOperation(operation)) {
+            return null;
+        }
+        boolean keyTuple = positionAtTuple(byteMsg, operation) == KEY_TUPLE;
+        return readTupleData(byteMsg, relationMetaInfo, operation, filter, keyTuple);
+    }
+
+    /**
+     * Fill the cursor with the change without creating the row, values stay in the message bytes
+     * @return false if the change is filtered out
+     */
+    @Override
+    public boolean fillRowCursor(ByteBuffer byteMsg, OperationEnum operation, PgoutSession session, long transactionId, RowCursor cursor) {
+        var tableFilters = session.getTableFilters();
+        if (operation == OperationEnum.TRUNCATE) {
+            byteMsg.getInt();
+            byteMsg.get();
+        }
+        RelationMetaInfo relationMetaInfo = getRelationMetaInfo(session, byteMsg.getInt());
+        var filter = tableFilters == null ? null : tableFilters.forRelation(relationMetaInfo);
+        if (filter != null && !filter.acceptsOperation(operation)) {
+            return false;
+        }
+        int[] offsets = cursor.reset(relationMetaInfo, operation, transactionId);
+        if (operation == OperationEnum.TRUNCATE) {
+            return true;
+        }
+
+        boolean keyTuple = positionAtTuple(byteMsg, operation) == KEY_TUPLE;
+        int tupleStart = byteMsg.position();
+        readOffsets(byteMsg, relationMetaInfo, offsets, tupleStart);
+        if (filter != null) {
+            if (!matches(byteMsg, tupleStart, offsets, filter, keyTuple)) {
+                return false;
+            }
+            project(offsets, relationMetaInfo.getColumns().length, filter);
+        }
+        if (byteMsg.hasArray()) {
+            cursor.setData(byteMsg.array(), byteMsg.arrayOffset() + tupleStart);
+        } else {
+            int length = byteMsg.position() - tupleStart;
+            byte[] scratch = cursor.scratch(length);
+            byteMsg.get(tupleStart, scratch, 0, length);
+            cursor.setData(scratch, 0);
+        }
+        return true;
+    }
 
-        //switch to next byte
-        byteMsg.get();
-        short numberOfColumns = byteMsg.getShort();
-        RelationMetaInfo relationMetaInfo = getRelationMetaInfo(relationId);
+    //old key or old row of UPDATE is skipped, the buffer is positioned at the tuple of the change, its type is returned
+    private char positionAtTuple(ByteBuffer byteMsg, OperationEnum operation) {
+        char tupleType = (char) byteMsg.get();
 
-        // Search marker of operation
-        int positionOfN = findPositionOfCharacter(byteMsg, operation);
-        if (positionOfN == -1) {
-            var strValue = new String(byteMsg.array(), StandardCharsets.UTF_8);
-            log.info("String cannot be decoded correctly {}", strValue);
-            throw new StringIndexOutOfBoundsException("String cannot be decoded correctly " + strValue);
+        if (operation == OperationEnum.UPDATE && tupleType != NEW_TUPLE) {
+            //old key or old row is sent before the new tuple, it is not a part of the changes structure
+            checkTupleType(tupleType, KEY_TUPLE, OLD_TUPLE);
+            skipTupleData(byteMsg);
+            tupleType = (char) byteMsg.get();
         }
-        // Set startPosition to the first byte from the marker
-        byteMsg.position(positionOfN);
-        //get column and value information
-        List<String> listOfColumnsName = relationMetaInfo.getColumnsMap().keySet().stream().toList();
-        List<String> listOfValues = createValuesList(listOfColumnsName, byteMsg);
 
-        return createRowChangesStructure(relationMetaInfo, listOfValues, operation);
+        if (operation == OperationEnum.DELETE) {
+            checkTupleType(tupleType, KEY_TUPLE, OLD_TUPLE);
+        } else {
+            checkTupleType(tupleType, NEW_TUPLE, NEW_TUPLE);
+        }
+        return tupleType;
     }
 
-    private List<String> createValuesList(List<String> listOfColumnsName, ByteBuffer byteMsg) {
-        List<String> listOfValues = new LinkedList<>();
-        for (String column : listOfColumnsName) {
-            char type = (char) byteMsg.get();
-            if (type == 't') { // textual data
-                final String valueStr = convertToStringValue(byteMsg);
-                listOfValues.add(valueStr);
-            } else if (type == 'n') { // null data
-                listOfValues.add(null);
-            } else {
-                log.trace("Unsupported type '{}' for column: '{}'", type, column);
+    private RowChangesStructure readTupleData(ByteBuffer byteMsg, RelationMetaInfo relationMetaInfo, OperationEnum operation,
+                                              CompiledTableFilter filter, boolean keyTuple) {
+        Column[] columns = relationMetaInfo.getColumns();
+        int tupleStart = byteMsg.position();
+        int[] offsets = new int[columns.length];
+        readOffsets(byteMsg, relationMetaInfo, offsets, tupleStart);
+
+        Set<String> unchangedToastColumns = Collections.emptySet();
+        for (int i = 0; i < columns.length; i++) {
+            if (offsets[i] == TupleData.UNCHANGED_TOAST_OFFSET) {
+                if (unchangedToastColumns.isEmpty()) {
+                    unchangedToastColumns = new HashSet<>();
+                }
+                unchangedToastColumns.add(columns[i].getName());
             }
         }
-        return listOfValues;
-    }
 
+        if (filter != null) {
+            if (!matches(byteMsg, tupleStart, offsets, filter, keyTuple)) {
+                return null;
+            }
+            project(offsets, columns.length, filter);
+        }
 
-    private RelationMetaInfo getRelationMetaInfo(int relationId) {
-        RelationMetaInfo relationMetaInfo = RelationMetaInfoCache.get(relationId);
-        if (relationMetaInfo == null) {
-            log.error("RelationMetaInfo not found for relationKey {}", relationId);
-            throw new RelationMetaInfoNotFoundException("RelationMetaInfo not found for relationKey " + relationId);
+        if (lazyRows) {
+            var tupleData = new TupleData(copyTuple(byteMsg, tupleStart), offsets);
+            return createRowChangesStructure(relationMetaInfo,
+                    new LazyColumnsDataMap(relationMetaInfo, tupleData),
+                    tupleData,
+                    unchangedToastColumns,
+                    operation);
         }
 
-        return relationMetaInfo;
+        String[] values = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            //unchanged TOASTed value is not sent by the server, so it is not a part of the columns data
+            values[i] = offsets[i] == TupleData.UNCHANGED_TOAST_OFFSET || offsets[i] == TupleData.SKIPPED_OFFSET
+                    ? ColumnValuesMap.ABSENT
+                    : readValue(byteMsg, tupleStart, offsets[i], columns[i]);
+        }
+        return createRowChangesStructure(relationMetaInfo, values, unchangedToastColumns, operation);
     }
 
+    /**
+     * Read offsets of the values relative to the tuple start in one pass, the buffer is left after the tuple
+     * Values of the columns that are not sent are null
+     */
+    private void readOffsets(ByteBuffer byteMsg, RelationMetaInfo relationMetaInfo, int[] offsets, int tupleStart) {
+        Column[] columns = relationMetaInfo.getColumns();
+        int numberOfColumns = byteMsg.getShort();
+        if (numberOfColumns != columns.length) {
+            log.warn("Number of columns {} in tuple is not equal to relation {} columns {}",
+                    numberOfColumns, relationMetaInfo.getTableName(), columns.length);
+        }
+        Arrays.fill(offsets, 0, columns.length, TupleData.NULL_OFFSET);
+        for (int i = 0; i < numberOfColumns; i++) {
+            char kind = (char) byteMsg.get();
+            int offset = switch (kind) {
+                case NULL_VALUE -> TupleData.NULL_OFFSET;
+                case UNCHANGED_TOAST_VALUE -> TupleData.UNCHANGED_TOAST_OFFSET;
+                case TEXT_VALUE, BINARY_VALUE -> {
+                    int length = byteMsg.getInt();
+                    int valuePosition = byteMsg.position();
+                    byteMsg.position(valuePosition + length);
+                    yield valuePosition - tupleStart;
+                }
+                default -> throw new StringDecodingException("Unknown tuple value kind '" + kind + "' at column " + i);
+            };
+            if (i < columns.length) {
+                offsets[i] = offset;
+            }
+        }
+    }
 
-    private List<String> createEmptyValuesList(int size) {
-        List<String> values = new LinkedList<>();
-        for (int i = 0; i < size; i++) {
-            values.add("null");
+    //null value does not match, unchanged TOASTed value and not key column of the key tuple are unknown and match
+    private boolean matches(ByteBuffer byteMsg, int tupleStart, int[] offsets, CompiledTableFilter filter, boolean keyTuple) {
+        for (int p = 0; p < filter.getPredicateCount(); p++) {
+            if (keyTuple && !filter.isPredicateColumnKey(p)) {
+                continue;
+            }
+            int offset = offsets[filter.getPredicateColumnIndex(p)];
+            if (offset == TupleData.NULL_OFFSET) {
+                return false;
+            }
+            if (offset < 0) {
+                continue;
+            }
+            int position = tupleStart + offset;
+            int length = byteMsg.getInt(position - 4);
+            boolean binary = byteMsg.get(position - 5) == BINARY_VALUE;
+            boolean matches;
+            if (byteMsg.hasArray()) {
+                matches = filter.test(p, byteMsg.array(), byteMsg.arrayOffset() + position, length, binary);
+            } else {
+                byte[] source = new byte[length];
+                byteMsg.get(position, source);
+                matches = filter.test(p, source, 0, length, binary);
+            }
+            if (!matches) {
+                return false;
+            }
         }
-        return values;
+        return true;
     }
 
+    //not projected values are not decoded and not put to the columns data, offsets of the cursor can be longer than the relation
+    private void project(int[] offsets, int numberOfColumns, CompiledTableFilter filter) {
+        for (int i = 0; i < numberOfColumns; i++) {
+            if (!filter.isProjected(i)) {
+                offsets[i] = TupleData.SKIPPED_OFFSET;
+            }
+        }
+    }
 
-    private int findPositionOfCharacter(ByteBuffer buffer, OperationEnum operationEnum) {
-        //switch on startPosition
-        buffer.position(0);
-        //if operation is update, then search for insert operation because in update operation we need to find new values, it's constant is 'N'
-        var valueOperation = operationEnum == OperationEnum.DELETE ? OperationEnum.OLD_VALUE_REPLACED : OperationEnum.NEW_VALUE_REPLACED;
+    //kind byte and int length are placed right before the value
+    private String readValue(ByteBuffer byteMsg, int tupleStart, int offset, Column column) {
+        if (offset < 0) {
+            return null;
+        }
+        int position = tupleStart + offset;
+        int length = byteMsg.getInt(position - 4);
+        byte[] source;
+        int sourceOffset;
+        if (byteMsg.hasArray()) {
+            source = byteMsg.array();
+            sourceOffset = byteMsg.arrayOffset() + position;
+        } else {
+            source = new byte[length];
+            sourceOffset = 0;
+            byteMsg.get(position, source);
+        }
+        return byteMsg.get(position - 5) == BINARY_VALUE
+                ? column.getBinaryValueDecoder().decodeString(source, sourceOffset, length)
+                : new String(source, sourceOffset, length, StandardCharsets.UTF_8);
+    }
+
+    //copy bytes from the tuple start to the current position of the buffer
+    private byte[] copyTuple(ByteBuffer byteMsg, int tupleStart) {
+        byte[] tuple = new byte[byteMsg.position() - tupleStart];
+        byteMsg.get(tupleStart, tuple);
+        return tuple;
+    }
 
-        //find position of operation
-        while (buffer.hasRemaining()) {
-            if ((char) buffer.get() == valueOperation.getConstant()) {
-                return buffer.position() + valueOperation.getAdditionallyBytes();
+    private void skipTupleData(ByteBuffer byteMsg) {
+        int numberOfColumns = byteMsg.getShort();
+        for (int i = 0; i < numberOfColumns; i++) {
+            char kind = (char) byteMsg.get();
+            if (kind == TEXT_VALUE || kind == BINARY_VALUE) {
+                int length = byteMsg.getInt();
+                byteMsg.position(byteMsg.position() + length);
             }
         }
+    }
 
-        //operation not found
-        return -1;
+    private void checkTupleType(char tupleType, char expected, char alternative) {
+        if (tupleType != expected && tupleType != alternative) {
+            throw new StringDecodingException("Unexpected tuple type '" + tupleType + "', expected '" + expected + "' or '" + alternative + "'");
+        }
     }
 
 
-    private String convertToStringValue(ByteBuffer buffer) {
-        int length = buffer.getInt();
-        byte[] value = new byte[length];
-        buffer.get(value, 0, length);
-        return new String(value, StandardCharsets.UTF_8);
+    private RelationMetaInfo getRelationMetaInfo(PgoutSession session, int relationId) {
+        RelationMetaInfo relationMetaInfo = session.getRelationRegistry().get(relationId);
+        if (relationMetaInfo == null) {
+            log.error("RelationMetaInfo not found for relationKey {}", relationId);
+            throw new RelationMetaInfoNotFoundException("RelationMetaInfo not found for relationKey " + relationId);
+        }
+
+        return relationMetaInfo;
     }
 
-    private RowChangesStructure createRowChangesStructure(RelationMetaInfo relationMetaInfo, List<String> values, OperationEnum operationEnum) {
-        List<String> columns = relationMetaInfo.getColumnsMap().keySet().stream().toList();
-        Map<String, String> columnsData = new LinkedHashMap<>();
-        for (int i = 0; i < columns.size(); i++) {
-            columnsData.put(columns.get(i), values.get(i));
-        }
 
+    private String[] createEmptyValues(int size) {
+        String[] values = new String[size];
+        Arrays.fill(values, "null");
+        return values;
+    }
+
+
+    private RowChangesStructure createRowChangesStructure(RelationMetaInfo relationMetaInfo,
+                                                          String[] values,
+                                                          Set<String> unchangedToastColumns,
+                                                          OperationEnum operationEnum) {
+        return createRowChangesStructure(relationMetaInfo, new ColumnValuesMap(relationMetaInfo, values), null, unchangedToastColumns, operationEnum);
+    }
+
+    private RowChangesStructure createRowChangesStructure(RelationMetaInfo relationMetaInfo,
+                                                          Map<String, String> columnsData,
+                                                          TupleData tupleData,
+                                                          Set<String> unchangedToastColumns,
+                                                          OperationEnum operationEnum) {
         return RowChangesStructure.builder()
                 .tableName(relationMetaInfo.getTableName())
                 .schemaName(relationMetaInfo.getSchemaName())
                 .operationEnum(operationEnum)
                 .columnsData(columnsData)
                 .columnsType(relationMetaInfo.getColumnsMap())
+                .unchangedToastColumns(unchangedToastColumns)
+                .tupleData(tupleData)
                 .build();
     }
 
-    /**
-     * Decode relation message
-     * search for the first occurrence of the '\u0000' character and return the string up to that character
-     *
-     * @param msg string to decode
-     * @return decoded string
-     */
-    private String decodeRelationMsg(String msg) {
-        var sb = new StringBuilder();
-        for (int i = 0; i < msg.length(); i++) {
-            char c = msg.charAt(i);
-            if (c != '\u0000') {
-                sb.append(c);
-            } else {
-                return sb.toString();
-            }
-        }
-        return sb.toString();
-    }
-
 }
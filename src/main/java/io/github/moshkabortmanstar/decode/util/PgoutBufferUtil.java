@@ -0,0 +1,81 @@
+package io.github.moshkabortmanstar.decode.util;
+
+import io.github.moshkabortmanstar.exception.StringDecodingException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * PgoutBufferUtil contains helpers for reading pgoutput primitives directly from the ByteBuffer
+ * All methods read relative to the current buffer position and move it forward
+ */
+public final class PgoutBufferUtil {
+
+    private static final byte STRING_TERMINATOR = 0;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private PgoutBufferUtil() {}
+
+    /**
+     * Read null terminated UTF-8 string, the buffer position is moved after the terminator
+     *
+     * @param buffer - ByteBuffer that holds the message data
+     * @return decoded string
+     */
+    public static String readCString(ByteBuffer buffer) {
+        int start = buffer.position();
+        int end = indexOfTerminator(buffer, start);
+        int length = end - start;
+
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(start, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        buffer.position(end + 1);
+        return value;
+    }
+
+    /**
+     * Skip null terminated string without decoding it
+     *
+     * @param buffer - ByteBuffer that holds the message data
+     */
+    public static void skipCString(ByteBuffer buffer) {
+        buffer.position(indexOfTerminator(buffer, buffer.position()) + 1);
+    }
+
+    /**
+     * Represent bytes in the same way as bytea text output, for example \\x01ff
+     *
+     * @param bytes  - source bytes
+     * @param offset - offset of the first byte
+     * @param length - number of bytes
+     * @return hex string with \\x prefix
+     */
+    public static String toHexString(byte[] bytes, int offset, int length) {
+        char[] hex = new char[2 + length * 2];
+        hex[0] = '\\';
+        hex[1] = 'x';
+        for (int i = 0; i < length; i++) {
+            int value = bytes[offset + i] & 0xFF;
+            hex[2 + i * 2] = HEX_DIGITS[value >>> 4];
+            hex[3 + i * 2] = HEX_DIGITS[value & 0x0F];
+        }
+        return new String(hex);
+    }
+
+    private static int indexOfTerminator(ByteBuffer buffer, int from) {
+        int limit = buffer.limit();
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == STRING_TERMINATOR) {
+                return i;
+            }
+        }
+        throw new StringDecodingException("String terminator not found, start position " + from);
+    }
+
+}
@@ -0,0 +1,138 @@
+package io.github.moshkabortmanstar.decode.value;
+
+import io.github.moshkabortmanstar.exception.ColumnValueDecodingException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary array: int32 number of dimensions, int32 has nulls flag, int32 element type oid,
+ * int32 size and int32 lower bound of every dimension, then elements as int32 length (-1 for null) and bytes
+ * The value is rendered in the same way as array_out, elements are rendered by the element decoder
+ */
+public class ArrayBinaryValueDecoder extends BinaryValueDecoder {
+
+    private static final int HEADER_BYTES = 12;
+    private static final int DIMENSION_BYTES = 8;
+
+    private final ValueDecoder elementDecoder;
+    //box is the delimiter of the elements instead of comma
+    private final char delimiter;
+
+    public ArrayBinaryValueDecoder(String typeName, ValueDecoder elementDecoder, char delimiter) {
+        super(typeName);
+        this.elementDecoder = elementDecoder;
+        this.delimiter = delimiter;
+    }
+
+    @Override
+    public String decodeString(byte[] data, int offset, int length) {
+        if (length < HEADER_BYTES) {
+            throw new ColumnValueDecodingException("Binary value of " + getTypeName() + " is too short");
+        }
+        int dimensions = readInt(data, offset);
+        if (dimensions == 0) {
+            return "{}";
+        }
+        int[] sizes = new int[dimensions];
+        var result = new StringBuilder();
+        boolean defaultBounds = true;
+        for (int d = 0; d < dimensions; d++) {
+            int dimensionOffset = offset + HEADER_BYTES + d * DIMENSION_BYTES;
+            sizes[d] = readInt(data, dimensionOffset);
+            defaultBounds &= readInt(data, dimensionOffset + 4) == 1;
+        }
+        if (!defaultBounds) {
+            //array_out prints the bounds only when some of them is not 1
+            for (int d = 0; d < dimensions; d++) {
+                int lowerBound = readInt(data, offset + HEADER_BYTES + d * DIMENSION_BYTES + 4);
+                result.append('[').append(lowerBound).append(':').append(lowerBound + sizes[d] - 1).append(']');
+            }
+            result.append('=');
+        }
+        int[] position = {offset + HEADER_BYTES + dimensions * DIMENSION_BYTES};
+        appendDimension(data, position, sizes, 0, result);
+        return result.toString();
+    }
+
+    @Override
+    public List<Object> decodeArray(byte[] data, int offset, int length) {
+        if (length < HEADER_BYTES) {
+            throw new ColumnValueDecodingException("Binary value of " + getTypeName() + " is too short");
+        }
+        int dimensions = readInt(data, offset);
+        if (dimensions == 0) {
+            return new ArrayList<>();
+        }
+        int[] sizes = new int[dimensions];
+        for (int d = 0; d < dimensions; d++) {
+            sizes[d] = readInt(data, offset + HEADER_BYTES + d * DIMENSION_BYTES);
+        }
+        int[] position = {offset + HEADER_BYTES + dimensions * DIMENSION_BYTES};
+        return readDimension(data, position, sizes, 0);
+    }
+
+    private List<Object> readDimension(byte[] data, int[] position, int[] sizes, int dimension) {
+        List<Object> elements = new ArrayList<>(sizes[dimension]);
+        for (int i = 0; i < sizes[dimension]; i++) {
+            if (dimension + 1 < sizes.length) {
+                elements.add(readDimension(data, position, sizes, dimension + 1));
+                continue;
+            }
+            int elementLength = readInt(data, position[0]);
+            position[0] += 4;
+            if (elementLength < 0) {
+                elements.add(null);
+                continue;
+            }
+            elements.add(elementDecoder.decodeString(data, position[0], elementLength));
+            position[0] += elementLength;
+        }
+        return elements;
+    }
+
+    private void appendDimension(byte[] data, int[] position, int[] sizes, int dimension, StringBuilder result) {
+        result.append('{');
+        for (int i = 0; i < sizes[dimension]; i++) {
+            if (i > 0) {
+                result.append(delimiter);
+            }
+            if (dimension + 1 < sizes.length) {
+                appendDimension(data, position, sizes, dimension + 1, result);
+                continue;
+            }
+            int elementLength = readInt(data, position[0]);
+            position[0] += 4;
+            if (elementLength < 0) {
+                result.append("NULL");
+                continue;
+            }
+            appendElement(elementDecoder.decodeString(data, position[0], elementLength), result);
+            position[0] += elementLength;
+        }
+        result.append('}');
+    }
+
+    //element is quoted when it is empty, NULL or contains delimiter, braces, quotes, backslash or whitespace
+    private void appendElement(String element, StringBuilder result) {
+        boolean quote = element.isEmpty() || element.equalsIgnoreCase("NULL");
+        for (int i = 0; i < element.length() && !quote; i++) {
+            char c = element.charAt(i);
+            quote = c == delimiter || c == '{' || c == '}' || c == '"' || c == '\\' || Character.isWhitespace(c);
+        }
+        if (!quote) {
+            result.append(element);
+            return;
+        }
+        result.append('"');
+        for (int i = 0; i < element.length(); i++) {
+            char c = element.charAt(i);
+            if (c == '"' || c == '\\') {
+                result.append('\\');
+            }
+            result.append(c);
+        }
+        result.append('"');
+    }
+
+}
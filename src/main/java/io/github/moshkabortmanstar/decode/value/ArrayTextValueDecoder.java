@@ -0,0 +1,133 @@
+package io.github.moshkabortmanstar.decode.value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Text array is the output of array_out: optional bounds [1:2]={...}, elements are separated by the delimiter of
+ * the element type, quoted elements escape quotes and backslashes, unquoted NULL is null element
+ * The elements are decoded by the element decoder, so both formats of the array give the same elements
+ */
+public class ArrayTextValueDecoder extends TextValueDecoder {
+
+    private final String typeName;
+    private final ValueDecoder elementDecoder;
+    //box is the delimiter of the elements instead of comma
+    private final char delimiter;
+
+    public ArrayTextValueDecoder(String typeName, ValueDecoder elementDecoder, char delimiter) {
+        this.typeName = typeName;
+        this.elementDecoder = elementDecoder;
+        this.delimiter = delimiter;
+    }
+
+    @Override
+    public List<Object> decodeArray(byte[] data, int offset, int length) {
+        var parser = new Parser(new String(data, offset, length, StandardCharsets.UTF_8));
+        try {
+            parser.skipBounds();
+            var elements = parser.parseDimension();
+            parser.skipWhitespace();
+            if (parser.position != parser.text.length()) {
+                throw decodingError(data, offset, length, typeName);
+            }
+            return elements;
+        } catch (IndexOutOfBoundsException | IllegalStateException e) {
+            throw decodingError(data, offset, length, typeName);
+        }
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    private final class Parser {
+        private final String text;
+        private int position;
+
+        private Parser(String text) {
+            this.text = text;
+        }
+
+        private void skipBounds() {
+            skipWhitespace();
+            if (text.charAt(position) == '[') {
+                position = text.indexOf('=', position) + 1;
+                if (position == 0) {
+                    throw new IllegalStateException("Bounds are not closed");
+                }
+            }
+            skipWhitespace();
+        }
+
+        private List<Object> parseDimension() {
+            expect('{');
+            List<Object> elements = new ArrayList<>();
+            skipWhitespace();
+            if (text.charAt(position) == '}') {
+                position++;
+                return elements;
+            }
+            while (true) {
+                skipWhitespace();
+                elements.add(text.charAt(position) == '{' ? parseDimension() : parseElement());
+                skipWhitespace();
+                char next = text.charAt(position++);
+                if (next == '}') {
+                    return elements;
+                }
+                if (next != delimiter) {
+                    throw new IllegalStateException("Unexpected " + next);
+                }
+            }
+        }
+
+        private String parseElement() {
+            var element = new StringBuilder();
+            if (text.charAt(position) == '"') {
+                position++;
+                char symbol;
+                while ((symbol = text.charAt(position++)) != '"') {
+                    element.append(symbol == '\\' ? text.charAt(position++) : symbol);
+                }
+                return elementDecoder.decodeString(element);
+            }
+            boolean escaped = false;
+            //trailing whitespace of unquoted element is not a part of it
+            int length = 0;
+            char symbol;
+            while ((symbol = text.charAt(position)) != delimiter && symbol != '}') {
+                position++;
+                if (symbol == '\\') {
+                    element.append(text.charAt(position++));
+                    escaped = true;
+                    length = element.length();
+                    continue;
+                }
+                element.append(symbol);
+                if (!Character.isWhitespace(symbol)) {
+                    length = element.length();
+                }
+            }
+            element.setLength(length);
+            if (!escaped && "NULL".equalsIgnoreCase(element.toString())) {
+                return null;
+            }
+            return elementDecoder.decodeString(element);
+        }
+
+        private void expect(char symbol) {
+            if (text.charAt(position++) != symbol) {
+                throw new IllegalStateException("Expected " + symbol);
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+
+}
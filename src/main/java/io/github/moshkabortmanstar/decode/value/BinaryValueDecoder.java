@@ -0,0 +1,146 @@
+package io.github.moshkabortmanstar.decode.value;
+
+import io.github.moshkabortmanstar.exception.ColumnValueDecodingException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * BinaryValueDecoder is a base class for decoders of the values sent by pgoutput in binary format (binary 'true')
+ * Every decoder renders the value to String in the same way as the text output of the type
+ * Typed accessors that are not supported by the type throw ColumnValueDecodingException
+ */
+public abstract class BinaryValueDecoder implements ValueDecoder {
+
+    private final String typeName;
+
+    protected BinaryValueDecoder(String typeName) {
+        this.typeName = typeName;
+    }
+
+    @Override
+    public long decodeLong(byte[] data, int offset, int length) {
+        throw unsupported("long");
+    }
+
+    @Override
+    public int decodeInt(byte[] data, int offset, int length) {
+        long value = decodeLong(data, offset, length);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new ColumnValueDecodingException("Value " + value + " of " + typeName + " does not fit to int");
+        }
+        return (int) value;
+    }
+
+    @Override
+    public double decodeDouble(byte[] data, int offset, int length) {
+        throw unsupported("double");
+    }
+
+    @Override
+    public boolean decodeBoolean(byte[] data, int offset, int length) {
+        throw unsupported("boolean");
+    }
+
+    @Override
+    public UUID decodeUuid(byte[] data, int offset, int length) {
+        throw unsupported("uuid");
+    }
+
+    @Override
+    public LocalDateTime decodeTimestamp(byte[] data, int offset, int length) {
+        throw unsupported("timestamp");
+    }
+
+    @Override
+    public LocalDate decodeDate(byte[] data, int offset, int length) {
+        throw unsupported("date");
+    }
+
+    @Override
+    public BigDecimal decodeBigDecimal(byte[] data, int offset, int length) {
+        throw unsupported("decimal");
+    }
+
+    @Override
+    public byte[] decodeBytes(byte[] data, int offset, int length) {
+        return Arrays.copyOfRange(data, offset, offset + length);
+    }
+
+    @Override
+    public List<Object> decodeArray(byte[] data, int offset, int length) {
+        throw unsupported("array");
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    protected ColumnValueDecodingException unsupported(String target) {
+        return new ColumnValueDecodingException("Binary value of " + typeName + " cannot be decoded as " + target);
+    }
+
+    protected static short readShort(byte[] data, int offset) {
+        return (short) (((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF));
+    }
+
+    protected static int readInt(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 24)
+                | ((data[offset + 1] & 0xFF) << 16)
+                | ((data[offset + 2] & 0xFF) << 8)
+                | (data[offset + 3] & 0xFF);
+    }
+
+    protected static long readLong(byte[] data, int offset) {
+        return ((long) readInt(data, offset) << 32) | (readInt(data, offset + 4) & 0xFFFFFFFFL);
+    }
+
+    protected static double readDouble(byte[] data, int offset) {
+        return Double.longBitsToDouble(readLong(data, offset));
+    }
+
+    /**
+     * Format floating point value in the same way as float4out/float8out with default extra_float_digits
+     * Shortest exact representation, exponent is used when it is less than -4 or not less than precision digits
+     */
+    protected static String formatFloat(double value, String shortest, int precisionDigits) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "Infinity" : "-Infinity";
+        }
+        if (value == 0) {
+            return (1 / value) < 0 ? "-0" : "0";
+        }
+        var decimal = new BigDecimal(shortest).stripTrailingZeros();
+        int exponent = decimal.precision() - decimal.scale() - 1;
+        if (exponent < -4 || exponent >= precisionDigits) {
+            var unscaled = decimal.unscaledValue().abs().toString();
+            var result = new StringBuilder();
+            if (decimal.signum() < 0) {
+                result.append('-');
+            }
+            result.append(unscaled.charAt(0));
+            if (unscaled.length() > 1) {
+                result.append('.').append(unscaled, 1, unscaled.length());
+            }
+            result.append('e').append(exponent < 0 ? '-' : '+');
+            int absExponent = Math.abs(exponent);
+            if (absExponent < 10) {
+                result.append('0');
+            }
+            return result.append(absExponent).toString();
+        }
+        return decimal.toPlainString();
+    }
+
+    protected static String formatDouble(double value) {
+        return formatFloat(value, Double.toString(value), 15);
+    }
+
+}
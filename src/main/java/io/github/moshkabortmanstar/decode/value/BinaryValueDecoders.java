@@ -0,0 +1,455 @@
+package io.github.moshkabortmanstar.decode.value;
+
+import io.github.moshkabortmanstar.data.enums.DataType;
+import io.github.moshkabortmanstar.decode.util.PgoutBufferUtil;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * BinaryValueDecoders holds the binary decoders for every DataType
+ * Types without binary decoder (unknown oids) are decoded as raw bytes and rendered as bytea hex
+ */
+public final class BinaryValueDecoders {
+
+    public static final BinaryValueDecoder RAW = new ByteaDecoder("raw");
+
+    private static final Map<DataType, BinaryValueDecoder> DECODERS = new EnumMap<>(DataType.class);
+    //timestamptz decoders by the time zone of the session
+    private static final Map<ZoneId, BinaryValueDecoder> ZONED_TIMESTAMP_DECODERS = new ConcurrentHashMap<>();
+
+    static {
+        DECODERS.put(DataType.BIGINT, new Int8Decoder());
+        DECODERS.put(DataType.INTEGER, new Int4Decoder());
+        DECODERS.put(DataType.SMALLINT, new Int2Decoder());
+        DECODERS.put(DataType.OID, new OidDecoder());
+        DECODERS.put(DataType.BOOLEAN, new BooleanDecoder());
+        DECODERS.put(DataType.REAL, new Float4Decoder());
+        DECODERS.put(DataType.DOUBLE_PRECISION, new Float8Decoder());
+        DECODERS.put(DataType.NUMERIC, new NumericBinaryValueDecoder());
+        DECODERS.put(DataType.MONEY, new MoneyDecoder(MoneyFormat.DEFAULT));
+        DECODERS.put(DataType.BYTEA, new ByteaDecoder("bytea"));
+        DECODERS.put(DataType.UUID, new UuidDecoder());
+        DECODERS.put(DataType.PG_LSN, new LsnDecoder());
+        DECODERS.put(DataType.PG_SNAPSHOT, new SnapshotDecoder("pg_snapshot"));
+        DECODERS.put(DataType.TXID_SNAPSHOT, new SnapshotDecoder("txid_snapshot"));
+        DECODERS.put(DataType.BIT, new BitDecoder("bit"));
+        DECODERS.put(DataType.BIT_VARYING, new BitDecoder("varbit"));
+        DECODERS.put(DataType.MACADDR, new MacAddressDecoder("macaddr"));
+        DECODERS.put(DataType.MACADDR8, new MacAddressDecoder("macaddr8"));
+        DECODERS.put(DataType.JSONB, new JsonbDecoder());
+        for (DataType textType : new DataType[]{DataType.TEXT, DataType.VARCHAR, DataType.CHARACTER, DataType.NAME,
+                DataType.CHAR, DataType.JSON, DataType.XML}) {
+            DECODERS.put(textType, new TextDecoder(textType.name().toLowerCase()));
+        }
+        DateTimeBinaryValueDecoders.register(DECODERS);
+        NetworkBinaryValueDecoders.register(DECODERS);
+        GeometricBinaryValueDecoders.register(DECODERS);
+        TextSearchBinaryValueDecoders.register(DECODERS);
+    }
+
+    private BinaryValueDecoders() {}
+
+    /**
+     * Choose the binary decoder for the column
+     * @param dataType - type of the column
+     * @param typeOid  - oid of the column type, used to detect types that are not present in DataType
+     * @return decoder that is used for all binary values of the column
+     */
+    public static BinaryValueDecoder forType(DataType dataType, int typeOid) {
+        if (dataType == null || dataType.getOid() != typeOid) {
+            return RAW;
+        }
+        return DECODERS.getOrDefault(dataType, RAW);
+    }
+
+    /**
+     * Choose the binary decoder for the column of the session with the time zone
+     * @param sessionZone - TimeZone of the replication session, timestamptz strings are rendered in it
+     */
+    public static BinaryValueDecoder forType(DataType dataType, int typeOid, ZoneId sessionZone) {
+        if (dataType == DataType.TIMESTAMP_WITH_TIME_ZONE && dataType.getOid() == typeOid
+                && sessionZone != null && !ZoneOffset.UTC.equals(sessionZone)) {
+            return ZONED_TIMESTAMP_DECODERS.computeIfAbsent(sessionZone, DateTimeBinaryValueDecoders::timestampWithTimeZone);
+        }
+        return forType(dataType, typeOid);
+    }
+
+    /**
+     * Binary decoder of money in the session with the money format
+     * @param moneyFormat - format of lc_monetary of the session, money strings are rendered in it
+     */
+    public static BinaryValueDecoder money(MoneyFormat moneyFormat) {
+        return moneyFormat == null || moneyFormat == MoneyFormat.DEFAULT ? DECODERS.get(DataType.MONEY) : new MoneyDecoder(moneyFormat);
+    }
+
+    private static final class Int8Decoder extends BinaryValueDecoder {
+        private Int8Decoder() {
+            super("int8");
+        }
+
+        @Override
+        public long decodeLong(byte[] data, int offset, int length) {
+            return readLong(data, offset);
+        }
+
+        @Override
+        public double decodeDouble(byte[] data, int offset, int length) {
+            return readLong(data, offset);
+        }
+
+        @Override
+        public BigDecimal decodeBigDecimal(byte[] data, int offset, int length) {
+            return BigDecimal.valueOf(readLong(data, offset));
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            return Long.toString(readLong(data, offset));
+        }
+    }
+
+    private static final class Int4Decoder extends BinaryValueDecoder {
+        private Int4Decoder() {
+            super("int4");
+        }
+
+        @Override
+        public long decodeLong(byte[] data, int offset, int length) {
+            return readInt(data, offset);
+        }
+
+        @Override
+        public int decodeInt(byte[] data, int offset, int length) {
+            return readInt(data, offset);
+        }
+
+        @Override
+        public double decodeDouble(byte[] data, int offset, int length) {
+            return readInt(data, offset);
+        }
+
+        @Override
+        public BigDecimal decodeBigDecimal(byte[] data, int offset, int length) {
+            return BigDecimal.valueOf(readInt(data, offset));
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            return Integer.toString(readInt(data, offset));
+        }
+    }
+
+    private static final class Int2Decoder extends BinaryValueDecoder {
+        private Int2Decoder() {
+            super("int2");
+        }
+
+        @Override
+        public long decodeLong(byte[] data, int offset, int length) {
+            return readShort(data, offset);
+        }
+
+        @Override
+        public int decodeInt(byte[] data, int offset, int length) {
+            return readShort(data, offset);
+        }
+
+        @Override
+        public double decodeDouble(byte[] data, int offset, int length) {
+            return readShort(data, offset);
+        }
+
+        @Override
+        public BigDecimal decodeBigDecimal(byte[] data, int offset, int length) {
+            return BigDecimal.valueOf(readShort(data, offset));
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            return Short.toString(readShort(data, offset));
+        }
+    }
+
+    private static final class OidDecoder extends BinaryValueDecoder {
+        private OidDecoder() {
+            super("oid");
+        }
+
+        @Override
+        public long decodeLong(byte[] data, int offset, int length) {
+            return Integer.toUnsignedLong(readInt(data, offset));
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            return Integer.toUnsignedString(readInt(data, offset));
+        }
+    }
+
+    private static final class BooleanDecoder extends BinaryValueDecoder {
+        private BooleanDecoder() {
+            super("bool");
+        }
+
+        @Override
+        public boolean decodeBoolean(byte[] data, int offset, int length) {
+            return data[offset] != 0;
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            return data[offset] != 0 ? "t" : "f";
+        }
+    }
+
+    private static final class Float4Decoder extends BinaryValueDecoder {
+        private Float4Decoder() {
+            super("float4");
+        }
+
+        @Override
+        public double decodeDouble(byte[] data, int offset, int length) {
+            return Float.intBitsToFloat(readInt(data, offset));
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            float value = Float.intBitsToFloat(readInt(data, offset));
+            return formatFloat(value, Float.toString(value), 6);
+        }
+    }
+
+    private static final class Float8Decoder extends BinaryValueDecoder {
+        private Float8Decoder() {
+            super("float8");
+        }
+
+        @Override
+        public double decodeDouble(byte[] data, int offset, int length) {
+            return readDouble(data, offset);
+        }
+
+        @Override
+        public BigDecimal decodeBigDecimal(byte[] data, int offset, int length) {
+            return BigDecimal.valueOf(readDouble(data, offset));
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            return formatDouble(readDouble(data, offset));
+        }
+    }
+
+    /**
+     * money is sent as int64 number of the minimal currency units, it is rendered in lc_monetary of the session
+     */
+    private static final class MoneyDecoder extends BinaryValueDecoder {
+        private final MoneyFormat format;
+
+        private MoneyDecoder(MoneyFormat format) {
+            super("money");
+            this.format = format;
+        }
+
+        @Override
+        public long decodeLong(byte[] data, int offset, int length) {
+            return readLong(data, offset);
+        }
+
+        @Override
+        public BigDecimal decodeBigDecimal(byte[] data, int offset, int length) {
+            return format.toAmount(readLong(data, offset));
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            return format.format(readLong(data, offset));
+        }
+    }
+
+    private static final class ByteaDecoder extends BinaryValueDecoder {
+        private ByteaDecoder(String typeName) {
+            super(typeName);
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            return PgoutBufferUtil.toHexString(data, offset, length);
+        }
+    }
+
+    private static final class UuidDecoder extends BinaryValueDecoder {
+        private UuidDecoder() {
+            super("uuid");
+        }
+
+        @Override
+        public UUID decodeUuid(byte[] data, int offset, int length) {
+            return new UUID(readLong(data, offset), readLong(data, offset + 8));
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            return decodeUuid(data, offset, length).toString();
+        }
+    }
+
+    private static final class LsnDecoder extends BinaryValueDecoder {
+        private LsnDecoder() {
+            super("pg_lsn");
+        }
+
+        @Override
+        public long decodeLong(byte[] data, int offset, int length) {
+            return readLong(data, offset);
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            long lsn = readLong(data, offset);
+            return Long.toHexString(lsn >>> 32).toUpperCase() + "/" + Long.toHexString(lsn & 0xFFFFFFFFL).toUpperCase();
+        }
+    }
+
+    /**
+     * Snapshot layout: int32 number of in-progress xids, int64 xmin, int64 xmax, int64 xids
+     */
+    private static final class SnapshotDecoder extends BinaryValueDecoder {
+        private SnapshotDecoder(String typeName) {
+            super(typeName);
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            int numberOfXids = readInt(data, offset);
+            var result = new StringBuilder()
+                    .append(readLong(data, offset + 4))
+                    .append(':')
+                    .append(readLong(data, offset + 12))
+                    .append(':');
+            for (int i = 0; i < numberOfXids; i++) {
+                if (i > 0) {
+                    result.append(',');
+                }
+                result.append(readLong(data, offset + 20 + i * 8));
+            }
+            return result.toString();
+        }
+    }
+
+    /**
+     * Bit string layout: int32 number of bits, bits packed from the most significant bit
+     */
+    private static final class BitDecoder extends BinaryValueDecoder {
+        private BitDecoder(String typeName) {
+            super(typeName);
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            int numberOfBits = readInt(data, offset);
+            char[] bits = new char[numberOfBits];
+            for (int i = 0; i < numberOfBits; i++) {
+                bits[i] = (data[offset + 4 + i / 8] & (0x80 >>> (i % 8))) != 0 ? '1' : '0';
+            }
+            return new String(bits);
+        }
+    }
+
+    private static final class MacAddressDecoder extends BinaryValueDecoder {
+        private MacAddressDecoder(String typeName) {
+            super(typeName);
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            var result = new StringBuilder(length * 3);
+            for (int i = 0; i < length; i++) {
+                if (i > 0) {
+                    result.append(':');
+                }
+                int value = data[offset + i] & 0xFF;
+                result.append(Character.forDigit(value >>> 4, 16)).append(Character.forDigit(value & 0x0F, 16));
+            }
+            return result.toString();
+        }
+    }
+
+    /**
+     * jsonb is sent as version byte followed by the json text
+     */
+    private static final class JsonbDecoder extends BinaryValueDecoder {
+        private JsonbDecoder() {
+            super("jsonb");
+        }
+
+        @Override
+        public byte[] decodeBytes(byte[] data, int offset, int length) {
+            return super.decodeBytes(data, offset + 1, length - 1);
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            return new String(data, offset + 1, length - 1, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Binary format of the character types is the same as text, so text parsing is used for typed accessors
+     */
+    static final class TextDecoder extends BinaryValueDecoder {
+        TextDecoder(String typeName) {
+            super(typeName);
+        }
+
+        @Override
+        public long decodeLong(byte[] data, int offset, int length) {
+            return TextValueDecoder.GENERIC.decodeLong(data, offset, length);
+        }
+
+        @Override
+        public double decodeDouble(byte[] data, int offset, int length) {
+            return TextValueDecoder.GENERIC.decodeDouble(data, offset, length);
+        }
+
+        @Override
+        public boolean decodeBoolean(byte[] data, int offset, int length) {
+            return TextValueDecoder.GENERIC.decodeBoolean(data, offset, length);
+        }
+
+        @Override
+        public UUID decodeUuid(byte[] data, int offset, int length) {
+            return TextValueDecoder.GENERIC.decodeUuid(data, offset, length);
+        }
+
+        @Override
+        public LocalDateTime decodeTimestamp(byte[] data, int offset, int length) {
+            return TextValueDecoder.GENERIC.decodeTimestamp(data, offset, length);
+        }
+
+        @Override
+        public LocalDate decodeDate(byte[] data, int offset, int length) {
+            return TextValueDecoder.GENERIC.decodeDate(data, offset, length);
+        }
+
+        @Override
+        public BigDecimal decodeBigDecimal(byte[] data, int offset, int length) {
+            return TextValueDecoder.GENERIC.decodeBigDecimal(data, offset, length);
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            return new String(data, offset, length, StandardCharsets.UTF_8);
+        }
+    }
+
+}
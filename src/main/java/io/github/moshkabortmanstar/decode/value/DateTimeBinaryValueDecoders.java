@@ -0,0 +1,265 @@
+package io.github.moshkabortmanstar.decode.value;
+
+import io.github.moshkabortmanstar.data.enums.DataType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+/**
+ * Binary decoders of the date and time types
+ * Postgres sends dates as days and timestamps as microseconds since 2000-01-01, timestamptz is sent in UTC
+ * Strings are rendered as the server renders them in text mode with DateStyle ISO and IntervalStyle postgres,
+ * timestamptz is rendered in the time zone of the replication session
+ */
+final class DateTimeBinaryValueDecoders {
+
+    private static final LocalDate POSTGRES_EPOCH_DATE = LocalDate.of(2000, 1, 1);
+    private static final LocalDateTime POSTGRES_EPOCH = POSTGRES_EPOCH_DATE.atStartOfDay();
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+    private static final long MICROS_PER_DAY = 86_400L * MICROS_PER_SECOND;
+
+    private DateTimeBinaryValueDecoders() {}
+
+    static void register(Map<DataType, BinaryValueDecoder> decoders) {
+        decoders.put(DataType.DATE, new DateDecoder());
+        decoders.put(DataType.TIME, new TimeDecoder());
+        decoders.put(DataType.TIME_WITH_TIME_ZONE, new TimeWithTimeZoneDecoder());
+        decoders.put(DataType.TIMESTAMP, new TimestampDecoder("timestamp", null));
+        decoders.put(DataType.TIMESTAMP_WITH_TIME_ZONE, timestampWithTimeZone(ZoneOffset.UTC));
+        decoders.put(DataType.INTERVAL, new IntervalDecoder());
+    }
+
+    static BinaryValueDecoder timestampWithTimeZone(ZoneId sessionZone) {
+        return new TimestampDecoder("timestamptz", sessionZone);
+    }
+
+    private static LocalDateTime toTimestamp(long micros) {
+        if (micros == Long.MAX_VALUE) {
+            return LocalDateTime.MAX;
+        }
+        if (micros == Long.MIN_VALUE) {
+            return LocalDateTime.MIN;
+        }
+        return POSTGRES_EPOCH.plusSeconds(Math.floorDiv(micros, MICROS_PER_SECOND))
+                .plusNanos(Math.floorMod(micros, MICROS_PER_SECOND) * 1000);
+    }
+
+    private static void appendDate(StringBuilder result, LocalDate date) {
+        int year = date.getYear() > 0 ? date.getYear() : 1 - date.getYear();
+        appendPadded(result, year, 4).append('-');
+        appendPadded(result, date.getMonthValue(), 2).append('-');
+        appendPadded(result, date.getDayOfMonth(), 2);
+    }
+
+    private static void appendTime(StringBuilder result, long micros) {
+        appendPadded(result, micros / 3_600_000_000L, 2).append(':');
+        appendPadded(result, (int) (micros / 60_000_000L % 60), 2).append(':');
+        appendPadded(result, (int) (micros / MICROS_PER_SECOND % 60), 2);
+        int fraction = (int) (micros % MICROS_PER_SECOND);
+        if (fraction != 0) {
+            var digits = new StringBuilder(6);
+            appendPadded(digits, fraction, 6);
+            int end = digits.length();
+            while (digits.charAt(end - 1) == '0') {
+                end--;
+            }
+            result.append('.').append(digits, 0, end);
+        }
+    }
+
+    private static void appendOffset(StringBuilder result, int offsetSeconds) {
+        result.append(offsetSeconds < 0 ? '-' : '+');
+        int seconds = Math.abs(offsetSeconds);
+        appendPadded(result, seconds / 3600, 2);
+        if (seconds % 3600 != 0) {
+            result.append(':');
+            appendPadded(result, seconds / 60 % 60, 2);
+        }
+        if (seconds % 60 != 0) {
+            result.append(':');
+            appendPadded(result, seconds % 60, 2);
+        }
+    }
+
+    private static StringBuilder appendPadded(StringBuilder result, long value, int width) {
+        var digits = Long.toString(value);
+        for (int i = digits.length(); i < width; i++) {
+            result.append('0');
+        }
+        return result.append(digits);
+    }
+
+    private static final class DateDecoder extends BinaryValueDecoder {
+        private DateDecoder() {
+            super("date");
+        }
+
+        @Override
+        public LocalDate decodeDate(byte[] data, int offset, int length) {
+            int days = readInt(data, offset);
+            if (days == Integer.MAX_VALUE) {
+                return LocalDate.MAX;
+            }
+            if (days == Integer.MIN_VALUE) {
+                return LocalDate.MIN;
+            }
+            return POSTGRES_EPOCH_DATE.plusDays(days);
+        }
+
+        @Override
+        public LocalDateTime decodeTimestamp(byte[] data, int offset, int length) {
+            return decodeDate(data, offset, length).atStartOfDay();
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            int days = readInt(data, offset);
+            if (days == Integer.MAX_VALUE) {
+                return "infinity";
+            }
+            if (days == Integer.MIN_VALUE) {
+                return "-infinity";
+            }
+            var date = POSTGRES_EPOCH_DATE.plusDays(days);
+            var result = new StringBuilder(13);
+            appendDate(result, date);
+            return date.getYear() > 0 ? result.toString() : result.append(" BC").toString();
+        }
+    }
+
+    private static final class TimeDecoder extends BinaryValueDecoder {
+        private TimeDecoder() {
+            super("time");
+        }
+
+        @Override
+        public long decodeLong(byte[] data, int offset, int length) {
+            return readLong(data, offset);
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            var result = new StringBuilder(15);
+            appendTime(result, readLong(data, offset));
+            return result.toString();
+        }
+    }
+
+    /**
+     * timetz layout: int64 microseconds, int32 zone offset in seconds west of UTC
+     */
+    private static final class TimeWithTimeZoneDecoder extends BinaryValueDecoder {
+        private TimeWithTimeZoneDecoder() {
+            super("timetz");
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            var result = new StringBuilder(21);
+            appendTime(result, readLong(data, offset));
+            appendOffset(result, -readInt(data, offset + 8));
+            return result.toString();
+        }
+    }
+
+    private static final class TimestampDecoder extends BinaryValueDecoder {
+        //zone of the session for timestamptz, null for timestamp without time zone
+        private final ZoneId zone;
+
+        private TimestampDecoder(String typeName, ZoneId zone) {
+            super(typeName);
+            this.zone = zone;
+        }
+
+        @Override
+        public LocalDateTime decodeTimestamp(byte[] data, int offset, int length) {
+            return toTimestamp(readLong(data, offset));
+        }
+
+        @Override
+        public LocalDate decodeDate(byte[] data, int offset, int length) {
+            return decodeTimestamp(data, offset, length).toLocalDate();
+        }
+
+        @Override
+        public long decodeLong(byte[] data, int offset, int length) {
+            return readLong(data, offset);
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            long micros = readLong(data, offset);
+            if (micros == Long.MAX_VALUE) {
+                return "infinity";
+            }
+            if (micros == Long.MIN_VALUE) {
+                return "-infinity";
+            }
+            int offsetSeconds = zone == null ? 0 : zone.getRules().getOffset(toTimestamp(micros).toInstant(ZoneOffset.UTC)).getTotalSeconds();
+            long localMicros = micros + offsetSeconds * MICROS_PER_SECOND;
+            var timestamp = toTimestamp(localMicros);
+            var result = new StringBuilder(32);
+            appendDate(result, timestamp.toLocalDate());
+            result.append(' ');
+            appendTime(result, Math.floorMod(localMicros, MICROS_PER_DAY));
+            if (zone != null) {
+                appendOffset(result, offsetSeconds);
+            }
+            return timestamp.getYear() > 0 ? result.toString() : result.append(" BC").toString();
+        }
+    }
+
+    /**
+     * interval layout: int64 microseconds, int32 days, int32 months, rendered in postgres interval style
+     */
+    private static final class IntervalDecoder extends BinaryValueDecoder {
+        private IntervalDecoder() {
+            super("interval");
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            long micros = readLong(data, offset);
+            int days = readInt(data, offset + 8);
+            int months = readInt(data, offset + 12);
+            var result = new StringBuilder();
+            //sign of the previous part, positive part after negative one is printed with '+'
+            boolean negativeBefore = appendPart(result, months / 12, "year", false);
+            negativeBefore = appendPart(result, months % 12, "mon", negativeBefore);
+            negativeBefore = appendPart(result, days, "day", negativeBefore);
+            if (micros != 0 || result.length() == 0) {
+                if (result.length() > 0) {
+                    result.append(' ');
+                }
+                if (micros < 0) {
+                    result.append('-');
+                } else if (negativeBefore) {
+                    result.append('+');
+                }
+                appendTime(result, Math.abs(micros));
+            }
+            return result.toString();
+        }
+
+        private static boolean appendPart(StringBuilder result, int value, String unit, boolean negativeBefore) {
+            if (value == 0) {
+                return negativeBefore;
+            }
+            if (result.length() > 0) {
+                result.append(' ');
+            }
+            if (negativeBefore && value > 0) {
+                result.append('+');
+            }
+            result.append(value).append(' ').append(unit);
+            if (value != 1) {
+                result.append('s');
+            }
+            return value < 0;
+        }
+    }
+
+}
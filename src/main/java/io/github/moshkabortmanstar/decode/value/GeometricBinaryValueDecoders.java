@@ -0,0 +1,103 @@
+package io.github.moshkabortmanstar.decode.value;
+
+import io.github.moshkabortmanstar.data.enums.DataType;
+
+import java.util.Map;
+
+/**
+ * Binary decoders of the geometric types, all coordinates are sent as float8
+ */
+final class GeometricBinaryValueDecoders {
+
+    private static final int POINT_SIZE = 16;
+
+    private GeometricBinaryValueDecoders() {}
+
+    static void register(Map<DataType, BinaryValueDecoder> decoders) {
+        decoders.put(DataType.POINT, new GeometricDecoder("point") {
+            @Override
+            void append(StringBuilder result, byte[] data, int offset) {
+                appendPoint(result, data, offset);
+            }
+        });
+        decoders.put(DataType.LSEG, new GeometricDecoder("lseg") {
+            @Override
+            void append(StringBuilder result, byte[] data, int offset) {
+                appendPoints(result.append('['), data, offset, 2).append(']');
+            }
+        });
+        decoders.put(DataType.BOX, new GeometricDecoder("box") {
+            @Override
+            void append(StringBuilder result, byte[] data, int offset) {
+                appendPoints(result, data, offset, 2);
+            }
+        });
+        decoders.put(DataType.LINE, new GeometricDecoder("line") {
+            @Override
+            void append(StringBuilder result, byte[] data, int offset) {
+                result.append('{').append(formatDouble(readDouble(data, offset)))
+                        .append(',').append(formatDouble(readDouble(data, offset + 8)))
+                        .append(',').append(formatDouble(readDouble(data, offset + 16)))
+                        .append('}');
+            }
+        });
+        decoders.put(DataType.CIRCLE, new GeometricDecoder("circle") {
+            @Override
+            void append(StringBuilder result, byte[] data, int offset) {
+                appendPoint(result.append('<'), data, offset);
+                result.append(',').append(formatDouble(readDouble(data, offset + POINT_SIZE))).append('>');
+            }
+        });
+        //path layout: int8 closed flag, int32 number of points, points
+        decoders.put(DataType.PATH, new GeometricDecoder("path") {
+            @Override
+            void append(StringBuilder result, byte[] data, int offset) {
+                boolean closed = data[offset] != 0;
+                result.append(closed ? '(' : '[');
+                appendPoints(result, data, offset + 5, readInt(data, offset + 1));
+                result.append(closed ? ')' : ']');
+            }
+        });
+        //polygon layout: int32 number of points, points
+        decoders.put(DataType.POLYGON, new GeometricDecoder("polygon") {
+            @Override
+            void append(StringBuilder result, byte[] data, int offset) {
+                appendPoints(result.append('('), data, offset + 4, readInt(data, offset)).append(')');
+            }
+        });
+    }
+
+    private static StringBuilder appendPoint(StringBuilder result, byte[] data, int offset) {
+        return result.append('(')
+                .append(BinaryValueDecoder.formatDouble(BinaryValueDecoder.readDouble(data, offset)))
+                .append(',')
+                .append(BinaryValueDecoder.formatDouble(BinaryValueDecoder.readDouble(data, offset + 8)))
+                .append(')');
+    }
+
+    private static StringBuilder appendPoints(StringBuilder result, byte[] data, int offset, int numberOfPoints) {
+        for (int i = 0; i < numberOfPoints; i++) {
+            if (i > 0) {
+                result.append(',');
+            }
+            appendPoint(result, data, offset + i * POINT_SIZE);
+        }
+        return result;
+    }
+
+    private abstract static class GeometricDecoder extends BinaryValueDecoder {
+        private GeometricDecoder(String typeName) {
+            super(typeName);
+        }
+
+        abstract void append(StringBuilder result, byte[] data, int offset);
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            var result = new StringBuilder(64);
+            append(result, data, offset);
+            return result.toString();
+        }
+    }
+
+}
@@ -0,0 +1,191 @@
+package io.github.moshkabortmanstar.decode.value;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MoneyFormat is the format of money values in the session, it follows lc_monetary of the server
+ * The format is taken from the sample amount rendered by the server, so currency symbol and its position,
+ * sign, separators, group size and number of fractional digits are the same as in text mode
+ * DEFAULT is the format of the C locale
+ */
+public final class MoneyFormat {
+
+    /**
+     * Amount rendered by the server to create the format, it has two groups and two fractional digits
+     */
+    public static final BigDecimal SAMPLE_AMOUNT = new BigDecimal("1234567.89");
+    public static final MoneyFormat DEFAULT = new MoneyFormat("$", "", "-$", "", ".", ",", 3, 2);
+
+    //integer digits of the sample, the server rounds the fractional part to its fractional digits
+    private static final int SAMPLE_INTEGER_DIGITS = 7;
+
+    private final String positivePrefix;
+    private final String positiveSuffix;
+    private final String negativePrefix;
+    private final String negativeSuffix;
+    private final String decimalPoint;
+    private final String groupSeparator;
+    private final int groupSize;
+    private final int fractionDigits;
+
+    private MoneyFormat(String positivePrefix, String positiveSuffix, String negativePrefix, String negativeSuffix,
+                        String decimalPoint, String groupSeparator, int groupSize, int fractionDigits) {
+        this.positivePrefix = positivePrefix;
+        this.positiveSuffix = positiveSuffix;
+        this.negativePrefix = negativePrefix;
+        this.negativeSuffix = negativeSuffix;
+        this.decimalPoint = decimalPoint;
+        this.groupSeparator = groupSeparator;
+        this.groupSize = groupSize;
+        this.fractionDigits = fractionDigits;
+    }
+
+    /**
+     * Create the format from SAMPLE_AMOUNT and its negation rendered by the server
+     * @param positive - text of SAMPLE_AMOUNT::money
+     * @param negative - text of (-SAMPLE_AMOUNT)::money
+     * @throws IllegalArgumentException - if the texts are not the sample amounts
+     */
+    public static MoneyFormat fromSamples(String positive, String negative) {
+        var positiveSample = Sample.parse(positive);
+        var negativeSample = Sample.parse(negative);
+        if (!positiveSample.number().equals(negativeSample.number())
+                || (positiveSample.prefix().equals(negativeSample.prefix()) && positiveSample.suffix().equals(negativeSample.suffix()))) {
+            throw new IllegalArgumentException("Money samples " + positive + " and " + negative + " are not the same amount with different signs");
+        }
+        var number = positiveSample.number();
+        //digits of the integer part between the group separators
+        List<Integer> groups = new ArrayList<>();
+        String groupSeparator = "";
+        int position = 0;
+        int integerDigits = 0;
+        while (integerDigits < SAMPLE_INTEGER_DIGITS) {
+            int end = skip(number, position, true);
+            if (end == position) {
+                throw new IllegalArgumentException("Money sample " + positive + " has not enough digits");
+            }
+            groups.add(end - position);
+            integerDigits += end - position;
+            position = end;
+            if (integerDigits < SAMPLE_INTEGER_DIGITS) {
+                end = skip(number, position, false);
+                groupSeparator = number.substring(position, end);
+                position = end;
+            }
+        }
+        if (integerDigits != SAMPLE_INTEGER_DIGITS) {
+            throw new IllegalArgumentException("Money sample " + positive + " has unexpected integer part");
+        }
+        int groupSize = groups.size() > 1 ? groups.get(groups.size() - 1) : 3;
+        String decimalPoint = "";
+        int fractionDigits = 0;
+        if (position < number.length()) {
+            int end = skip(number, position, false);
+            decimalPoint = number.substring(position, end);
+            fractionDigits = number.length() - end;
+            if (skip(number, end, true) != number.length()) {
+                throw new IllegalArgumentException("Money sample " + positive + " has unexpected fractional part");
+            }
+        }
+        return new MoneyFormat(positiveSample.prefix(), positiveSample.suffix(), negativeSample.prefix(), negativeSample.suffix(),
+                decimalPoint, groupSeparator, groupSize, fractionDigits);
+    }
+
+    public int getFractionDigits() {
+        return fractionDigits;
+    }
+
+    /**
+     * @param units - money value, the number of minimal currency units
+     */
+    public BigDecimal toAmount(long units) {
+        return BigDecimal.valueOf(units, fractionDigits);
+    }
+
+    /**
+     * Render the money value as the server does in text mode
+     * @param units - money value, the number of minimal currency units
+     */
+    public String format(long units) {
+        var plain = toAmount(units).abs().toPlainString();
+        int point = fractionDigits == 0 ? plain.length() : plain.length() - fractionDigits - 1;
+        boolean negative = units < 0;
+        var result = new StringBuilder(plain.length() + 16);
+        result.append(negative ? negativePrefix : positivePrefix);
+        for (int i = 0; i < point; i++) {
+            if (i > 0 && (point - i) % groupSize == 0) {
+                result.append(groupSeparator);
+            }
+            result.append(plain.charAt(i));
+        }
+        if (fractionDigits > 0) {
+            result.append(decimalPoint).append(plain, point + 1, plain.length());
+        }
+        return result.append(negative ? negativeSuffix : positiveSuffix).toString();
+    }
+
+    /**
+     * Parse the money text of the server, currency symbol and group separators are skipped
+     * @throws NumberFormatException - if the text has no digits
+     */
+    public BigDecimal parse(String text) {
+        var digits = new StringBuilder(text.length() + 1);
+        if (isNegative(text)) {
+            digits.append('-');
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char symbol = text.charAt(i);
+            if (symbol >= '0' && symbol <= '9') {
+                digits.append(symbol);
+            } else if (!decimalPoint.isEmpty() && text.startsWith(decimalPoint, i) && i > 0 && isDigit(text.charAt(i - 1))) {
+                digits.append('.');
+                i += decimalPoint.length() - 1;
+            }
+        }
+        return new BigDecimal(digits.toString());
+    }
+
+    //the text has the affixes of one sign, if it has both, the longer ones are more specific
+    private boolean isNegative(String text) {
+        boolean negative = text.startsWith(negativePrefix) && text.endsWith(negativeSuffix);
+        boolean positive = text.startsWith(positivePrefix) && text.endsWith(positiveSuffix);
+        if (negative && positive) {
+            return negativePrefix.length() + negativeSuffix.length() > positivePrefix.length() + positiveSuffix.length();
+        }
+        return negative;
+    }
+
+    private static boolean isDigit(char symbol) {
+        return symbol >= '0' && symbol <= '9';
+    }
+
+    //position of the first symbol that is not a digit if digits is true, or is a digit otherwise
+    private static int skip(String text, int from, boolean digits) {
+        int position = from;
+        while (position < text.length() && isDigit(text.charAt(position)) == digits) {
+            position++;
+        }
+        return position;
+    }
+
+    //number - text from the first to the last digit, prefix and suffix - text around it
+    private record Sample(String prefix, String number, String suffix) {
+
+        static Sample parse(String text) {
+            if (text == null) {
+                throw new IllegalArgumentException("Money sample is null");
+            }
+            int first = skip(text, 0, false);
+            if (first == text.length()) {
+                throw new IllegalArgumentException("Money sample " + text + " has no digits");
+            }
+            int last = text.length();
+            while (!isDigit(text.charAt(last - 1))) {
+                last--;
+            }
+            return new Sample(text.substring(0, first), text.substring(first, last), text.substring(last));
+        }
+    }
+}
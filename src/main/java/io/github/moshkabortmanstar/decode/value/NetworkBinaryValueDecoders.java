@@ -0,0 +1,118 @@
+package io.github.moshkabortmanstar.decode.value;
+
+import io.github.moshkabortmanstar.data.enums.DataType;
+
+import java.util.Map;
+
+/**
+ * Binary decoders of inet and cidr
+ * Layout: int8 family, int8 bits, int8 is cidr, int8 number of address bytes, address bytes
+ */
+final class NetworkBinaryValueDecoders {
+
+    private static final int PGSQL_AF_INET = 2;
+    private static final int IPV4_BITS = 32;
+    private static final int IPV6_BITS = 128;
+    private static final int IPV6_GROUPS = 8;
+
+    private NetworkBinaryValueDecoders() {}
+
+    static void register(Map<DataType, BinaryValueDecoder> decoders) {
+        decoders.put(DataType.INET, new InetDecoder("inet", false));
+        decoders.put(DataType.CIDR, new InetDecoder("cidr", true));
+    }
+
+    private static final class InetDecoder extends BinaryValueDecoder {
+        private final boolean cidr;
+
+        private InetDecoder(String typeName, boolean cidr) {
+            super(typeName);
+            this.cidr = cidr;
+        }
+
+        @Override
+        public byte[] decodeBytes(byte[] data, int offset, int length) {
+            return super.decodeBytes(data, offset + 4, data[offset + 3] & 0xFF);
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            int family = data[offset];
+            int bits = data[offset + 1] & 0xFF;
+            int addressOffset = offset + 4;
+            var result = new StringBuilder(43);
+            int maxBits;
+            if (family == PGSQL_AF_INET) {
+                appendIpv4(result, data, addressOffset);
+                maxBits = IPV4_BITS;
+            } else {
+                appendIpv6(result, data, addressOffset);
+                maxBits = IPV6_BITS;
+            }
+            if (cidr || bits != maxBits) {
+                result.append('/').append(bits);
+            }
+            return result.toString();
+        }
+
+        private static void appendIpv4(StringBuilder result, byte[] data, int offset) {
+            for (int i = 0; i < 4; i++) {
+                if (i > 0) {
+                    result.append('.');
+                }
+                result.append(data[offset + i] & 0xFF);
+            }
+        }
+
+        /**
+         * The longest run of zero groups is compressed to ::, IPv4 mapped addresses keep dotted notation
+         */
+        private static void appendIpv6(StringBuilder result, byte[] data, int offset) {
+            int[] groups = new int[IPV6_GROUPS];
+            for (int i = 0; i < IPV6_GROUPS; i++) {
+                groups[i] = ((data[offset + i * 2] & 0xFF) << 8) | (data[offset + i * 2 + 1] & 0xFF);
+            }
+
+            int bestStart = -1;
+            int bestLength = 0;
+            for (int i = 0; i < IPV6_GROUPS; ) {
+                if (groups[i] != 0) {
+                    i++;
+                    continue;
+                }
+                int start = i;
+                while (i < IPV6_GROUPS && groups[i] == 0) {
+                    i++;
+                }
+                if (i - start > bestLength) {
+                    bestStart = start;
+                    bestLength = i - start;
+                }
+            }
+            if (bestLength < 2) {
+                bestStart = -1;
+            }
+
+            boolean ipv4Mapped = bestStart == 0 && (bestLength == 5 && groups[5] == 0xFFFF || bestLength == 6);
+            int groupsEnd = ipv4Mapped ? 6 : IPV6_GROUPS;
+            for (int i = 0; i < groupsEnd; i++) {
+                if (i == bestStart) {
+                    result.append("::");
+                    i += bestLength - 1;
+                    continue;
+                }
+                if (i > 0 && i != bestStart + bestLength) {
+                    result.append(':');
+                }
+                result.append(Integer.toHexString(groups[i]));
+            }
+            if (ipv4Mapped) {
+                if (result.charAt(result.length() - 1) != ':') {
+                    result.append(':');
+                }
+                appendIpv4(result, data, offset + 12);
+            }
+        }
+    }
+
+}
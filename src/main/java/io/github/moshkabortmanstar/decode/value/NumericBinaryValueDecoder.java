@@ -0,0 +1,97 @@
+package io.github.moshkabortmanstar.decode.value;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Binary numeric layout: int16 number of digits, int16 weight, int16 sign, int16 display scale
+ * and base 10000 digits as int16, the first digit is multiplied by 10000^weight
+ */
+class NumericBinaryValueDecoder extends BinaryValueDecoder {
+
+    private static final int NUMERIC_NEGATIVE = 0x4000;
+    private static final int NUMERIC_NAN = 0xC000;
+    private static final int NUMERIC_POSITIVE_INFINITY = 0xD000;
+    private static final int NUMERIC_NEGATIVE_INFINITY = 0xF000;
+    private static final int DIGITS_PER_BASE = 4;
+    private static final BigInteger BASE = BigInteger.valueOf(10_000);
+    //four base 10000 digits always fit to long
+    private static final int MAX_LONG_BASE_DIGITS = 4;
+
+    NumericBinaryValueDecoder() {
+        super("numeric");
+    }
+
+    @Override
+    public BigDecimal decodeBigDecimal(byte[] data, int offset, int length) {
+        int sign = readShort(data, offset + 4) & 0xFFFF;
+        if (sign == NUMERIC_NAN || sign == NUMERIC_POSITIVE_INFINITY || sign == NUMERIC_NEGATIVE_INFINITY) {
+            throw unsupported("decimal, value is " + specialValue(sign));
+        }
+        int numberOfDigits = readShort(data, offset);
+        int weight = readShort(data, offset + 2);
+        int displayScale = readShort(data, offset + 6);
+
+        BigDecimal value;
+        if (numberOfDigits <= MAX_LONG_BASE_DIGITS) {
+            long unscaled = 0;
+            for (int i = 0; i < numberOfDigits; i++) {
+                unscaled = unscaled * 10_000 + readShort(data, offset + 8 + i * 2);
+            }
+            value = BigDecimal.valueOf(unscaled, (numberOfDigits - weight - 1) * DIGITS_PER_BASE);
+        } else {
+            var unscaled = BigInteger.ZERO;
+            for (int i = 0; i < numberOfDigits; i++) {
+                unscaled = unscaled.multiply(BASE).add(BigInteger.valueOf(readShort(data, offset + 8 + i * 2)));
+            }
+            value = new BigDecimal(unscaled, (numberOfDigits - weight - 1) * DIGITS_PER_BASE);
+        }
+        if (sign == NUMERIC_NEGATIVE) {
+            value = value.negate();
+        }
+        return value.setScale(displayScale, RoundingMode.UNNECESSARY);
+    }
+
+    @Override
+    public long decodeLong(byte[] data, int offset, int length) {
+        try {
+            return decodeBigDecimal(data, offset, length).longValueExact();
+        } catch (ArithmeticException e) {
+            throw unsupported("long");
+        }
+    }
+
+    @Override
+    public double decodeDouble(byte[] data, int offset, int length) {
+        int sign = readShort(data, offset + 4) & 0xFFFF;
+        if (sign == NUMERIC_NAN) {
+            return Double.NaN;
+        }
+        if (sign == NUMERIC_POSITIVE_INFINITY) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (sign == NUMERIC_NEGATIVE_INFINITY) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return decodeBigDecimal(data, offset, length).doubleValue();
+    }
+
+    @Override
+    public String decodeString(byte[] data, int offset, int length) {
+        int sign = readShort(data, offset + 4) & 0xFFFF;
+        if (sign == NUMERIC_NAN || sign == NUMERIC_POSITIVE_INFINITY || sign == NUMERIC_NEGATIVE_INFINITY) {
+            return specialValue(sign);
+        }
+        return decodeBigDecimal(data, offset, length).toPlainString();
+    }
+
+    private static String specialValue(int sign) {
+        return switch (sign) {
+            case NUMERIC_NAN -> "NaN";
+            case NUMERIC_POSITIVE_INFINITY -> "Infinity";
+            default -> "-Infinity";
+        };
+    }
+
+}
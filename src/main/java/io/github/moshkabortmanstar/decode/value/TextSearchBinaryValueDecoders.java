@@ -0,0 +1,176 @@
+package io.github.moshkabortmanstar.decode.value;
+
+import io.github.moshkabortmanstar.data.enums.DataType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Binary decoders of tsvector and tsquery
+ */
+final class TextSearchBinaryValueDecoders {
+
+    private static final int WEIGHT_SHIFT = 14;
+    private static final int POSITION_MASK = 0x3FFF;
+    private static final char[] WEIGHTS = {'D', 'C', 'B', 'A'};
+
+    private static final int QUERY_VALUE = 1;
+    private static final int OPERATOR_NOT = 1;
+    private static final int OPERATOR_AND = 2;
+    private static final int OPERATOR_OR = 3;
+    private static final int OPERATOR_PHRASE = 4;
+
+    private TextSearchBinaryValueDecoders() {}
+
+    static void register(Map<DataType, BinaryValueDecoder> decoders) {
+        decoders.put(DataType.TSVECTOR, new TsVectorDecoder());
+        decoders.put(DataType.TSQUERY, new TsQueryDecoder());
+    }
+
+    private static int terminator(byte[] data, int from) {
+        int end = from;
+        while (data[end] != 0) {
+            end++;
+        }
+        return end;
+    }
+
+    private static void appendQuoted(StringBuilder result, byte[] data, int start, int end) {
+        result.append('\'');
+        for (char symbol : new String(data, start, end - start, StandardCharsets.UTF_8).toCharArray()) {
+            if (symbol == '\'' || symbol == '\\') {
+                result.append(symbol);
+            }
+            result.append(symbol);
+        }
+        result.append('\'');
+    }
+
+    /**
+     * tsvector layout: int32 number of lexemes, for every lexeme: null terminated text,
+     * int16 number of positions and int16 positions with weight in two high bits
+     */
+    private static final class TsVectorDecoder extends BinaryValueDecoder {
+        private TsVectorDecoder() {
+            super("tsvector");
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            int numberOfLexemes = readInt(data, offset);
+            int position = offset + 4;
+            var result = new StringBuilder(length);
+            for (int i = 0; i < numberOfLexemes; i++) {
+                if (i > 0) {
+                    result.append(' ');
+                }
+                int end = terminator(data, position);
+                appendQuoted(result, data, position, end);
+                position = end + 1;
+
+                int numberOfPositions = readShort(data, position) & 0xFFFF;
+                position += 2;
+                for (int p = 0; p < numberOfPositions; p++) {
+                    int wordEntry = readShort(data, position) & 0xFFFF;
+                    position += 2;
+                    result.append(p == 0 ? ':' : ',').append(wordEntry & POSITION_MASK);
+                    int weight = wordEntry >>> WEIGHT_SHIFT;
+                    if (weight != 0) {
+                        result.append(WEIGHTS[weight]);
+                    }
+                }
+            }
+            return result.toString();
+        }
+    }
+
+    /**
+     * tsquery layout: int32 number of items, items in prefix order where an operator is followed by its right operand
+     * value item: int8 type, int8 weight mask, int8 prefix flag, null terminated operand
+     * operator item: int8 type, int8 operator and int16 distance for phrase operator
+     */
+    private static final class TsQueryDecoder extends BinaryValueDecoder {
+        private TsQueryDecoder() {
+            super("tsquery");
+        }
+
+        @Override
+        public String decodeString(byte[] data, int offset, int length) {
+            int numberOfItems = readInt(data, offset);
+            if (numberOfItems == 0) {
+                return "";
+            }
+            var parser = new QueryParser(data, offset + 4);
+            return parser.parse(0).text;
+        }
+    }
+
+    private record QueryNode(String text, int priority) {}
+
+    private static final class QueryParser {
+        private final byte[] data;
+        private int position;
+
+        private QueryParser(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        private QueryNode parse(int parentPriority) {
+            int type = data[position++];
+            if (type == QUERY_VALUE) {
+                int weight = data[position++];
+                boolean prefix = data[position++] != 0;
+                int end = terminator(data, position);
+                var result = new StringBuilder();
+                appendQuoted(result, data, position, end);
+                position = end + 1;
+                if (weight != 0 || prefix) {
+                    result.append(':');
+                    if (prefix) {
+                        result.append('*');
+                    }
+                    for (int bit = 3; bit >= 0; bit--) {
+                        if ((weight & (1 << bit)) != 0) {
+                            result.append(WEIGHTS[bit]);
+                        }
+                    }
+                }
+                return new QueryNode(result.toString(), Integer.MAX_VALUE);
+            }
+
+            int operator = data[position++];
+            if (operator == OPERATOR_NOT) {
+                var operand = parse(priority(operator));
+                return new QueryNode("!" + wrap(operand, priority(operator)), priority(operator));
+            }
+            String symbol = switch (operator) {
+                case OPERATOR_AND -> " & ";
+                case OPERATOR_OR -> " | ";
+                default -> {
+                    int distance = BinaryValueDecoder.readShort(data, position);
+                    position += 2;
+                    yield distance == 1 ? " <-> " : " <" + distance + "> ";
+                }
+            };
+            int priority = priority(operator);
+            var right = parse(priority);
+            var left = parse(priority);
+            return new QueryNode(wrap(left, priority) + symbol + wrap(right, priority), priority);
+        }
+
+        private static String wrap(QueryNode node, int parentPriority) {
+            return node.priority < parentPriority ? "( " + node.text + " )" : node.text;
+        }
+
+        private static int priority(int operator) {
+            return switch (operator) {
+                case OPERATOR_NOT -> 4;
+                case OPERATOR_PHRASE -> 3;
+                case OPERATOR_AND -> 2;
+                default -> 1;
+            };
+        }
+    }
+
+}
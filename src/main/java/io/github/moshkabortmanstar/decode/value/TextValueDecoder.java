@@ -0,0 +1,545 @@
+package io.github.moshkabortmanstar.decode.value;
+
+import io.github.moshkabortmanstar.data.enums.DataType;
+import io.github.moshkabortmanstar.exception.ColumnValueDecodingException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * TextValueDecoder parses the values sent by pgoutput in text format directly from the wire bytes
+ * Numbers, booleans, uuids and ISO dates are parsed without intermediate String
+ */
+public class TextValueDecoder implements ValueDecoder {
+
+    public static final TextValueDecoder GENERIC = new TextValueDecoder();
+    public static final TextValueDecoder BYTEA = new ByteaTextValueDecoder();
+    public static final TextValueDecoder MONEY = new MoneyTextValueDecoder(MoneyFormat.DEFAULT);
+
+    //unscaled value with this number of digits always fits to long
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final long LONG_MULTIPLY_LIMIT = Long.MIN_VALUE / 10;
+    private static final byte[] INFINITY = "infinity".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NEGATIVE_INFINITY = "-infinity".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BEFORE_CHRIST = " BC".getBytes(StandardCharsets.US_ASCII);
+
+    protected TextValueDecoder() {}
+
+    /**
+     * Choose the text decoder for the data type of the column
+     * @param dataType - type of the column
+     * @return decoder that is used for all values of the column
+     */
+    public static TextValueDecoder forType(DataType dataType) {
+        if (dataType == null) {
+            return GENERIC;
+        }
+        return switch (dataType) {
+            case BYTEA -> BYTEA;
+            case MONEY -> MONEY;
+            default -> GENERIC;
+        };
+    }
+
+    /**
+     * Text decoder of money in the session with the money format
+     * @param moneyFormat - format of lc_monetary of the session
+     */
+    public static TextValueDecoder money(MoneyFormat moneyFormat) {
+        return moneyFormat == null || moneyFormat == MoneyFormat.DEFAULT ? MONEY : new MoneyTextValueDecoder(moneyFormat);
+    }
+
+    @Override
+    public long decodeLong(byte[] data, int offset, int length) {
+        return parseLong(data, null, offset, length);
+    }
+
+    @Override
+    public long decodeLong(CharSequence value) {
+        return parseLong(null, value, 0, value.length());
+    }
+
+    @Override
+    public int decodeInt(byte[] data, int offset, int length) {
+        return toInt(parseLong(data, null, offset, length), data, null, offset, length);
+    }
+
+    @Override
+    public int decodeInt(CharSequence value) {
+        return toInt(parseLong(null, value, 0, value.length()), null, value, 0, value.length());
+    }
+
+    @Override
+    public double decodeDouble(byte[] data, int offset, int length) {
+        return parseDouble(new String(data, offset, length, StandardCharsets.US_ASCII), data, null, offset, length);
+    }
+
+    @Override
+    public double decodeDouble(CharSequence value) {
+        return parseDouble(value.toString(), null, value, 0, value.length());
+    }
+
+    @Override
+    public boolean decodeBoolean(byte[] data, int offset, int length) {
+        return parseBoolean(data, null, offset, length);
+    }
+
+    @Override
+    public boolean decodeBoolean(CharSequence value) {
+        return parseBoolean(null, value, 0, value.length());
+    }
+
+    @Override
+    public UUID decodeUuid(byte[] data, int offset, int length) {
+        return parseUuid(data, null, offset, length);
+    }
+
+    @Override
+    public UUID decodeUuid(CharSequence value) {
+        return parseUuid(null, value, 0, value.length());
+    }
+
+    /**
+     * Parse ISO timestamp, for example 2024-04-02 10:15:30.123456+03, date without time is parsed as start of the day
+     */
+    @Override
+    public LocalDateTime decodeTimestamp(byte[] data, int offset, int length) {
+        return parseTimestamp(data, null, offset, length);
+    }
+
+    @Override
+    public LocalDateTime decodeTimestamp(CharSequence value) {
+        return parseTimestamp(null, value, 0, value.length());
+    }
+
+    @Override
+    public LocalDate decodeDate(byte[] data, int offset, int length) {
+        return parseDate(data, null, offset, length);
+    }
+
+    @Override
+    public LocalDate decodeDate(CharSequence value) {
+        return parseDate(null, value, 0, value.length());
+    }
+
+    @Override
+    public BigDecimal decodeBigDecimal(byte[] data, int offset, int length) {
+        return parseBigDecimal(data, null, offset, length);
+    }
+
+    @Override
+    public BigDecimal decodeBigDecimal(CharSequence value) {
+        return parseBigDecimal(null, value, 0, value.length());
+    }
+
+    @Override
+    public byte[] decodeBytes(byte[] data, int offset, int length) {
+        return Arrays.copyOfRange(data, offset, offset + length);
+    }
+
+    @Override
+    public byte[] decodeBytes(CharSequence value) {
+        return value.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String decodeString(byte[] data, int offset, int length) {
+        return new String(data, offset, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String decodeString(CharSequence value) {
+        return value.toString();
+    }
+
+    /**
+     * Only columns of array types are decoded as arrays, see ArrayTextValueDecoder
+     */
+    @Override
+    public List<Object> decodeArray(byte[] data, int offset, int length) {
+        throw decodingError(data, offset, length, "array");
+    }
+
+    /*
+     * Parsers read the wire bytes or the chars of the decoded value, exactly one of data and chars is not null,
+     * the values are ASCII, so the byte and the char of the symbol are the same
+     */
+
+    protected BigDecimal parseBigDecimal(byte[] data, CharSequence chars, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (at(data, chars, i) == '-' || at(data, chars, i) == '+')) {
+            negative = at(data, chars, i) == '-';
+            i++;
+        }
+
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            int symbol = at(data, chars, i);
+            if (symbol == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            int digit = symbol - '0';
+            if (digit < 0 || digit > 9 || digits == MAX_LONG_DIGITS) {
+                return parseBigDecimalSlow(data, chars, offset, length);
+            }
+            unscaled = unscaled * 10 + digit;
+            digits++;
+            if (scale >= 0) {
+                scale++;
+            }
+        }
+        if (digits == 0) {
+            throw decodingError(data, chars, offset, length, "decimal");
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    protected BigDecimal parseBigDecimalSlow(byte[] data, CharSequence chars, int offset, int length) {
+        char[] digits = new char[length];
+        for (int i = 0; i < length; i++) {
+            digits[i] = (char) at(data, chars, offset + i);
+        }
+        try {
+            return new BigDecimal(digits);
+        } catch (NumberFormatException e) {
+            throw decodingError(data, chars, offset, length, "decimal");
+        }
+    }
+
+    protected static int at(byte[] data, CharSequence chars, int index) {
+        return data != null ? data[index] : chars.charAt(index);
+    }
+
+    protected static ColumnValueDecodingException decodingError(byte[] data, int offset, int length, String type) {
+        return decodingError(data, null, offset, length, type);
+    }
+
+    protected static ColumnValueDecodingException decodingError(byte[] data, CharSequence chars, int offset, int length, String type) {
+        return new ColumnValueDecodingException("Cannot decode '" + asString(data, chars, offset, length) + "' as " + type);
+    }
+
+    private static long parseLong(byte[] data, CharSequence chars, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (at(data, chars, i) == '-' || at(data, chars, i) == '+')) {
+            negative = at(data, chars, i) == '-';
+            i++;
+        }
+        if (i == end) {
+            throw decodingError(data, chars, offset, length, "long");
+        }
+
+        //accumulate negative value to support Long.MIN_VALUE
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = at(data, chars, i) - '0';
+            if (digit < 0 || digit > 9 || result < LONG_MULTIPLY_LIMIT) {
+                throw decodingError(data, chars, offset, length, "long");
+            }
+            result *= 10;
+            if (result < Long.MIN_VALUE + digit) {
+                throw decodingError(data, chars, offset, length, "long");
+            }
+            result -= digit;
+        }
+        if (!negative && result == Long.MIN_VALUE) {
+            throw decodingError(data, chars, offset, length, "long");
+        }
+        return negative ? result : -result;
+    }
+
+    private static int toInt(long value, byte[] data, CharSequence chars, int offset, int length) {
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw decodingError(data, chars, offset, length, "int");
+        }
+        return (int) value;
+    }
+
+    private static double parseDouble(String value, byte[] data, CharSequence chars, int offset, int length) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw decodingError(data, chars, offset, length, "double");
+        }
+    }
+
+    private static boolean parseBoolean(byte[] data, CharSequence chars, int offset, int length) {
+        if (length > 0 && at(data, chars, offset) == 't') {
+            return true;
+        }
+        if (length > 0 && at(data, chars, offset) == 'f') {
+            return false;
+        }
+        throw decodingError(data, chars, offset, length, "boolean");
+    }
+
+    private static UUID parseUuid(byte[] data, CharSequence chars, int offset, int length) {
+        long mostSigBits = 0;
+        long leastSigBits = 0;
+        int digits = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int symbol = at(data, chars, i);
+            if (symbol == '-') {
+                continue;
+            }
+            int digit = Character.digit(symbol, 16);
+            if (digit < 0 || digits == 32) {
+                throw decodingError(data, chars, offset, length, "uuid");
+            }
+            if (digits < 16) {
+                mostSigBits = (mostSigBits << 4) | digit;
+            } else {
+                leastSigBits = (leastSigBits << 4) | digit;
+            }
+            digits++;
+        }
+        if (digits != 32) {
+            throw decodingError(data, chars, offset, length, "uuid");
+        }
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static LocalDateTime parseTimestamp(byte[] data, CharSequence chars, int offset, int length) {
+        if (matches(data, chars, offset, length, INFINITY)) {
+            return LocalDateTime.MAX;
+        }
+        if (matches(data, chars, offset, length, NEGATIVE_INFINITY)) {
+            return LocalDateTime.MIN;
+        }
+        try {
+            return new IsoDateParser(data, chars, offset, length).parseTimestamp();
+        } catch (RuntimeException e) {
+            throw new ColumnValueDecodingException("Cannot decode '" + asString(data, chars, offset, length) + "' as timestamp", e);
+        }
+    }
+
+    private static LocalDate parseDate(byte[] data, CharSequence chars, int offset, int length) {
+        if (matches(data, chars, offset, length, INFINITY)) {
+            return LocalDate.MAX;
+        }
+        if (matches(data, chars, offset, length, NEGATIVE_INFINITY)) {
+            return LocalDate.MIN;
+        }
+        try {
+            return new IsoDateParser(data, chars, offset, length).parseDate();
+        } catch (RuntimeException e) {
+            throw new ColumnValueDecodingException("Cannot decode '" + asString(data, chars, offset, length) + "' as date", e);
+        }
+    }
+
+    private static String asString(byte[] data, CharSequence chars, int offset, int length) {
+        return data != null ? new String(data, offset, length, StandardCharsets.UTF_8) : chars.subSequence(offset, offset + length).toString();
+    }
+
+    private static boolean matches(byte[] data, CharSequence chars, int offset, int length, byte[] expected) {
+        if (length != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (at(data, chars, offset + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parser of the ISO date style: YYYY-MM-DD[ HH:MM:SS[.ffffff]][+HH[:MM[:SS]]][ BC]
+     */
+    private static final class IsoDateParser {
+
+        private final byte[] data;
+        private final CharSequence chars;
+        private final int end;
+        private int position;
+
+        private IsoDateParser(byte[] data, CharSequence chars, int offset, int length) {
+            this.data = data;
+            this.chars = chars;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        private LocalDate parseDate() {
+            return LocalDate.of(parseYear(), parseNumber('-', 2), parseNumber('-', 2));
+        }
+
+        private LocalDateTime parseTimestamp() {
+            int year = parseYear();
+            int month = parseNumber('-', 2);
+            int day = parseNumber('-', 2);
+            if (position == end || isBeforeChrist()) {
+                return LocalDateTime.of(bcYear(year), month, day, 0, 0);
+            }
+            position++; //date and time separator
+            int hour = parseNumber(0, 2);
+            int minute = parseNumber(':', 2);
+            int second = parseNumber(':', 2);
+            int nanos = 0;
+            if (position < end && symbol(position) == '.') {
+                position++;
+                int multiplier = 100_000_000;
+                while (position < end && isDigit(symbol(position))) {
+                    nanos += (symbol(position++) - '0') * multiplier;
+                    multiplier /= 10;
+                }
+            }
+            int offsetSeconds = parseZoneOffset();
+            if (isBeforeChrist()) {
+                year = bcYear(year);
+            }
+            var timestamp = LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+            return offsetSeconds == 0 ? timestamp : timestamp.minusSeconds(offsetSeconds);
+        }
+
+        private int parseYear() {
+            int year = 0;
+            while (position < end && isDigit(symbol(position))) {
+                year = year * 10 + symbol(position++) - '0';
+            }
+            return year;
+        }
+
+        private int parseZoneOffset() {
+            if (position == end || (symbol(position) != '+' && symbol(position) != '-')) {
+                return 0;
+            }
+            int sign = symbol(position++) == '-' ? -1 : 1;
+            int seconds = parseNumber(0, 2) * 3600;
+            if (position < end && symbol(position) == ':') {
+                seconds += parseNumber(':', 2) * 60;
+            }
+            if (position < end && symbol(position) == ':') {
+                seconds += parseNumber(':', 2);
+            }
+            return sign * seconds;
+        }
+
+        private int parseNumber(int separator, int digits) {
+            if (separator != 0) {
+                if (symbol(position) != separator) {
+                    throw new IllegalArgumentException("Unexpected symbol at " + position);
+                }
+                position++;
+            }
+            int value = 0;
+            for (int i = 0; i < digits; i++) {
+                int symbol = symbol(position++);
+                if (!isDigit(symbol)) {
+                    throw new IllegalArgumentException("Unexpected symbol at " + position);
+                }
+                value = value * 10 + symbol - '0';
+            }
+            return value;
+        }
+
+        private boolean isBeforeChrist() {
+            return matches(data, chars, position, end - position, BEFORE_CHRIST);
+        }
+
+        private int symbol(int index) {
+            if (index >= end) {
+                throw new IllegalArgumentException("Unexpected end at " + index);
+            }
+            return at(data, chars, index);
+        }
+
+        private static int bcYear(int year) {
+            return 1 - year;
+        }
+
+        private static boolean isDigit(int symbol) {
+            return symbol >= '0' && symbol <= '9';
+        }
+    }
+
+    /**
+     * bytea is sent in hex format (\x01ff) or in escape format depending on bytea_output setting
+     */
+    private static final class ByteaTextValueDecoder extends TextValueDecoder {
+
+        @Override
+        public byte[] decodeBytes(byte[] data, int offset, int length) {
+            return parseBytea(data, null, offset, length);
+        }
+
+        @Override
+        public byte[] decodeBytes(CharSequence value) {
+            return parseBytea(null, value, 0, value.length());
+        }
+
+        private static byte[] parseBytea(byte[] data, CharSequence chars, int offset, int length) {
+            if (length >= 2 && at(data, chars, offset) == '\\' && at(data, chars, offset + 1) == 'x') {
+                return decodeHex(data, chars, offset + 2, length - 2);
+            }
+            return decodeEscape(data, chars, offset, length);
+        }
+
+        private static byte[] decodeHex(byte[] data, CharSequence chars, int offset, int length) {
+            byte[] bytes = new byte[length / 2];
+            for (int i = 0; i < bytes.length; i++) {
+                int high = Character.digit(at(data, chars, offset + i * 2), 16);
+                int low = Character.digit(at(data, chars, offset + i * 2 + 1), 16);
+                if (high < 0 || low < 0) {
+                    throw decodingError(data, chars, offset, length, "bytea");
+                }
+                bytes[i] = (byte) ((high << 4) | low);
+            }
+            return bytes;
+        }
+
+        private static byte[] decodeEscape(byte[] data, CharSequence chars, int offset, int length) {
+            byte[] bytes = new byte[length];
+            int size = 0;
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                int symbol = at(data, chars, i);
+                if (symbol != '\\') {
+                    bytes[size++] = (byte) symbol;
+                } else if (i + 1 < end && at(data, chars, i + 1) == '\\') {
+                    bytes[size++] = '\\';
+                    i++;
+                } else if (i + 3 < end) {
+                    bytes[size++] = (byte) (((at(data, chars, i + 1) - '0') << 6) | ((at(data, chars, i + 2) - '0') << 3) | (at(data, chars, i + 3) - '0'));
+                    i += 3;
+                } else {
+                    throw decodingError(data, chars, offset, length, "bytea");
+                }
+            }
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+
+    /**
+     * money is formatted by lc_monetary of the session, currency symbol and group separators are skipped
+     */
+    private static final class MoneyTextValueDecoder extends TextValueDecoder {
+        private final MoneyFormat format;
+
+        private MoneyTextValueDecoder(MoneyFormat format) {
+            this.format = format;
+        }
+
+        @Override
+        protected BigDecimal parseBigDecimal(byte[] data, CharSequence chars, int offset, int length) {
+            var text = chars == null ? new String(data, offset, length, StandardCharsets.UTF_8) : chars.subSequence(offset, offset + length).toString();
+            try {
+                return format.parse(text);
+            } catch (NumberFormatException e) {
+                throw decodingError(data, chars, offset, length, "money");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package io.github.moshkabortmanstar.decode.value;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * ValueDecoder converts the wire bytes of the column value to the typed value without intermediate String
+ * The decoder is chosen once for every column of the relation by its DataType
+ * CharSequence methods parse the text value already decoded to String (eager rows),
+ * the default implementations encode it to UTF-8 and TextValueDecoder parses the chars without copying
+ */
+public interface ValueDecoder {
+
+    long decodeLong(byte[] data, int offset, int length);
+
+    int decodeInt(byte[] data, int offset, int length);
+
+    double decodeDouble(byte[] data, int offset, int length);
+
+    boolean decodeBoolean(byte[] data, int offset, int length);
+
+    UUID decodeUuid(byte[] data, int offset, int length);
+
+    /**
+     * Values with time zone are converted to UTC
+     */
+    LocalDateTime decodeTimestamp(byte[] data, int offset, int length);
+
+    LocalDate decodeDate(byte[] data, int offset, int length);
+
+    BigDecimal decodeBigDecimal(byte[] data, int offset, int length);
+
+    byte[] decodeBytes(byte[] data, int offset, int length);
+
+    String decodeString(byte[] data, int offset, int length);
+
+    /**
+     * Elements of the array value rendered as in text mode, NULL elements are null,
+     * elements of multidimensional arrays are lists of the next dimension
+     */
+    List<Object> decodeArray(byte[] data, int offset, int length);
+
+    default long decodeLong(CharSequence value) {
+        byte[] bytes = utf8(value);
+        return decodeLong(bytes, 0, bytes.length);
+    }
+
+    default int decodeInt(CharSequence value) {
+        byte[] bytes = utf8(value);
+        return decodeInt(bytes, 0, bytes.length);
+    }
+
+    default double decodeDouble(CharSequence value) {
+        byte[] bytes = utf8(value);
+        return decodeDouble(bytes, 0, bytes.length);
+    }
+
+    default boolean decodeBoolean(CharSequence value) {
+        byte[] bytes = utf8(value);
+        return decodeBoolean(bytes, 0, bytes.length);
+    }
+
+    default UUID decodeUuid(CharSequence value) {
+        byte[] bytes = utf8(value);
+        return decodeUuid(bytes, 0, bytes.length);
+    }
+
+    default LocalDateTime decodeTimestamp(CharSequence value) {
+        byte[] bytes = utf8(value);
+        return decodeTimestamp(bytes, 0, bytes.length);
+    }
+
+    default LocalDate decodeDate(CharSequence value) {
+        byte[] bytes = utf8(value);
+        return decodeDate(bytes, 0, bytes.length);
+    }
+
+    default BigDecimal decodeBigDecimal(CharSequence value) {
+        byte[] bytes = utf8(value);
+        return decodeBigDecimal(bytes, 0, bytes.length);
+    }
+
+    default byte[] decodeBytes(CharSequence value) {
+        byte[] bytes = utf8(value);
+        return decodeBytes(bytes, 0, bytes.length);
+    }
+
+    default String decodeString(CharSequence value) {
+        return value.toString();
+    }
+
+    default List<Object> decodeArray(CharSequence value) {
+        byte[] bytes = utf8(value);
+        return decodeArray(bytes, 0, bytes.length);
+    }
+
+    private static byte[] utf8(CharSequence value) {
+        return value.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,28 @@
+package io.github.moshkabortmanstar.engine;
+
+import org.postgresql.replication.PGReplicationStream;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+
+/**
+ * ReplicationStreamReader waits for the next message of the replication stream
+ */
+public interface ReplicationStreamReader extends AutoCloseable {
+
+    /**
+     * Read the next message
+     *
+     * @return message or null if nothing arrived while waiting, so the engine can check its state
+     */
+    ByteBuffer read(PGReplicationStream stream) throws SQLException, InterruptedException;
+
+    /**
+     * Release the threads of the reader, called by the engine before the stream is closed
+     * Interruption of the caller is kept in its interrupted flag
+     */
+    @Override
+    default void close() {
+    }
+
+}
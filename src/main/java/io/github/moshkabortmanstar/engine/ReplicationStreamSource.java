@@ -0,0 +1,20 @@
+package io.github.moshkabortmanstar.engine;
+
+import org.postgresql.replication.PGReplicationStream;
+
+import java.sql.SQLException;
+
+/**
+ * ReplicationStreamSource opens the stream that the engine reads
+ * By default the engine sets up the slot, publication and logical replication stream of the server,
+ * other sources (for example InMemoryReplicationStream of the test fixtures) run the engine without a database
+ */
+@FunctionalInterface
+public interface ReplicationStreamSource {
+
+    /**
+     * Open the stream, it is closed by the engine when it stops
+     */
+    PGReplicationStream start() throws SQLException;
+
+}
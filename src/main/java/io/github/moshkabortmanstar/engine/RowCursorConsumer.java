@@ -0,0 +1,22 @@
+package io.github.moshkabortmanstar.engine;
+
+import io.github.moshkabortmanstar.data.RowCursor;
+
+import java.util.function.Consumer;
+
+/**
+ * RowCursorConsumer receives every change of the stream as the same reusable RowCursor
+ * The cursor is refilled from the received message for the next change, so it must not be kept after accept returns
+ * Changes are delivered as they are decoded, commit is called when the transaction of the previous changes is committed
+ */
+public interface RowCursorConsumer extends Consumer<RowCursor> {
+
+    /**
+     * All changes of the transaction were accepted, the position is confirmed to the server after the method returns
+     * @param transactionId - xid of the transaction
+     * @param endLsn - end of the commit record
+     * */
+    default void commit(long transactionId, long endLsn) {
+    }
+
+}
@@ -0,0 +1,34 @@
+package io.github.moshkabortmanstar.engine;
+
+import io.github.moshkabortmanstar.data.RowChangesStructure;
+
+import java.util.List;
+
+/**
+ * StreamingChangesConsumer receives changes of large in-progress transactions streamed by the server (protocol version 2)
+ * Changes of one transaction come in several chunks and are followed by commit or abort signal
+ * The list of changes is reused by the engine, copy it if it is needed after the method returns
+ */
+public interface StreamingChangesConsumer {
+
+    /**
+     * Accept chunk of uncommitted changes
+     * @param transactionId - xid of the top level transaction
+     * @param changes - changes of the chunk, every change holds xid of the (sub)transaction that made it
+     * */
+    void acceptChunk(long transactionId, List<RowChangesStructure> changes);
+
+    /**
+     * All chunks of the transaction were sent, the transaction is committed
+     * @param transactionId - xid of the top level transaction
+     * */
+    void commit(long transactionId);
+
+    /**
+     * The transaction or its subtransaction is aborted, changes of the aborted (sub)transaction must be discarded
+     * @param transactionId - xid of the top level transaction
+     * @param subTransactionId - xid of the aborted subtransaction, equals to transactionId when the whole transaction is aborted
+     * */
+    void abort(long transactionId, long subTransactionId);
+
+}
@@ -0,0 +1,451 @@
+package io.github.moshkabortmanstar.engine.buffer;
+
+import io.github.moshkabortmanstar.data.Column;
+import io.github.moshkabortmanstar.data.ColumnValuesMap;
+import io.github.moshkabortmanstar.data.LazyColumnsDataMap;
+import io.github.moshkabortmanstar.data.RelationMetaInfo;
+import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.TupleData;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import io.github.moshkabortmanstar.exception.TransactionBufferSpillException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSequentialList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * SpillableTransactionBuffer collects changes of one transaction within the memory budget
+ * Changes above the budget are encoded and appended to memory-mapped segment files in the spill directory
+ * At the end of the transaction the changes are replayed in the original order through the iterator
+ */
+@Slf4j
+public class SpillableTransactionBuffer implements Iterable<RowChangesStructure>, AutoCloseable {
+
+    private static final byte FORMAT_VALUES = 0;
+    private static final byte FORMAT_TUPLE = 1;
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_PRESENT = 1;
+    private static final byte VALUE_UNCHANGED_TOAST = 2;
+    //column is not projected by the table filter
+    private static final byte VALUE_ABSENT = 3;
+    //rough size of the row object with its values array and String per column
+    private static final int ROW_OVERHEAD_BYTES = 128;
+    private static final int COLUMN_OVERHEAD_BYTES = 44;
+    private static final OperationEnum[] OPERATIONS = OperationEnum.values();
+
+    private final Path spillDirectory;
+    private final long memoryBudgetBytes;
+    private final int segmentBytes;
+
+    private final List<RowChangesStructure> memoryRows = new ArrayList<>();
+    private final List<Segment> segments = new ArrayList<>();
+    //relations of the spilled rows, rows keep the reference to the relation they were decoded with
+    private final Map<Map<String, Column>, Integer> relationIndexes = new IdentityHashMap<>();
+    private final List<RelationMetaInfo> relations = new ArrayList<>();
+    private ByteBuffer encodeBuffer = ByteBuffer.allocate(4096);
+    private long memoryBytes;
+    private int size;
+    private int segmentSequence;
+
+    public SpillableTransactionBuffer(Path spillDirectory, long memoryBudgetBytes, int segmentBytes) {
+        this.spillDirectory = spillDirectory;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.segmentBytes = segmentBytes;
+    }
+
+    public void add(RowChangesStructure row) {
+        size++;
+        //once the buffer is spilled all next changes go to the segments to keep the order
+        if (!isSpilled()) {
+            long rowBytes = estimateSize(row);
+            if (memoryBytes + rowBytes <= memoryBudgetBytes) {
+                memoryBytes += rowBytes;
+                memoryRows.add(row);
+                return;
+            }
+        }
+        spill(row);
+    }
+
+    public void addAll(List<RowChangesStructure> rows) {
+        for (RowChangesStructure row : rows) {
+            add(row);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isSpilled() {
+        return !segments.isEmpty() && !segments.get(0).isEmpty();
+    }
+
+    /**
+     * Read-only sequential view of the buffer, get by index walks the changes from the beginning
+     */
+    public List<RowChangesStructure> asList() {
+        return new AbstractSequentialList<>() {
+            @Override
+            public ListIterator<RowChangesStructure> listIterator(int index) {
+                return new ForwardListIterator(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<RowChangesStructure> iterator() {
+        return new BufferIterator();
+    }
+
+    /**
+     * Clear the buffer after the transaction, the first segment file is kept for the next transaction
+     */
+    public void clear() {
+        if (isSpilled()) {
+            log.info("Transaction buffer spilled {} changes to {} segments", size - memoryRows.size(), segments.size());
+        }
+        memoryRows.clear();
+        relationIndexes.clear();
+        relations.clear();
+        memoryBytes = 0;
+        size = 0;
+        for (int i = segments.size() - 1; i > 0; i--) {
+            segments.remove(i).delete();
+        }
+        if (!segments.isEmpty()) {
+            segments.get(0).reset();
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        segments.forEach(Segment::delete);
+        segments.clear();
+    }
+
+    private void spill(RowChangesStructure row) {
+        encode(row);
+        var segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.remaining() < encodeBuffer.remaining()) {
+            segment = openSegment(Math.max(segmentBytes, encodeBuffer.remaining()));
+            segments.add(segment);
+        }
+        segment.append(encodeBuffer);
+    }
+
+    private Segment openSegment(int capacity) {
+        try {
+            Files.createDirectories(spillDirectory);
+            var path = spillDirectory.resolve("segment-" + System.identityHashCode(this) + "-" + segmentSequence++ + ".spill");
+            try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+            }
+        } catch (IOException e) {
+            throw new TransactionBufferSpillException("Cannot create spill segment in " + spillDirectory, e);
+        }
+    }
+
+    /**
+     * Record layout: int length, int relation index, byte operation, long xid, byte format and
+     * values of the columns (state and UTF-8 value) or the tuple bytes with offsets
+     */
+    private void encode(RowChangesStructure row) {
+        var relation = relationOf(row);
+        var buffer = encodeBuffer.clear();
+        buffer = ensureCapacity(buffer, 4 + 4 + 1 + 8 + 1);
+        buffer.position(4);
+        buffer.putInt(relationIndexes.get(row.getColumnsType()));
+        buffer.put((byte) row.getOperationEnum().ordinal());
+        buffer.putLong(row.getTransactionId());
+
+        var tupleData = row.getTupleData();
+        if (tupleData != null) {
+            buffer.put(FORMAT_TUPLE);
+            byte[] data = tupleData.getData();
+            buffer = ensureCapacity(buffer, 8 + data.length + tupleData.size() * 4);
+            buffer.putInt(data.length).put(data).putInt(tupleData.size());
+            for (int i = 0; i < tupleData.size(); i++) {
+                buffer.putInt(tupleData.getOffset(i));
+            }
+        } else {
+            buffer.put(FORMAT_VALUES);
+            for (Column column : relation.getColumns()) {
+                if (row.isUnchangedToast(column.getName())) {
+                    buffer = ensureCapacity(buffer, 1);
+                    buffer.put(VALUE_UNCHANGED_TOAST);
+                    continue;
+                }
+                String value = row.getColumnsData().get(column.getName());
+                if (value == null && !row.getColumnsData().containsKey(column.getName())) {
+                    buffer = ensureCapacity(buffer, 1);
+                    buffer.put(VALUE_ABSENT);
+                    continue;
+                }
+                if (value == null) {
+                    buffer = ensureCapacity(buffer, 1);
+                    buffer.put(VALUE_NULL);
+                    continue;
+                }
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                buffer = ensureCapacity(buffer, 5 + bytes.length);
+                buffer.put(VALUE_PRESENT).putInt(bytes.length).put(bytes);
+            }
+        }
+        buffer.putInt(0, buffer.position() - 4);
+        encodeBuffer = buffer.flip();
+    }
+
+    private RowChangesStructure decode(ByteBuffer record) {
+        var relation = relations.get(record.getInt());
+        var operation = OPERATIONS[record.get()];
+        long transactionId = record.getLong();
+        var columns = relation.getColumns();
+        Set<String> unchangedToastColumns = Collections.emptySet();
+        var builder = RowChangesStructure.builder()
+                .tableName(relation.getTableName())
+                .schemaName(relation.getSchemaName())
+                .operationEnum(operation)
+                .transactionId(transactionId)
+                .columnsType(relation.getColumnsMap());
+
+        if (record.get() == FORMAT_TUPLE) {
+            byte[] data = new byte[record.getInt()];
+            record.get(data);
+            int[] offsets = new int[record.getInt()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = record.getInt();
+                if (offsets[i] == TupleData.UNCHANGED_TOAST_OFFSET) {
+                    unchangedToastColumns = addColumn(unchangedToastColumns, columns[i].getName());
+                }
+            }
+            var tupleData = new TupleData(data, offsets);
+            return builder.tupleData(tupleData)
+                    .columnsData(new LazyColumnsDataMap(relation, tupleData))
+                    .unchangedToastColumns(unchangedToastColumns)
+                    .build();
+        }
+
+        String[] values = new String[columns.length];
+        for (Column column : columns) {
+            byte state = record.get();
+            if (state == VALUE_UNCHANGED_TOAST) {
+                unchangedToastColumns = addColumn(unchangedToastColumns, column.getName());
+                values[column.getIndex()] = ColumnValuesMap.ABSENT;
+            } else if (state == VALUE_ABSENT) {
+                values[column.getIndex()] = ColumnValuesMap.ABSENT;
+            } else if (state == VALUE_PRESENT) {
+                int length = record.getInt();
+                values[column.getIndex()] = new String(record.array(), record.arrayOffset() + record.position(), length, StandardCharsets.UTF_8);
+                record.position(record.position() + length);
+            }
+        }
+        return builder.columnsData(new ColumnValuesMap(relation, values))
+                .unchangedToastColumns(unchangedToastColumns)
+                .build();
+    }
+
+    private static Set<String> addColumn(Set<String> columns, String column) {
+        Set<String> result = columns.isEmpty() ? new HashSet<>() : columns;
+        result.add(column);
+        return result;
+    }
+
+    private RelationMetaInfo relationOf(RowChangesStructure row) {
+        var index = relationIndexes.get(row.getColumnsType());
+        if (index != null) {
+            return relations.get(index);
+        }
+        var relation = RelationMetaInfo.builder()
+                .schemaName(row.getSchemaName())
+                .tableName(row.getTableName())
+                .columnsMap(row.getColumnsType())
+                .build();
+        relationIndexes.put(row.getColumnsType(), relations.size());
+        relations.add(relation);
+        return relation;
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return buffer;
+        }
+        var bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+        buffer.flip();
+        return bigger.put(buffer);
+    }
+
+    /**
+     * Rough heap size of the row in bytes
+     */
+    public static long estimateSize(RowChangesStructure row) {
+        var tupleData = row.getTupleData();
+        if (tupleData != null) {
+            return ROW_OVERHEAD_BYTES + tupleData.getData().length + tupleData.size() * 4L;
+        }
+        long size = ROW_OVERHEAD_BYTES;
+        for (String value : row.getColumnsData().values()) {
+            size += COLUMN_OVERHEAD_BYTES + (value == null ? 0 : value.length());
+        }
+        return size;
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer buffer;
+
+        private Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        private boolean isEmpty() {
+            return buffer.position() == 0;
+        }
+
+        private int remaining() {
+            return buffer.remaining();
+        }
+
+        private void append(ByteBuffer record) {
+            buffer.put(record);
+        }
+
+        private void reset() {
+            buffer.clear();
+        }
+
+        //read view of the written records
+        private ByteBuffer records() {
+            return buffer.duplicate().flip();
+        }
+
+        private void delete() {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Cannot delete spill segment {}, error {}", path, e.getMessage());
+            }
+        }
+    }
+
+    private class BufferIterator implements Iterator<RowChangesStructure> {
+        private final Iterator<RowChangesStructure> memoryIterator = memoryRows.iterator();
+        private int segmentIndex;
+        private ByteBuffer records;
+        private ByteBuffer record = ByteBuffer.allocate(0);
+
+        @Override
+        public boolean hasNext() {
+            if (memoryIterator.hasNext()) {
+                return true;
+            }
+            while (records == null || !records.hasRemaining()) {
+                if (segmentIndex >= segments.size() || segments.get(segmentIndex).isEmpty()) {
+                    return false;
+                }
+                records = segments.get(segmentIndex++).records();
+            }
+            return true;
+        }
+
+        @Override
+        public RowChangesStructure next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (memoryIterator.hasNext()) {
+                return memoryIterator.next();
+            }
+            int length = records.getInt();
+            if (record.capacity() < length) {
+                record = ByteBuffer.allocate(Math.max(length, record.capacity() * 2));
+            }
+            record.clear().limit(length);
+            records.get(record.array(), 0, length);
+            return decode(record);
+        }
+    }
+
+    private class ForwardListIterator implements ListIterator<RowChangesStructure> {
+        private final Iterator<RowChangesStructure> iterator = iterator();
+        private int index;
+
+        private ForwardListIterator(int startIndex) {
+            while (index < startIndex) {
+                next();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public RowChangesStructure next() {
+            index++;
+            return iterator.next();
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return index > 0;
+        }
+
+        @Override
+        public RowChangesStructure previous() {
+            throw new UnsupportedOperationException("Transaction buffer can be read only forward");
+        }
+
+        @Override
+        public int nextIndex() {
+            return index;
+        }
+
+        @Override
+        public int previousIndex() {
+            return index - 1;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Transaction buffer is read only");
+        }
+
+        @Override
+        public void set(RowChangesStructure row) {
+            throw new UnsupportedOperationException("Transaction buffer is read only");
+        }
+
+        @Override
+        public void add(RowChangesStructure row) {
+            throw new UnsupportedOperationException("Transaction buffer is read only");
+        }
+    }
+
+}
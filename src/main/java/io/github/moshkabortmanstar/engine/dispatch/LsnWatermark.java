@@ -0,0 +1,77 @@
+package io.github.moshkabortmanstar.engine.dispatch;
+
+import java.util.ArrayDeque;
+
+/**
+ * LsnWatermark tracks transactions that are processed out of order
+ * Transactions are registered in commit order and completed in any order,
+ * the watermark is the LSN of the highest transaction whose predecessors are all completed
+ */
+public class LsnWatermark {
+
+    private final ArrayDeque<Ticket> pending = new ArrayDeque<>();
+    private volatile long lsn;
+
+    /**
+     * @param lsn position to confirm when the transaction and all previous ones are completed, 0 if there is nothing to confirm
+     */
+    public synchronized Ticket register(long lsn) {
+        var ticket = new Ticket(lsn);
+        pending.addLast(ticket);
+        return ticket;
+    }
+
+    public synchronized void complete(Ticket ticket) {
+        ticket.completed = true;
+        while (!pending.isEmpty() && pending.peekFirst().completed) {
+            long completedLsn = pending.pollFirst().lsn;
+            if (completedLsn > lsn) {
+                lsn = completedLsn;
+            }
+        }
+        notifyAll();
+    }
+
+    public long getLsn() {
+        return lsn;
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Wait until the number of registered but not confirmed transactions is below the limit
+     */
+    public synchronized void awaitPendingBelow(int limit) throws InterruptedException {
+        while (pending.size() >= limit) {
+            wait();
+        }
+    }
+
+    /**
+     * @return false if the number of transactions is still not below the limit after the timeout
+     */
+    public synchronized boolean awaitPendingBelow(int limit, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (pending.size() >= limit && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return pending.size() < limit;
+    }
+
+    public static final class Ticket {
+        private final long lsn;
+        private boolean completed;
+
+        private Ticket(long lsn) {
+            this.lsn = lsn;
+        }
+
+        public long getLsn() {
+            return lsn;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.moshkabortmanstar.engine.dispatch;
+
+import io.github.moshkabortmanstar.data.TransactionBatch;
+
+/**
+ * TransactionDispatcher delivers committed transactions to the consumer out of the engine thread
+ * Completed transactions are confirmed through the watermark, the engine applies its LSN to the stream
+ */
+public interface TransactionDispatcher extends AutoCloseable {
+
+    /**
+     * Hand over the transaction, the changes list of the batch can be reused after the call
+     * Dispatchers that deliver later keep a heap copy, so the engine does not combine them with spilling
+     * Blocks while the dispatcher is at its capacity
+     */
+    void dispatch(TransactionBatch batch) throws InterruptedException;
+
+    /**
+     * Run the action on the caller thread after all previous transactions are completed
+     * @param lsn - position to confirm after the action, 0 if there is nothing to confirm
+     */
+    void runExclusive(long lsn, Runnable action) throws InterruptedException;
+
+    LsnWatermark getWatermark();
+
+    /**
+     * Called by the engine thread on every read, also when no message arrived
+     */
+    default void onIdle() {
+    }
+
+    /**
+     * Error that stops the delivery, null while the dispatcher is healthy
+     */
+    default Throwable getFailure() {
+        return null;
+    }
+
+    /**
+     * Stop the delivery, interruption of the caller is kept in its interrupted flag
+     */
+    @Override
+    void close();
+
+}
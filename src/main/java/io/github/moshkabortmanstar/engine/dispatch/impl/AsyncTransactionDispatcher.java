@@ -0,0 +1,106 @@
+package io.github.moshkabortmanstar.engine.dispatch.impl;
+
+import io.github.moshkabortmanstar.data.TransactionBatch;
+import io.github.moshkabortmanstar.engine.dispatch.LsnWatermark;
+import io.github.moshkabortmanstar.engine.dispatch.TransactionDispatcher;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * AsyncTransactionDispatcher hands transactions to the asynchronous consumer
+ * and confirms them when the returned stage completes
+ * The number of not confirmed transactions is limited by maxInFlight, after the first failed stage
+ * the watermark does not advance anymore, so the failed transaction is delivered again after restart
+ */
+@Slf4j
+public class AsyncTransactionDispatcher implements TransactionDispatcher {
+
+    private final Function<TransactionBatch, CompletionStage<Void>> consumer;
+    private final Consumer<TransactionBatch> completionListener;
+    private final int maxInFlight;
+    private final LsnWatermark watermark = new LsnWatermark();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * @param completionListener is called after the stage of the transaction completed successfully
+     */
+    public AsyncTransactionDispatcher(Function<TransactionBatch, CompletionStage<Void>> consumer,
+                                      int maxInFlight,
+                                      Consumer<TransactionBatch> completionListener) {
+        this.consumer = consumer;
+        this.maxInFlight = Math.max(maxInFlight, 1);
+        this.completionListener = completionListener;
+    }
+
+    @Override
+    public void dispatch(TransactionBatch batch) throws InterruptedException {
+        if (!awaitPendingBelow(maxInFlight)) {
+            return;
+        }
+        var ownBatch = batch.toBuilder().changes(new ArrayList<>(batch.getChanges())).build();
+        var ticket = watermark.register(ownBatch.getEndLsn());
+        CompletionStage<Void> stage;
+        try {
+            stage = consumer.apply(ownBatch);
+        } catch (Exception e) {
+            fail(ownBatch, e);
+            return;
+        }
+        stage.whenComplete((result, error) -> {
+            if (error != null) {
+                fail(ownBatch, error);
+                return;
+            }
+            if (failure.get() == null) {
+                watermark.complete(ticket);
+                completionListener.accept(ownBatch);
+            }
+        });
+    }
+
+    @Override
+    public void runExclusive(long lsn, Runnable action) throws InterruptedException {
+        if (!awaitPendingBelow(1)) {
+            return;
+        }
+        var ticket = watermark.register(lsn);
+        action.run();
+        watermark.complete(ticket);
+    }
+
+    @Override
+    public LsnWatermark getWatermark() {
+        return watermark;
+    }
+
+    @Override
+    public Throwable getFailure() {
+        return failure.get();
+    }
+
+    @Override
+    public void close() {
+        log.info("Async dispatcher closed with {} transactions in flight", watermark.getPendingCount());
+    }
+
+    //false if the delivery failed while waiting, the engine stops then
+    private boolean awaitPendingBelow(int limit) throws InterruptedException {
+        while (!watermark.awaitPendingBelow(limit, 100L)) {
+            if (failure.get() != null) {
+                return false;
+            }
+        }
+        return failure.get() == null;
+    }
+
+    private void fail(TransactionBatch batch, Throwable error) {
+        if (failure.compareAndSet(null, error)) {
+            log.error("Transaction {} failed in async consumer, error {}", batch.getTransactionId(), error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package io.github.moshkabortmanstar.engine.dispatch.impl;
+
+import io.github.moshkabortmanstar.data.FanOutSubscriber;
+import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.TransactionBatch;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import io.github.moshkabortmanstar.engine.dispatch.LsnWatermark;
+import io.github.moshkabortmanstar.engine.dispatch.TransactionDispatcher;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * FanOutDispatcher delivers the transactions of one replication stream to many subscribers,
+ * every message is decoded once and the rows are shared between the subscribers
+ * Each subscriber filters the transaction by its tables and operations and processes it on its own thread in commit order
+ * The transaction is confirmed when all subscribers with its rows completed it, so the slot advances
+ * at the minimum progress across subscribers and the slowest subscriber holds back the stream when its queue is full
+ * After the first failed subscriber the next transactions are skipped and the watermark does not advance anymore
+ */
+@Slf4j
+public class FanOutDispatcher implements TransactionDispatcher {
+
+    private final LsnWatermark watermark = new LsnWatermark();
+    private final List<Subscriber> subscribers;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean running = true;
+
+    public FanOutDispatcher(String name, List<FanOutSubscriber> subscribers) {
+        this.subscribers = new ArrayList<>(subscribers.size());
+        for (FanOutSubscriber subscriber : subscribers) {
+            var worker = new Subscriber(name + "-" + subscriber.getName(), subscriber);
+            this.subscribers.add(worker);
+            worker.thread.start();
+        }
+    }
+
+    /**
+     * Enqueue the rows of every subscriber, blocks while the queue of a subscriber is full
+     */
+    @Override
+    public void dispatch(TransactionBatch batch) throws InterruptedException {
+        if (failure.get() != null) {
+            return;
+        }
+        List<List<RowChangesStructure>> parts = split(batch.getChanges());
+        int numberOfParts = 0;
+        for (List<RowChangesStructure> part : parts) {
+            if (part != null) {
+                numberOfParts++;
+            }
+        }
+        var ticket = watermark.register(batch.getEndLsn());
+        if (numberOfParts == 0) {
+            watermark.complete(ticket);
+            return;
+        }
+        var task = new TransactionTask(ticket, numberOfParts);
+        for (int i = 0; i < parts.size(); i++) {
+            if (parts.get(i) != null) {
+                subscribers.get(i).queue.put(new SubscriberTask(task, batch.toBuilder().changes(parts.get(i)).build()));
+            }
+        }
+    }
+
+    @Override
+    public void runExclusive(long lsn, Runnable action) throws InterruptedException {
+        while (!watermark.awaitPendingBelow(1, 100L)) {
+            if (failure.get() != null) {
+                return;
+            }
+        }
+        var ticket = watermark.register(lsn);
+        action.run();
+        if (failure.get() == null) {
+            watermark.complete(ticket);
+        }
+    }
+
+    /**
+     * LSN of the transactions that are completed by all subscribers together with all previous transactions
+     */
+    @Override
+    public LsnWatermark getWatermark() {
+        return watermark;
+    }
+
+    @Override
+    public Throwable getFailure() {
+        return failure.get();
+    }
+
+    /**
+     * End LSN of the last transaction completed by the subscriber, 0 if it did not complete any
+     * Transactions without rows of the subscriber do not move its progress
+     */
+    public long getProgress(String subscriberName) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.config.getName().equals(subscriberName)) {
+                return subscriber.progressLsn;
+            }
+        }
+        return 0L;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Map<String, Set<String>> tablesBySchema(List<String> tableNames) {
+        Map<String, Set<String>> tables = new HashMap<>();
+        for (String tableName : tableNames) {
+            int separator = tableName.indexOf('.');
+            String schema = separator < 0 ? "public" : tableName.substring(0, separator);
+            tables.computeIfAbsent(schema, key -> new HashSet<>()).add(tableName.substring(separator + 1));
+        }
+        return tables;
+    }
+
+    //part of every subscriber, null if the transaction has no rows of the subscriber
+    private List<List<RowChangesStructure>> split(List<RowChangesStructure> changes) {
+        List<List<RowChangesStructure>> parts = new ArrayList<>(Collections.nCopies(subscribers.size(), null));
+        for (int i = 0; i < parts.size(); i++) {
+            var subscriber = subscribers.get(i);
+            List<RowChangesStructure> part = null;
+            for (RowChangesStructure row : changes) {
+                if (subscriber.accepts(row)) {
+                    if (part == null) {
+                        part = new ArrayList<>();
+                    }
+                    part.add(row);
+                }
+            }
+            parts.set(i, part);
+        }
+        return parts;
+    }
+
+    private final class Subscriber {
+        private final FanOutSubscriber config;
+        //table names by schema, null when all tables are accepted
+        private final Map<String, Set<String>> tables;
+        private final Set<OperationEnum> operations;
+        private final BlockingQueue<SubscriberTask> queue;
+        private final Thread thread;
+        private volatile long progressLsn;
+
+        private Subscriber(String threadName, FanOutSubscriber config) {
+            this.config = config;
+            this.tables = config.getTables().isEmpty() ? null : tablesBySchema(config.getTables());
+            this.operations = config.getOperations().isEmpty() ? null : EnumSet.copyOf(config.getOperations());
+            this.queue = new ArrayBlockingQueue<>(config.getQueueSize());
+            this.thread = new Thread(this::run, threadName);
+            this.thread.setDaemon(true);
+        }
+
+        //schema and table are looked up separately, so the row name is not concatenated
+        private boolean accepts(RowChangesStructure row) {
+            if (operations != null && !operations.contains(row.getOperationEnum())) {
+                return false;
+            }
+            if (tables == null) {
+                return true;
+            }
+            var schemaTables = tables.get(row.getSchemaName());
+            return schemaTables != null && schemaTables.contains(row.getTableName());
+        }
+
+        private void run() {
+            try {
+                while (running || !queue.isEmpty()) {
+                    var task = queue.poll(100L, TimeUnit.MILLISECONDS);
+                    if (task != null) {
+                        process(task);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        //after the failure the transactions are skipped and not confirmed
+        private void process(SubscriberTask task) {
+            if (failure.get() == null) {
+                try {
+                    config.getConsumer().accept(task.batch());
+                    progressLsn = task.batch().getEndLsn();
+                } catch (RuntimeException e) {
+                    if (failure.compareAndSet(null, e)) {
+                        log.error("Error in subscriber {}, delivery is stopped, error {}", config.getName(), e.getMessage());
+                    }
+                }
+            }
+            if (task.transaction().remainingParts.decrementAndGet() == 0 && failure.get() == null) {
+                watermark.complete(task.transaction().ticket);
+            }
+        }
+    }
+
+    private static final class TransactionTask {
+        private final LsnWatermark.Ticket ticket;
+        private final AtomicInteger remainingParts;
+
+        private TransactionTask(LsnWatermark.Ticket ticket, int parts) {
+            this.ticket = ticket;
+            this.remainingParts = new AtomicInteger(parts);
+        }
+    }
+
+    private record SubscriberTask(TransactionTask transaction, TransactionBatch batch) {
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.moshkabortmanstar.engine.dispatch.impl;
+
+import io.github.moshkabortmanstar.data.MicroBatch;
+import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.TransactionBatch;
+import io.github.moshkabortmanstar.engine.buffer.SpillableTransactionBuffer;
+import io.github.moshkabortmanstar.engine.dispatch.LsnWatermark;
+import io.github.moshkabortmanstar.engine.dispatch.TransactionDispatcher;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * MicroBatchDispatcher merges consecutive committed transactions into one delivery
+ * The batch is delivered when it reaches maxRows or maxBytes, or lingerMillis after its first transaction,
+ * linger is checked on every read of the engine, also when no message arrived
+ * The end LSN of the batch is confirmed once after the delivery
+ * After the failed delivery the next transactions are skipped and the watermark does not advance anymore,
+ * so the failed batch is delivered again after restart
+ */
+@Slf4j
+public class MicroBatchDispatcher implements TransactionDispatcher {
+
+    private final Consumer<MicroBatch> consumer;
+    private final int maxRows;
+    private final long maxBytes;
+    private final long lingerNanos;
+    private final LsnWatermark watermark = new LsnWatermark();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private List<TransactionBatch> transactions = new ArrayList<>();
+    private int rowCount;
+    private long sizeBytes;
+    private long firstTransactionNanos;
+
+    /**
+     * @param consumer is called on the engine thread, its exception stops the delivery and is reported by getFailure
+     */
+    public MicroBatchDispatcher(Consumer<MicroBatch> consumer, int maxRows, long maxBytes, long lingerMillis) {
+        this.consumer = consumer;
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+    }
+
+    @Override
+    public synchronized void dispatch(TransactionBatch batch) {
+        if (failure.get() != null) {
+            return;
+        }
+        var changes = new ArrayList<>(batch.getChanges());
+        if (transactions.isEmpty()) {
+            firstTransactionNanos = System.nanoTime();
+        }
+        transactions.add(batch.toBuilder().changes(changes).build());
+        rowCount += changes.size();
+        for (RowChangesStructure row : changes) {
+            sizeBytes += SpillableTransactionBuffer.estimateSize(row);
+        }
+        if (rowCount >= maxRows || sizeBytes >= maxBytes || lingerNanos <= 0) {
+            flush();
+        }
+    }
+
+    @Override
+    public synchronized void onIdle() {
+        if (!transactions.isEmpty() && System.nanoTime() - firstTransactionNanos >= lingerNanos) {
+            flush();
+        }
+    }
+
+    @Override
+    public synchronized void runExclusive(long lsn, Runnable action) {
+        flush();
+        if (failure.get() != null) {
+            return;
+        }
+        var ticket = watermark.register(lsn);
+        action.run();
+        watermark.complete(ticket);
+    }
+
+    @Override
+    public LsnWatermark getWatermark() {
+        return watermark;
+    }
+
+    @Override
+    public Throwable getFailure() {
+        return failure.get();
+    }
+
+    @Override
+    public void close() {
+        //not delivered transactions are not confirmed and are sent again by the server after restart
+    }
+
+    //after the failure the batch is dropped, it is not confirmed
+    private void flush() {
+        if (transactions.isEmpty() || failure.get() != null) {
+            return;
+        }
+        var microBatch = MicroBatch.builder()
+                .transactions(transactions)
+                .rowCount(rowCount)
+                .sizeBytes(sizeBytes)
+                .build();
+        transactions = new ArrayList<>();
+        rowCount = 0;
+        sizeBytes = 0L;
+
+        var ticket = watermark.register(microBatch.getEndLsn());
+        try {
+            consumer.accept(microBatch);
+        } catch (RuntimeException e) {
+            failure.set(e);
+            log.error("Error in micro batch consumer, delivery is stopped, error {}", e.getMessage());
+            return;
+        }
+        watermark.complete(ticket);
+    }
+}
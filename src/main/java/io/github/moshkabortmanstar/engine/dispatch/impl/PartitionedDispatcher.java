@@ -0,0 +1,225 @@
+package io.github.moshkabortmanstar.engine.dispatch.impl;
+
+import io.github.moshkabortmanstar.data.Column;
+import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.TransactionBatch;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import io.github.moshkabortmanstar.engine.dispatch.LsnWatermark;
+import io.github.moshkabortmanstar.engine.dispatch.TransactionDispatcher;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * PartitionedDispatcher splits the changes of a committed transaction across worker lanes
+ * by hash of the table and the replica identity key, so changes of one key are processed in order by one lane
+ * Tables without key columns are partitioned by the table only
+ * Changes of a key that is updated to a new value are routed by the new key
+ * Transaction with TRUNCATE is processed exclusively after all previous transactions
+ * After the first failed part the lanes skip the next transactions and the watermark does not advance anymore,
+ * so the failed transaction is delivered again after restart
+ */
+@Slf4j
+public class PartitionedDispatcher implements TransactionDispatcher {
+
+    private final Consumer<List<RowChangesStructure>> consumer;
+    private final LsnWatermark watermark = new LsnWatermark();
+    private final List<Lane> lanes;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean running = true;
+
+    /**
+     * @param consumer is called concurrently from the lanes, with the part of the transaction of one lane,
+     *                 its exception stops the delivery and is reported by getFailure
+     */
+    public PartitionedDispatcher(String name,
+                                 int numberOfLanes,
+                                 int laneQueueSize,
+                                 Consumer<List<RowChangesStructure>> consumer) {
+        this.consumer = consumer;
+        this.lanes = new ArrayList<>(numberOfLanes);
+        for (int i = 0; i < numberOfLanes; i++) {
+            var lane = new Lane(name + "-lane-" + i, laneQueueSize);
+            lanes.add(lane);
+            lane.thread.start();
+        }
+    }
+
+    /**
+     * Split the changes across the lanes, blocks while the queue of the target lane is full
+     */
+    @Override
+    public void dispatch(TransactionBatch batch) throws InterruptedException {
+        if (failure.get() != null) {
+            return;
+        }
+        long lsn = batch.getEndLsn();
+        var changes = batch.getChanges();
+        List<List<RowChangesStructure>> parts = split(changes);
+        if (parts == null) {
+            runExclusive(lsn, () -> {
+                try {
+                    consumer.accept(changes);
+                } catch (RuntimeException e) {
+                    fail(e);
+                }
+            });
+            return;
+        }
+
+        int numberOfParts = 0;
+        for (List<RowChangesStructure> part : parts) {
+            if (part != null) {
+                numberOfParts++;
+            }
+        }
+        var ticket = watermark.register(lsn);
+        if (numberOfParts == 0) {
+            watermark.complete(ticket);
+            return;
+        }
+        var task = new TransactionTask(ticket, numberOfParts);
+        for (int i = 0; i < parts.size(); i++) {
+            if (parts.get(i) != null) {
+                lanes.get(i).queue.put(new LaneTask(task, parts.get(i)));
+            }
+        }
+    }
+
+    @Override
+    public void runExclusive(long lsn, Runnable action) throws InterruptedException {
+        while (!watermark.awaitPendingBelow(1, 100L)) {
+            if (failure.get() != null) {
+                return;
+            }
+        }
+        var ticket = watermark.register(lsn);
+        action.run();
+        if (failure.get() == null) {
+            watermark.complete(ticket);
+        }
+    }
+
+    /**
+     * LSN of the transactions that are completed by all lanes together with all previous transactions
+     */
+    @Override
+    public LsnWatermark getWatermark() {
+        return watermark;
+    }
+
+    @Override
+    public Throwable getFailure() {
+        return failure.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            for (Lane lane : lanes) {
+                lane.thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //null if the transaction must be processed exclusively
+    private List<List<RowChangesStructure>> split(List<RowChangesStructure> changes) {
+        List<List<RowChangesStructure>> parts = new ArrayList<>(Collections.nCopies(lanes.size(), null));
+        for (RowChangesStructure row : changes) {
+            if (row.getOperationEnum() == OperationEnum.TRUNCATE) {
+                return null;
+            }
+            int lane = Math.floorMod(spread(hash(row)), parts.size());
+            var part = parts.get(lane);
+            if (part == null) {
+                part = new ArrayList<>();
+                parts.set(lane, part);
+            }
+            part.add(row);
+        }
+        return parts;
+    }
+
+    static int hash(RowChangesStructure row) {
+        int hash = 31 * Objects.hashCode(row.getSchemaName()) + Objects.hashCode(row.getTableName());
+        for (Column column : row.getColumnsType().values()) {
+            if (column.isKey()) {
+                hash = 31 * hash + Objects.hashCode(row.getColumnsData().get(column.getName()));
+            }
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    //after the failure the parts are skipped, the transaction is not confirmed
+    private void process(LaneTask laneTask) {
+        if (failure.get() == null) {
+            try {
+                consumer.accept(laneTask.changes());
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }
+        if (laneTask.transaction().remainingParts.decrementAndGet() == 0 && failure.get() == null) {
+            watermark.complete(laneTask.transaction().ticket);
+        }
+    }
+
+    private void fail(Throwable error) {
+        if (failure.compareAndSet(null, error)) {
+            log.error("Error in lane {}, delivery is stopped, error {}", Thread.currentThread().getName(), error.getMessage());
+        }
+    }
+
+    private class Lane {
+        private final BlockingQueue<LaneTask> queue;
+        private final Thread thread;
+
+        private Lane(String name, int queueSize) {
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+            this.thread = new Thread(this::run, name);
+            this.thread.setDaemon(true);
+        }
+
+        private void run() {
+            try {
+                while (running || !queue.isEmpty()) {
+                    var laneTask = queue.poll(100L, TimeUnit.MILLISECONDS);
+                    if (laneTask != null) {
+                        process(laneTask);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class TransactionTask {
+        private final LsnWatermark.Ticket ticket;
+        private final AtomicInteger remainingParts;
+
+        private TransactionTask(LsnWatermark.Ticket ticket, int parts) {
+            this.ticket = ticket;
+            this.remainingParts = new AtomicInteger(parts);
+        }
+    }
+
+    private record LaneTask(TransactionTask transaction, List<RowChangesStructure> changes) {
+    }
+}
@@ -0,0 +1,118 @@
+package io.github.moshkabortmanstar.engine.dispatch.impl;
+
+import io.github.moshkabortmanstar.data.TransactionBatch;
+import io.github.moshkabortmanstar.data.enums.OverflowStrategyEnum;
+import io.github.moshkabortmanstar.engine.dispatch.LsnWatermark;
+import io.github.moshkabortmanstar.engine.dispatch.TransactionDispatcher;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.FluxSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ReactiveTransactionDispatcher emits transactions to the FluxSink only on downstream demand
+ * Transactions without demand are kept in the bounded buffer, with BACKPRESSURE the engine thread waits
+ * in dispatch while the buffer is full, so the stream is not read
+ */
+@Slf4j
+public class ReactiveTransactionDispatcher implements TransactionDispatcher {
+
+    private final FluxSink<TransactionBatch> sink;
+    private final int bufferSize;
+    private final OverflowStrategyEnum overflowStrategy;
+    private final boolean autoAck;
+    private final LsnWatermark watermark = new LsnWatermark();
+    private final ArrayDeque<TransactionBatch> buffer = new ArrayDeque<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    public ReactiveTransactionDispatcher(FluxSink<TransactionBatch> sink,
+                                         int bufferSize,
+                                         OverflowStrategyEnum overflowStrategy,
+                                         boolean autoAck) {
+        this.sink = sink;
+        this.bufferSize = Math.max(bufferSize, 1);
+        this.overflowStrategy = overflowStrategy;
+        this.autoAck = autoAck;
+        sink.onRequest(demand -> drain());
+    }
+
+    @Override
+    public void dispatch(TransactionBatch batch) throws InterruptedException {
+        var ownBatch = batch.toBuilder().changes(new ArrayList<>(batch.getChanges())).build();
+        var ticket = watermark.register(ownBatch.getEndLsn());
+        ownBatch.setAcknowledgement(() -> watermark.complete(ticket));
+
+        synchronized (this) {
+            drain();
+            if (buffer.size() >= bufferSize) {
+                switch (overflowStrategy) {
+                    case BACKPRESSURE -> {
+                        while (buffer.size() >= bufferSize && !sink.isCancelled()) {
+                            wait(100L);
+                        }
+                    }
+                    case DROP_LATEST -> {
+                        log.warn("Buffer is full, transaction {} is dropped", ownBatch.getTransactionId());
+                        ownBatch.acknowledge();
+                        return;
+                    }
+                    case DROP_OLDEST -> {
+                        var oldest = buffer.pollFirst();
+                        log.warn("Buffer is full, transaction {} is dropped", oldest.getTransactionId());
+                        oldest.acknowledge();
+                    }
+                    case ERROR -> {
+                        failure.compareAndSet(null, new IllegalStateException("Buffer of " + bufferSize + " transactions is full"));
+                        return;
+                    }
+                }
+            }
+            if (sink.isCancelled()) {
+                return;
+            }
+            buffer.addLast(ownBatch);
+            drain();
+        }
+    }
+
+    @Override
+    public synchronized void runExclusive(long lsn, Runnable action) throws InterruptedException {
+        while (!buffer.isEmpty() && !sink.isCancelled()) {
+            wait(100L);
+        }
+        var ticket = watermark.register(lsn);
+        action.run();
+        watermark.complete(ticket);
+    }
+
+    @Override
+    public LsnWatermark getWatermark() {
+        return watermark;
+    }
+
+    @Override
+    public Throwable getFailure() {
+        return failure.get();
+    }
+
+    @Override
+    public void close() {
+        //not emitted transactions are not confirmed and are sent again by the server after restart
+        synchronized (this) {
+            buffer.clear();
+        }
+    }
+
+    private synchronized void drain() {
+        while (!buffer.isEmpty() && sink.requestedFromDownstream() > 0 && !sink.isCancelled()) {
+            var batch = buffer.pollFirst();
+            sink.next(batch);
+            if (autoAck) {
+                batch.acknowledge();
+            }
+        }
+        notifyAll();
+    }
+}
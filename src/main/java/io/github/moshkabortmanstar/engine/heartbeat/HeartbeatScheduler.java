@@ -0,0 +1,93 @@
+package io.github.moshkabortmanstar.engine.heartbeat;
+
+import io.github.moshkabortmanstar.service.ReplicationSlotPublicationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HeartbeatScheduler updates the heartbeat table of the engine at a fixed interval with a normal connection
+ * The heartbeat transaction reaches the engine also when the tables of the publication are quiet,
+ * so the confirmed LSN of the slot advances and the server can remove old WAL
+ * Failed update is logged and the connection is opened again on the next heartbeat
+ */
+@Slf4j
+public class HeartbeatScheduler implements AutoCloseable {
+
+    private final String heartbeatTable;
+    private final long intervalMillis;
+    private final ReplicationSlotPublicationService replicationSlotPublicationService;
+    private final DataSourceProperties properties;
+    private final ScheduledExecutorService executor;
+    //opened by the executor thread, closed also by close when the thread does not stop in time
+    private volatile Connection connection;
+
+    public HeartbeatScheduler(String engineName,
+                              String heartbeatTable,
+                              long intervalMillis,
+                              ReplicationSlotPublicationService replicationSlotPublicationService,
+                              DataSourceProperties properties) {
+        this.heartbeatTable = heartbeatTable;
+        this.intervalMillis = intervalMillis;
+        this.replicationSlotPublicationService = replicationSlotPublicationService;
+        this.properties = properties;
+        this.executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            var thread = new Thread(task, engineName + "-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        executor.scheduleWithFixedDelay(this::beat, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Heartbeat of table {} started with interval {} ms", heartbeatTable, intervalMillis);
+    }
+
+    /**
+     * Stop the heartbeat, the connection is closed also when the update does not stop in time
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(intervalMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("Heartbeat of table {} did not stop in {} ms", heartbeatTable, intervalMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeConnection();
+        }
+    }
+
+    private void beat() {
+        try {
+            if (connection == null) {
+                connection = replicationSlotPublicationService.createConnection(properties);
+            }
+            replicationSlotPublicationService.updateHeartbeatTable(connection, heartbeatTable, Instant.now());
+        } catch (SQLException e) {
+            log.warn("Heartbeat of table {} failed, error {}", heartbeatTable, e.getMessage());
+            closeConnection();
+        }
+    }
+
+    private void closeConnection() {
+        var current = connection;
+        if (current == null) {
+            return;
+        }
+        connection = null;
+        try {
+            current.close();
+        } catch (SQLException e) {
+            log.debug("Heartbeat connection is not closed, error {}", e.getMessage());
+        }
+    }
+}
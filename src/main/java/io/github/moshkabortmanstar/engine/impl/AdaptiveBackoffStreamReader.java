@@ -0,0 +1,55 @@
+package io.github.moshkabortmanstar.engine.impl;
+
+import io.github.moshkabortmanstar.engine.ReplicationStreamReader;
+import org.postgresql.replication.PGReplicationStream;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spin, then yield, then park with doubling timeout up to maxParkNanos
+ * The backoff is reset when a message arrives, so the next burst is read without delay
+ */
+public class AdaptiveBackoffStreamReader implements ReplicationStreamReader {
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 50;
+    private static final long MIN_PARK_NANOS = 10_000L;
+
+    private final long maxParkNanos;
+    private int idleTries;
+    private long parkNanos = MIN_PARK_NANOS;
+
+    public AdaptiveBackoffStreamReader(long maxParkNanos) {
+        this.maxParkNanos = Math.max(maxParkNanos, MIN_PARK_NANOS);
+    }
+
+    @Override
+    public ByteBuffer read(PGReplicationStream stream) throws SQLException, InterruptedException {
+        ByteBuffer msg = stream.readPending();
+        if (msg != null) {
+            idleTries = 0;
+            parkNanos = MIN_PARK_NANOS;
+            return msg;
+        }
+        idle();
+        return null;
+    }
+
+    private void idle() throws InterruptedException {
+        if (idleTries < SPIN_TRIES) {
+            idleTries++;
+            Thread.onSpinWait();
+        } else if (idleTries < SPIN_TRIES + YIELD_TRIES) {
+            idleTries++;
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(parkNanos);
+            parkNanos = Math.min(parkNanos << 1, maxParkNanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Reading of replication stream is interrupted");
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.moshkabortmanstar.engine.impl;
+
+import io.github.moshkabortmanstar.engine.ReplicationStreamReader;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.replication.PGReplicationStream;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pending messages are read on the engine thread, when nothing is pending the blocking read runs on the reader thread,
+ * the driver answers keepalive messages while waiting
+ * The engine thread waits for the message at most maxWaitMillis, so stop, linger and confirmations of the dispatchers
+ * are handled also while the stream is idle
+ * The next read starts only when the engine asks for it, so the last received LSN of the stream
+ * belongs to the message the engine processes
+ * The blocking read of the driver cannot be cancelled and holds the connection, so close waits until the next
+ * message or keepalive of the server ends it, up to wal_sender_timeout / 2 on an idle stream, the heartbeat shortens it
+ */
+@Slf4j
+public class BlockingStreamReader implements ReplicationStreamReader {
+
+    //default wal_sender_timeout, the server sends keepalive in half of it
+    private static final long CLOSE_TIMEOUT_MILLIS = 60_000L;
+
+    private final String engineName;
+    private final long maxWaitMillis;
+    private final ExecutorService executor;
+    private Future<ByteBuffer> pendingRead;
+
+    public BlockingStreamReader(String engineName, long maxWaitMillis) {
+        this.engineName = engineName;
+        this.maxWaitMillis = Math.max(maxWaitMillis, 1L);
+        this.executor = Executors.newSingleThreadExecutor(task -> {
+            var thread = new Thread(task, engineName + "-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public ByteBuffer read(PGReplicationStream stream) throws SQLException, InterruptedException {
+        if (pendingRead == null) {
+            var msg = stream.readPending();
+            if (msg != null) {
+                return msg;
+            }
+            pendingRead = executor.submit(stream::read);
+        }
+        try {
+            var msg = pendingRead.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+            pendingRead = null;
+            return msg;
+        } catch (TimeoutException e) {
+            return null;
+        } catch (ExecutionException e) {
+            pendingRead = null;
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SQLException("Read of replication stream failed", e.getCause());
+        }
+    }
+
+    /**
+     * Wait for the pending read, its message is dropped and is sent again by the server after restart
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        if (pendingRead != null && !pendingRead.isDone()) {
+            log.info("Engine {} waits for the next message of the server to end the blocking read", engineName);
+        }
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                log.warn("Blocking read of engine {} did not end in {} ms", engineName, CLOSE_TIMEOUT_MILLIS);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+        pendingRead = null;
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.moshkabortmanstar.engine.impl;
+
+import io.github.moshkabortmanstar.engine.ReplicationStreamReader;
+import org.postgresql.replication.PGReplicationStream;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+public class PollingStreamReader implements ReplicationStreamReader {
+
+    private final long pollIntervalMillis;
+
+    public PollingStreamReader(long pollIntervalMillis) {
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    @Override
+    public ByteBuffer read(PGReplicationStream stream) throws SQLException, InterruptedException {
+        ByteBuffer msg = stream.readPending();
+        if (msg == null) {
+            TimeUnit.MILLISECONDS.sleep(pollIntervalMillis);
+        }
+        return msg;
+    }
+}
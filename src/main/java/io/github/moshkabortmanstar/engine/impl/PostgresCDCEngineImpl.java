@@ -1,41 +1,85 @@
 package io.github.moshkabortmanstar.engine.impl;
 
 
-import io.github.moshkabortmanstar.cache.RelationMetaInfoCache;
+import io.github.moshkabortmanstar.cache.RelationRegistry;
+import io.github.moshkabortmanstar.cache.TypeRegistry;
+import io.github.moshkabortmanstar.data.FanOutSubscriber;
+import io.github.moshkabortmanstar.data.MicroBatch;
+import io.github.moshkabortmanstar.data.PgType;
+import io.github.moshkabortmanstar.data.PublicationTable;
 import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.RowCursor;
+import io.github.moshkabortmanstar.data.TableFilter;
+import io.github.moshkabortmanstar.data.TransactionBatch;
 import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import io.github.moshkabortmanstar.data.enums.OverflowStrategyEnum;
+import io.github.moshkabortmanstar.data.enums.ReadStrategyEnum;
 import io.github.moshkabortmanstar.data.enums.SlotOptionEnum;
 import io.github.moshkabortmanstar.decode.PgoutHendler;
+import io.github.moshkabortmanstar.decode.PgoutSession;
+import io.github.moshkabortmanstar.decode.PgoutSessionHendler;
+import io.github.moshkabortmanstar.decode.RowCursorHendler;
+import io.github.moshkabortmanstar.decode.filter.TableFilterRegistry;
+import io.github.moshkabortmanstar.decode.value.MoneyFormat;
 import io.github.moshkabortmanstar.engine.CdcEngineErrorHandler;
 import io.github.moshkabortmanstar.engine.CdcEngineOrchestrator;
 import io.github.moshkabortmanstar.engine.PostgresCDCEngine;
+import io.github.moshkabortmanstar.engine.ReplicationStreamReader;
+import io.github.moshkabortmanstar.engine.ReplicationStreamSource;
+import io.github.moshkabortmanstar.engine.RowCursorConsumer;
+import io.github.moshkabortmanstar.engine.StreamingChangesConsumer;
+import io.github.moshkabortmanstar.engine.buffer.SpillableTransactionBuffer;
+import io.github.moshkabortmanstar.engine.dispatch.TransactionDispatcher;
+import io.github.moshkabortmanstar.engine.dispatch.impl.AsyncTransactionDispatcher;
+import io.github.moshkabortmanstar.engine.dispatch.impl.FanOutDispatcher;
+import io.github.moshkabortmanstar.engine.dispatch.impl.MicroBatchDispatcher;
+import io.github.moshkabortmanstar.engine.dispatch.impl.PartitionedDispatcher;
+import io.github.moshkabortmanstar.engine.dispatch.impl.ReactiveTransactionDispatcher;
+import io.github.moshkabortmanstar.engine.heartbeat.HeartbeatScheduler;
+import io.github.moshkabortmanstar.engine.pipeline.ReplicationPipeline;
+import io.github.moshkabortmanstar.engine.pipeline.TransactionDeliveryFactory;
 import io.github.moshkabortmanstar.exception.ReplicationSlotConnectionException;
 import io.github.moshkabortmanstar.exception.ReplicationStreamReadingException;
 import io.github.moshkabortmanstar.exception.SetupReplicationEngineException;
+import io.github.moshkabortmanstar.metrics.CdcMetrics;
+import io.github.moshkabortmanstar.metrics.LatencyHistogram;
 import io.github.moshkabortmanstar.service.ReplicationSlotPublicationService;
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 import org.postgresql.PGConnection;
+import org.postgresql.replication.LogSequenceNumber;
 import org.postgresql.replication.PGReplicationStream;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import reactor.core.publisher.Flux;
 import reactor.core.scheduler.Schedulers;
 
 import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Slf4j
 @Builder
 public class PostgresCDCEngineImpl implements PostgresCDCEngine {
 
+    private static final String HEARTBEAT_TIME_COLUMN = "created_at";
+
     private String slotName;
     private String engineName;
-    private boolean isRunning;
+    //stopped from reactor cancel, dispatcher and orchestrator threads
+    private volatile boolean isRunning;
     private CdcEngineOrchestrator orchestrator;
     private DataSourceProperties properties;
     private PgoutHendler pgoutHendler;
@@ -43,6 +87,89 @@ public class PostgresCDCEngineImpl implements PostgresCDCEngine {
     @Builder.Default
     private CdcEngineErrorHandler errorHandler = (error, strEngineName) -> log.error("Stop engine {} with error {}", strEngineName, error.getMessage());
     private Consumer<List<RowChangesStructure>> changesStructureConsumer;
+    //tables of the publication with column lists and row filters (Postgres 15+), reconciled on every start
+    @Builder.Default
+    private List<PublicationTable> publicationTables = new ArrayList<>();
+    //relations of the engine, they survive restarts and are replaced when the server sends them again
+    @Builder.Default
+    private RelationRegistry relationRegistry = new RelationRegistry();
+    //types that are not builtin, loaded from pg_type on start and reloaded on Type message of unknown type
+    private TypeRegistry typeRegistry;
+    //client side projection and predicates, applied by the decoder before the rows are created
+    @Builder.Default
+    private List<TableFilter> tableFilters = new ArrayList<>();
+    //request values in binary format, supported since Postgres 14
+    @Builder.Default
+    private boolean binaryMode = false;
+    //when set, large in-progress transactions are streamed in chunks (protocol version 2), supported since Postgres 14
+    private StreamingChangesConsumer streamingChangesConsumer;
+    //memory budget of the transaction changes, changes above it are spilled to the segment files, 0 disables spilling
+    @Builder.Default
+    private long transactionMemoryBudgetBytes = 0L;
+    @Builder.Default
+    private Path spillDirectory = Path.of(System.getProperty("java.io.tmpdir"), "postgres-cdc");
+    @Builder.Default
+    private int spillSegmentBytes = 64 * 1024 * 1024;
+    @Builder.Default
+    private ReadStrategyEnum readStrategy = ReadStrategyEnum.ADAPTIVE_BACKOFF;
+    //sleep of POLLING strategy when nothing is pending, longest wait of BLOCKING strategy before the engine checks its state
+    @Builder.Default
+    private long pollIntervalMillis = 100L;
+    //longest park of ADAPTIVE_BACKOFF strategy, it bounds the delay of the first message after idle gap
+    @Builder.Default
+    private long maxParkMicros = 1000L;
+    //reader, decoder and dispatcher run on separate threads, the consumer does not hold back reading of the socket
+    @Builder.Default
+    private boolean pipelined = false;
+    @Builder.Default
+    private int pipelineRingSize = 1024;
+    //number of lanes that call changesStructureConsumer concurrently, changes are partitioned by table and key
+    @Builder.Default
+    private int consumerLanes = 1;
+    @Builder.Default
+    private int laneQueueSize = 256;
+    //asynchronous consumer, the transaction is confirmed to the server when the returned stage completes
+    private Function<TransactionBatch, CompletionStage<Void>> asyncConsumer;
+    @Builder.Default
+    private int maxInFlightTransactions = 16;
+    //interval of the status updates with confirmed LSN sent to the server
+    @Builder.Default
+    private long feedbackIntervalMillis = 10_000L;
+    //consecutive committed transactions are merged into one delivery up to the limits
+    private Consumer<MicroBatch> microBatchConsumer;
+    @Builder.Default
+    private int microBatchMaxRows = 1000;
+    @Builder.Default
+    private long microBatchMaxBytes = 1024 * 1024L;
+    @Builder.Default
+    private long microBatchLingerMillis = 10L;
+    //buffer of the reactive changes() between the engine and the downstream demand
+    @Builder.Default
+    private int reactiveBufferSize = 16;
+    @Builder.Default
+    private OverflowStrategyEnum reactiveOverflow = OverflowStrategyEnum.BACKPRESSURE;
+    //confirm the transaction as soon as it is emitted, otherwise after TransactionBatch.acknowledge
+    @Builder.Default
+    private boolean autoAck = true;
+    //changes are passed as one reusable cursor over the received message, no rows are created
+    private RowCursorConsumer rowCursorConsumer;
+    //subscribers of the shared stream, every one filters its tables and has its own queue and progress
+    @Builder.Default
+    private List<FanOutSubscriber> subscribers = new ArrayList<>();
+    //stream of the changes, by default the replication stream of the server is set up with setUpReplicationStreamEngine
+    private ReplicationStreamSource streamSource;
+    //meters of the engine, for example MicrometerCdcMetrics
+    @Builder.Default
+    private CdcMetrics metrics = CdcMetrics.NOOP;
+    //interval of the heartbeat written by the engine with a normal connection, 0 - disabled
+    @Builder.Default
+    private long heartbeatIntervalMillis = 0L;
+    //latency from the write of the heartbeat to its receive, measured with the clock of the host only
+    @Builder.Default
+    private LatencyHistogram heartbeatLatency = new LatencyHistogram();
+    //latency from the commit on the server to the end of the consumer call, depends on clock sync with the server
+    @Builder.Default
+    private LatencyHistogram deliveryLatency = new LatencyHistogram();
 
     /**
      * The main method of the engine, it reads the data from the replication stream and decodes it
@@ -55,39 +182,12 @@ public class PostgresCDCEngineImpl implements PostgresCDCEngine {
      */
     @Override
     public void run() {
+        checkHendler();
+        checkTransactionBuffer(asyncConsumer != null || !subscribers.isEmpty() || microBatchConsumer != null
+                || (consumerLanes > 1 && changesStructureConsumer != null));
         Flux.create(sink -> {
-                    try (var stream = setUpReplicationStreamEngine()) {
-
-                        isRunning = true;
-                        var listOfTransaction = new LinkedList<RowChangesStructure>();
-                        log.info("Engine {} started", engineName);
-
-                        while (isRunning) {
-
-                            ByteBuffer msg = stream.readPending();
-                            if (msg == null) {
-                                TimeUnit.MILLISECONDS.sleep(100L);
-                                continue;
-                            }
-
-                            var operation = pgoutHendler.decodeHandle(msg,
-                                    listOfTransaction,
-                                    rowChangesStructuresList -> {
-                                        if (replicationSlotPublicationService.isHeartbeatTable(replicationSlotPublicationService.generateHeartbeatTableName(slotName), rowChangesStructuresList.get(0))) {
-                                            log.info("Heartbeat {}, clean space in replication slot", replicationSlotPublicationService.generateHeartbeatTableName(slotName));
-                                        } else {
-                                            sink.next(rowChangesStructuresList);
-                                        }
-                                    }
-                            );
-
-                            if (operation == OperationEnum.COMMIT) {
-                                executeConsumer(listOfTransaction);
-                                listOfTransaction.clear();
-                                stream.setAppliedLSN(stream.getLastReceiveLSN());
-                                stream.setFlushedLSN(stream.getLastReceiveLSN());
-                            }
-                        }
+                    try (var dispatcher = createDispatcher()) {
+                        readChanges(dispatcher);
                     } catch (SQLException | SetupReplicationEngineException conException) {
                         sink.error(new ReplicationSlotConnectionException("Error connection to replication slot", conException));
                     } catch (Exception e) {
@@ -95,10 +195,10 @@ public class PostgresCDCEngineImpl implements PostgresCDCEngine {
                         sink.error(new ReplicationStreamReadingException("Error during engine run", e));
                     }
                 }).subscribeOn(Schedulers.boundedElastic())
-                .doOnNext(rowChangesStructuresList -> changesStructureConsumer.accept((List<RowChangesStructure>) rowChangesStructuresList))
                 .doOnError(e -> {
                     log.error("Error during engine {} run, error {}", engineName, e.getMessage());
                     if (e instanceof ReplicationSlotConnectionException) {
+                        metrics.onRestart();
                         orchestrator.restartEngine(engineName);  // Restart engine if connection error
                     } else {
                         errorHandler.handleError(e, engineName);
@@ -107,12 +207,126 @@ public class PostgresCDCEngineImpl implements PostgresCDCEngine {
                 .subscribe();
     }
 
+    //the engine keeps the transaction state in the session, a handler without it cannot confirm LSNs
+    private void checkHendler() {
+        if (!(pgoutHendler instanceof PgoutSessionHendler)) {
+            throw new IllegalStateException("Engine " + engineName + " requires PgoutSessionHendler, "
+                    + pgoutHendler.getClass().getName() + " does not keep the session of the stream");
+        }
+        if (rowCursorConsumer != null && !(pgoutHendler instanceof RowCursorHendler cursorHendler && cursorHendler.supportsRowCursor())) {
+            throw new IllegalStateException("Engine " + engineName + " has row cursor consumer, "
+                    + pgoutHendler.getClass().getName() + " does not support the row cursor");
+        }
+    }
+
+    //dispatchers that deliver after the buffer is reused keep their own heap copy of the transaction,
+    //a spilled transaction would be loaded back to the heap there
+    private void checkTransactionBuffer(boolean deliveredLater) {
+        if (transactionMemoryBudgetBytes > 0 && deliveredLater && rowCursorConsumer == null && !pipelined) {
+            throw new IllegalStateException("Engine " + engineName + " spills transactions above transactionMemoryBudgetBytes, "
+                    + "spilling is supported only with changesStructureConsumer on one lane");
+        }
+    }
+
+    /**
+     * Reactive entry point, the engine starts on subscription and stops on cancel
+     * Transactions are read only while there is downstream demand or space in the buffer of reactiveBufferSize,
+     * when the buffer is full the reactiveOverflow strategy is applied
+     * With autoAck disabled the transaction is confirmed to the server by TransactionBatch.acknowledge,
+     * confirmation follows the order of transactions, so unacknowledged transaction holds back the next ones
+     * Connection errors are signalled as ReplicationSlotConnectionException, other errors as ReplicationStreamReadingException
+     */
+    public Flux<TransactionBatch> changes() {
+        checkHendler();
+        checkTransactionBuffer(true);
+        return Flux.<TransactionBatch>create(sink -> {
+                    sink.onCancel(this::stopEngine);
+                    try (var dispatcher = new ReactiveTransactionDispatcher(sink, reactiveBufferSize, reactiveOverflow, autoAck)) {
+                        readChanges(dispatcher);
+                        sink.complete();
+                    } catch (SQLException | SetupReplicationEngineException conException) {
+                        sink.error(new ReplicationSlotConnectionException("Error connection to replication slot", conException));
+                    } catch (Exception e) {
+                        log.error("Error during engine {} run, error {}, message cannot be committed", engineName, e.getMessage());
+                        sink.error(new ReplicationStreamReadingException("Error during engine run", e));
+                    }
+                })
+                //requests must not wait for the engine thread, it is blocked while there is no demand
+                .subscribeOn(Schedulers.boundedElastic(), false);
+    }
+
+    private void readChanges(TransactionDispatcher dispatcher) throws SQLException, InterruptedException {
+        HeartbeatScheduler heartbeat = null;
+        //the reader is closed before the stream, its pending read holds the connection
+        try (var stream = openStream();
+             var streamReader = createStreamReader();
+             var transactionBuffer = createTransactionBuffer()) {
+
+            heartbeat = startHeartbeat();
+            isRunning = true;
+            if (rowCursorConsumer != null && dispatcher == null) {
+                runBorrowed(stream, streamReader);
+                return;
+            }
+            if (pipelined) {
+                runPipelined(stream, streamReader, dispatcher);
+                return;
+            }
+            var hendler = (PgoutSessionHendler) pgoutHendler;
+            var session = createSession();
+            var listOfTransaction = new LinkedList<RowChangesStructure>();
+            var deliveryFactory = createDeliveryFactory(dispatcher);
+            long appliedLsn = 0L;
+            log.info("Engine {} started with read strategy {}", engineName, readStrategy);
+
+            while (isRunning) {
+                if (dispatcher != null) {
+                    dispatcher.onIdle();
+                    appliedLsn = acknowledge(stream, dispatcher, appliedLsn);
+                }
+
+                ByteBuffer msg = streamReader.read(stream);
+                if (msg == null) {
+                    metrics.onIdlePoll();
+                    continue;
+                }
+
+                metrics.onReceivedLsn(stream.getLastReceiveLSN().asLong());
+                int messageBytes = msg.remaining();
+                long decodeStart = System.nanoTime();
+                var operation = hendler.decodeHandle(msg, session, listOfTransaction, rowChangesStructuresList -> {
+                });
+                metrics.onMessage(operation, messageBytes, System.nanoTime() - decodeStart);
+
+                if (transactionBuffer != null && !listOfTransaction.isEmpty()) {
+                    transactionBuffer.addAll(listOfTransaction);
+                    listOfTransaction.clear();
+                }
+                List<RowChangesStructure> changes = transactionBuffer != null ? transactionBuffer.asList() : listOfTransaction;
+
+                var delivery = deliveryFactory.create(operation, session, changes);
+                if (delivery != null) {
+                    delivery.run();
+                    clearChanges(listOfTransaction, transactionBuffer);
+                    //stream chunk is not acknowledged until the streamed transaction is committed or aborted,
+                    //dispatchers confirm transactions through the watermark
+                    if (operation != OperationEnum.STREAM_STOP && dispatcher == null) {
+                        acknowledge(stream);
+                    }
+                }
+            }
+        } finally {
+            //heartbeat is not a resource of the try, its body does not use it
+            if (heartbeat != null) {
+                heartbeat.close();
+            }
+        }
+    }
+
     @Override
     public PGReplicationStream setUpReplicationStreamEngine() {
         try {
-            // 0. Clean thread cache
-            RelationMetaInfoCache.clear();
-            log.info("Starting engine {}, clear cache", engineName);
+            log.info("Starting engine {}", engineName);
 
             // 1. Get the connection and unwrap it to PGConnection
             var connection = replicationSlotPublicationService.creteConnectionForReplication(properties);
@@ -128,6 +342,11 @@ public class PostgresCDCEngineImpl implements PostgresCDCEngine {
             if (!replicationSlotPublicationService.isPublicationExist(connection, slotName)) {
                 replicationSlotPublicationService.createPublication(connection, slotName);
             }
+            if (!publicationTables.isEmpty()) {
+                replicationSlotPublicationService.reconcilePublicationTables(connection, slotName, publicationTables);
+            }
+
+            loadTypes(connection);
 
             // 4. Create heartbeat table
             var heartbeatTable = replicationSlotPublicationService.generateHeartbeatTableName(slotName);
@@ -137,13 +356,20 @@ public class PostgresCDCEngineImpl implements PostgresCDCEngine {
             addHeartbeatTableToPublication(connection, heartbeatTable);
 
             // 6. Create a replication stream
-            return streamConnection.getReplicationAPI()
+            var streamBuilder = streamConnection.getReplicationAPI()
                     .replicationStream()
                     .logical()
                     .withSlotName(slotName)
-                    .withSlotOption(SlotOptionEnum.PROTO_VERSION.getOptionName(), "1")
-                    .withSlotOption(SlotOptionEnum.PUBLICATION_NAME.getOptionName(), slotName)
-                    .start();
+                    .withStatusInterval(Math.toIntExact(feedbackIntervalMillis), TimeUnit.MILLISECONDS)
+                    .withSlotOption(SlotOptionEnum.PROTO_VERSION.getOptionName(), isStreamingEnabled() ? "2" : "1")
+                    .withSlotOption(SlotOptionEnum.PUBLICATION_NAME.getOptionName(), slotName);
+            if (binaryMode) {
+                streamBuilder.withSlotOption(SlotOptionEnum.BINARY.getOptionName(), "true");
+            }
+            if (isStreamingEnabled()) {
+                streamBuilder.withSlotOption(SlotOptionEnum.STREAMING.getOptionName(), "on");
+            }
+            return streamBuilder.start();
         } catch (SQLException e) {
             log.error("Error during setup of replication stream", e);
             throw new SetupReplicationEngineException("Error during setup of replication stream", e);
@@ -151,17 +377,414 @@ public class PostgresCDCEngineImpl implements PostgresCDCEngine {
 
     }
 
+    private PGReplicationStream openStream() throws SQLException {
+        if (streamSource == null) {
+            return setUpReplicationStreamEngine();
+        }
+        log.info("Starting engine {} with custom stream source", engineName);
+        return streamSource.start();
+    }
+
+    /**
+     * Heartbeat needs the database of the engine, it is not started with a custom stream source without the service
+     */
+    private HeartbeatScheduler startHeartbeat() {
+        if (!isHeartbeatEnabled()) {
+            return null;
+        }
+        var heartbeat = new HeartbeatScheduler(engineName, replicationSlotPublicationService.generateHeartbeatTableName(slotName),
+                heartbeatIntervalMillis, replicationSlotPublicationService, properties);
+        heartbeat.start();
+        return heartbeat;
+    }
+
+    private boolean isHeartbeatEnabled() {
+        return heartbeatIntervalMillis > 0 && replicationSlotPublicationService != null;
+    }
+
+    private void onHeartbeat(RowChangesStructure heartbeat) {
+        if (heartbeat.getOperationEnum() != OperationEnum.UPDATE || heartbeat.isNull(HEARTBEAT_TIME_COLUMN)) {
+            return;
+        }
+        try {
+            Instant heartbeatTime = heartbeat.getTimestamp(HEARTBEAT_TIME_COLUMN).toInstant(ZoneOffset.UTC);
+            long latencyMicros = ChronoUnit.MICROS.between(heartbeatTime, Instant.now());
+            heartbeatLatency.record(latencyMicros);
+            metrics.onHeartbeat(latencyMicros);
+        } catch (RuntimeException e) {
+            log.debug("Heartbeat of engine {} is not parsed, error {}", engineName, e.getMessage());
+        }
+    }
+
+    /**
+     * Latency from the write of the heartbeat to its receive in microseconds
+     */
+    public LatencyHistogram getHeartbeatLatency() {
+        return heartbeatLatency;
+    }
+
     public void stopEngine() {
-        log.info("Initiating stop of engine {}", engineName);
+        log.info("Initiating stop of engine {}, delivery latency {}", engineName, deliveryLatency);
         isRunning = false;
     }
 
-    private void executeConsumer(List<RowChangesStructure> rowChangesStructuresList) {
+    /**
+     * Hot path of the cursor consumer, the steady state allocates only what the driver allocates for the message
+     * The transaction is confirmed after commit of the consumer
+     */
+    private void runBorrowed(PGReplicationStream stream, ReplicationStreamReader streamReader) throws SQLException, InterruptedException {
+        if (pipelined || transactionMemoryBudgetBytes > 0) {
+            log.warn("Engine {} delivers changes to row cursor consumer, pipeline and transaction memory budget are not applied", engineName);
+        }
+        var hendler = (RowCursorHendler) pgoutHendler;
+        var session = createSession();
+        var cursor = new RowCursor();
+        Consumer<RowCursor> cursorConsumer = this::executeCursorConsumer;
+        long appliedLsn = 0L;
+        log.info("Engine {} started with row cursor consumer and read strategy {}", engineName, readStrategy);
+
+        int transactionRows = 0;
+        while (isRunning) {
+            ByteBuffer msg = streamReader.read(stream);
+            if (msg == null) {
+                metrics.onIdlePoll();
+                continue;
+            }
+            metrics.onReceivedLsn(stream.getLastReceiveLSN().asLong());
+            int messageBytes = msg.remaining();
+            long decodeStart = System.nanoTime();
+            //decode time includes the calls of the cursor consumer
+            var operation = hendler.decodeHandle(msg, session, cursor, cursorConsumer);
+            metrics.onMessage(operation, messageBytes, System.nanoTime() - decodeStart);
+            if (operation == OperationEnum.INSERT || operation == OperationEnum.UPDATE || operation == OperationEnum.DELETE) {
+                transactionRows++;
+            }
+            if (operation == OperationEnum.COMMIT) {
+                metrics.onTransaction(transactionRows);
+                transactionRows = 0;
+                try {
+                    rowCursorConsumer.commit(session.getTransactionId(), session.getEndLsn());
+                } catch (Exception e) {
+                    errorHandler.handleError(e, engineName);
+                }
+                recordDeliveryLatency(session.getCommitTimeMicros());
+                appliedLsn = acknowledge(stream, session.getEndLsn(), appliedLsn);
+            }
+        }
+    }
+
+    private void executeCursorConsumer(RowCursor cursor) {
+        long start = System.nanoTime();
+        try {
+            rowCursorConsumer.accept(cursor);
+        } catch (Exception e) {
+            errorHandler.handleError(e, engineName);
+        }
+        metrics.onConsumer(System.nanoTime() - start);
+    }
+
+    private void runPipelined(PGReplicationStream stream, ReplicationStreamReader streamReader, TransactionDispatcher dispatcher)
+            throws SQLException, InterruptedException {
+        if (transactionMemoryBudgetBytes > 0) {
+            log.warn("Engine {} runs pipelined, transaction memory budget is not applied", engineName);
+        }
+        long appliedLsn = 0L;
+        try (var pipeline = new ReplicationPipeline(engineName, (PgoutSessionHendler) pgoutHendler, createSession(), pipelineRingSize, createDeliveryFactory(dispatcher))) {
+            pipeline.start();
+            log.info("Engine {} started pipelined with read strategy {}", engineName, readStrategy);
+            while (isRunning) {
+                appliedLsn = acknowledge(stream, pipeline, dispatcher, appliedLsn);
+                ByteBuffer msg = streamReader.read(stream);
+                if (msg == null) {
+                    metrics.onIdlePoll();
+                    continue;
+                }
+                long lsn = stream.getLastReceiveLSN().asLong();
+                metrics.onReceivedLsn(lsn);
+                //ring buffer is full, wait for the decoder and keep confirming delivered transactions
+                while (!pipeline.offer(msg, lsn)) {
+                    appliedLsn = acknowledge(stream, pipeline, dispatcher, appliedLsn);
+                    TimeUnit.MICROSECONDS.sleep(50L);
+                }
+            }
+        }
+    }
+
+    /**
+     * Types are loaded once per connection, failure leaves only builtin types resolved
+     */
+    private void loadTypes(Connection connection) {
+        if (typeRegistry == null) {
+            typeRegistry = new TypeRegistry(this::loadTypesWithNewConnection);
+        }
+        typeRegistry.setSessionZone(sessionZone(connection));
+        typeRegistry.setMoneyFormat(moneyFormat(connection));
+        try {
+            typeRegistry.load(replicationSlotPublicationService.loadTypes(connection));
+        } catch (SQLException e) {
+            log.warn("Engine {} cannot load types from pg_type, error {}", engineName, e.getMessage());
+        }
+    }
+
+    //text values of timestamptz are rendered by the server in the TimeZone of the session, binary mode renders them the same way
+    private ZoneId sessionZone(Connection connection) {
+        try {
+            var timeZone = connection.unwrap(PGConnection.class).getParameterStatus("TimeZone");
+            return timeZone == null ? ZoneOffset.UTC : ZoneId.of(timeZone);
+        } catch (SQLException | DateTimeException e) {
+            log.warn("Engine {} cannot resolve the session time zone, UTC is used, error {}", engineName, e.getMessage());
+            return ZoneOffset.UTC;
+        }
+    }
+
+    //text values of money are rendered by the server in lc_monetary of the session, binary mode renders them the same way
+    private MoneyFormat moneyFormat(Connection connection) {
+        try {
+            return replicationSlotPublicationService.loadMoneyFormat(connection);
+        } catch (SQLException | IllegalArgumentException e) {
+            log.warn("Engine {} cannot resolve the money format of lc_monetary, the format of C locale is used, error {}", engineName, e.getMessage());
+            return MoneyFormat.DEFAULT;
+        }
+    }
+
+    //replication connection is busy with the stream, so types are reloaded with a new connection
+    private List<PgType> loadTypesWithNewConnection() throws SQLException {
+        try (var connection = replicationSlotPublicationService.creteConnectionForReplication(properties)) {
+            return replicationSlotPublicationService.loadTypes(connection);
+        }
+    }
+
+    private PgoutSession createSession() {
+        var session = new PgoutSession();
+        session.setRelationRegistry(relationRegistry);
+        session.setTypeRegistry(typeRegistry);
+        session.setMetrics(metrics);
+        if (isHeartbeatEnabled()) {
+            var heartbeatTable = replicationSlotPublicationService.generateHeartbeatTableName(slotName);
+            int separator = heartbeatTable.indexOf('.');
+            session.setHeartbeatSchemaName(heartbeatTable.substring(0, separator));
+            session.setHeartbeatTableName(heartbeatTable.substring(separator + 1));
+            session.setHeartbeatConsumer(this::onHeartbeat);
+        }
+        if (!tableFilters.isEmpty()) {
+            session.setTableFilters(new TableFilterRegistry(tableFilters));
+        }
+        return session;
+    }
+
+    private long acknowledge(PGReplicationStream stream, ReplicationPipeline pipeline, TransactionDispatcher dispatcher, long appliedLsn) {
+        if (pipeline.getFailure() != null) {
+            throw new ReplicationStreamReadingException("Pipeline stage failed", pipeline.getFailure());
+        }
+        if (dispatcher != null) {
+            dispatcher.onIdle();
+            return acknowledge(stream, dispatcher, appliedLsn);
+        }
+        return acknowledge(stream, pipeline.getConfirmedLsn(), appliedLsn);
+    }
+
+    private long acknowledge(PGReplicationStream stream, TransactionDispatcher dispatcher, long appliedLsn) {
+        if (dispatcher.getFailure() != null) {
+            throw new ReplicationStreamReadingException("Delivery of changes failed", dispatcher.getFailure());
+        }
+        return acknowledge(stream, dispatcher.getWatermark().getLsn(), appliedLsn);
+    }
+
+    private long acknowledge(PGReplicationStream stream, long confirmedLsn, long appliedLsn) {
+        if (confirmedLsn != appliedLsn) {
+            stream.setAppliedLSN(LogSequenceNumber.valueOf(confirmedLsn));
+            stream.setFlushedLSN(LogSequenceNumber.valueOf(confirmedLsn));
+            metrics.onFlushedLsn(confirmedLsn);
+        }
+        return confirmedLsn;
+    }
+
+    private TransactionDispatcher createDispatcher() {
+        if (rowCursorConsumer != null) {
+            return null;
+        }
+        if (asyncConsumer != null) {
+            log.info("Engine {} delivers changes to async consumer, max in flight transactions {}", engineName, maxInFlightTransactions);
+            return new AsyncTransactionDispatcher(asyncConsumer, maxInFlightTransactions,
+                    batch -> recordDeliveryLatency(batch.getCommitTimeMicros()));
+        }
+        if (!subscribers.isEmpty()) {
+            log.info("Engine {} delivers changes to {} subscribers", engineName, subscribers.size());
+            return new FanOutDispatcher(engineName, subscribers);
+        }
+        if (microBatchConsumer != null) {
+            log.info("Engine {} delivers micro batches up to {} rows, {} bytes, linger {} ms",
+                    engineName, microBatchMaxRows, microBatchMaxBytes, microBatchLingerMillis);
+            return new MicroBatchDispatcher(this::executeMicroBatchConsumer, microBatchMaxRows, microBatchMaxBytes, microBatchLingerMillis);
+        }
+        if (consumerLanes <= 1 || changesStructureConsumer == null) {
+            return null;
+        }
+        log.info("Engine {} delivers changes with {} lanes", engineName, consumerLanes);
+        return new PartitionedDispatcher(engineName, consumerLanes, laneQueueSize, this::executeLaneConsumer);
+    }
+
+    /**
+     * With lanes the committed transaction is split across them, stream messages are delivered exclusively
+     * after all previous transactions, the delivery latency is measured up to the dispatch then
+     */
+    private TransactionDeliveryFactory createDeliveryFactory(TransactionDispatcher dispatcher) {
+        if (dispatcher == null) {
+            return this::createDelivery;
+        }
+        return (operation, session, changes) -> {
+            var delivery = createDelivery(operation, session, changes);
+            if (delivery == null) {
+                return null;
+            }
+            long lsn = operation == OperationEnum.COMMIT || operation == OperationEnum.STREAM_COMMIT ? session.getEndLsn() : 0L;
+            if (operation == OperationEnum.COMMIT) {
+                var batch = TransactionBatch.builder()
+                        .transactionId(session.getTransactionId())
+                        .commitLsn(session.getCommitLsn())
+                        .endLsn(lsn)
+                        .commitTimeMicros(session.getCommitTimeMicros())
+                        .changes(changes)
+                        .build();
+                return interruptibly(() -> {
+                    dispatcher.dispatch(batch);
+                    if (asyncConsumer == null && microBatchConsumer == null) {
+                        recordDeliveryLatency(batch.getCommitTimeMicros());
+                    }
+                });
+            }
+            return interruptibly(() -> dispatcher.runExclusive(lsn, delivery));
+        };
+    }
+
+    private Runnable interruptibly(InterruptibleAction action) {
+        return () -> {
+            try {
+                action.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ReplicationStreamReadingException("Dispatch of changes is interrupted", e);
+            }
+        };
+    }
+
+    /**
+     * Delivery of the changes that ends the transaction or stream chunk, session values are captured,
+     * so the delivery can run on another thread while the next messages are decoded
+     */
+    private Runnable createDelivery(OperationEnum operation, PgoutSession session, List<RowChangesStructure> changes) {
+        long transactionId = session.getTransactionId();
+        long subTransactionId = session.getSubTransactionId();
+        long commitTimeMicros = session.getCommitTimeMicros();
+        if (operation == OperationEnum.COMMIT) {
+            metrics.onTransaction(changes.size());
+        }
+        return switch (operation) {
+            case COMMIT -> () -> {
+                executeConsumer(transactionId, changes);
+                recordDeliveryLatency(commitTimeMicros);
+            };
+            case STREAM_STOP -> () -> executeStreamingConsumer(() -> streamingChangesConsumer.acceptChunk(transactionId, changes));
+            case STREAM_COMMIT -> () -> executeStreamingConsumer(() -> streamingChangesConsumer.commit(transactionId));
+            case STREAM_ABORT -> () -> executeStreamingConsumer(() -> streamingChangesConsumer.abort(transactionId, subTransactionId));
+            //changes are collected until the end of the transaction or stream chunk
+            default -> null;
+        };
+    }
+
+    private void executeConsumer(long transactionId, List<RowChangesStructure> rowChangesStructuresList) {
+        if (changesStructureConsumer == null && streamingChangesConsumer != null) {
+            //transaction that was not streamed is delivered to streaming consumer as one chunk
+            executeStreamingConsumer(() -> {
+                streamingChangesConsumer.acceptChunk(transactionId, rowChangesStructuresList);
+                streamingChangesConsumer.commit(transactionId);
+            });
+            return;
+        }
+        long start = System.nanoTime();
         try {
             changesStructureConsumer.accept(rowChangesStructuresList);
         } catch (Exception e) {
             errorHandler.handleError(e, engineName);
         }
+        metrics.onConsumer(System.nanoTime() - start);
+    }
+
+    //the exception is not handled here, the dispatcher stops the delivery and the engine reports it to errorHandler
+    private void executeLaneConsumer(List<RowChangesStructure> rowChangesStructuresList) {
+        long start = System.nanoTime();
+        try {
+            changesStructureConsumer.accept(rowChangesStructuresList);
+        } finally {
+            metrics.onConsumer(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Latency from commit to consumer in microseconds, p50 and p99 are available with getPercentile
+     */
+    public LatencyHistogram getDeliveryLatency() {
+        return deliveryLatency;
+    }
+
+    private ReplicationStreamReader createStreamReader() {
+        return switch (readStrategy) {
+            case POLLING -> new PollingStreamReader(pollIntervalMillis);
+            case BLOCKING -> new BlockingStreamReader(engineName, pollIntervalMillis);
+            case ADAPTIVE_BACKOFF -> new AdaptiveBackoffStreamReader(TimeUnit.MICROSECONDS.toNanos(maxParkMicros));
+        };
+    }
+
+    private void recordDeliveryLatency(long commitTimeMicros) {
+        if (commitTimeMicros == 0L) {
+            return;
+        }
+        Instant now = Instant.now();
+        long nowMicros = TimeUnit.SECONDS.toMicros(now.getEpochSecond()) + TimeUnit.NANOSECONDS.toMicros(now.getNano());
+        deliveryLatency.record(nowMicros - commitTimeMicros);
+    }
+
+    private SpillableTransactionBuffer createTransactionBuffer() {
+        if (transactionMemoryBudgetBytes <= 0) {
+            return null;
+        }
+        return new SpillableTransactionBuffer(spillDirectory.resolve(String.valueOf(engineName)), transactionMemoryBudgetBytes, spillSegmentBytes);
+    }
+
+    private void clearChanges(List<RowChangesStructure> listOfTransaction, SpillableTransactionBuffer transactionBuffer) {
+        listOfTransaction.clear();
+        if (transactionBuffer != null) {
+            transactionBuffer.clear();
+        }
+    }
+
+    //the exception is not handled here, the dispatcher stops the delivery and the engine reports it to errorHandler
+    private void executeMicroBatchConsumer(MicroBatch microBatch) {
+        long start = System.nanoTime();
+        try {
+            microBatchConsumer.accept(microBatch);
+        } finally {
+            metrics.onConsumer(System.nanoTime() - start);
+        }
+        for (TransactionBatch transaction : microBatch.getTransactions()) {
+            recordDeliveryLatency(transaction.getCommitTimeMicros());
+        }
+    }
+
+    private void executeStreamingConsumer(Runnable call) {
+        long start = System.nanoTime();
+        try {
+            call.run();
+        } catch (Exception e) {
+            errorHandler.handleError(e, engineName);
+        }
+        metrics.onConsumer(System.nanoTime() - start);
+    }
+
+    private void acknowledge(PGReplicationStream stream) {
+        stream.setAppliedLSN(stream.getLastReceiveLSN());
+        stream.setFlushedLSN(stream.getLastReceiveLSN());
+        metrics.onFlushedLsn(stream.getLastReceiveLSN().asLong());
     }
 
     private void addHeartbeatTableToPublication(Connection connection, String heartbeatTable) throws SQLException {
@@ -173,9 +796,19 @@ public class PostgresCDCEngineImpl implements PostgresCDCEngine {
         }
     }
 
+    //uncommitted chunks are not delivered to the row cursor consumer, it receives committed transactions only
+    private boolean isStreamingEnabled() {
+        return streamingChangesConsumer != null && rowCursorConsumer == null;
+    }
+
     public boolean isRunning() {
         return isRunning;
     }
+
+    @FunctionalInterface
+    private interface InterruptibleAction {
+        void run() throws InterruptedException;
+    }
 }
 
 
@@ -0,0 +1,33 @@
+package io.github.moshkabortmanstar.engine.pipeline;
+
+import java.util.concurrent.locks.LockSupport;
+
+//spin, then yield, then park with doubling timeout, reset when the stage has work
+class IdleStrategy {
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 50;
+    private static final long MIN_PARK_NANOS = 10_000L;
+    private static final long MAX_PARK_NANOS = 1_000_000L;
+
+    private int idleTries;
+    private long parkNanos = MIN_PARK_NANOS;
+
+    void idle() {
+        if (idleTries < SPIN_TRIES) {
+            idleTries++;
+            Thread.onSpinWait();
+        } else if (idleTries < SPIN_TRIES + YIELD_TRIES) {
+            idleTries++;
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(parkNanos);
+            parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+        }
+    }
+
+    void reset() {
+        idleTries = 0;
+        parkNanos = MIN_PARK_NANOS;
+    }
+}
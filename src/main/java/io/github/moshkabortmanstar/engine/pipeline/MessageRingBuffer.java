@@ -0,0 +1,85 @@
+package io.github.moshkabortmanstar.engine.pipeline;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single producer single consumer ring of preallocated message slots
+ * The producer copies the message into the slot byte array, arrays are reused and grow only for bigger messages
+ */
+public class MessageRingBuffer {
+
+    private static final int INITIAL_SLOT_BYTES = 1024;
+
+    private final int mask;
+    private final byte[][] slots;
+    private final ByteBuffer[] views;
+    private final long[] lsns;
+    //next sequence to read, written by the consumer
+    private final AtomicLong head = new AtomicLong();
+    //next sequence to write, written by the producer
+    private final AtomicLong tail = new AtomicLong();
+    //last seen head of the producer, saves volatile reads while the ring is not full
+    private long cachedHead;
+
+    public MessageRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.mask = size - 1;
+        this.slots = new byte[size][];
+        this.views = new ByteBuffer[size];
+        this.lsns = new long[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new byte[INITIAL_SLOT_BYTES];
+            views[i] = ByteBuffer.wrap(slots[i]);
+        }
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Copy the remaining bytes of the message into the next slot
+     *
+     * @return false if the ring is full, the message is not consumed then
+     */
+    public boolean offer(ByteBuffer msg, long lsn) {
+        long sequence = tail.get();
+        if (sequence - cachedHead >= slots.length) {
+            cachedHead = head.get();
+            if (sequence - cachedHead >= slots.length) {
+                return false;
+            }
+        }
+        int index = (int) (sequence & mask);
+        int length = msg.remaining();
+        if (slots[index].length < length) {
+            slots[index] = new byte[Math.max(length, slots[index].length << 1)];
+            views[index] = ByteBuffer.wrap(slots[index]);
+        }
+        msg.get(slots[index], 0, length);
+        views[index].clear().limit(length);
+        lsns[index] = lsn;
+        tail.lazySet(sequence + 1);
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    /**
+     * Message of the oldest slot, it is valid until release
+     */
+    public ByteBuffer peek() {
+        return views[(int) (head.get() & mask)];
+    }
+
+    public long peekLsn() {
+        return lsns[(int) (head.get() & mask)];
+    }
+
+    public void release() {
+        head.lazySet(head.get() + 1);
+    }
+}
@@ -0,0 +1,167 @@
+package io.github.moshkabortmanstar.engine.pipeline;
+
+import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import io.github.moshkabortmanstar.decode.PgoutSession;
+import io.github.moshkabortmanstar.decode.PgoutSessionHendler;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ReplicationPipeline splits the engine into three stages:
+ * reader (caller thread) copies messages into the ring buffer,
+ * decoder thread turns them into changes and dispatcher thread delivers transactions in commit order
+ * The confirmed LSN advances only after the dispatcher finished the delivery, the reader applies it to the stream
+ */
+@Slf4j
+public class ReplicationPipeline implements AutoCloseable {
+
+    private static final long NO_LSN = 0L;
+    private static final int DISPATCH_QUEUE_SIZE = 64;
+
+    private final PgoutSessionHendler pgoutHendler;
+    private final PgoutSession session;
+    private final TransactionDeliveryFactory deliveryFactory;
+    private final MessageRingBuffer ringBuffer;
+    private final BlockingQueue<Delivery> dispatchQueue = new ArrayBlockingQueue<>(DISPATCH_QUEUE_SIZE);
+    private final AtomicLong confirmedLsn = new AtomicLong(NO_LSN);
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final Thread decoderThread;
+    private final Thread dispatcherThread;
+    private volatile boolean running;
+
+    public ReplicationPipeline(String name, PgoutSessionHendler pgoutHendler, int ringSize, TransactionDeliveryFactory deliveryFactory) {
+        this(name, pgoutHendler, new PgoutSession(), ringSize, deliveryFactory);
+    }
+
+    /**
+     * @param session - decoding state of the stream, it is used only by the decoder thread after start
+     */
+    public ReplicationPipeline(String name, PgoutSessionHendler pgoutHendler, PgoutSession session, int ringSize, TransactionDeliveryFactory deliveryFactory) {
+        this.pgoutHendler = pgoutHendler;
+        this.session = session;
+        this.deliveryFactory = deliveryFactory;
+        this.ringBuffer = new MessageRingBuffer(ringSize);
+        this.decoderThread = new Thread(() -> runStage(this::decode), name + "-decoder");
+        this.dispatcherThread = new Thread(() -> runStage(this::dispatch), name + "-dispatcher");
+        decoderThread.setDaemon(true);
+        dispatcherThread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        decoderThread.start();
+        dispatcherThread.start();
+        log.info("Pipeline started with ring buffer of {} slots", ringBuffer.capacity());
+    }
+
+    /**
+     * Copy the message to the ring buffer, called by the reader thread
+     *
+     * @return false if the ring buffer is full
+     */
+    public boolean offer(ByteBuffer msg, long lsn) {
+        return ringBuffer.offer(msg, lsn);
+    }
+
+    /**
+     * LSN of the last delivered transaction or 0 if nothing is delivered yet
+     */
+    public long getConfirmedLsn() {
+        return confirmedLsn.get();
+    }
+
+    /**
+     * Error of the decoder or dispatcher stage, the pipeline stops after it
+     */
+    public Throwable getFailure() {
+        return failure.get();
+    }
+
+    /**
+     * Stop the stages and wait for their threads, interruption of the caller is kept in its flag
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            decoderThread.join();
+            dispatcherThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runStage(StageLoop loop) {
+        try {
+            loop.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } catch (Exception e) {
+            log.error("Pipeline stage {} failed, error {}", Thread.currentThread().getName(), e.getMessage());
+            failure.compareAndSet(null, e);
+        } finally {
+            running = false;
+        }
+    }
+
+    private void decode() throws InterruptedException {
+        var idleStrategy = new IdleStrategy();
+        List<RowChangesStructure> changes = new ArrayList<>();
+        while (running) {
+            if (ringBuffer.isEmpty()) {
+                idleStrategy.idle();
+                continue;
+            }
+            idleStrategy.reset();
+            long lsn = ringBuffer.peekLsn();
+            var msg = ringBuffer.peek();
+            int messageBytes = msg.remaining();
+            long decodeStart = System.nanoTime();
+            //values are copied by the decoder, so the slot can be reused right after decoding
+            var operation = pgoutHendler.decodeHandle(msg, session, changes, rows -> {
+            });
+            session.getMetrics().onMessage(operation, messageBytes, System.nanoTime() - decodeStart);
+            ringBuffer.release();
+
+            var delivery = deliveryFactory.create(operation, session, changes);
+            if (delivery != null) {
+                changes = new ArrayList<>();
+                var task = new Delivery(delivery, operation == OperationEnum.STREAM_STOP ? NO_LSN : lsn);
+                while (running && !dispatchQueue.offer(task, 100L, TimeUnit.MILLISECONDS)) {
+                    //dispatcher is behind, the ring buffer holds back the reader
+                }
+            }
+        }
+    }
+
+    private void dispatch() throws InterruptedException {
+        while (running || !dispatchQueue.isEmpty()) {
+            var task = dispatchQueue.poll(100L, TimeUnit.MILLISECONDS);
+            if (task == null) {
+                continue;
+            }
+            task.delivery().run();
+            if (task.lsn() != NO_LSN) {
+                confirmedLsn.set(task.lsn());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface StageLoop {
+        void run() throws InterruptedException;
+    }
+
+    private record Delivery(Runnable delivery, long lsn) {
+    }
+}
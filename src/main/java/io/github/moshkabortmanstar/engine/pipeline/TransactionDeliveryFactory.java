@@ -0,0 +1,21 @@
+package io.github.moshkabortmanstar.engine.pipeline;
+
+import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import io.github.moshkabortmanstar.decode.PgoutSession;
+
+import java.util.List;
+
+/**
+ * Creates delivery of the decoded changes, it is called on the decoder stage and the delivery runs on the dispatcher stage
+ * Values of the session must be captured, the session is changed by the next messages
+ */
+@FunctionalInterface
+public interface TransactionDeliveryFactory {
+
+    /**
+     * @return delivery or null if the operation does not end a transaction or a stream chunk
+     */
+    Runnable create(OperationEnum operation, PgoutSession session, List<RowChangesStructure> changes);
+
+}
@@ -0,0 +1,252 @@
+package io.github.moshkabortmanstar.engine.shard;
+
+import io.github.moshkabortmanstar.data.SlotShard;
+import io.github.moshkabortmanstar.engine.CdcEngineOrchestrator;
+import io.github.moshkabortmanstar.engine.impl.PostgresCDCEngineImpl;
+import io.github.moshkabortmanstar.service.ReplicationSlotPublicationService;
+import io.github.moshkabortmanstar.service.ShardLeaseService;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * ShardedEngineRunner runs the engines of the shards leased by this node
+ * Leases are acquired and renewed every third of the lease duration, an engine starts when its lease is acquired
+ * and stops when the lease is lost or cannot be renewed before it expires, so the shard of a failed node
+ * is taken over by another node after the lease duration
+ * Every node also keeps a node lease, a node leases at most its fair share of the shards (shards / live nodes, rounded up)
+ * and releases the shards above it, so the shards are spread again when a node joins or fails
+ * The slot accepts only one active consumer, the engine of the old owner that did not stop yet
+ * holds back the new owner until it disconnects
+ */
+@Slf4j
+public class ShardedEngineRunner implements CdcEngineOrchestrator, AutoCloseable {
+
+    //prefix of the node leases, slot names cannot contain ':', so they do not collide with the shards
+    static final String NODE_LEASE_PREFIX = "node:";
+
+    private final List<SlotShard> plan;
+    private final String nodeId;
+    private final Duration leaseDuration;
+    private final int maxShardsPerNode;
+    private final Function<SlotShard, PostgresCDCEngineImpl.PostgresCDCEngineImplBuilder> engineFactory;
+    private final ShardLeaseService shardLeaseService;
+    private final ReplicationSlotPublicationService replicationSlotPublicationService;
+    private final DataSourceProperties properties;
+    private final ScheduledExecutorService executor;
+    private final Map<String, PostgresCDCEngineImpl> engines = new ConcurrentHashMap<>();
+    //used only by the executor thread
+    private Connection connection;
+    private long lastRenewalNanos;
+
+    /**
+     * @param plan             - shards of the plan, the slot name is the name of the shard and its engine
+     * @param nodeId           - owner of the leases, random if not set
+     * @param leaseDuration    - time until the lease of a silent node expires, 30 seconds if not set
+     * @param maxShardsPerNode - shards leased by this node at most, the fair share of the live nodes is applied below it
+     * @param engineFactory    - builder of the shard engine, slot name, engine name and orchestrator are set by the runner
+     */
+    @Builder
+    public ShardedEngineRunner(List<SlotShard> plan,
+                               String nodeId,
+                               Duration leaseDuration,
+                               Integer maxShardsPerNode,
+                               Function<SlotShard, PostgresCDCEngineImpl.PostgresCDCEngineImplBuilder> engineFactory,
+                               ShardLeaseService shardLeaseService,
+                               ReplicationSlotPublicationService replicationSlotPublicationService,
+                               DataSourceProperties properties) {
+        this.plan = List.copyOf(plan);
+        this.nodeId = nodeId != null ? nodeId : UUID.randomUUID().toString();
+        this.leaseDuration = leaseDuration != null ? leaseDuration : Duration.ofSeconds(30);
+        this.maxShardsPerNode = maxShardsPerNode != null ? maxShardsPerNode : Integer.MAX_VALUE;
+        this.engineFactory = engineFactory;
+        this.shardLeaseService = shardLeaseService;
+        this.replicationSlotPublicationService = replicationSlotPublicationService;
+        this.properties = properties;
+        this.executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            var thread = new Thread(task, "cdc-shard-lease-" + this.nodeId);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        long renewMillis = Math.max(1L, leaseDuration.toMillis() / 3);
+        executor.execute(this::createLeaseTable);
+        executor.scheduleWithFixedDelay(this::renewLeases, 0L, renewMillis, TimeUnit.MILLISECONDS);
+        log.info("Node {} started for {} shards with lease of {} ms", nodeId, plan.size(), leaseDuration.toMillis());
+    }
+
+    /**
+     * Names of the shards with running engine on this node
+     */
+    public List<String> getOwnedShards() {
+        return new ArrayList<>(engines.keySet());
+    }
+
+    public PostgresCDCEngineImpl getEngine(String shardName) {
+        return engines.get(shardName);
+    }
+
+    @Override
+    public void startEngine(String engineName) {
+        var shard = plan.stream().filter(s -> s.getSlotName().equals(engineName)).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Shard " + engineName + " is not in the plan"));
+        var engine = engineFactory.apply(shard)
+                .slotName(shard.getSlotName())
+                .engineName(shard.getSlotName())
+                .orchestrator(this)
+                .build();
+        engines.put(engineName, engine);
+        engine.run();
+        log.info("Node {} started engine of shard {} with tables {}", nodeId, engineName, shard.getTables());
+    }
+
+    /**
+     * Restart is delayed by the renew interval and skipped if the lease is lost meanwhile
+     */
+    @Override
+    public void restartEngine(String engineName) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        executor.schedule(() -> {
+            if (engines.containsKey(engineName)) {
+                log.info("Node {} restarts engine of shard {}", nodeId, engineName);
+                startEngine(engineName);
+            }
+        }, Math.max(1L, leaseDuration.toMillis() / 3), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the engines and release the leases, interruption of the caller is kept in its flag
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(leaseDuration.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Lease renewal of node {} did not stop in {} ms", nodeId, leaseDuration.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (String shardName : getOwnedShards()) {
+            releaseShard(shardName);
+        }
+        releaseLease(NODE_LEASE_PREFIX + nodeId);
+        closeConnection();
+    }
+
+    private void createLeaseTable() {
+        try {
+            shardLeaseService.createLeaseTable(connection());
+        } catch (SQLException e) {
+            log.warn("Lease table is not created, error {}", e.getMessage());
+            closeConnection();
+        }
+    }
+
+    private void renewLeases() {
+        try {
+            var leaseConnection = connection();
+            shardLeaseService.tryAcquire(leaseConnection, NODE_LEASE_PREFIX + nodeId, nodeId, leaseDuration);
+            int shardLimit = fairShare(plan.size(), shardLeaseService.countLeases(leaseConnection, NODE_LEASE_PREFIX), maxShardsPerNode);
+            for (SlotShard shard : plan) {
+                var shardName = shard.getSlotName();
+                boolean owned = engines.containsKey(shardName);
+                if (!owned && engines.size() >= shardLimit) {
+                    continue;
+                }
+                boolean leased = shardLeaseService.tryAcquire(leaseConnection, shardName, nodeId, leaseDuration);
+                if (leased && !owned) {
+                    startEngine(shardName);
+                } else if (!leased && owned) {
+                    log.warn("Node {} lost lease of shard {}", nodeId, shardName);
+                    stopShard(shardName);
+                }
+            }
+            releaseSurplus(shardLimit);
+            lastRenewalNanos = System.nanoTime();
+        } catch (SQLException e) {
+            log.warn("Lease renewal of node {} failed, error {}", nodeId, e.getMessage());
+            closeConnection();
+            //the leases may be taken by other nodes already
+            if (System.nanoTime() - lastRenewalNanos >= leaseDuration.toNanos()) {
+                getOwnedShards().forEach(this::stopShard);
+            }
+        } catch (RuntimeException e) {
+            log.error("Lease renewal of node {} failed, error {}", nodeId, e.getMessage());
+        }
+    }
+
+    static int fairShare(int shards, int liveNodes, int maxShardsPerNode) {
+        int nodes = Math.max(liveNodes, 1);
+        return Math.min((shards + nodes - 1) / nodes, maxShardsPerNode);
+    }
+
+    //shards from the end of the plan are given up first, the other nodes take them on their next renewal
+    private void releaseSurplus(int shardLimit) {
+        for (int i = plan.size() - 1; i >= 0 && engines.size() > shardLimit; i--) {
+            var shardName = plan.get(i).getSlotName();
+            if (engines.containsKey(shardName)) {
+                log.info("Node {} gives up shard {} above its share of {} shards", nodeId, shardName, shardLimit);
+                releaseShard(shardName);
+            }
+        }
+    }
+
+    private void releaseShard(String shardName) {
+        stopShard(shardName);
+        releaseLease(shardName);
+    }
+
+    private void releaseLease(String shardName) {
+        try {
+            shardLeaseService.release(connection(), shardName, nodeId);
+        } catch (SQLException e) {
+            log.warn("Lease of shard {} is not released, it expires in {} ms, error {}", shardName, leaseDuration.toMillis(), e.getMessage());
+            closeConnection();
+        }
+    }
+
+    private void stopShard(String shardName) {
+        var engine = engines.remove(shardName);
+        if (engine != null) {
+            engine.stopEngine();
+            log.info("Node {} stopped engine of shard {}", nodeId, shardName);
+        }
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection == null) {
+            connection = replicationSlotPublicationService.createConnection(properties);
+        }
+        return connection;
+    }
+
+    private void closeConnection() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Lease connection is not closed, error {}", e.getMessage());
+        }
+        connection = null;
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.moshkabortmanstar.exception;
+
+import java.io.Serial;
+
+public class ColumnValueDecodingException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 4412309125738410227L;
+
+    public ColumnValueDecodingException(String message) {
+        super(message);
+    }
+
+    public ColumnValueDecodingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.moshkabortmanstar.exception;
+
+import java.io.Serial;
+
+public class TransactionBufferSpillException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = -1827416903457217720L;
+
+    public TransactionBufferSpillException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
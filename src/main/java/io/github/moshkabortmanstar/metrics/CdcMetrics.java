@@ -0,0 +1,70 @@
+package io.github.moshkabortmanstar.metrics;
+
+import io.github.moshkabortmanstar.data.RelationMetaInfo;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+
+/**
+ * CdcMetrics receives measurements of one engine, methods are called on the hot path and must not block
+ * All methods are no-op by default, NOOP is used when metrics are not configured
+ */
+public interface CdcMetrics {
+
+    CdcMetrics NOOP = new CdcMetrics() {
+    };
+
+    /**
+     * Message of the stream was decoded
+     * @param bytes - size of the message
+     * @param decodeNanos - time of decodeHandle
+     */
+    default void onMessage(OperationEnum operation, int bytes, long decodeNanos) {
+    }
+
+    /**
+     * Row change of the table was received, also when it is dropped by the table filter
+     * @param bytes - size of the message of the row
+     */
+    default void onRow(RelationMetaInfo relation, OperationEnum operation, int bytes) {
+    }
+
+    /**
+     * Committed transaction is delivered to the consumer
+     */
+    default void onTransaction(int rows) {
+    }
+
+    /**
+     * Call of the consumer finished
+     */
+    default void onConsumer(long nanos) {
+    }
+
+    /**
+     * Read of the stream returned no message
+     */
+    default void onIdlePoll() {
+    }
+
+    /**
+     * Engine failed with connection error and is restarted by the orchestrator
+     */
+    default void onRestart() {
+    }
+
+    /**
+     * Heartbeat written by the engine was received
+     * @param latencyMicros - time from the write of the heartbeat to its receive
+     */
+    default void onHeartbeat(long latencyMicros) {
+    }
+
+    default void onReceivedLsn(long lsn) {
+    }
+
+    /**
+     * Position confirmed to the server
+     */
+    default void onFlushedLsn(long lsn) {
+    }
+
+}
@@ -0,0 +1,182 @@
+package io.github.moshkabortmanstar.metrics.impl;
+
+import io.github.moshkabortmanstar.cache.CopyOnWriteIntMap;
+import io.github.moshkabortmanstar.data.RelationMetaInfo;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import io.github.moshkabortmanstar.metrics.CdcMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MicrometerCdcMetrics registers the meters of the engine with tag engine=engineName
+ * Meters are created up front or once per table, recording only increments counters and timers
+ * Create one instance per engine name and pass it to every engine instance of that name,
+ * LSN gauges are bound to the first instance registered in the registry
+ */
+public class MicrometerCdcMetrics implements CdcMetrics {
+
+    private static final String ENGINE_TAG = "engine";
+    private static final String OPERATION_TAG = "operation";
+    private static final String TABLE_TAG = "table";
+    private static final OperationEnum[] OPERATIONS = OperationEnum.values();
+
+    private final MeterRegistry registry;
+    private final String engineName;
+    private final Counter[] messages = new Counter[OPERATIONS.length];
+    private final Counter bytes;
+    private final Timer decodeTime;
+    private final Timer consumerTime;
+    private final DistributionSummary transactionRows;
+    private final Counter idlePolls;
+    private final Counter restarts;
+    private final Timer heartbeatLatency;
+    private final CopyOnWriteIntMap<TableMeters> tables = new CopyOnWriteIntMap<>();
+    private volatile long receivedLsn;
+    private volatile long flushedLsn;
+
+    public MicrometerCdcMetrics(MeterRegistry registry, String engineName) {
+        this.registry = registry;
+        this.engineName = engineName;
+        for (OperationEnum operation : OPERATIONS) {
+            messages[operation.ordinal()] = Counter.builder("cdc.messages")
+                    .description("Messages of the replication stream")
+                    .tags(ENGINE_TAG, engineName, OPERATION_TAG, operation.name())
+                    .register(registry);
+        }
+        this.bytes = Counter.builder("cdc.bytes")
+                .description("Bytes of the messages of the replication stream")
+                .baseUnit("bytes")
+                .tags(ENGINE_TAG, engineName)
+                .register(registry);
+        this.decodeTime = Timer.builder("cdc.decode.time")
+                .description("Decode time of one message")
+                .tags(ENGINE_TAG, engineName)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.consumerTime = Timer.builder("cdc.consumer.time")
+                .description("Time of one call of the consumer")
+                .tags(ENGINE_TAG, engineName)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.transactionRows = DistributionSummary.builder("cdc.transaction.rows")
+                .description("Rows of the delivered transaction")
+                .baseUnit("rows")
+                .tags(ENGINE_TAG, engineName)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.idlePolls = Counter.builder("cdc.idle.polls")
+                .description("Reads of the stream without a message")
+                .tags(ENGINE_TAG, engineName)
+                .register(registry);
+        this.restarts = Counter.builder("cdc.restarts")
+                .description("Restarts of the engine after connection errors")
+                .tags(ENGINE_TAG, engineName)
+                .register(registry);
+        this.heartbeatLatency = Timer.builder("cdc.heartbeat.latency")
+                .description("Time from the write of the heartbeat to its receive by the engine")
+                .tags(ENGINE_TAG, engineName)
+                .register(registry);
+        Gauge.builder("cdc.lsn.received", this, metrics -> metrics.receivedLsn)
+                .description("Last LSN received from the server")
+                .tags(ENGINE_TAG, engineName)
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("cdc.lsn.flushed", this, metrics -> metrics.flushedLsn)
+                .description("Last LSN confirmed to the server")
+                .tags(ENGINE_TAG, engineName)
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("cdc.lsn.lag", this, metrics -> Math.max(0L, metrics.receivedLsn - metrics.flushedLsn))
+                .description("WAL received but not confirmed yet")
+                .baseUnit("bytes")
+                .tags(ENGINE_TAG, engineName)
+                .strongReference(true)
+                .register(registry);
+    }
+
+    @Override
+    public void onMessage(OperationEnum operation, int bytes, long decodeNanos) {
+        messages[operation.ordinal()].increment();
+        this.bytes.increment(bytes);
+        decodeTime.record(decodeNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onRow(RelationMetaInfo relation, OperationEnum operation, int bytes) {
+        var table = tables.get(relation.getRelationId());
+        //relation id is kept when the table is renamed
+        if (table == null || !table.schemaName.equals(relation.getSchemaName()) || !table.tableName.equals(relation.getTableName())) {
+            table = new TableMeters(relation.getSchemaName(), relation.getTableName());
+            tables.put(relation.getRelationId(), table);
+        }
+        table.rows[operation.ordinal()].increment();
+        table.bytes[operation.ordinal()].increment(bytes);
+    }
+
+    @Override
+    public void onTransaction(int rows) {
+        transactionRows.record(rows);
+    }
+
+    @Override
+    public void onConsumer(long nanos) {
+        consumerTime.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onIdlePoll() {
+        idlePolls.increment();
+    }
+
+    @Override
+    public void onRestart() {
+        restarts.increment();
+    }
+
+    @Override
+    public void onHeartbeat(long latencyMicros) {
+        heartbeatLatency.record(latencyMicros, TimeUnit.MICROSECONDS);
+    }
+
+    @Override
+    public void onReceivedLsn(long lsn) {
+        receivedLsn = lsn;
+    }
+
+    @Override
+    public void onFlushedLsn(long lsn) {
+        flushedLsn = lsn;
+    }
+
+    /**
+     * Row counters of one table by operation, only INSERT, UPDATE and DELETE are registered
+     */
+    private final class TableMeters {
+        private final String schemaName;
+        private final String tableName;
+        private final Counter[] rows = new Counter[OPERATIONS.length];
+        private final Counter[] bytes = new Counter[OPERATIONS.length];
+
+        private TableMeters(String schemaName, String tableName) {
+            this.schemaName = schemaName;
+            this.tableName = tableName;
+            String qualifiedName = schemaName + "." + tableName;
+            for (OperationEnum operation : new OperationEnum[]{OperationEnum.INSERT, OperationEnum.UPDATE, OperationEnum.DELETE}) {
+                rows[operation.ordinal()] = Counter.builder("cdc.rows")
+                        .description("Row changes of the table")
+                        .tags(ENGINE_TAG, engineName, TABLE_TAG, qualifiedName, OPERATION_TAG, operation.name())
+                        .register(registry);
+                bytes[operation.ordinal()] = Counter.builder("cdc.row.bytes")
+                        .description("Bytes of the row change messages of the table")
+                        .baseUnit("bytes")
+                        .tags(ENGINE_TAG, engineName, TABLE_TAG, qualifiedName, OPERATION_TAG, operation.name())
+                        .register(registry);
+            }
+        }
+    }
+}
@@ -1,12 +1,23 @@
 package io.github.moshkabortmanstar.service;
 
+import io.github.moshkabortmanstar.data.PgType;
+import io.github.moshkabortmanstar.data.PublicationTable;
 import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.decode.value.MoneyFormat;
 import org.postgresql.PGConnection;
 import org.postgresql.replication.ReplicationSlotInfo;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 
 import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 
 public interface ReplicationSlotPublicationService {
 
@@ -29,6 +40,117 @@ public interface ReplicationSlotPublicationService {
      */
     void addTableToPublication(Connection connection, String publicationName, String tableName) throws SQLException;
 
+    /**
+     * Add table with column list and row filter to the publication, supported since Postgres 15
+     *
+     * @param connection       - connection to the database
+     * @param publicationName  - name of the publication
+     * @param publicationTable - table with optional columns and row filter
+     * @throws SQLException - if an error occurred while adding the table to the publication
+     */
+    default void addTableToPublication(Connection connection, String publicationName, PublicationTable publicationTable) throws SQLException {
+        addTableToPublication(connection, publicationName, publicationTable.toPublicationClause());
+    }
+
+
+    /**
+     * Get the table of the publication with its column list and row filter
+     *
+     * @param connection      - connection to the database
+     * @param publicationName - name of the publication
+     * @param tableName       - name of the table with schema
+     * @return Optional<PublicationTable> - empty if the table is not a part of the publication
+     * @throws SQLException - if an error occurred while reading the publication
+     */
+    default Optional<PublicationTable> getPublicationTable(Connection connection, String publicationName, String tableName) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT pg_get_expr(pr.prqual, pr.prrelid) AS row_filter, " +
+                "(SELECT array_agg(a.attname ORDER BY a.attnum) FROM pg_attribute a WHERE a.attrelid = pr.prrelid AND a.attnum = ANY (pr.prattrs)) AS columns " +
+                "FROM pg_publication_rel pr JOIN pg_publication p ON p.oid = pr.prpubid " +
+                "WHERE p.pubname = ? AND pr.prrelid = ?::regclass")) {
+            preparedStatement.setString(1, publicationName);
+            preparedStatement.setString(2, tableName);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            if (!resultSet.next()) {
+                return Optional.empty();
+            }
+            var columnsArray = resultSet.getArray("columns");
+            List<String> columns = columnsArray == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList((String[]) columnsArray.getArray()));
+            return Optional.of(PublicationTable.builder()
+                    .tableName(tableName)
+                    .columns(columns)
+                    .rowFilter(resultSet.getString("row_filter"))
+                    .build());
+        }
+    }
+
+
+    /**
+     * Reconcile column lists and row filters of the tables with the existing publication
+     * Missing tables are added, tables with different columns or row filter are replaced with ALTER PUBLICATION ... SET,
+     * other tables of the publication are not changed
+     * By default only missing tables are added
+     *
+     * @param connection        - connection to the database
+     * @param publicationName   - name of the publication
+     * @param publicationTables - expected tables of the publication
+     * @throws SQLException - if an error occurred while changing the publication
+     */
+    default void reconcilePublicationTables(Connection connection, String publicationName, List<PublicationTable> publicationTables) throws SQLException {
+        for (PublicationTable publicationTable : publicationTables) {
+            if (getPublicationTable(connection, publicationName, publicationTable.getTableName()).isEmpty()) {
+                addTableToPublication(connection, publicationName, publicationTable);
+            }
+        }
+    }
+
+
+    /**
+     * Get the tables of the publication
+     *
+     * @param connection      - connection to the database
+     * @param publicationName - name of the publication
+     * @return List<String> - names of the tables with schema
+     * @throws SQLException - if an error occurred while reading the publication
+     */
+    default List<String> getPublicationTableNames(Connection connection, String publicationName) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT schemaname, tablename FROM pg_publication_tables WHERE pubname = ?")) {
+            preparedStatement.setString(1, publicationName);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                tables.add(resultSet.getString("schemaname") + "." + resultSet.getString("tablename"));
+            }
+        }
+        return tables;
+    }
+
+
+    /**
+     * Load arrays, enums, domains and user defined types from pg_type
+     * By default no types are loaded, columns of these types are decoded as text
+     *
+     * @param connection - connection to the database
+     * @return List<PgType> - types that are not builtin DataType
+     * @throws SQLException - if an error occurred while reading pg_type
+     */
+    default List<PgType> loadTypes(Connection connection) throws SQLException {
+        return List.of();
+    }
+
+
+    /**
+     * Load the money format of lc_monetary of the session
+     * By default the format of the C locale is used
+     *
+     * @param connection - connection to the database
+     * @return MoneyFormat - format of money values rendered by the server
+     * @throws SQLException - if an error occurred while rendering the sample amount
+     */
+    default MoneyFormat loadMoneyFormat(Connection connection) throws SQLException {
+        return MoneyFormat.DEFAULT;
+    }
+
+
     /**
      * Drop table from the publication
      *
@@ -126,6 +248,19 @@ public interface ReplicationSlotPublicationService {
     void updateHeartbeatTable(Connection connection, String heartbeatTable) throws SQLException;
 
 
+    /**
+     * Update heartbeat table with the time of the heartbeat, the engine measures replication latency from it
+     * By default the table is updated with the time of the server
+     *
+     * @param connection     - connection to the database
+     * @param heartbeatTable - name of the heartbeat table
+     * @param heartbeatTime  - time of the heartbeat, stored in created_at in UTC
+     */
+    default void updateHeartbeatTable(Connection connection, String heartbeatTable, Instant heartbeatTime) throws SQLException {
+        updateHeartbeatTable(connection, heartbeatTable);
+    }
+
+
     /**
      * Create full replica identity for the table
      *
@@ -163,4 +298,15 @@ public interface ReplicationSlotPublicationService {
      */
     Connection creteConnectionForReplication(DataSourceProperties dataSourceProperties) throws SQLException;
 
+
+    /**
+     * Create normal connection, it is used for the statements that cannot run on the replication connection
+     *
+     * @param dataSourceProperties - properties of the data source
+     * @return Connection - connection without replication parameter
+     */
+    default Connection createConnection(DataSourceProperties dataSourceProperties) throws SQLException {
+        return DriverManager.getConnection(dataSourceProperties.getUrl(), dataSourceProperties.getUsername(), dataSourceProperties.getPassword());
+    }
+
 }
@@ -0,0 +1,61 @@
+package io.github.moshkabortmanstar.service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * ShardLeaseService keeps the owners of the shards in a lease table of the database,
+ * so every shard is consumed by one node at a time
+ * Expiry is checked with the clock of the server, the nodes do not need synchronized clocks
+ */
+public interface ShardLeaseService {
+
+    /**
+     * Create the lease table if it does not exist
+     *
+     * @param connection - connection to the database
+     * @throws SQLException - if an error occurred while creating the table
+     */
+    void createLeaseTable(Connection connection) throws SQLException;
+
+
+    /**
+     * Acquire the free or expired lease or renew the lease of the owner
+     *
+     * @param connection - connection to the database
+     * @param shardName  - name of the shard (slot name)
+     * @param owner      - id of the node
+     * @param duration   - time until the lease expires without renewal
+     * @return boolean - true if the owner holds the lease until now + duration
+     * @throws SQLException - if an error occurred while updating the lease
+     */
+    boolean tryAcquire(Connection connection, String shardName, String owner, Duration duration) throws SQLException;
+
+
+    /**
+     * Release the lease if it is held by the owner
+     *
+     * @param connection - connection to the database
+     * @param shardName  - name of the shard
+     * @param owner      - id of the node
+     * @throws SQLException - if an error occurred while deleting the lease
+     */
+    void release(Connection connection, String shardName, String owner) throws SQLException;
+
+
+    /**
+     * Count the leases that are not expired and whose shard name starts with the prefix,
+     * the runner keeps a lease per node to count the live nodes with it
+     * By default the leases are not counted and 1 is returned, so every node may lease all shards
+     *
+     * @param connection      - connection to the database
+     * @param shardNamePrefix - prefix of the shard names
+     * @return int - number of the leases
+     * @throws SQLException - if an error occurred while reading the leases
+     */
+    default int countLeases(Connection connection, String shardNamePrefix) throws SQLException {
+        return 1;
+    }
+
+}
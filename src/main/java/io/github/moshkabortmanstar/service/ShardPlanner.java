@@ -0,0 +1,51 @@
+package io.github.moshkabortmanstar.service;
+
+import io.github.moshkabortmanstar.data.SlotShard;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ShardPlanner splits the tables across several slot/publication pairs, so the changes are decoded by several
+ * WAL senders and consumed by several engines
+ */
+public interface ShardPlanner {
+
+    /**
+     * Load the change volume of the tables from pg_stat_user_tables (inserted, updated and deleted rows since the statistics reset)
+     *
+     * @param connection - connection to the database
+     * @param tables     - tables with schema
+     * @return Map<String, Long> - weight of every table, at least 1, tables without statistics have weight 1
+     * @throws SQLException - if an error occurred while reading the statistics
+     */
+    Map<String, Long> loadTableWeights(Connection connection, List<String> tables) throws SQLException;
+
+
+    /**
+     * Assign the tables to the shards, the heaviest table goes to the lightest shard first
+     * The same weights always produce the same plan
+     *
+     * @param slotPrefix   - prefix of the slot names, the slots are named slotPrefix_0 .. slotPrefix_{n-1}
+     * @param tableWeights - weight of every table
+     * @param shards       - number of shards
+     * @return List<SlotShard> - shards in the order of their index
+     */
+    List<SlotShard> plan(String slotPrefix, Map<String, Long> tableWeights, int shards);
+
+
+    /**
+     * Create the missing slots and publications of the plan and move the tables between the publications
+     * Tables are added to their new publication before they are dropped from the old one,
+     * so the changes of a moved table around the move can be delivered by both shards, but are not lost
+     * Tables of the publications that are not in the plan (for example heartbeat tables) are not changed
+     *
+     * @param connection - replication connection (replication=database), it is needed to create the slots
+     * @param plan       - shards to apply
+     * @throws SQLException - if an error occurred while changing the slots or publications
+     */
+    void apply(Connection connection, List<SlotShard> plan) throws SQLException;
+
+}
@@ -1,9 +1,13 @@
 package io.github.moshkabortmanstar.service.impl;
 
 
+import io.github.moshkabortmanstar.data.PgType;
+import io.github.moshkabortmanstar.data.PublicationTable;
 import io.github.moshkabortmanstar.data.RowChangesStructure;
 import io.github.moshkabortmanstar.data.enums.PostgresConnectionProperty;
+import io.github.moshkabortmanstar.decode.value.MoneyFormat;
 import io.github.moshkabortmanstar.service.ReplicationSlotPublicationService;
+import lombok.extern.slf4j.Slf4j;
 import org.postgresql.PGConnection;
 import org.postgresql.replication.ReplicationSlotInfo;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
@@ -13,12 +17,23 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * ReplicationSlotPublicationUtil is a utility class that contains methods for managing replication slots and publications
  * Author: MoshkaBortman
  */
+@Slf4j
 public class ReplicationSlotPublicationServiceImpl implements ReplicationSlotPublicationService {
 
     public static final String HEARTBEAT_TABLE = "heartbeat_";
@@ -32,9 +47,32 @@ public class ReplicationSlotPublicationServiceImpl implements ReplicationSlotPub
     private static final String ALTER_TABLE_REPLICA_IDENTITY_FULL = "ALTER TABLE %s REPLICA IDENTITY FULL;";
     private static final String ADD_ALL_TABLES_TO_PUBLICATION_QUERY = "ALTER PUBLICATION %s ADD TABLES IN SCHEMA %s;";
     private static final String DROP_TABLE_FROM_PUBLICATION_QUERY = "ALTER PUBLICATION %s DROP TABLE %s;";
+    //replaces all tables and schemas of the publication in one statement, unchanged tables stay published
+    private static final String SET_PUBLICATION_TABLES_QUERY = "ALTER PUBLICATION %s SET %s;";
+    private static final String PUBLICATION_RELS_QUERY = "SELECT pr.prrelid AS relid, format('%I.%I', n.nspname, c.relname) AS table_name, " +
+            "pg_get_expr(pr.prqual, pr.prrelid) AS row_filter, " +
+            "(SELECT array_agg(a.attname ORDER BY a.attnum) FROM pg_attribute a WHERE a.attrelid = pr.prrelid AND a.attnum = ANY (pr.prattrs)) AS columns " +
+            "FROM pg_publication_rel pr JOIN pg_publication p ON p.oid = pr.prpubid " +
+            "JOIN pg_class c ON c.oid = pr.prrelid JOIN pg_namespace n ON n.oid = c.relnamespace " +
+            "WHERE p.pubname = ? ORDER BY pr.oid";
+    private static final String PUBLICATION_SCHEMAS_QUERY = "SELECT format('%I', n.nspname) AS schema_name " +
+            "FROM pg_publication_namespace pn JOIN pg_publication p ON p.oid = pn.pnpubid JOIN pg_namespace n ON n.oid = pn.pnnspid " +
+            "WHERE p.pubname = ?";
+    private static final String TABLE_OID_QUERY = "SELECT ?::regclass::oid AS relid";
+    //row filters applied by the engine are kept in the comment of the publication, one table per line after the header
+    private static final String PUBLICATION_COMMENT_QUERY = "SELECT obj_description(oid, 'pg_publication') AS comment FROM pg_publication WHERE pubname = ?";
+    private static final String COMMENT_ON_PUBLICATION_QUERY = "COMMENT ON PUBLICATION %s IS %s;";
+    private static final String ROW_FILTERS_COMMENT_HEADER = "postgres-cdc-starter row filters";
+    //builtin scalar types are known to DataType, so only arrays, enums, domains and user types are loaded
+    private static final String TYPES_QUERY = "SELECT t.oid, n.nspname, t.typname, t.typtype, t.typcategory, t.typelem, t.typbasetype, t.typdelim " +
+            "FROM pg_type t JOIN pg_namespace n ON n.oid = t.typnamespace " +
+            "WHERE t.typcategory = 'A' OR t.typtype IN ('e', 'd') OR t.oid >= 16384";
+    //the sample amount is rendered by cash_out in lc_monetary of the session
+    private static final String MONEY_FORMAT_QUERY = "SELECT ?::numeric::money::text AS positive, (-?::numeric)::money::text AS negative";
     private static final String CRATE_HEARTBEAT_TABLE = "CREATE TABLE IF NOT EXISTS %s (id SERIAL PRIMARY KEY, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP);";
     private static final String INSERT_HEARTBEAT_TABLE = "INSERT INTO %s DEFAULT VALUES;";
     private static final String UPDATE_HEARTBEAT_TABLE = "UPDATE %s SET created_at = CURRENT_TIMESTAMP WHERE id = 1;";
+    private static final String UPDATE_HEARTBEAT_TABLE_AT = "UPDATE %s SET created_at = ? WHERE id = 1;";
 
     public void dropPublication(Connection connection, String publicationName) throws SQLException {
         executeUpdate(connection, String.format(DROP_PUBLICATION_QUERY, publicationName));
@@ -51,6 +89,174 @@ public class ReplicationSlotPublicationServiceImpl implements ReplicationSlotPub
         executeUpdate(connection, query);
     }
 
+    /**
+     * Missing tables are added, tables with changed columns or row filter are replaced with ALTER PUBLICATION ... SET,
+     * which lists all tables and schemas of the publication, so the other tables stay published
+     * Row filters are compared with the filters the engine applied last, they are kept in the comment of the publication,
+     * so an unchanged configuration does not alter the publication
+     */
+    public void reconcilePublicationTables(Connection connection, String publicationName, List<PublicationTable> publicationTables) throws SQLException {
+        var rels = getPublicationRels(connection, publicationName);
+        var appliedRowFilters = getAppliedRowFilters(connection, publicationName);
+        List<PublicationTable> missing = new ArrayList<>();
+        boolean replaced = false;
+        for (PublicationTable publicationTable : publicationTables) {
+            long relid = getTableOid(connection, publicationTable.getTableName());
+            var current = rels.get(relid);
+            if (current == null) {
+                missing.add(publicationTable);
+            } else if (!isSamePublicationTable(current, publicationTable, appliedRowFilters)) {
+                log.info("Replace table {} with {} in publication {}", current.toPublicationClause(), publicationTable.toPublicationClause(), publicationName);
+                replaced = true;
+            } else {
+                continue;
+            }
+            rels.put(relid, publicationTable);
+        }
+        if (replaced) {
+            List<String> clauses = new ArrayList<>();
+            clauses.add("TABLE " + rels.values().stream().map(PublicationTable::toPublicationClause).collect(Collectors.joining(", ")));
+            for (String schemaName : getPublicationSchemas(connection, publicationName)) {
+                clauses.add("TABLES IN SCHEMA " + schemaName);
+            }
+            executeUpdate(connection, String.format(SET_PUBLICATION_TABLES_QUERY, publicationName, String.join(", ", clauses)));
+        } else {
+            for (PublicationTable publicationTable : missing) {
+                log.info("Add table {} to publication {}", publicationTable.toPublicationClause(), publicationName);
+                addTableToPublication(connection, publicationName, publicationTable);
+            }
+        }
+        if (replaced || !missing.isEmpty()) {
+            setAppliedRowFilters(connection, publicationName, publicationTables);
+        }
+    }
+
+    //server keeps the column list in attnum order, row filter is compared with the applied one,
+    //the server form of pg_get_expr differs from the configured text
+    private boolean isSamePublicationTable(PublicationTable current, PublicationTable expected, Set<String> appliedRowFilters) {
+        var expectedColumns = expected.getColumns() == null ? Set.<String>of() : new HashSet<>(expected.getColumns());
+        if (!new HashSet<>(current.getColumns()).equals(expectedColumns)) {
+            return false;
+        }
+        boolean currentFiltered = current.getRowFilter() != null && !current.getRowFilter().isBlank();
+        var expectedRowFilter = toAppliedRowFilter(expected);
+        if (currentFiltered != (expectedRowFilter != null)) {
+            return false;
+        }
+        return !currentFiltered || appliedRowFilters.contains(expectedRowFilter);
+    }
+
+    //one line of the comment, the table with its row filter, null if the table is not filtered
+    private static String toAppliedRowFilter(PublicationTable publicationTable) {
+        var rowFilter = publicationTable.getRowFilter();
+        if (rowFilter == null || rowFilter.isBlank()) {
+            return null;
+        }
+        return publicationTable.getTableName() + " WHERE (" + rowFilter.strip().replaceAll("[\\r\\n]+", " ") + ")";
+    }
+
+    private Set<String> getAppliedRowFilters(Connection connection, String publicationName) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(PUBLICATION_COMMENT_QUERY)) {
+            preparedStatement.setString(1, publicationName);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            var comment = resultSet.next() ? resultSet.getString("comment") : null;
+            if (comment == null || !comment.startsWith(ROW_FILTERS_COMMENT_HEADER)) {
+                return Set.of();
+            }
+            return new HashSet<>(List.of(comment.split("\n")));
+        }
+    }
+
+    private void setAppliedRowFilters(Connection connection, String publicationName, List<PublicationTable> publicationTables) throws SQLException {
+        var comment = new StringBuilder(ROW_FILTERS_COMMENT_HEADER);
+        for (PublicationTable publicationTable : publicationTables) {
+            var rowFilter = toAppliedRowFilter(publicationTable);
+            if (rowFilter != null) {
+                comment.append('\n').append(rowFilter);
+            }
+        }
+        executeUpdate(connection, String.format(COMMENT_ON_PUBLICATION_QUERY, publicationName, quoteLiteral(comment.toString())));
+    }
+
+    private static String quoteLiteral(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    //tables of the publication by oid in the order they were added
+    private Map<Long, PublicationTable> getPublicationRels(Connection connection, String publicationName) throws SQLException {
+        Map<Long, PublicationTable> rels = new LinkedHashMap<>();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(PUBLICATION_RELS_QUERY)) {
+            preparedStatement.setString(1, publicationName);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                var columnsArray = resultSet.getArray("columns");
+                List<String> columns = new ArrayList<>();
+                if (columnsArray != null) {
+                    for (String column : (String[]) columnsArray.getArray()) {
+                        columns.add(column);
+                    }
+                }
+                rels.put(resultSet.getLong("relid"), PublicationTable.builder()
+                        .tableName(resultSet.getString("table_name"))
+                        .columns(columns)
+                        .rowFilter(resultSet.getString("row_filter"))
+                        .build());
+            }
+        }
+        return rels;
+    }
+
+    private List<String> getPublicationSchemas(Connection connection, String publicationName) throws SQLException {
+        List<String> schemas = new ArrayList<>();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(PUBLICATION_SCHEMAS_QUERY)) {
+            preparedStatement.setString(1, publicationName);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                schemas.add(resultSet.getString("schema_name"));
+            }
+        }
+        return schemas;
+    }
+
+    private long getTableOid(Connection connection, String tableName) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(TABLE_OID_QUERY)) {
+            preparedStatement.setString(1, tableName);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            resultSet.next();
+            return resultSet.getLong("relid");
+        }
+    }
+
+    public List<PgType> loadTypes(Connection connection) throws SQLException {
+        List<PgType> types = new ArrayList<>();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(TYPES_QUERY)) {
+            ResultSet resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                types.add(PgType.builder()
+                        .oid((int) resultSet.getLong("oid"))
+                        .schemaName(resultSet.getString("nspname"))
+                        .typeName(resultSet.getString("typname"))
+                        .typeType(resultSet.getString("typtype").charAt(0))
+                        .typeCategory(resultSet.getString("typcategory").charAt(0))
+                        .elementOid((int) resultSet.getLong("typelem"))
+                        .baseTypeOid((int) resultSet.getLong("typbasetype"))
+                        .delimiter(resultSet.getString("typdelim").charAt(0))
+                        .build());
+            }
+        }
+        return types;
+    }
+
+    public MoneyFormat loadMoneyFormat(Connection connection) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(MONEY_FORMAT_QUERY)) {
+            preparedStatement.setBigDecimal(1, MoneyFormat.SAMPLE_AMOUNT);
+            preparedStatement.setBigDecimal(2, MoneyFormat.SAMPLE_AMOUNT);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            resultSet.next();
+            return MoneyFormat.fromSamples(resultSet.getString("positive"), resultSet.getString("negative"));
+        }
+    }
+
     public void dropTableFromPublication(Connection connection, String publicationName, String tableName) throws SQLException {
         executeUpdate(connection, String.format(DROP_TABLE_FROM_PUBLICATION_QUERY, publicationName, tableName));
     }
@@ -98,6 +304,13 @@ public class ReplicationSlotPublicationServiceImpl implements ReplicationSlotPub
         executeUpdate(connection, String.format(UPDATE_HEARTBEAT_TABLE, heartbeatTable));
     }
 
+    public void updateHeartbeatTable(Connection connection, String heartbeatTable, Instant heartbeatTime) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(String.format(UPDATE_HEARTBEAT_TABLE_AT, heartbeatTable))) {
+            preparedStatement.setObject(1, LocalDateTime.ofInstant(heartbeatTime, ZoneOffset.UTC));
+            preparedStatement.execute();
+        }
+    }
+
     public void createFullReplicaIdentity(Connection connection, String tableName) throws SQLException {
         executeUpdate(connection, String.format(ALTER_TABLE_REPLICA_IDENTITY_FULL, tableName));
     }
@@ -111,7 +324,18 @@ public class ReplicationSlotPublicationServiceImpl implements ReplicationSlotPub
             return false;
         }
 
-        return heartbeatTableName.equals(rowChangesStructure.getSchemaName() + "." + rowChangesStructure.getTableName());
+        return isQualifiedName(heartbeatTableName, rowChangesStructure.getSchemaName(), rowChangesStructure.getTableName());
+    }
+
+    /**
+     * Compare schema.table with the qualified name without concatenation
+     */
+    private static boolean isQualifiedName(String qualifiedName, String schemaName, String tableName) {
+        int schemaLength = schemaName.length();
+        return qualifiedName.length() == schemaLength + 1 + tableName.length()
+                && qualifiedName.charAt(schemaLength) == '.'
+                && qualifiedName.startsWith(schemaName)
+                && qualifiedName.endsWith(tableName);
     }
 
     public Connection creteConnectionForReplication(DataSourceProperties dataSourceProperties) throws SQLException {
@@ -126,6 +350,15 @@ public class ReplicationSlotPublicationServiceImpl implements ReplicationSlotPub
         return DriverManager.getConnection(dataSourceProperties.getUrl(), props);
     }
 
+    public Connection createConnection(DataSourceProperties dataSourceProperties) throws SQLException {
+        var props = new Properties();
+        props.setProperty(PostgresConnectionProperty.Param.USER.getParameter(), dataSourceProperties.getUsername());
+        props.setProperty(PostgresConnectionProperty.Param.PASSWORD.getParameter(), dataSourceProperties.getPassword());
+        props.setProperty(PostgresConnectionProperty.Param.KEEP_ALIVE.getParameter(), PostgresConnectionProperty.Value.TRUE.getPropertyValue());
+
+        return DriverManager.getConnection(dataSourceProperties.getUrl(), props);
+    }
+
     private boolean executeQuery(Connection connection, String query, String parameter) throws SQLException {
         try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
             preparedStatement.setString(1, parameter);
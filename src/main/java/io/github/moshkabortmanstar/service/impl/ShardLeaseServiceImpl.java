@@ -0,0 +1,64 @@
+package io.github.moshkabortmanstar.service.impl;
+
+import io.github.moshkabortmanstar.service.ShardLeaseService;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+
+public class ShardLeaseServiceImpl implements ShardLeaseService {
+
+    public static final String DEFAULT_LEASE_TABLE = "public.cdc_shard_lease";
+    private static final String CREATE_LEASE_TABLE = "CREATE TABLE IF NOT EXISTS %s (shard_name TEXT PRIMARY KEY, owner TEXT NOT NULL, expires_at TIMESTAMPTZ NOT NULL);";
+    //the row is returned only when it is inserted or updated, the conflict check and update are atomic
+    private static final String ACQUIRE_LEASE = "INSERT INTO %s AS lease (shard_name, owner, expires_at) VALUES (?, ?, now() + ? * INTERVAL '1 millisecond') " +
+            "ON CONFLICT (shard_name) DO UPDATE SET owner = excluded.owner, expires_at = excluded.expires_at " +
+            "WHERE lease.owner = excluded.owner OR lease.expires_at < now() " +
+            "RETURNING owner";
+    private static final String RELEASE_LEASE = "DELETE FROM %s WHERE shard_name = ? AND owner = ?";
+    private static final String COUNT_LEASES = "SELECT count(*) FROM %s WHERE left(shard_name, ?) = ? AND expires_at > now()";
+
+    private final String leaseTable;
+
+    public ShardLeaseServiceImpl() {
+        this(DEFAULT_LEASE_TABLE);
+    }
+
+    public ShardLeaseServiceImpl(String leaseTable) {
+        this.leaseTable = leaseTable;
+    }
+
+    public void createLeaseTable(Connection connection) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(String.format(CREATE_LEASE_TABLE, leaseTable))) {
+            preparedStatement.execute();
+        }
+    }
+
+    public boolean tryAcquire(Connection connection, String shardName, String owner, Duration duration) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(String.format(ACQUIRE_LEASE, leaseTable))) {
+            preparedStatement.setString(1, shardName);
+            preparedStatement.setString(2, owner);
+            preparedStatement.setLong(3, duration.toMillis());
+            return preparedStatement.executeQuery().next();
+        }
+    }
+
+    public void release(Connection connection, String shardName, String owner) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(String.format(RELEASE_LEASE, leaseTable))) {
+            preparedStatement.setString(1, shardName);
+            preparedStatement.setString(2, owner);
+            preparedStatement.execute();
+        }
+    }
+
+    public int countLeases(Connection connection, String shardNamePrefix) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(String.format(COUNT_LEASES, leaseTable))) {
+            preparedStatement.setInt(1, shardNamePrefix.length());
+            preparedStatement.setString(2, shardNamePrefix);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.moshkabortmanstar.service.impl;
+
+import io.github.moshkabortmanstar.data.SlotShard;
+import io.github.moshkabortmanstar.service.ReplicationSlotPublicationService;
+import io.github.moshkabortmanstar.service.ShardPlanner;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+public class ShardPlannerImpl implements ShardPlanner {
+
+    private static final String TABLE_CHANGES_QUERY = "SELECT schemaname, relname, n_tup_ins + n_tup_upd + n_tup_del AS changes FROM pg_stat_user_tables";
+
+    private final ReplicationSlotPublicationService replicationSlotPublicationService;
+
+    public ShardPlannerImpl(ReplicationSlotPublicationService replicationSlotPublicationService) {
+        this.replicationSlotPublicationService = replicationSlotPublicationService;
+    }
+
+    public Map<String, Long> loadTableWeights(Connection connection, List<String> tables) throws SQLException {
+        Map<String, Long> changes = new HashMap<>();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(TABLE_CHANGES_QUERY)) {
+            ResultSet resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                changes.put(resultSet.getString("schemaname") + "." + resultSet.getString("relname"), resultSet.getLong("changes"));
+            }
+        }
+        Map<String, Long> weights = new LinkedHashMap<>();
+        for (String table : tables) {
+            weights.put(table, Math.max(1L, changes.getOrDefault(table, 1L)));
+        }
+        return weights;
+    }
+
+    public List<SlotShard> plan(String slotPrefix, Map<String, Long> tableWeights, int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Number of shards must be positive, got " + shards);
+        }
+        List<SlotShard> plan = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            plan.add(SlotShard.builder().index(i).slotName(slotPrefix + "_" + i).build());
+        }
+        //longest processing time first, ties are resolved by name and index so the plan is stable
+        var tables = tableWeights.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .toList();
+        for (Map.Entry<String, Long> table : tables) {
+            var lightest = plan.stream().min(Comparator.comparingLong(SlotShard::getWeight).thenComparingInt(SlotShard::getIndex)).orElseThrow();
+            lightest.getTables().add(table.getKey());
+            lightest.setWeight(lightest.getWeight() + table.getValue());
+        }
+        for (SlotShard shard : plan) {
+            log.info("Shard {} with weight {}: {}", shard.getSlotName(), shard.getWeight(), shard.getTables());
+        }
+        return plan;
+    }
+
+    public void apply(Connection connection, List<SlotShard> plan) throws SQLException {
+        Map<String, String> plannedSlots = new HashMap<>();
+        Map<String, Set<String>> currentTables = new HashMap<>();
+        for (SlotShard shard : plan) {
+            var slotName = shard.getSlotName();
+            if (!replicationSlotPublicationService.isSlotExist(connection, slotName)) {
+                log.info("Slot {} does not exist, creating", slotName);
+                replicationSlotPublicationService.createReplicationSlot(connection.unwrap(PGConnection.class), slotName);
+            }
+            if (!replicationSlotPublicationService.isPublicationExist(connection, slotName)) {
+                replicationSlotPublicationService.createPublication(connection, slotName);
+            }
+            currentTables.put(slotName, new HashSet<>(replicationSlotPublicationService.getPublicationTableNames(connection, slotName)));
+            shard.getTables().forEach(table -> plannedSlots.put(table, slotName));
+        }
+
+        //moved tables are published by both shards for a moment instead of none
+        for (SlotShard shard : plan) {
+            for (String table : shard.getTables()) {
+                if (!currentTables.get(shard.getSlotName()).contains(table)) {
+                    log.info("Add table {} to publication {}", table, shard.getSlotName());
+                    replicationSlotPublicationService.addTableToPublication(connection, shard.getSlotName(), table);
+                }
+            }
+        }
+        for (SlotShard shard : plan) {
+            for (String table : currentTables.get(shard.getSlotName())) {
+                var plannedSlot = plannedSlots.get(table);
+                if (plannedSlot != null && !plannedSlot.equals(shard.getSlotName())) {
+                    log.info("Move table {} from publication {} to {}", table, shard.getSlotName(), plannedSlot);
+                    replicationSlotPublicationService.dropTableFromPublication(connection, shard.getSlotName(), table);
+                }
+            }
+        }
+    }
+}
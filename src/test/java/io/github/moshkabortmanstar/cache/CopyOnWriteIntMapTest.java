@@ -0,0 +1,102 @@
+package io.github.moshkabortmanstar.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CopyOnWriteIntMapTest {
+
+    private final CopyOnWriteIntMap<String> map = new CopyOnWriteIntMap<>();
+
+    @Test
+    void putReplacesValueOfSameKey() {
+        map.put(16_384, "orders");
+        map.put(16_384, "orders_v2");
+
+        assertThat(map.get(16_384)).isEqualTo("orders_v2");
+        assertThat(map.get(16_385)).isNull();
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void growsAndKeepsAllKeys() {
+        for (int key = 1; key <= 1_000; key++) {
+            map.put(key, "value-" + key);
+        }
+
+        assertThat(map.size()).isEqualTo(1_000);
+        for (int key = 1; key <= 1_000; key++) {
+            assertThat(map.get(key)).isEqualTo("value-" + key);
+        }
+    }
+
+    @Test
+    void removeKeepsCollidingKeysReachable() {
+        //keys with the same low bits land in neighbouring slots
+        for (int key = 1; key <= 64; key++) {
+            map.put(key << 16, "value-" + key);
+        }
+        map.remove(10 << 16);
+        map.remove(12_345);
+
+        assertThat(map.get(10 << 16)).isNull();
+        assertThat(map.size()).isEqualTo(63);
+        for (int key = 1; key <= 64; key++) {
+            if (key != 10) {
+                assertThat(map.get(key << 16)).isEqualTo("value-" + key);
+            }
+        }
+    }
+
+    @Test
+    void putAllAddsAndReplacesEntries() {
+        map.put(1, "one");
+        map.put(2, "two");
+        Map<Integer, String> entries = new HashMap<>();
+        for (int key = 2; key <= 100; key++) {
+            entries.put(key, "new-" + key);
+        }
+        map.putAll(entries);
+
+        assertThat(map.size()).isEqualTo(100);
+        assertThat(map.get(1)).isEqualTo("one");
+        assertThat(map.get(2)).isEqualTo("new-2");
+        assertThat(map.get(100)).isEqualTo("new-100");
+    }
+
+    @Test
+    void clearRemovesAllKeys() {
+        map.put(1, "one");
+        map.clear();
+
+        assertThat(map.get(1)).isNull();
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void readerSeesEveryPublishedKey() throws InterruptedException {
+        var done = new AtomicBoolean();
+        var error = new AtomicReference<String>();
+        map.put(1, "first");
+        var reader = new Thread(() -> {
+            while (!done.get()) {
+                if (!"first".equals(map.get(1))) {
+                    error.set("key 1 is lost");
+                }
+            }
+        });
+        reader.start();
+        for (int key = 2; key <= 5_000; key++) {
+            map.put(key, "value");
+        }
+        done.set(true);
+        reader.join();
+
+        assertThat(error.get()).isNull();
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.moshkabortmanstar.cache;
+
+import io.github.moshkabortmanstar.data.PgType;
+import io.github.moshkabortmanstar.data.enums.DataType;
+import io.github.moshkabortmanstar.decode.value.BinaryValueDecoders;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TypeRegistryTest {
+
+    private final TypeRegistry registry = new TypeRegistry();
+
+    @Test
+    void resolvesDomainChainLoadedInAnyOrder() {
+        registry.load(List.of(
+                domain(70_002, "positive_amount", 70_001),
+                domain(70_001, "amount", DataType.NUMERIC.getOid())));
+
+        assertThat(registry.size()).isEqualTo(2);
+        assertThat(registry.dataTypeFor(70_002)).isEqualTo(DataType.NUMERIC);
+        assertThat(registry.get(70_002).getTypeName()).isEqualTo("positive_amount");
+    }
+
+    @Test
+    void resolvesDomainOverTypeOfPreviousLoad() {
+        registry.load(List.of(domain(70_001, "amount", DataType.INTEGER.getOid())));
+        registry.load(List.of(domain(70_002, "positive_amount", 70_001)));
+
+        assertThat(registry.dataTypeFor(70_002)).isEqualTo(DataType.INTEGER);
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    void enumAndUnknownTypesAreText() {
+        registry.load(List.of(PgType.builder().oid(70_010).typeName("mood").typeType(PgType.ENUM).build()));
+
+        assertThat(registry.dataTypeFor(70_010)).isEqualTo(DataType.TEXT);
+        assertThat(registry.dataTypeFor(99_999)).isEqualTo(DataType.TEXT);
+        assertThat(registry.binaryDecoderFor(99_999)).isSameAs(BinaryValueDecoders.RAW);
+    }
+
+    @Test
+    void loadsManyTypes() {
+        List<PgType> types = new ArrayList<>();
+        for (int oid = 100_000; oid < 110_000; oid++) {
+            types.add(domain(oid, "domain_" + oid, DataType.TEXT.getOid()));
+        }
+        registry.load(types);
+
+        assertThat(registry.size()).isEqualTo(10_000);
+        assertThat(registry.get(109_999).getTypeName()).isEqualTo("domain_109999");
+    }
+
+    @Test
+    void resolvesArraysWithElementTypeAndTextDecoder() {
+        registry.load(List.of(
+                PgType.builder().oid(70_010).typeName("mood").typeType(PgType.ENUM).build(),
+                array(70_011, "_mood", 70_010),
+                array(1007, "_int4", DataType.INTEGER.getOid()),
+                array(1020, "_box", DataType.BOX.getOid()),
+                domain(70_012, "scores", 1007)));
+
+        assertThat(registry.dataTypeFor(1007)).isEqualTo(DataType.TEXT);
+        assertThat(registry.elementDataTypeFor(1007)).isEqualTo(DataType.INTEGER);
+        assertThat(registry.elementDataTypeFor(70_011)).isEqualTo(DataType.TEXT);
+        assertThat(registry.elementDataTypeFor(70_012)).isEqualTo(DataType.INTEGER);
+        assertThat(registry.elementDataTypeFor(70_010)).isNull();
+        assertThat(registry.elementDataTypeFor(DataType.TEXT.getOid())).isNull();
+        assertThat(registry.textDecoderFor(70_012).decodeArray("{1,NULL}")).containsExactly("1", null);
+        assertThat(registry.textDecoderFor(1020).decodeArray("{(1,1),(0,0);(2,2),(1,1)}")).hasSize(2);
+    }
+
+    private static PgType array(int oid, String name, int elementOid) {
+        return PgType.builder()
+                .oid(oid)
+                .schemaName("pg_catalog")
+                .typeName(name)
+                .typeType(PgType.BASE)
+                .typeCategory(PgType.ARRAY_CATEGORY)
+                .elementOid(elementOid)
+                .build();
+    }
+
+    private static PgType domain(int oid, String name, int baseTypeOid) {
+        return PgType.builder()
+                .oid(oid)
+                .schemaName("public")
+                .typeName(name)
+                .typeType(PgType.DOMAIN)
+                .baseTypeOid(baseTypeOid)
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.moshkabortmanstar.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PublicationTableTest {
+
+    @Test
+    void quotesColumnsAndKeepsRowFilter() {
+        var table = PublicationTable.builder()
+                .tableName("public.orders")
+                .columns(List.of("id", "order", "Customer \"Name\""))
+                .rowFilter("status <> 'DRAFT'")
+                .build();
+
+        assertThat(table.toPublicationClause())
+                .isEqualTo("public.orders (\"id\", \"order\", \"Customer \"\"Name\"\"\") WHERE (status <> 'DRAFT')");
+    }
+
+    @Test
+    void tableWithoutColumnsAndFilterIsWrittenAsItIs() {
+        assertThat(PublicationTable.builder().tableName("public.orders").build().toPublicationClause()).isEqualTo("public.orders");
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.moshkabortmanstar.data;
+
+import io.github.moshkabortmanstar.data.enums.DataType;
+import io.github.moshkabortmanstar.exception.ColumnValueDecodingException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RowChangesStructureTest {
+
+    @Test
+    void typedAccessorsParseEagerValues() {
+        var uuid = UUID.randomUUID();
+        var row = row(Map.of(
+                "id", "42",
+                "amount", "10.50",
+                "active", "t",
+                "external_id", uuid.toString(),
+                "created_at", "2024-04-02 10:15:30+02"));
+
+        assertThat(row.getLong("id")).isEqualTo(42L);
+        assertThat(row.getInt("id")).isEqualTo(42);
+        assertThat(row.getBigDecimal("amount")).isEqualTo(new BigDecimal("10.50"));
+        assertThat(row.getBoolean("active")).isTrue();
+        assertThat(row.getUuid("external_id")).isEqualTo(uuid);
+        assertThat(row.getTimestamp("created_at")).isEqualTo(LocalDateTime.of(2024, 4, 2, 8, 15, 30));
+    }
+
+    @Test
+    void nullValuesAreReportedByAccessors() {
+        var values = new HashMap<String, String>();
+        values.put("id", null);
+        values.put("amount", null);
+        values.put("active", null);
+        values.put("external_id", null);
+        values.put("created_at", null);
+        var row = row(values);
+
+        assertThat(row.isNull("id")).isTrue();
+        assertThat(row.getBigDecimal("amount")).isNull();
+        assertThatThrownBy(() -> row.getLong("id")).isInstanceOf(ColumnValueDecodingException.class);
+        assertThatThrownBy(() -> row.getLong("missing")).isInstanceOf(ColumnValueDecodingException.class);
+    }
+
+    private static RowChangesStructure row(Map<String, String> values) {
+        var columns = new LinkedHashMap<String, Column>();
+        column(columns, "id", DataType.BIGINT);
+        column(columns, "amount", DataType.NUMERIC);
+        column(columns, "active", DataType.BOOLEAN);
+        column(columns, "external_id", DataType.UUID);
+        column(columns, "created_at", DataType.TIMESTAMP_WITH_TIME_ZONE);
+        return RowChangesStructure.builder()
+                .schemaName("public")
+                .tableName("orders")
+                .columnsData(new HashMap<>(values))
+                .columnsType(columns)
+                .build();
+    }
+
+    private static void column(Map<String, Column> columns, String name, DataType dataType) {
+        columns.put(name, Column.builder().name(name).dataType(dataType).index(columns.size()).typeOid(dataType.getOid()).build());
+    }
+}
@@ -0,0 +1,121 @@
+package io.github.moshkabortmanstar.decode.impl;
+
+import io.github.moshkabortmanstar.data.RelationMetaInfo;
+import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.RowCursor;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import io.github.moshkabortmanstar.decode.PgoutMsgDecoder;
+import io.github.moshkabortmanstar.decode.PgoutSession;
+import io.github.moshkabortmanstar.testkit.PgoutMessageWriter;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PgoutHendlerImplTest {
+
+    private static final int RELATION_ID = 16_384;
+    private static final int[] TYPES = {20, 25};
+
+    private final PgoutMessageWriter writer = new PgoutMessageWriter();
+    private final PgoutHendlerImpl hendler = new PgoutHendlerImpl(new PgoutMsgDecoderImpl());
+    private final PgoutSession session = new PgoutSession();
+    private final List<RowChangesStructure> changes = new ArrayList<>();
+
+    @Test
+    void decodesTransactionAndKeepsItsLsnInSession() {
+        assertThat(handle(writer.begin(0x200L, 1_700_000_000_000_000L, 501))).isEqualTo(OperationEnum.BEGIN);
+        handle(writer.relation(RELATION_ID, "public", "orders", List.of("id", "name"), TYPES));
+        handle(writer.insert(RELATION_ID, new String[]{"1", "first"}));
+        handle(writer.update(RELATION_ID, new String[]{"1", "second"}));
+        handle(writer.delete(RELATION_ID, new String[]{"1", null}));
+        assertThat(handle(writer.commit(0x200L, 0x250L, 1_700_000_000_000_000L))).isEqualTo(OperationEnum.COMMIT);
+
+        assertThat(changes).extracting(RowChangesStructure::getOperationEnum)
+                .containsExactly(OperationEnum.INSERT, OperationEnum.UPDATE, OperationEnum.DELETE);
+        assertThat(changes).extracting(RowChangesStructure::getTransactionId).containsOnly(501L);
+        assertThat(changes.get(1).getColumnsData()).containsEntry("id", "1").containsEntry("name", "second");
+        assertThat(session.getCommitLsn()).isEqualTo(0x200L);
+        assertThat(session.getEndLsn()).isEqualTo(0x250L);
+        assertThat(session.getCommitTimeMicros()).isEqualTo(1_700_000_000_000_000L);
+    }
+
+    @Test
+    void decodesStreamedTransactionWithXidOfEveryChange() {
+        assertThat(handle(writer.streamStart(700, true))).isEqualTo(OperationEnum.STREAM_START);
+        assertThat(session.isStreaming()).isTrue();
+        handle(writer.relation(RELATION_ID, "public", "orders", List.of("id", "name"), TYPES));
+        handle(writer.insert(RELATION_ID, new String[]{"1", "top"}));
+        handle(writer.insert(701, RELATION_ID, new String[]{"2", "subtransaction"}));
+        assertThat(handle(writer.streamStop())).isEqualTo(OperationEnum.STREAM_STOP);
+        assertThat(session.isStreaming()).isFalse();
+
+        assertThat(changes).extracting(RowChangesStructure::getTransactionId).containsExactly(700L, 701L);
+
+        assertThat(handle(writer.streamAbort(700, 701))).isEqualTo(OperationEnum.STREAM_ABORT);
+        assertThat(session.getTransactionId()).isEqualTo(700L);
+        assertThat(session.getSubTransactionId()).isEqualTo(701L);
+
+        assertThat(handle(writer.streamCommit(700, 0x300L, 0x340L, 1_700_000_000_000_000L))).isEqualTo(OperationEnum.STREAM_COMMIT);
+        assertThat(session.getCommitLsn()).isEqualTo(0x300L);
+        assertThat(session.getEndLsn()).isEqualTo(0x340L);
+    }
+
+    @Test
+    void changesOutsideOfStreamHaveNoXidPrefix() {
+        handle(writer.streamStart(700, true));
+        handle(writer.relation(RELATION_ID, "public", "orders", List.of("id", "name"), TYPES));
+        handle(writer.streamStop());
+        handle(writer.begin(0x400L, 1_700_000_000_000_000L, 800));
+        handle(writer.insert(RELATION_ID, new String[]{"3", "plain"}));
+
+        assertThat(changes).singleElement().satisfies(row -> {
+            assertThat(row.getTransactionId()).isEqualTo(800L);
+            assertThat(row.getColumnsData()).containsEntry("id", "3");
+        });
+    }
+
+    @Test
+    void fillsRowCursorWithoutCreatingRows() {
+        var cursor = new RowCursor();
+        var ids = new ArrayList<Long>();
+        hendler.decodeHandle(writer.begin(0x200L, 1_700_000_000_000_000L, 501), session, cursor, c -> {
+        });
+        hendler.decodeHandle(writer.relation(RELATION_ID, "public", "orders", List.of("id", "name"), TYPES), session, cursor, c -> {
+        });
+        hendler.decodeHandle(writer.insert(RELATION_ID, new String[]{"42", "cursor"}), session, cursor, c -> ids.add(c.getLong(0)));
+
+        assertThat(hendler.supportsRowCursor()).isTrue();
+        assertThat(ids).containsExactly(42L);
+    }
+
+    @Test
+    void rowCursorNeedsCursorDecoder() {
+        var decoder = new PgoutMsgDecoderImpl();
+        var legacyDecoder = new PgoutMsgDecoder() {
+            @Override
+            public RelationMetaInfo crateRelationMetaInfo(ByteBuffer buffer) {
+                return decoder.crateRelationMetaInfo(buffer);
+            }
+
+            @Override
+            public RowChangesStructure createRowChangesStructure(ByteBuffer byteMsg, OperationEnum operation) {
+                return decoder.createRowChangesStructure(byteMsg, operation);
+            }
+        };
+        var legacyHendler = new PgoutHendlerImpl(legacyDecoder);
+
+        assertThat(legacyHendler.supportsRowCursor()).isFalse();
+        assertThatThrownBy(() -> legacyHendler.decodeHandle(writer.streamStop(), session, new RowCursor(), c -> {
+        })).isInstanceOf(IllegalStateException.class);
+    }
+
+    private OperationEnum handle(ByteBuffer message) {
+        return hendler.decodeHandle(message, session, changes, rows -> {
+        });
+    }
+}
@@ -0,0 +1,198 @@
+package io.github.moshkabortmanstar.decode.impl;
+
+import io.github.moshkabortmanstar.cache.TypeRegistry;
+import io.github.moshkabortmanstar.data.ColumnPredicate;
+import io.github.moshkabortmanstar.data.PgType;
+import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.RowCursor;
+import io.github.moshkabortmanstar.data.TableFilter;
+import io.github.moshkabortmanstar.data.enums.DataType;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import io.github.moshkabortmanstar.decode.PgoutSession;
+import io.github.moshkabortmanstar.decode.filter.TableFilterRegistry;
+import io.github.moshkabortmanstar.decode.value.MoneyFormat;
+import io.github.moshkabortmanstar.testkit.PgoutMessageWriter;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PgoutMsgDecoderImplTest {
+
+    private static final int RELATION_ID = 16_384;
+    //bigint key, text and bigint
+    private static final int[] TYPES = {20, 25, 20};
+
+    private final PgoutMessageWriter writer = new PgoutMessageWriter();
+    private final PgoutMsgDecoderImpl decoder = new PgoutMsgDecoderImpl();
+    private final PgoutSession session = new PgoutSession();
+
+    @Test
+    void dropsRowsOfNotAcceptedOperations() {
+        filter(TableFilter.builder().tableName("public.orders").operations(Set.of(OperationEnum.INSERT)).build());
+
+        assertThat(decode(writer.insert(RELATION_ID, new String[]{"1", "PAID", "10"}), OperationEnum.INSERT)).isNotNull();
+        assertThat(decode(writer.update(RELATION_ID, new String[]{"1", "PAID", "10"}), OperationEnum.UPDATE)).isNull();
+        assertThat(decode(writer.delete(RELATION_ID, new String[]{"1", null, null}), OperationEnum.DELETE)).isNull();
+    }
+
+    @Test
+    void decodesOnlyProjectedColumns() {
+        filter(TableFilter.builder().tableName("public.orders").columns(Set.of("id", "amount")).build());
+
+        var row = decode(writer.insert(RELATION_ID, new String[]{"1", "PAID", "10"}), OperationEnum.INSERT);
+
+        assertThat(row.getColumnsData()).containsEntry("id", "1").containsEntry("amount", "10").doesNotContainKey("status");
+    }
+
+    @Test
+    void evaluatesEqualsInAndRangePredicates() {
+        filter(TableFilter.builder().tableName("public.orders")
+                .predicates(List.of(ColumnPredicate.in("status", List.of("PAID", "SHIPPED")), ColumnPredicate.between("amount", "10", "100")))
+                .build());
+
+        assertThat(decode(writer.insert(RELATION_ID, new String[]{"1", "PAID", "10"}), OperationEnum.INSERT)).isNotNull();
+        assertThat(decode(writer.insert(RELATION_ID, new String[]{"2", "SHIPPED", "100"}), OperationEnum.INSERT)).isNotNull();
+        assertThat(decode(writer.insert(RELATION_ID, new String[]{"3", "NEW", "50"}), OperationEnum.INSERT)).isNull();
+        assertThat(decode(writer.insert(RELATION_ID, new String[]{"4", "PAID", "101"}), OperationEnum.INSERT)).isNull();
+        assertThat(decode(writer.insert(RELATION_ID, new String[]{"5", "PAID", "9"}), OperationEnum.INSERT)).isNull();
+    }
+
+    @Test
+    void nullValueDoesNotMatch() {
+        filter(TableFilter.builder().tableName("public.orders").predicates(List.of(ColumnPredicate.equalTo("status", "PAID"))).build());
+
+        assertThat(decode(writer.insert(RELATION_ID, new String[]{"1", null, "10"}), OperationEnum.INSERT)).isNull();
+    }
+
+    @Test
+    void keyTupleOfDeleteMatchesPredicatesOnOtherColumns() {
+        filter(TableFilter.builder().tableName("public.orders")
+                .predicates(List.of(ColumnPredicate.equalTo("status", "PAID"), ColumnPredicate.between("id", "1", "5")))
+                .build());
+
+        var row = decode(writer.delete(RELATION_ID, new String[]{"3", null, null}), OperationEnum.DELETE);
+
+        assertThat(row).isNotNull();
+        assertThat(row.getColumnsData()).containsEntry("id", "3");
+        assertThat(decode(writer.delete(RELATION_ID, new String[]{"6", null, null}), OperationEnum.DELETE)).isNull();
+    }
+
+    @Test
+    void keyTupleOfDeleteMatchesPredicatesOnOtherColumnsInRowCursor() {
+        filter(TableFilter.builder().tableName("public.orders").predicates(List.of(ColumnPredicate.equalTo("status", "PAID"))).build());
+        var cursor = new RowCursor();
+        var message = writer.delete(RELATION_ID, new String[]{"3", null, null});
+        message.get();
+
+        assertThat(decoder.fillRowCursor(message, OperationEnum.DELETE, session, 1L, cursor)).isTrue();
+        assertThat(cursor.getLong(0)).isEqualTo(3L);
+    }
+
+    @Test
+    void rowCursorReturnsValuesOfEagerRowInTextFormat() {
+        relation(List.of("id", "name", "paid", "ratio", "amount", "created_at", "note"), new int[]{20, 25, 16, 701, 1700, 1184, 25});
+
+        assertCursorMatchesRow(writer.insert(RELATION_ID,
+                new String[]{"42", "Zoë", "t", "0.25", "1234.5600", "2024-01-02 03:04:05.123456+00", null}));
+    }
+
+    @Test
+    void rowCursorReturnsValuesOfEagerRowInBinaryFormat() {
+        relation(List.of("id", "name", "paid", "ratio", "count", "note"), new int[]{20, 25, 16, 701, 23, 25});
+
+        assertCursorMatchesRow(writer.insertBinary(RELATION_ID, new byte[][]{
+                ByteBuffer.allocate(8).putLong(42L).array(),
+                "Zoë".getBytes(StandardCharsets.UTF_8),
+                {1},
+                ByteBuffer.allocate(8).putDouble(0.25).array(),
+                ByteBuffer.allocate(4).putInt(-7).array(),
+                null}));
+    }
+
+    @Test
+    void rowCursorSkipsNotProjectedColumnsLikeEagerRow() {
+        filter(TableFilter.builder().tableName("public.orders").columns(Set.of("id", "amount")).build());
+
+        var cursor = assertCursorMatchesRow(writer.insert(RELATION_ID, new String[]{"1", "PAID", "10"}));
+
+        assertThat(cursor.isAbsent(1)).isTrue();
+        assertThat(cursor.getLong("amount")).isEqualTo(10L);
+    }
+
+    @Test
+    void builtinColumnsUseSettingsOfSession() {
+        var typeRegistry = new TypeRegistry();
+        typeRegistry.setSessionZone(ZoneId.of("Europe/Moscow"));
+        typeRegistry.setMoneyFormat(MoneyFormat.fromSamples("1.234.567,89 €", "-1.234.567,89 €"));
+        session.setTypeRegistry(typeRegistry);
+        relation(List.of("price", "created_at"), new int[]{790, 1184});
+
+        var row = decode(writer.insertBinary(RELATION_ID, new byte[][]{
+                ByteBuffer.allocate(8).putLong(123_456L).array(),
+                ByteBuffer.allocate(8).putLong(0L).array()}), OperationEnum.INSERT);
+
+        assertThat(row.getColumnsData()).containsEntry("price", "1.234,56 €").containsEntry("created_at", "2000-01-01 03:00:00+03");
+    }
+
+    @Test
+    void arrayAndEnumColumnsAreToldApartFromText() {
+        var typeRegistry = new TypeRegistry();
+        typeRegistry.load(List.of(
+                PgType.builder().oid(70_010).typeName("mood").typeType(PgType.ENUM).build(),
+                PgType.builder().oid(1007).typeName("_int4").typeType(PgType.BASE)
+                        .typeCategory(PgType.ARRAY_CATEGORY).elementOid(DataType.INTEGER.getOid()).build()));
+        session.setTypeRegistry(typeRegistry);
+        relation(List.of("id", "scores", "mood"), new int[]{20, 1007, 70_010});
+
+        var columns = session.getRelationRegistry().get(RELATION_ID).getColumnsMap();
+        assertThat(columns.get("id").isArray()).isFalse();
+        assertThat(columns.get("scores").isArray()).isTrue();
+        assertThat(columns.get("scores").getElementDataType()).isEqualTo(DataType.INTEGER);
+        assertThat(columns.get("scores").getPgType().getTypeName()).isEqualTo("_int4");
+        assertThat(columns.get("mood").isEnum()).isTrue();
+
+        var cursor = assertCursorMatchesRow(writer.insert(RELATION_ID, new String[]{"1", "{1,NULL,3}", "happy"}));
+        assertThat(cursor.getArray("scores")).containsExactly("1", null, "3");
+        assertThat(cursor.toRowChangesStructure().getArray("scores")).containsExactly("1", null, "3");
+    }
+
+    //the same message is decoded to the row and to the cursor, every column must have the same value
+    private RowCursor assertCursorMatchesRow(ByteBuffer message) {
+        var row = decode(message.duplicate(), OperationEnum.INSERT);
+        var cursor = new RowCursor();
+        var cursorMessage = message.duplicate();
+        cursorMessage.get();
+        assertThat(decoder.fillRowCursor(cursorMessage, OperationEnum.INSERT, session, 1L, cursor)).isTrue();
+
+        for (int i = 0; i < cursor.size(); i++) {
+            var name = cursor.getRelation().getColumn(i).getName();
+            assertThat(cursor.getString(i)).as(name).isEqualTo(row.getColumnsData().get(name));
+            assertThat(cursor.isAbsent(i)).as(name).isEqualTo(!row.getColumnsData().containsKey(name));
+        }
+        assertThat(cursor.toRowChangesStructure().getColumnsData()).isEqualTo(row.getColumnsData());
+        return cursor;
+    }
+
+    private void filter(TableFilter tableFilter) {
+        session.setTableFilters(new TableFilterRegistry(List.of(tableFilter)));
+        relation(List.of("id", "status", "amount"), TYPES);
+    }
+
+    private void relation(List<String> columnNames, int[] typeOids) {
+        var relation = writer.relation(RELATION_ID, "public", "orders", columnNames, typeOids);
+        relation.get();
+        session.getRelationRegistry().put(decoder.crateRelationMetaInfo(relation, session));
+    }
+
+    //the message type byte is read by the hendler before the decoder is called
+    private RowChangesStructure decode(ByteBuffer message, OperationEnum operation) {
+        message.get();
+        return decoder.createRowChangesStructure(message, operation, session);
+    }
+}
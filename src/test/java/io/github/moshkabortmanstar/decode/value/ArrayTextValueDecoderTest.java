@@ -0,0 +1,88 @@
+package io.github.moshkabortmanstar.decode.value;
+
+import io.github.moshkabortmanstar.data.enums.DataType;
+import io.github.moshkabortmanstar.exception.ColumnValueDecodingException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Text arrays are the output of array_out, the binary array of the same value must give the same elements
+ */
+class ArrayTextValueDecoderTest {
+
+    private final ArrayTextValueDecoder textArray = new ArrayTextValueDecoder("_text", TextValueDecoder.GENERIC, ',');
+    private final ArrayBinaryValueDecoder binaryArray = new ArrayBinaryValueDecoder("_text",
+            BinaryValueDecoders.forType(DataType.TEXT, DataType.TEXT.getOid()), ',');
+
+    @Test
+    void decodesQuotedEscapedAndNullElements() {
+        var elements = Arrays.asList("a", "b c", "", "NULL", "x,y", "q\"t", "back\\slash", null);
+
+        assertThat(decode("{a,\"b c\",\"\",\"NULL\",\"x,y\",\"q\\\"t\",\"back\\\\slash\",NULL}")).isEqualTo(elements);
+        assertThat(binaryArray.decodeString(binary(elements), 0, binary(elements).length))
+                .isEqualTo("{a,\"b c\",\"\",\"NULL\",\"x,y\",\"q\\\"t\",\"back\\\\slash\",NULL}");
+        assertThat(binaryArray.decodeArray(binary(elements), 0, binary(elements).length)).isEqualTo(elements);
+    }
+
+    @Test
+    void decodesEmptyMultidimensionalAndBoundedArrays() {
+        assertThat(decode("{}")).isEmpty();
+        assertThat(decode("{{1,2},{3,NULL}}")).isEqualTo(List.of(List.of("1", "2"), Arrays.asList("3", null)));
+        assertThat(decode("[0:1]={7,8}")).isEqualTo(List.of("7", "8"));
+        assertThat(textArray.decodeArray("{ 1 , \"2\" }")).isEqualTo(List.of("1", "2"));
+    }
+
+    @Test
+    void usesDelimiterOfElementType() {
+        var boxes = new ArrayTextValueDecoder("_box", TextValueDecoder.GENERIC, ';');
+
+        assertThat(boxes.decodeArray("{(1,1),(0,0);(2,2),(1,1)}")).isEqualTo(List.of("(1,1),(0,0)", "(2,2),(1,1)"));
+    }
+
+    @Test
+    void rejectsMalformedArrays() {
+        assertThatThrownBy(() -> decode("{1,2")).isInstanceOf(ColumnValueDecodingException.class);
+        assertThatThrownBy(() -> decode("1,2")).isInstanceOf(ColumnValueDecodingException.class);
+        assertThatThrownBy(() -> decode("{1}x")).isInstanceOf(ColumnValueDecodingException.class);
+        assertThatThrownBy(() -> TextValueDecoder.GENERIC.decodeArray("{1}")).isInstanceOf(ColumnValueDecodingException.class);
+    }
+
+    private List<Object> decode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return textArray.decodeArray(bytes, 0, bytes.length);
+    }
+
+    //one dimensional text[] in binary format
+    private static byte[] binary(List<String> elements) {
+        try {
+            var bytes = new ByteArrayOutputStream();
+            var out = new DataOutputStream(bytes);
+            out.writeInt(1);
+            out.writeInt(elements.contains(null) ? 1 : 0);
+            out.writeInt(DataType.TEXT.getOid());
+            out.writeInt(elements.size());
+            out.writeInt(1);
+            for (String element : elements) {
+                if (element == null) {
+                    out.writeInt(-1);
+                    continue;
+                }
+                byte[] value = element.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(value.length);
+                out.write(value);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
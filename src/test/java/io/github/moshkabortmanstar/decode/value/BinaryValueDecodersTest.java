@@ -0,0 +1,196 @@
+package io.github.moshkabortmanstar.decode.value;
+
+import io.github.moshkabortmanstar.data.enums.DataType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Binary values must be rendered to the same strings as the server sends in text mode,
+ * expected strings are the output of the server with DateStyle ISO and IntervalStyle postgres
+ */
+class BinaryValueDecodersTest {
+
+    private static final LocalDateTime POSTGRES_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    @Test
+    void rendersIntegersAndBooleans() {
+        assertThat(string(DataType.BIGINT, ByteBuffer.allocate(8).putLong(Long.MIN_VALUE))).isEqualTo("-9223372036854775808");
+        assertThat(string(DataType.INTEGER, ByteBuffer.allocate(4).putInt(-42))).isEqualTo("-42");
+        assertThat(string(DataType.SMALLINT, ByteBuffer.allocate(2).putShort((short) 7))).isEqualTo("7");
+        assertThat(string(DataType.BOOLEAN, ByteBuffer.allocate(1).put((byte) 1))).isEqualTo("t");
+        assertThat(string(DataType.BOOLEAN, ByteBuffer.allocate(1).put((byte) 0))).isEqualTo("f");
+    }
+
+    @Test
+    void rendersDoubleAsShortestExactValue() {
+        assertThat(float8(0.1)).isEqualTo("0.1");
+        assertThat(float8(123.0)).isEqualTo("123");
+        assertThat(float8(1e14)).isEqualTo("100000000000000");
+        assertThat(float8(1e15)).isEqualTo("1e+15");
+        assertThat(float8(1e20)).isEqualTo("1e+20");
+        assertThat(float8(1.5e-7)).isEqualTo("1.5e-07");
+        assertThat(float8(-0.0)).isEqualTo("-0");
+        assertThat(float8(Double.NaN)).isEqualTo("NaN");
+        assertThat(float8(Double.NEGATIVE_INFINITY)).isEqualTo("-Infinity");
+    }
+
+    @Test
+    void rendersNumericWithDisplayScale() {
+        assertThat(numeric(0, 0, 4, 123, 4500)).isEqualTo("123.4500");
+        assertThat(numeric(-1, 0x4000, 4, 12)).isEqualTo("-0.0012");
+        assertThat(numeric(1, 0, 0, 1)).isEqualTo("10000");
+        assertThat(numeric(0, 0xC000, 0)).isEqualTo("NaN");
+        assertRoundTrip(DataType.NUMERIC, numericBuffer(0, 0, 4, 123, 4500));
+    }
+
+    @Test
+    void rendersUuid() {
+        var uuid = UUID.fromString("a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11");
+        var buffer = ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        assertThat(string(DataType.UUID, buffer)).isEqualTo("a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11");
+    }
+
+    @Test
+    void rendersDates() {
+        assertThat(date(LocalDate.of(2000, 1, 1))).isEqualTo("2000-01-01");
+        assertThat(date(LocalDate.of(2024, 2, 29))).isEqualTo("2024-02-29");
+        assertThat(date(LocalDate.of(-43, 3, 15))).isEqualTo("0044-03-15 BC");
+        assertThat(string(DataType.DATE, ByteBuffer.allocate(4).putInt(Integer.MAX_VALUE))).isEqualTo("infinity");
+        assertRoundTrip(DataType.DATE, ByteBuffer.allocate(4).putInt(-5));
+    }
+
+    @Test
+    void rendersTimestamps() {
+        var timestamp = LocalDateTime.of(2024, 4, 2, 10, 15, 30, 123_400_000);
+        assertThat(timestamp(DataType.TIMESTAMP, timestamp)).isEqualTo("2024-04-02 10:15:30.1234");
+        assertThat(timestamp(DataType.TIMESTAMP, LocalDateTime.of(1999, 12, 31, 23, 59, 59))).isEqualTo("1999-12-31 23:59:59");
+        assertThat(timestamp(DataType.TIMESTAMP, LocalDateTime.of(-43, 3, 15, 12, 0))).isEqualTo("0044-03-15 12:00:00 BC");
+        assertThat(string(DataType.TIMESTAMP, ByteBuffer.allocate(8).putLong(Long.MIN_VALUE))).isEqualTo("-infinity");
+        assertRoundTrip(DataType.TIMESTAMP, micros(timestamp));
+    }
+
+    @Test
+    void rendersTimestampWithTimeZoneInSessionZone() {
+        var utc = LocalDateTime.of(2024, 4, 2, 10, 15, 30);
+        assertThat(timestamptz(utc, ZoneOffset.UTC)).isEqualTo("2024-04-02 10:15:30+00");
+        assertThat(timestamptz(utc, ZoneId.of("Europe/Moscow"))).isEqualTo("2024-04-02 13:15:30+03");
+        assertThat(timestamptz(utc, ZoneId.of("Asia/Kolkata"))).isEqualTo("2024-04-02 15:45:30+05:30");
+        assertThat(timestamptz(utc, ZoneId.of("America/New_York"))).isEqualTo("2024-04-02 06:15:30-04");
+        assertThat(timestamptz(LocalDateTime.of(2024, 1, 2, 2, 0), ZoneId.of("America/New_York"))).isEqualTo("2024-01-01 21:00:00-05");
+
+        //typed value is UTC in both modes
+        var decoder = BinaryValueDecoders.forType(DataType.TIMESTAMP_WITH_TIME_ZONE, DataType.TIMESTAMP_WITH_TIME_ZONE.getOid(), ZoneId.of("Asia/Kolkata"));
+        byte[] data = micros(utc).array();
+        assertThat(decoder.decodeTimestamp(data, 0, data.length)).isEqualTo(utc);
+        assertThat(TextValueDecoder.GENERIC.decodeTimestamp(decoder.decodeString(data, 0, data.length))).isEqualTo(utc);
+    }
+
+    @Test
+    void rendersMoneyInFormatOfSession() {
+        assertThat(string(DataType.MONEY, ByteBuffer.allocate(8).putLong(-123_456L))).isEqualTo("-$1,234.56");
+
+        var decoder = BinaryValueDecoders.money(MoneyFormat.fromSamples("1.234.567,89 €", "-1.234.567,89 €"));
+        byte[] data = ByteBuffer.allocate(8).putLong(-123_456L).array();
+        assertThat(decoder.decodeString(data, 0, data.length)).isEqualTo("-1.234,56 €");
+        assertThat(decoder.decodeBigDecimal(data, 0, data.length)).isEqualTo(new BigDecimal("-1234.56"));
+    }
+
+    @Test
+    void rendersTimeWithTimeZone() {
+        long micros = (10 * 3600 + 15 * 60 + 30) * 1_000_000L;
+        var buffer = ByteBuffer.allocate(12).putLong(micros).putInt(-3 * 3600);
+        assertThat(string(DataType.TIME_WITH_TIME_ZONE, buffer)).isEqualTo("10:15:30+03");
+    }
+
+    @Test
+    void rendersIntervalsInPostgresStyle() {
+        assertThat(interval(0, 0, 0)).isEqualTo("00:00:00");
+        assertThat(interval(14, 3, hours(4) + 5 * 60_000_000L + 6_789_000L)).isEqualTo("1 year 2 mons 3 days 04:05:06.789");
+        assertThat(interval(-12, 0, 0)).isEqualTo("-1 years");
+        assertThat(interval(0, -1, 0)).isEqualTo("-1 days");
+        assertThat(interval(-1, 0, 0)).isEqualTo("-1 mons");
+        assertThat(interval(0, 1, 0)).isEqualTo("1 day");
+        assertThat(interval(0, -1, hours(1))).isEqualTo("-1 days +01:00:00");
+        assertThat(interval(0, 1, -hours(1))).isEqualTo("1 day -01:00:00");
+        assertThat(interval(1, -2, 0)).isEqualTo("1 mon -2 days");
+        assertThat(interval(-1, 3, 0)).isEqualTo("-1 mons +3 days");
+        assertThat(interval(-13, 0, 0)).isEqualTo("-1 years -1 mons");
+        assertThat(interval(0, 0, -1_500_000L)).isEqualTo("-00:00:01.5");
+        assertThat(interval(0, 0, hours(100))).isEqualTo("100:00:00");
+    }
+
+    private static void assertRoundTrip(DataType dataType, ByteBuffer buffer) {
+        var decoder = BinaryValueDecoders.forType(dataType, dataType.getOid());
+        byte[] data = buffer.array();
+        var text = decoder.decodeString(data, 0, data.length).getBytes(StandardCharsets.UTF_8);
+        var textDecoder = TextValueDecoder.forType(dataType);
+        switch (dataType) {
+            case NUMERIC -> assertThat(textDecoder.decodeBigDecimal(text, 0, text.length)).isEqualTo(decoder.decodeBigDecimal(data, 0, data.length));
+            case DATE -> assertThat(textDecoder.decodeDate(text, 0, text.length)).isEqualTo(decoder.decodeDate(data, 0, data.length));
+            default -> assertThat(textDecoder.decodeTimestamp(text, 0, text.length)).isEqualTo(decoder.decodeTimestamp(data, 0, data.length));
+        }
+    }
+
+    private static String string(DataType dataType, ByteBuffer buffer) {
+        byte[] data = buffer.array();
+        return BinaryValueDecoders.forType(dataType, dataType.getOid()).decodeString(data, 0, data.length);
+    }
+
+    private static String float8(double value) {
+        return string(DataType.DOUBLE_PRECISION, ByteBuffer.allocate(8).putDouble(value));
+    }
+
+    private static String numeric(int weight, int sign, int displayScale, int... digits) {
+        return string(DataType.NUMERIC, numericBuffer(weight, sign, displayScale, digits));
+    }
+
+    private static ByteBuffer numericBuffer(int weight, int sign, int displayScale, int... digits) {
+        var buffer = ByteBuffer.allocate(8 + digits.length * 2)
+                .putShort((short) digits.length)
+                .putShort((short) weight)
+                .putShort((short) sign)
+                .putShort((short) displayScale);
+        for (int digit : digits) {
+            buffer.putShort((short) digit);
+        }
+        return buffer;
+    }
+
+    private static String date(LocalDate date) {
+        int days = (int) ChronoUnit.DAYS.between(POSTGRES_EPOCH.toLocalDate(), date);
+        return string(DataType.DATE, ByteBuffer.allocate(4).putInt(days));
+    }
+
+    private static String timestamp(DataType dataType, LocalDateTime timestamp) {
+        return string(dataType, micros(timestamp));
+    }
+
+    private static String timestamptz(LocalDateTime utc, ZoneId zone) {
+        var dataType = DataType.TIMESTAMP_WITH_TIME_ZONE;
+        byte[] data = micros(utc).array();
+        return BinaryValueDecoders.forType(dataType, dataType.getOid(), zone).decodeString(data, 0, data.length);
+    }
+
+    private static ByteBuffer micros(LocalDateTime timestamp) {
+        return ByteBuffer.allocate(8).putLong(ChronoUnit.MICROS.between(POSTGRES_EPOCH, timestamp));
+    }
+
+    private static String interval(int months, int days, long micros) {
+        return string(DataType.INTERVAL, ByteBuffer.allocate(16).putLong(micros).putInt(days).putInt(months));
+    }
+
+    private static long hours(long hours) {
+        return hours * 3_600_000_000L;
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.moshkabortmanstar.decode.value;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Samples are the output of SELECT 1234567.89::money, (-1234567.89)::money with lc_monetary of the locale
+ */
+class MoneyFormatTest {
+
+    @Test
+    void defaultFormatIsFormatOfCLocale() {
+        var format = MoneyFormat.fromSamples("$1,234,567.89", "-$1,234,567.89");
+
+        assertThat(format.format(-123_456_789L)).isEqualTo(MoneyFormat.DEFAULT.format(-123_456_789L)).isEqualTo("-$1,234,567.89");
+        assertThat(format.format(5L)).isEqualTo("$0.05");
+        assertThat(format.format(100_000L)).isEqualTo("$1,000.00");
+        assertThat(format.format(Long.MIN_VALUE)).isEqualTo("-$92,233,720,368,547,758.08");
+    }
+
+    @Test
+    void rendersSymbolAfterAmountWithLocaleSeparators() {
+        var format = MoneyFormat.fromSamples("1.234.567,89 €", "-1.234.567,89 €");
+
+        assertThat(format.format(123_456L)).isEqualTo("1.234,56 €");
+        assertThat(format.format(-99L)).isEqualTo("-0,99 €");
+        assertThat(format.parse("-1.234,56 €")).isEqualTo(new BigDecimal("-1234.56"));
+    }
+
+    @Test
+    void rendersMoneyWithoutFractionalDigits() {
+        var format = MoneyFormat.fromSamples("￥1,234,568", "-￥1,234,568");
+
+        assertThat(format.getFractionDigits()).isZero();
+        assertThat(format.format(1_234L)).isEqualTo("￥1,234");
+        assertThat(format.toAmount(1_234L)).isEqualTo(new BigDecimal("1234"));
+        assertThat(format.parse("-￥1,234")).isEqualTo(new BigDecimal("-1234"));
+    }
+
+    @Test
+    void rendersNegativeAmountInParentheses() {
+        var format = MoneyFormat.fromSamples("1 234 567,89 zł", "(1 234 567,89 zł)");
+
+        assertThat(format.format(-123_456L)).isEqualTo("(1 234,56 zł)");
+        assertThat(format.parse("(1 234,56 zł)")).isEqualTo(new BigDecimal("-1234.56"));
+        assertThat(format.parse("1 234,56 zł")).isEqualTo(new BigDecimal("1234.56"));
+    }
+
+    @Test
+    void rejectsSamplesOfOtherAmount() {
+        assertThatThrownBy(() -> MoneyFormat.fromSamples("$1.00", "-$1.00")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MoneyFormat.fromSamples("$1,234,567.89", "$1,234,567.89")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
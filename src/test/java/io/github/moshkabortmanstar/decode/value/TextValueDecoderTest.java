@@ -0,0 +1,167 @@
+package io.github.moshkabortmanstar.decode.value;
+
+import io.github.moshkabortmanstar.data.enums.DataType;
+import io.github.moshkabortmanstar.exception.ColumnValueDecodingException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TextValueDecoderTest {
+
+    private final TextValueDecoder decoder = TextValueDecoder.GENERIC;
+
+    @Test
+    void decodesLongFromBytesAndChars() {
+        assertThat(decodeLong("0")).isZero();
+        assertThat(decodeLong("-42")).isEqualTo(-42L);
+        assertThat(decodeLong("+42")).isEqualTo(42L);
+        assertThat(decodeLong(String.valueOf(Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+        assertThat(decodeLong(String.valueOf(Long.MIN_VALUE))).isEqualTo(Long.MIN_VALUE);
+    }
+
+    @Test
+    void rejectsInvalidLong() {
+        for (String value : new String[]{"", "-", "12a", "9223372036854775808", "-9223372036854775809"}) {
+            assertThatThrownBy(() -> decodeLong(value)).isInstanceOf(ColumnValueDecodingException.class);
+            assertThatThrownBy(() -> decoder.decodeLong(value)).isInstanceOf(ColumnValueDecodingException.class);
+        }
+    }
+
+    @Test
+    void decodesValueInsideLargerBuffer() {
+        byte[] data = "xx123yy".getBytes(StandardCharsets.US_ASCII);
+        assertThat(decoder.decodeLong(data, 2, 3)).isEqualTo(123L);
+        assertThat(decoder.decodeInt(data, 2, 3)).isEqualTo(123);
+    }
+
+    @Test
+    void rejectsIntOverflow() {
+        assertThat(decoder.decodeInt("2147483647")).isEqualTo(Integer.MAX_VALUE);
+        assertThatThrownBy(() -> decoder.decodeInt("2147483648")).isInstanceOf(ColumnValueDecodingException.class);
+    }
+
+    @Test
+    void decodesBooleanAndDouble() {
+        assertThat(decoder.decodeBoolean("t")).isTrue();
+        assertThat(decoder.decodeBoolean("f")).isFalse();
+        assertThatThrownBy(() -> decoder.decodeBoolean("")).isInstanceOf(ColumnValueDecodingException.class);
+        assertThat(decoder.decodeDouble("-1.5e3")).isEqualTo(-1500.0);
+        assertThat(decoder.decodeDouble("NaN")).isNaN();
+        assertThat(decoder.decodeDouble("Infinity")).isInfinite();
+    }
+
+    @Test
+    void decodesBigDecimalWithFastAndSlowPath() {
+        assertThat(decodeBigDecimal("123.4500")).isEqualTo(new BigDecimal("123.4500"));
+        assertThat(decodeBigDecimal("-0.01")).isEqualTo(new BigDecimal("-0.01"));
+        assertThat(decodeBigDecimal("12345678901234567890.123")).isEqualTo(new BigDecimal("12345678901234567890.123"));
+        assertThat(decodeBigDecimal("1e5")).isEqualTo(new BigDecimal("1e5"));
+        assertThatThrownBy(() -> decodeBigDecimal("NaN")).isInstanceOf(ColumnValueDecodingException.class);
+    }
+
+    @Test
+    void decodesUuid() {
+        var uuid = UUID.randomUUID();
+        assertThat(decodeUuid(uuid.toString())).isEqualTo(uuid);
+        assertThat(decoder.decodeUuid(uuid.toString())).isEqualTo(uuid);
+        assertThatThrownBy(() -> decodeUuid("not-a-uuid")).isInstanceOf(ColumnValueDecodingException.class);
+    }
+
+    @Test
+    void decodesTimestampsToUtc() {
+        assertThat(decodeTimestamp("2024-04-02 10:15:30.123456"))
+                .isEqualTo(LocalDateTime.of(2024, 4, 2, 10, 15, 30, 123_456_000));
+        assertThat(decodeTimestamp("2024-04-02 10:15:30+03"))
+                .isEqualTo(LocalDateTime.of(2024, 4, 2, 7, 15, 30));
+        assertThat(decodeTimestamp("2024-04-02 10:15:30-05:30"))
+                .isEqualTo(LocalDateTime.of(2024, 4, 2, 15, 45, 30));
+        assertThat(decodeTimestamp("0044-03-15 12:00:00 BC"))
+                .isEqualTo(LocalDateTime.of(-43, 3, 15, 12, 0));
+        assertThat(decodeTimestamp("infinity")).isEqualTo(LocalDateTime.MAX);
+        assertThat(decodeTimestamp("-infinity")).isEqualTo(LocalDateTime.MIN);
+    }
+
+    @Test
+    void rejectsTruncatedTimestamp() {
+        assertThatThrownBy(() -> decodeTimestamp("2024-04-02 10:1")).isInstanceOf(ColumnValueDecodingException.class);
+        //the value must not be read past its length inside a shared buffer
+        byte[] data = "2024-04-02 10:15:30".getBytes(StandardCharsets.US_ASCII);
+        assertThatThrownBy(() -> decoder.decodeTimestamp(data, 0, 14)).isInstanceOf(ColumnValueDecodingException.class);
+    }
+
+    @Test
+    void decodesDate() {
+        assertThat(decodeDate("2024-02-29")).isEqualTo(LocalDate.of(2024, 2, 29));
+        assertThat(decodeDate("infinity")).isEqualTo(LocalDate.MAX);
+        assertThatThrownBy(() -> decodeDate("2024/02/29")).isInstanceOf(ColumnValueDecodingException.class);
+    }
+
+    @Test
+    void decodesByteaInHexAndEscapeFormat() {
+        var bytea = TextValueDecoder.forType(DataType.BYTEA);
+        assertThat(bytea.decodeBytes("\\x01ff7f")).containsExactly(0x01, 0xff, 0x7f);
+        assertThat(bytes(bytea, "\\x01ff7f")).containsExactly(0x01, 0xff, 0x7f);
+        assertThat(bytea.decodeBytes("a\\\\b\\001")).containsExactly('a', '\\', 'b', 1);
+        assertThat(bytes(bytea, "a\\\\b\\001")).containsExactly('a', '\\', 'b', 1);
+    }
+
+    @Test
+    void decodesMoneyWithCurrencySymbolAndSeparators() {
+        var money = TextValueDecoder.forType(DataType.MONEY);
+        assertThat(money.decodeBigDecimal("$1,234.56")).isEqualTo(new BigDecimal("1234.56"));
+        assertThat(money.decodeBigDecimal("-$0.99")).isEqualTo(new BigDecimal("-0.99"));
+    }
+
+    @Test
+    void decodesMoneyOfSessionFormat() {
+        var money = TextValueDecoder.money(MoneyFormat.fromSamples("1.234.567,89 €", "-1.234.567,89 €"));
+        byte[] bytes = "-1.234,56 €".getBytes(StandardCharsets.UTF_8);
+        assertThat(money.decodeBigDecimal("1.234,56 €")).isEqualTo(new BigDecimal("1234.56"));
+        assertThat(money.decodeBigDecimal(bytes, 0, bytes.length)).isEqualTo(new BigDecimal("-1234.56"));
+    }
+
+    private long decodeLong(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long fromBytes = decoder.decodeLong(bytes, 0, bytes.length);
+        assertThat(decoder.decodeLong(value)).isEqualTo(fromBytes);
+        return fromBytes;
+    }
+
+    private BigDecimal decodeBigDecimal(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        var fromBytes = decoder.decodeBigDecimal(bytes, 0, bytes.length);
+        assertThat(decoder.decodeBigDecimal(value)).isEqualTo(fromBytes);
+        return fromBytes;
+    }
+
+    private UUID decodeUuid(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return decoder.decodeUuid(bytes, 0, bytes.length);
+    }
+
+    private LocalDateTime decodeTimestamp(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        var fromBytes = decoder.decodeTimestamp(bytes, 0, bytes.length);
+        assertThat(decoder.decodeTimestamp(value)).isEqualTo(fromBytes);
+        return fromBytes;
+    }
+
+    private LocalDate decodeDate(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        var fromBytes = decoder.decodeDate(bytes, 0, bytes.length);
+        assertThat(decoder.decodeDate(value)).isEqualTo(fromBytes);
+        return fromBytes;
+    }
+
+    private static byte[] bytes(ValueDecoder decoder, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return decoder.decodeBytes(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.moshkabortmanstar.engine.buffer;
+
+import io.github.moshkabortmanstar.data.Column;
+import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.enums.DataType;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import io.github.moshkabortmanstar.decode.PgoutSession;
+import io.github.moshkabortmanstar.decode.impl.PgoutHendlerImpl;
+import io.github.moshkabortmanstar.decode.impl.PgoutMsgDecoderImpl;
+import io.github.moshkabortmanstar.testkit.PgoutMessageWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpillableTransactionBufferTest {
+
+    private static final Map<String, Column> COLUMNS = columns();
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    void keepsRowsWithinBudgetInMemory() {
+        try (var buffer = new SpillableTransactionBuffer(spillDirectory, 1024 * 1024, 4096)) {
+            var rows = List.of(row(1, "1", "first"), row(1, "2", "second"));
+            buffer.addAll(rows);
+
+            assertThat(buffer.isSpilled()).isFalse();
+            assertThat(buffer).containsExactlyElementsOf(rows);
+        }
+    }
+
+    @Test
+    void replaysSpilledRowsInOrder() {
+        try (var buffer = new SpillableTransactionBuffer(spillDirectory, 300, 4096)) {
+            List<RowChangesStructure> rows = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                rows.add(row(7, String.valueOf(i), i % 10 == 0 ? null : "name-" + i));
+            }
+            buffer.addAll(rows);
+
+            assertThat(buffer.isSpilled()).isTrue();
+            assertThat(buffer.size()).isEqualTo(100);
+            var replayed = new ArrayList<RowChangesStructure>();
+            buffer.forEach(replayed::add);
+            assertThat(replayed).hasSize(100);
+            for (int i = 0; i < rows.size(); i++) {
+                var row = replayed.get(i);
+                assertThat(row.getTransactionId()).isEqualTo(7L);
+                assertThat(row.getOperationEnum()).isEqualTo(OperationEnum.UPDATE);
+                assertThat(row.getTableName()).isEqualTo("orders");
+                assertThat(row.getColumnsData()).containsExactlyEntriesOf(rows.get(i).getColumnsData());
+            }
+        }
+    }
+
+    @Test
+    void keepsUnchangedToastColumnsOfSpilledRows() {
+        try (var buffer = new SpillableTransactionBuffer(spillDirectory, 0, 4096)) {
+            var row = row(1, "1", null);
+            row.setUnchangedToastColumns(Set.of("name"));
+            buffer.add(row);
+
+            var replayed = buffer.iterator().next();
+            assertThat(replayed.isUnchangedToast("name")).isTrue();
+            assertThat(replayed.getColumnsData()).containsEntry("id", "1");
+        }
+    }
+
+    @Test
+    void replaysDecodedTupleRows() {
+        var writer = new PgoutMessageWriter();
+        var hendler = new PgoutHendlerImpl(new PgoutMsgDecoderImpl());
+        var session = new PgoutSession();
+        var decoded = new ArrayList<RowChangesStructure>();
+        hendler.decodeHandle(writer.begin(0x100L, 0L, 9), session, decoded, rows -> {
+        });
+        hendler.decodeHandle(writer.relation(1, "public", "orders", List.of("id", "name"), new int[]{20, 25}), session, decoded, rows -> {
+        });
+        for (int i = 0; i < 50; i++) {
+            hendler.decodeHandle(writer.insert(1, new String[]{String.valueOf(i), "name-" + i}), session, decoded, rows -> {
+            });
+        }
+
+        try (var buffer = new SpillableTransactionBuffer(spillDirectory, 0, 256)) {
+            buffer.addAll(decoded);
+
+            var replayed = buffer.asList();
+            assertThat(replayed).hasSize(50);
+            assertThat(replayed.get(49).getColumnsData()).containsEntry("id", "49").containsEntry("name", "name-49");
+            assertThat(replayed.get(49).getLong("id")).isEqualTo(49L);
+            assertThat(replayed).extracting(RowChangesStructure::getTransactionId).containsOnly(9L);
+        }
+    }
+
+    @Test
+    void reusesBufferAfterClearAndDeletesSegmentsOnClose() throws IOException {
+        var buffer = new SpillableTransactionBuffer(spillDirectory, 0, 256);
+        for (int i = 0; i < 50; i++) {
+            buffer.add(row(1, String.valueOf(i), "first"));
+        }
+        buffer.clear();
+        assertThat(buffer.size()).isZero();
+        assertThat(buffer.iterator().hasNext()).isFalse();
+
+        buffer.add(row(2, "1", "second"));
+        assertThat(buffer.asList()).singleElement()
+                .satisfies(row -> assertThat(row.getColumnsData()).containsEntry("name", "second"));
+
+        buffer.close();
+        try (var files = Files.list(spillDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    private static RowChangesStructure row(long transactionId, String id, String name) {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("id", id);
+        values.put("name", name);
+        return RowChangesStructure.builder()
+                .schemaName("public")
+                .tableName("orders")
+                .operationEnum(OperationEnum.UPDATE)
+                .transactionId(transactionId)
+                .columnsType(COLUMNS)
+                .columnsData(values)
+                .build();
+    }
+
+    private static Map<String, Column> columns() {
+        Map<String, Column> columns = new LinkedHashMap<>();
+        columns.put("id", Column.builder().name("id").index(0).key(true).dataType(DataType.INTEGER).build());
+        columns.put("name", Column.builder().name("name").index(1).dataType(DataType.TEXT).build());
+        return columns;
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.moshkabortmanstar.engine.dispatch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LsnWatermarkTest {
+
+    private final LsnWatermark watermark = new LsnWatermark();
+
+    @Test
+    void advancesOnlyOverCompletedPrefix() {
+        var first = watermark.register(100L);
+        var second = watermark.register(200L);
+        var third = watermark.register(300L);
+
+        watermark.complete(third);
+        watermark.complete(second);
+        assertThat(watermark.getLsn()).isZero();
+        assertThat(watermark.getPendingCount()).isEqualTo(3);
+
+        watermark.complete(first);
+        assertThat(watermark.getLsn()).isEqualTo(300L);
+        assertThat(watermark.getPendingCount()).isZero();
+    }
+
+    @Test
+    void ticketWithoutLsnDoesNotMoveWatermarkBack() {
+        watermark.complete(watermark.register(100L));
+        watermark.complete(watermark.register(0L));
+
+        assertThat(watermark.getLsn()).isEqualTo(100L);
+    }
+
+    @Test
+    void awaitPendingBelowTimesOutWhileTransactionIsNotCompleted() throws InterruptedException {
+        var ticket = watermark.register(100L);
+
+        assertThat(watermark.awaitPendingBelow(1, 10L)).isFalse();
+        watermark.complete(ticket);
+        assertThat(watermark.awaitPendingBelow(1, 10L)).isTrue();
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.moshkabortmanstar.engine.dispatch.impl;
+
+import io.github.moshkabortmanstar.data.FanOutSubscriber;
+import io.github.moshkabortmanstar.data.TransactionBatch;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static io.github.moshkabortmanstar.testkit.DispatchFixtures.await;
+import static io.github.moshkabortmanstar.testkit.DispatchFixtures.row;
+import static io.github.moshkabortmanstar.testkit.DispatchFixtures.transaction;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FanOutDispatcherTest {
+
+    @Test
+    void deliversRowsOfSubscriberTablesAndConfirmsAtMinimumProgress() throws Exception {
+        List<String> orders = Collections.synchronizedList(new ArrayList<>());
+        List<String> deletes = Collections.synchronizedList(new ArrayList<>());
+        var subscribers = List.of(
+                subscriber("orders", List.of("public.orders"), Set.of(), batch -> batch.getChanges().forEach(row -> orders.add(row.getTableName()))),
+                subscriber("deletes", List.of(), Set.of(OperationEnum.DELETE), batch -> batch.getChanges().forEach(row -> deletes.add(row.getTableName()))));
+        try (var dispatcher = new FanOutDispatcher("test", subscribers)) {
+            dispatcher.dispatch(transaction(1, 100, row(1, "orders", OperationEnum.INSERT, "1"), row(1, "users", OperationEnum.DELETE, "1")));
+            dispatcher.dispatch(transaction(2, 200, row(2, "users", OperationEnum.INSERT, "1")));
+
+            await(() -> dispatcher.getWatermark().getLsn() == 200L);
+            assertThat(dispatcher.getProgress("orders")).isEqualTo(100L);
+            assertThat(dispatcher.getProgress("deletes")).isEqualTo(100L);
+        }
+        assertThat(orders).containsExactly("orders");
+        assertThat(deletes).containsExactly("users");
+    }
+
+    @Test
+    void failedSubscriberStopsWatermarkAndNextTransactions() throws Exception {
+        List<Long> delivered = Collections.synchronizedList(new ArrayList<>());
+        var subscribers = List.of(subscriber("failing", List.of(), Set.of(), batch -> {
+            if (batch.getTransactionId() == 2) {
+                throw new IllegalStateException("subscriber failed");
+            }
+            delivered.add(batch.getTransactionId());
+        }));
+        try (var dispatcher = new FanOutDispatcher("test", subscribers)) {
+            dispatcher.dispatch(transaction(1, 100, row(1, "orders", OperationEnum.INSERT, "1")));
+            dispatcher.dispatch(transaction(2, 200, row(2, "orders", OperationEnum.INSERT, "1")));
+            await(() -> dispatcher.getFailure() != null);
+            dispatcher.dispatch(transaction(3, 300, row(3, "orders", OperationEnum.INSERT, "1")));
+
+            assertThat(dispatcher.getFailure()).hasMessage("subscriber failed");
+            assertThat(dispatcher.getWatermark().getLsn()).isEqualTo(100L);
+            assertThat(dispatcher.getProgress("failing")).isEqualTo(100L);
+        }
+        assertThat(delivered).containsExactly(1L);
+    }
+
+    private static FanOutSubscriber subscriber(String name, List<String> tables, Set<OperationEnum> operations, Consumer<TransactionBatch> consumer) {
+        return FanOutSubscriber.builder()
+                .name(name)
+                .tables(tables)
+                .operations(operations)
+                .consumer(consumer)
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.moshkabortmanstar.engine.dispatch.impl;
+
+import io.github.moshkabortmanstar.data.MicroBatch;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.github.moshkabortmanstar.testkit.DispatchFixtures.orders;
+import static io.github.moshkabortmanstar.testkit.DispatchFixtures.transaction;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MicroBatchDispatcherTest {
+
+    @Test
+    void mergesTransactionsUpToMaxRowsAndConfirmsEndOfBatch() throws Exception {
+        List<MicroBatch> batches = new ArrayList<>();
+        try (var dispatcher = new MicroBatchDispatcher(batches::add, 4, Long.MAX_VALUE, 60_000L)) {
+            dispatcher.dispatch(transaction(1, 100, orders(1, OperationEnum.INSERT, "1", "2")));
+            assertThat(batches).isEmpty();
+            assertThat(dispatcher.getWatermark().getLsn()).isZero();
+
+            dispatcher.dispatch(transaction(2, 200, orders(2, OperationEnum.INSERT, "3", "4")));
+            assertThat(dispatcher.getWatermark().getLsn()).isEqualTo(200L);
+        }
+        assertThat(batches).singleElement().satisfies(batch -> {
+            assertThat(batch.getRowCount()).isEqualTo(4);
+            assertThat(batch.getTransactions()).hasSize(2);
+        });
+    }
+
+    @Test
+    void lingerDeliversBatchOnIdle() throws Exception {
+        List<MicroBatch> batches = new ArrayList<>();
+        try (var dispatcher = new MicroBatchDispatcher(batches::add, 1000, Long.MAX_VALUE, 1L)) {
+            dispatcher.dispatch(transaction(1, 100, orders(1, OperationEnum.INSERT, "1")));
+            Thread.sleep(5L);
+            dispatcher.onIdle();
+
+            assertThat(batches).hasSize(1);
+            assertThat(dispatcher.getWatermark().getLsn()).isEqualTo(100L);
+        }
+    }
+
+    @Test
+    void failedBatchStopsWatermarkAndNextTransactions() throws Exception {
+        List<Long> delivered = new ArrayList<>();
+        try (var dispatcher = new MicroBatchDispatcher(batch -> {
+            if (batch.getEndLsn() == 200L) {
+                throw new IllegalStateException("consumer failed");
+            }
+            delivered.add(batch.getEndLsn());
+        }, 1, Long.MAX_VALUE, 60_000L)) {
+            dispatcher.dispatch(transaction(1, 100, orders(1, OperationEnum.INSERT, "1")));
+            dispatcher.dispatch(transaction(2, 200, orders(2, OperationEnum.INSERT, "1")));
+            dispatcher.dispatch(transaction(3, 300, orders(3, OperationEnum.INSERT, "1")));
+            dispatcher.runExclusive(400L, () -> delivered.add(400L));
+
+            assertThat(dispatcher.getFailure()).hasMessage("consumer failed");
+            assertThat(dispatcher.getWatermark().getLsn()).isEqualTo(100L);
+        }
+        assertThat(delivered).containsExactly(100L);
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.moshkabortmanstar.engine.dispatch.impl;
+
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.github.moshkabortmanstar.testkit.DispatchFixtures.await;
+import static io.github.moshkabortmanstar.testkit.DispatchFixtures.orders;
+import static io.github.moshkabortmanstar.testkit.DispatchFixtures.row;
+import static io.github.moshkabortmanstar.testkit.DispatchFixtures.transaction;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionedDispatcherTest {
+
+    @Test
+    void keepsOrderOfKeyAndConfirmsTransactionAfterAllLanes() throws Exception {
+        Map<String, List<Long>> transactionsByKey = new ConcurrentHashMap<>();
+        try (var dispatcher = new PartitionedDispatcher("test", 4, 16, changes -> changes.forEach(row ->
+                transactionsByKey.computeIfAbsent(row.getColumnsData().get("id"), key -> Collections.synchronizedList(new ArrayList<>()))
+                        .add(row.getTransactionId())))) {
+            for (long xid = 1; xid <= 20; xid++) {
+                dispatcher.dispatch(transaction(xid, xid * 100, orders(xid, OperationEnum.UPDATE, "1", "2", "3", "4", "5")));
+            }
+
+            await(() -> dispatcher.getWatermark().getLsn() == 2_000L);
+            assertThat(dispatcher.getFailure()).isNull();
+        }
+        assertThat(transactionsByKey).hasSize(5);
+        assertThat(transactionsByKey.values()).allSatisfy(xids -> assertThat(xids).isSorted().hasSize(20));
+    }
+
+    @Test
+    void failedPartStopsWatermarkAndNextTransactions() throws Exception {
+        List<Long> delivered = Collections.synchronizedList(new ArrayList<>());
+        try (var dispatcher = new PartitionedDispatcher("test", 2, 16, changes -> {
+            var xid = changes.get(0).getTransactionId();
+            if (xid == 2) {
+                throw new IllegalStateException("consumer failed");
+            }
+            delivered.add(xid);
+        })) {
+            dispatcher.dispatch(transaction(1, 100, orders(1, OperationEnum.INSERT, "1")));
+            await(() -> dispatcher.getWatermark().getLsn() == 100L);
+            dispatcher.dispatch(transaction(2, 200, orders(2, OperationEnum.INSERT, "1")));
+            await(() -> dispatcher.getFailure() != null);
+            dispatcher.dispatch(transaction(3, 300, orders(3, OperationEnum.INSERT, "1")));
+            dispatcher.runExclusive(400L, () -> delivered.add(4L));
+
+            assertThat(dispatcher.getFailure()).hasMessage("consumer failed");
+            assertThat(dispatcher.getWatermark().getLsn()).isEqualTo(100L);
+        }
+        assertThat(delivered).containsExactly(1L);
+    }
+
+    @Test
+    void truncateIsDeliveredWholeAfterPreviousTransactions() throws Exception {
+        List<Integer> sizes = Collections.synchronizedList(new ArrayList<>());
+        try (var dispatcher = new PartitionedDispatcher("test", 4, 16, changes -> sizes.add(changes.size()))) {
+            var batch = transaction(1, 100, orders(1, OperationEnum.INSERT, "1", "2", "3"));
+            batch.getChanges().add(row(1, "orders", OperationEnum.TRUNCATE, null));
+            dispatcher.dispatch(batch);
+
+            assertThat(dispatcher.getWatermark().getLsn()).isEqualTo(100L);
+        }
+        assertThat(sizes).containsExactly(4);
+    }
+}
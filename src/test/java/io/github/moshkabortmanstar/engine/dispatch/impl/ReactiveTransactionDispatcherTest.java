@@ -0,0 +1,155 @@
+package io.github.moshkabortmanstar.engine.dispatch.impl;
+
+import io.github.moshkabortmanstar.data.TransactionBatch;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import io.github.moshkabortmanstar.data.enums.OverflowStrategyEnum;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.github.moshkabortmanstar.testkit.DispatchFixtures.await;
+import static io.github.moshkabortmanstar.testkit.DispatchFixtures.orders;
+import static io.github.moshkabortmanstar.testkit.DispatchFixtures.transaction;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveTransactionDispatcherTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final AtomicReference<ReactiveTransactionDispatcher> dispatcher = new AtomicReference<>();
+
+    @Test
+    void backpressureBlocksDispatchUntilDownstreamRequests() {
+        var blocked = new AtomicReference<Thread>();
+        StepVerifier.create(changes(2, OverflowStrategyEnum.BACKPRESSURE, true), 0)
+                .then(() -> dispatch(1, 2))
+                .then(() -> blocked.set(dispatchInBackground(3)))
+                .then(() -> sleep(100L))
+                .then(() -> assertThat(blocked.get().isAlive()).isTrue())
+                .thenRequest(1)
+                .expectNextMatches(batch -> batch.getTransactionId() == 1)
+                .then(() -> join(blocked.get()))
+                .thenRequest(2)
+                .expectNextMatches(batch -> batch.getTransactionId() == 2)
+                .expectNextMatches(batch -> batch.getTransactionId() == 3)
+                .then(() -> assertThat(dispatcher.get().getWatermark().getLsn()).isEqualTo(300L))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void dropLatestConfirmsDroppedTransactionWithoutDelivery() {
+        StepVerifier.create(changes(2, OverflowStrategyEnum.DROP_LATEST, true), 0)
+                .then(() -> dispatch(1, 2, 3))
+                //the dropped transaction is confirmed, so it is skipped on the slot once the previous ones are delivered
+                .then(() -> assertThat(dispatcher.get().getWatermark().getPendingCount()).isEqualTo(3))
+                .thenRequest(10)
+                .expectNextMatches(batch -> batch.getTransactionId() == 1)
+                .expectNextMatches(batch -> batch.getTransactionId() == 2)
+                .then(() -> assertThat(dispatcher.get().getWatermark().getLsn()).isEqualTo(300L))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void dropOldestConfirmsDroppedTransactionWithoutDelivery() {
+        StepVerifier.create(changes(2, OverflowStrategyEnum.DROP_OLDEST, true), 0)
+                .then(() -> dispatch(1, 2, 3))
+                .then(() -> assertThat(dispatcher.get().getWatermark().getLsn()).isEqualTo(100L))
+                .thenRequest(10)
+                .expectNextMatches(batch -> batch.getTransactionId() == 2)
+                .expectNextMatches(batch -> batch.getTransactionId() == 3)
+                .then(() -> assertThat(dispatcher.get().getWatermark().getLsn()).isEqualTo(300L))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void errorStrategyReportsFailureAndDoesNotConfirmRejectedTransaction() {
+        StepVerifier.create(changes(2, OverflowStrategyEnum.ERROR, true), 0)
+                .then(() -> dispatch(1, 2, 3))
+                .then(() -> assertThat(dispatcher.get().getFailure()).hasMessageContaining("is full"))
+                .thenRequest(10)
+                .expectNextMatches(batch -> batch.getTransactionId() == 1)
+                .expectNextMatches(batch -> batch.getTransactionId() == 2)
+                .then(() -> assertThat(dispatcher.get().getWatermark().getLsn()).isEqualTo(200L))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void manualAcknowledgementConfirmsInTransactionOrder() {
+        List<TransactionBatch> received = new ArrayList<>();
+        StepVerifier.create(changes(8, OverflowStrategyEnum.BACKPRESSURE, false), 3)
+                .then(() -> dispatch(1, 2, 3))
+                .recordWith(() -> received)
+                .expectNextCount(3)
+                .then(() -> {
+                    received.get(2).acknowledge();
+                    received.get(1).acknowledge();
+                    assertThat(dispatcher.get().getWatermark().getLsn()).isZero();
+                    received.get(0).acknowledge();
+                    assertThat(dispatcher.get().getWatermark().getLsn()).isEqualTo(300L);
+                })
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void cancelReleasesBlockedDispatchAndLeavesBufferUnconfirmed() throws Exception {
+        var blocked = new AtomicReference<Thread>();
+        StepVerifier.create(changes(1, OverflowStrategyEnum.BACKPRESSURE, true), 0)
+                .then(() -> dispatch(1))
+                .then(() -> blocked.set(dispatchInBackground(2)))
+                .thenCancel()
+                .verify(TIMEOUT);
+
+        await(() -> !blocked.get().isAlive());
+        dispatcher.get().runExclusive(400L, () -> {
+        });
+        dispatcher.get().close();
+        assertThat(dispatcher.get().getWatermark().getLsn()).isZero();
+    }
+
+    private Flux<TransactionBatch> changes(int bufferSize, OverflowStrategyEnum overflowStrategy, boolean autoAck) {
+        return Flux.create(sink -> dispatcher.set(new ReactiveTransactionDispatcher(sink, bufferSize, overflowStrategy, autoAck)));
+    }
+
+    private void dispatch(long... transactionIds) {
+        try {
+            for (long xid : transactionIds) {
+                dispatcher.get().dispatch(transaction(xid, xid * 100, orders(xid, OperationEnum.INSERT, "1")));
+            }
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Thread dispatchInBackground(long transactionId) {
+        var thread = new Thread(() -> dispatch(transactionId));
+        thread.start();
+        return thread;
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join(TIMEOUT.toMillis());
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        assertThat(thread.isAlive()).isFalse();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.moshkabortmanstar.engine.impl;
+
+import io.github.moshkabortmanstar.testkit.InMemoryReplicationStream;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static io.github.moshkabortmanstar.testkit.DispatchFixtures.await;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlockingStreamReaderTest {
+
+    @Test
+    void returnsToEngineWhileStreamIsIdleAndKeepsPendingRead() throws Exception {
+        var stream = new InMemoryReplicationStream(16);
+        try (var reader = new BlockingStreamReader("test", 10L)) {
+            long start = System.nanoTime();
+            assertThat(reader.read(stream)).isNull();
+            assertThat(System.nanoTime() - start).isLessThan(1_000_000_000L);
+
+            stream.send(ByteBuffer.wrap(new byte[]{'B'}), 100L);
+            ByteBuffer msg = null;
+            for (int i = 0; i < 100 && msg == null; i++) {
+                msg = reader.read(stream);
+            }
+            assertThat(msg).isNotNull();
+            assertThat(stream.getLastReceiveLSN().asLong()).isEqualTo(100L);
+        }
+    }
+
+    @Test
+    void closeEndsReaderThreadAfterPendingRead() throws Exception {
+        var stream = new InMemoryReplicationStream(16);
+        var reader = new BlockingStreamReader("closing", 10L);
+        assertThat(reader.read(stream)).isNull();
+
+        long start = System.nanoTime();
+        reader.close();
+
+        assertThat(System.nanoTime() - start).isLessThan(1_000_000_000L);
+        await(() -> Thread.getAllStackTraces().keySet().stream().noneMatch(thread -> thread.getName().equals("closing-reader")));
+    }
+}
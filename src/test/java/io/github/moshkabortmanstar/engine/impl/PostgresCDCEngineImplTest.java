@@ -0,0 +1,38 @@
+package io.github.moshkabortmanstar.engine.impl;
+
+import io.github.moshkabortmanstar.decode.impl.PgoutHendlerImpl;
+import io.github.moshkabortmanstar.decode.impl.PgoutMsgDecoderImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PostgresCDCEngineImplTest {
+
+    @Test
+    void rejectsHendlerWithoutSession() {
+        var engine = PostgresCDCEngineImpl.builder()
+                .engineName("test")
+                .pgoutHendler((buffer, changes, consumer) -> null)
+                .build();
+
+        assertThatThrownBy(engine::run).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("PgoutSessionHendler");
+    }
+
+    @Test
+    void rejectsSpillingWithDispatcherThatDeliversLater() {
+        var engine = PostgresCDCEngineImpl.builder()
+                .engineName("test")
+                .pgoutHendler(new PgoutHendlerImpl(new PgoutMsgDecoderImpl()))
+                .transactionMemoryBudgetBytes(1024)
+                .asyncConsumer(batch -> CompletableFuture.completedFuture(null))
+                .build();
+
+        assertThatThrownBy(engine::run).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("transactionMemoryBudgetBytes");
+        assertThatThrownBy(engine::changes).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("transactionMemoryBudgetBytes");
+    }
+}
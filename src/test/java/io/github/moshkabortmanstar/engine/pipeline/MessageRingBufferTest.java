@@ -0,0 +1,69 @@
+package io.github.moshkabortmanstar.engine.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertThat(new MessageRingBuffer(5).capacity()).isEqualTo(8);
+        assertThat(new MessageRingBuffer(8).capacity()).isEqualTo(8);
+        assertThat(new MessageRingBuffer(1).capacity()).isEqualTo(2);
+    }
+
+    @Test
+    void keepsOrderAndLsnAcrossWrapAround() {
+        var ring = new MessageRingBuffer(4);
+        for (int i = 0; i < 10; i++) {
+            assertThat(ring.offer(message(i, 3), 100L + i)).isTrue();
+            assertThat(ring.isEmpty()).isFalse();
+            assertThat(ring.peekLsn()).isEqualTo(100L + i);
+            assertThat(ring.peek().get(0)).isEqualTo((byte) i);
+            ring.release();
+            assertThat(ring.isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    void fullRingRejectsMessageWithoutConsumingIt() {
+        var ring = new MessageRingBuffer(2);
+        assertThat(ring.offer(message(1, 3), 1L)).isTrue();
+        assertThat(ring.offer(message(2, 3), 2L)).isTrue();
+
+        var rejected = message(3, 3);
+        assertThat(ring.offer(rejected, 3L)).isFalse();
+        assertThat(rejected.remaining()).isEqualTo(3);
+
+        ring.release();
+        assertThat(ring.offer(rejected, 3L)).isTrue();
+        assertThat(ring.peekLsn()).isEqualTo(2L);
+        ring.release();
+        assertThat(ring.peekLsn()).isEqualTo(3L);
+        assertThat(ring.peek().remaining()).isEqualTo(3);
+    }
+
+    @Test
+    void slotGrowsForBiggerMessageAndShrinksItsView() {
+        var ring = new MessageRingBuffer(2);
+        ring.offer(message(1, 5_000), 1L);
+        assertThat(ring.peek().remaining()).isEqualTo(5_000);
+        ring.release();
+        ring.offer(message(2, 10), 2L);
+        ring.release();
+
+        ring.offer(message(3, 7), 3L);
+        assertThat(ring.peek().remaining()).isEqualTo(7);
+        assertThat(ring.peek().get(6)).isEqualTo((byte) 3);
+    }
+
+    private static ByteBuffer message(int value, int length) {
+        var bytes = new byte[length];
+        Arrays.fill(bytes, (byte) value);
+        return ByteBuffer.wrap(bytes);
+    }
+}
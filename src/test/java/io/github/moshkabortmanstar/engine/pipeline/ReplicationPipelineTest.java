@@ -0,0 +1,130 @@
+package io.github.moshkabortmanstar.engine.pipeline;
+
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+import io.github.moshkabortmanstar.decode.impl.PgoutHendlerImpl;
+import io.github.moshkabortmanstar.decode.impl.PgoutMsgDecoderImpl;
+import io.github.moshkabortmanstar.testkit.InMemoryReplicationStream;
+import io.github.moshkabortmanstar.testkit.PgoutMessageWriter;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static io.github.moshkabortmanstar.testkit.DispatchFixtures.await;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicationPipelineTest {
+
+    private static final int RELATION_ID = 16_384;
+    private static final long COMMIT_TIME_MICROS = 1_700_000_000_000_000L;
+
+    private final PgoutMessageWriter writer = new PgoutMessageWriter();
+    private final InMemoryReplicationStream stream = new InMemoryReplicationStream(1024);
+
+    @Test
+    void deliversTransactionsInOrderAndConfirmsAfterDelivery() throws Exception {
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        TransactionDeliveryFactory factory = (operation, session, changes) -> {
+            if (operation != OperationEnum.COMMIT) {
+                return null;
+            }
+            long xid = session.getTransactionId();
+            return () -> changes.forEach(row -> delivered.add(xid + ":" + row.getColumnsData().get("id")));
+        };
+        try (var pipeline = pipeline(4, factory)) {
+            pipeline.start();
+            send(writer.relation(RELATION_ID, "public", "orders", List.of("id", "name"), new int[]{20, 25}), 10L);
+            for (int xid = 1; xid <= 5; xid++) {
+                sendTransaction(xid, xid * 100L, String.valueOf(xid * 10), String.valueOf(xid * 10 + 1));
+            }
+            offerAll(pipeline);
+
+            await(() -> pipeline.getConfirmedLsn() == 500L);
+            assertThat(pipeline.getFailure()).isNull();
+        }
+        assertThat(delivered).containsExactly("1:10", "1:11", "2:20", "2:21", "3:30", "3:31", "4:40", "4:41", "5:50", "5:51");
+    }
+
+    @Test
+    void confirmedLsnWaitsForDelivery() throws Exception {
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        TransactionDeliveryFactory factory = (operation, session, changes) -> operation != OperationEnum.COMMIT ? null : () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        try (var pipeline = pipeline(16, factory)) {
+            pipeline.start();
+            send(writer.relation(RELATION_ID, "public", "orders", List.of("id", "name"), new int[]{20, 25}), 10L);
+            sendTransaction(1, 100L, "1");
+            offerAll(pipeline);
+
+            started.await();
+            assertThat(pipeline.getConfirmedLsn()).isZero();
+            release.countDown();
+            await(() -> pipeline.getConfirmedLsn() == 100L);
+        }
+    }
+
+    @Test
+    void failedDeliveryIsReportedAndStopsConfirmation() throws Exception {
+        TransactionDeliveryFactory factory = (operation, session, changes) -> {
+            if (operation != OperationEnum.COMMIT) {
+                return null;
+            }
+            long xid = session.getTransactionId();
+            return () -> {
+                if (xid == 2) {
+                    throw new IllegalStateException("delivery failed");
+                }
+            };
+        };
+        try (var pipeline = pipeline(16, factory)) {
+            pipeline.start();
+            send(writer.relation(RELATION_ID, "public", "orders", List.of("id", "name"), new int[]{20, 25}), 10L);
+            for (int xid = 1; xid <= 3; xid++) {
+                sendTransaction(xid, xid * 100L, "1");
+            }
+            offerAll(pipeline);
+
+            await(() -> pipeline.getFailure() != null);
+            assertThat(pipeline.getFailure()).hasMessage("delivery failed");
+            assertThat(pipeline.getConfirmedLsn()).isEqualTo(100L);
+        }
+    }
+
+    private ReplicationPipeline pipeline(int ringSize, TransactionDeliveryFactory factory) {
+        return new ReplicationPipeline("test", new PgoutHendlerImpl(new PgoutMsgDecoderImpl()), ringSize, factory);
+    }
+
+    private void sendTransaction(long xid, long endLsn, String... ids) throws InterruptedException {
+        send(writer.begin(endLsn - 10, COMMIT_TIME_MICROS, xid), endLsn - 30);
+        for (String id : ids) {
+            send(writer.insert(RELATION_ID, new String[]{id, "name"}), endLsn - 20);
+        }
+        send(writer.commit(endLsn - 10, endLsn, COMMIT_TIME_MICROS), endLsn);
+    }
+
+    private void send(ByteBuffer message, long lsn) throws InterruptedException {
+        stream.send(message, lsn);
+    }
+
+    //the reader stage of the engine, the ring buffer is full while the decoder is behind
+    private void offerAll(ReplicationPipeline pipeline) throws Exception {
+        var msg = stream.readPending();
+        while (msg != null) {
+            long lsn = stream.getLastReceiveLSN().asLong();
+            while (!pipeline.offer(msg, lsn)) {
+                Thread.sleep(1L);
+            }
+            msg = stream.readPending();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.moshkabortmanstar.engine.shard;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedEngineRunnerTest {
+
+    @Test
+    void fairShareIsRoundedUp() {
+        assertThat(ShardedEngineRunner.fairShare(8, 3, Integer.MAX_VALUE)).isEqualTo(3);
+        assertThat(ShardedEngineRunner.fairShare(8, 4, Integer.MAX_VALUE)).isEqualTo(2);
+        assertThat(ShardedEngineRunner.fairShare(2, 5, Integer.MAX_VALUE)).isEqualTo(1);
+    }
+
+    @Test
+    void singleNodeTakesAllShardsUpToItsLimit() {
+        assertThat(ShardedEngineRunner.fairShare(8, 1, Integer.MAX_VALUE)).isEqualTo(8);
+        assertThat(ShardedEngineRunner.fairShare(8, 0, Integer.MAX_VALUE)).isEqualTo(8);
+        assertThat(ShardedEngineRunner.fairShare(8, 1, 2)).isEqualTo(2);
+    }
+}
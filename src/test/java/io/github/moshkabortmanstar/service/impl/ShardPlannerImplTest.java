@@ -0,0 +1,216 @@
+package io.github.moshkabortmanstar.service.impl;
+
+import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.SlotShard;
+import io.github.moshkabortmanstar.service.ReplicationSlotPublicationService;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.replication.ReplicationSlotInfo;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardPlannerImplTest {
+
+    private final StubPublicationService service = new StubPublicationService();
+    private final ShardPlannerImpl planner = new ShardPlannerImpl(service);
+
+    @Test
+    void samePlanForSameWeightsInAnyOrder() {
+        Map<String, Long> weights = new LinkedHashMap<>();
+        weights.put("public.orders", 50L);
+        weights.put("public.items", 20L);
+        weights.put("public.users", 20L);
+        weights.put("public.audit", 5L);
+        List<String> tables = new ArrayList<>(weights.keySet());
+        Collections.reverse(tables);
+        Map<String, Long> reversed = new LinkedHashMap<>();
+        tables.forEach(table -> reversed.put(table, weights.get(table)));
+
+        var plan = planner.plan("cdc", weights, 2);
+
+        assertThat(planner.plan("cdc", reversed, 2)).isEqualTo(plan);
+        assertThat(planner.plan("cdc", new HashMap<>(weights), 2)).isEqualTo(plan);
+        assertThat(plan).extracting(SlotShard::getSlotName).containsExactly("cdc_0", "cdc_1");
+    }
+
+    @Test
+    void heaviestTableGoesToLightestShardFirst() {
+        var plan = planner.plan("cdc", Map.of("public.a", 10L, "public.b", 7L, "public.c", 5L, "public.d", 3L, "public.e", 2L), 2);
+
+        assertThat(plan.get(0).getTables()).containsExactly("public.a", "public.d");
+        assertThat(plan.get(0).getWeight()).isEqualTo(13L);
+        assertThat(plan.get(1).getTables()).containsExactly("public.b", "public.c", "public.e");
+        assertThat(plan.get(1).getWeight()).isEqualTo(14L);
+    }
+
+    @Test
+    void tiesAreResolvedByTableNameAndShardIndex() {
+        var plan = planner.plan("cdc", Map.of("public.d", 1L, "public.b", 1L, "public.a", 1L, "public.c", 1L), 3);
+
+        assertThat(plan.get(0).getTables()).containsExactly("public.a", "public.d");
+        assertThat(plan.get(1).getTables()).containsExactly("public.b");
+        assertThat(plan.get(2).getTables()).containsExactly("public.c");
+    }
+
+    @Test
+    void moreShardsThanTablesLeavesEmptyShards() {
+        var plan = planner.plan("cdc", Map.of("public.a", 3L), 2);
+
+        assertThat(plan.get(0).getTables()).containsExactly("public.a");
+        assertThat(plan.get(1).getTables()).isEmpty();
+        assertThatThrownBy(() -> planner.plan("cdc", Map.of("public.a", 3L), 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void applyAddsMovedTableBeforeDroppingIt() throws Exception {
+        service.publish("cdc_0", "public.a", "public.b", "public.heartbeat_cdc_0");
+        service.publish("cdc_1", "public.c");
+
+        planner.apply(connection(), List.of(shard(0, "public.a"), shard(1, "public.b", "public.c"), shard(2, "public.d")));
+
+        assertThat(service.operations).containsExactly(
+                "create slot cdc_2",
+                "create publication cdc_2",
+                "add public.b to cdc_1",
+                "add public.d to cdc_2",
+                "drop public.b from cdc_0");
+        assertThat(service.publications.get("cdc_0")).containsExactlyInAnyOrder("public.a", "public.heartbeat_cdc_0");
+        assertThat(service.publications.get("cdc_1")).containsExactlyInAnyOrder("public.b", "public.c");
+    }
+
+    @Test
+    void applyOfCurrentPlanChangesNothing() throws Exception {
+        service.publish("cdc_0", "public.a");
+        service.publish("cdc_1", "public.b");
+
+        planner.apply(connection(), List.of(shard(0, "public.a"), shard(1, "public.b")));
+
+        assertThat(service.operations).isEmpty();
+    }
+
+    private static SlotShard shard(int index, String... tables) {
+        return SlotShard.builder().index(index).slotName("cdc_" + index).tables(new ArrayList<>(List.of(tables))).build();
+    }
+
+    //replication connection is only unwrapped to PGConnection to create the slot
+    private static Connection connection() {
+        return (Connection) Proxy.newProxyInstance(ShardPlannerImplTest.class.getClassLoader(),
+                new Class<?>[]{Connection.class, PGConnection.class},
+                (proxy, method, args) -> method.getName().equals("unwrap") ? proxy : null);
+    }
+
+    //slots and publications in memory, changes are recorded in the order they are made
+    private static final class StubPublicationService implements ReplicationSlotPublicationService {
+        private final Set<String> slots = new HashSet<>();
+        private final Map<String, Set<String>> publications = new HashMap<>();
+        private final List<String> operations = new ArrayList<>();
+
+        void publish(String slotName, String... tables) {
+            slots.add(slotName);
+            publications.put(slotName, new HashSet<>(List.of(tables)));
+        }
+
+        @Override
+        public boolean isSlotExist(Connection connection, String slotName) {
+            return slots.contains(slotName);
+        }
+
+        @Override
+        public ReplicationSlotInfo createReplicationSlot(PGConnection connection, String slotName) {
+            operations.add("create slot " + slotName);
+            slots.add(slotName);
+            return null;
+        }
+
+        @Override
+        public boolean isPublicationExist(Connection connection, String publicationName) {
+            return publications.containsKey(publicationName);
+        }
+
+        @Override
+        public void createPublication(Connection connection, String publicationName) {
+            operations.add("create publication " + publicationName);
+            publications.put(publicationName, new HashSet<>());
+        }
+
+        @Override
+        public List<String> getPublicationTableNames(Connection connection, String publicationName) {
+            return new ArrayList<>(publications.get(publicationName));
+        }
+
+        @Override
+        public void addTableToPublication(Connection connection, String publicationName, String tableName) {
+            operations.add("add " + tableName + " to " + publicationName);
+            publications.get(publicationName).add(tableName);
+        }
+
+        @Override
+        public void dropTableFromPublication(Connection connection, String publicationName, String tableName) {
+            operations.add("drop " + tableName + " from " + publicationName);
+            publications.get(publicationName).remove(tableName);
+        }
+
+        @Override
+        public void dropPublication(Connection connection, String publicationName) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void createPublicationForAllTablesInSchema(Connection connection, String publicationName, String schemaName) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void dropReplicationSlot(PGConnection connection, String slotName) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void createHeartbeatTable(Connection connection, String tableName) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void initializeFirstRowHeartbeatTable(Connection connection, String heartbeatTable) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void updateHeartbeatTable(Connection connection, String heartbeatTable) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void createFullReplicaIdentity(Connection connection, String tableName) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String generateHeartbeatTableName(String slotName) {
+            return "public.heartbeat_" + slotName;
+        }
+
+        @Override
+        public boolean isHeartbeatTable(String heartbeatTableName, RowChangesStructure rowChangesStructure) {
+            return false;
+        }
+
+        @Override
+        public Connection creteConnectionForReplication(DataSourceProperties dataSourceProperties) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.moshkabortmanstar.testkit;
+
+import io.github.moshkabortmanstar.data.Column;
+import io.github.moshkabortmanstar.data.RowChangesStructure;
+import io.github.moshkabortmanstar.data.TransactionBatch;
+import io.github.moshkabortmanstar.data.enums.OperationEnum;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * DispatchFixtures builds committed transactions of decoded rows for the tests of the dispatchers
+ * Rows have the single key column id
+ */
+public final class DispatchFixtures {
+
+    public static final Map<String, Column> COLUMNS = Map.of("id", Column.builder().name("id").key(true).build());
+
+    private static final long AWAIT_TIMEOUT_MILLIS = 5_000L;
+
+    private DispatchFixtures() {
+    }
+
+    /**
+     * Transaction with a mutable list of changes, as the engine hands it over
+     */
+    public static TransactionBatch transaction(long transactionId, long endLsn, RowChangesStructure... rows) {
+        return TransactionBatch.builder()
+                .transactionId(transactionId)
+                .endLsn(endLsn)
+                .changes(new ArrayList<>(List.of(rows)))
+                .build();
+    }
+
+    public static RowChangesStructure row(long transactionId, String tableName, OperationEnum operation, String id) {
+        var values = new LinkedHashMap<String, String>();
+        values.put("id", id);
+        return RowChangesStructure.builder()
+                .schemaName("public")
+                .tableName(tableName)
+                .operationEnum(operation)
+                .transactionId(transactionId)
+                .columnsType(COLUMNS)
+                .columnsData(values)
+                .build();
+    }
+
+    /**
+     * Rows of the table orders with the given keys
+     */
+    public static RowChangesStructure[] orders(long transactionId, OperationEnum operation, String... ids) {
+        var rows = new RowChangesStructure[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            rows[i] = row(transactionId, "orders", operation, ids[i]);
+        }
+        return rows;
+    }
+
+    /**
+     * Wait until the condition is met, fail after 5 seconds
+     */
+    public static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + AWAIT_TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("condition is not met in " + AWAIT_TIMEOUT_MILLIS + " ms");
+            }
+            Thread.sleep(5L);
+        }
+    }
+}
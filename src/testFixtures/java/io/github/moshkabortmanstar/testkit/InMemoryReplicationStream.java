@@ -0,0 +1,128 @@
+package io.github.moshkabortmanstar.testkit;
+
+import org.postgresql.replication.LogSequenceNumber;
+import org.postgresql.replication.PGReplicationStream;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InMemoryReplicationStream is a PGReplicationStream without a server, messages are sent to it by the producer thread
+ * The queue is bounded, so a slow engine holds back the producer like the send buffer of the WAL sender
+ * Unlike the driver, read returns null after 100 ms without a message, so the engine can observe its stop
+ */
+public class InMemoryReplicationStream implements PGReplicationStream {
+
+    private static final long READ_TIMEOUT_MILLIS = 100L;
+
+    private final BlockingQueue<Message> queue;
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private volatile long lastReceiveLsn;
+    private volatile long flushedLsn;
+    private volatile long appliedLsn;
+    private volatile boolean closed;
+
+    public InMemoryReplicationStream(int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Send the message with the LSN the server reports for it, blocks while the queue is full
+     */
+    public void send(ByteBuffer message, long lsn) throws InterruptedException {
+        queue.put(new Message(message, lsn));
+    }
+
+    /**
+     * Bytes of the messages that were read by the engine
+     */
+    public long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    @Override
+    public ByteBuffer read() throws SQLException {
+        checkNotClosed();
+        try {
+            return receive(queue.poll(READ_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Read of the in-memory stream is interrupted", e);
+        }
+    }
+
+    @Override
+    public ByteBuffer readPending() throws SQLException {
+        checkNotClosed();
+        return receive(queue.poll());
+    }
+
+    @Override
+    public LogSequenceNumber getLastReceiveLSN() {
+        return LogSequenceNumber.valueOf(lastReceiveLsn);
+    }
+
+    @Override
+    public LogSequenceNumber getLastFlushedLSN() {
+        return LogSequenceNumber.valueOf(flushedLsn);
+    }
+
+    @Override
+    public LogSequenceNumber getLastAppliedLSN() {
+        return LogSequenceNumber.valueOf(appliedLsn);
+    }
+
+    @Override
+    public void setFlushedLSN(LogSequenceNumber lsn) {
+        flushedLsn = lsn.asLong();
+    }
+
+    @Override
+    public void setAppliedLSN(LogSequenceNumber lsn) {
+        appliedLsn = lsn.asLong();
+    }
+
+    /**
+     * Position confirmed by the engine, the same as the flushed LSN
+     */
+    public long getFlushedLsn() {
+        return flushedLsn;
+    }
+
+    @Override
+    public void forceUpdateStatus() {
+        //nothing to send, the producer reads the flushed LSN directly
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    private ByteBuffer receive(Message message) {
+        if (message == null) {
+            return null;
+        }
+        lastReceiveLsn = message.lsn();
+        receivedBytes.addAndGet(message.buffer().remaining());
+        return message.buffer();
+    }
+
+    private void checkNotClosed() throws SQLException {
+        if (closed) {
+            throw new SQLException("In-memory replication stream is closed");
+        }
+    }
+
+    private record Message(ByteBuffer buffer, long lsn) {
+    }
+}
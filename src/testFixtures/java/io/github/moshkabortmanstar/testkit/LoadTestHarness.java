@@ -0,0 +1,148 @@
+package io.github.moshkabortmanstar.testkit;
+
+import io.github.moshkabortmanstar.data.enums.DataType;
+import io.github.moshkabortmanstar.data.enums.ReadStrategyEnum;
+import io.github.moshkabortmanstar.decode.impl.PgoutHendlerImpl;
+import io.github.moshkabortmanstar.decode.impl.PgoutMsgDecoderImpl;
+import io.github.moshkabortmanstar.engine.impl.PostgresCDCEngineImpl;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * LoadTestHarness runs the full engine on the synthetic load without a database and reports its throughput,
+ * allocation and end-to-end latency
+ * The engine is configured by the builder as in production, the harness sets only its stream source
+ * Run it long enough to include JIT warmup in a small part of the duration
+ */
+@Slf4j
+@Builder
+public class LoadTestHarness {
+
+    private static final double BYTES_IN_MEGABYTE = 1024.0 * 1024.0;
+    private static final DataType[] DEFAULT_COLUMN_TYPES = {
+            DataType.BIGINT, DataType.VARCHAR, DataType.NUMERIC, DataType.TIMESTAMP,
+            DataType.BOOLEAN, DataType.INTEGER, DataType.TEXT, DataType.UUID
+    };
+
+    private PostgresCDCEngineImpl.PostgresCDCEngineImplBuilder engineBuilder;
+    private SyntheticLoad load;
+    //messages buffered between the producer and the engine
+    @Builder.Default
+    private int streamCapacity = 4096;
+    @Builder.Default
+    private long drainTimeoutMillis = 30_000L;
+
+    public LoadTestReport run() throws InterruptedException {
+        var stream = new InMemoryReplicationStream(streamCapacity);
+        var engine = engineBuilder.streamSource(() -> stream).build();
+        var generator = new SyntheticPgoutGenerator(load);
+        long producerThreadId = Thread.currentThread().getId();
+        long allocatedBefore = allocatedBytes(producerThreadId);
+        long start = System.nanoTime();
+
+        engine.run();
+        generator.generate(stream);
+        boolean complete = awaitConfirmation(stream, generator.getLastLsn());
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = allocatedBytes(producerThreadId) - allocatedBefore;
+        engine.stopEngine();
+        if (!complete) {
+            log.warn("Engine confirmed LSN {} of {} within {} ms", stream.getFlushedLsn(), generator.getLastLsn(), drainTimeoutMillis);
+        }
+
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        var latency = engine.getDeliveryLatency();
+        return LoadTestReport.builder()
+                .transactions(generator.getTransactions())
+                .rows(generator.getRows())
+                .bytes(stream.getReceivedBytes())
+                .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .rowsPerSecond(generator.getRows() / seconds)
+                .megabytesPerSecond(stream.getReceivedBytes() / BYTES_IN_MEGABYTE / seconds)
+                .allocatedBytesPerRow(allocatedBefore < 0 || generator.getRows() == 0 ? -1L : allocated / generator.getRows())
+                .latencyP50Micros(latency.getPercentile(50))
+                .latencyP99Micros(latency.getPercentile(99))
+                .latencyP999Micros(latency.getPercentile(99.9))
+                .complete(complete)
+                .build();
+    }
+
+    private boolean awaitConfirmation(InMemoryReplicationStream stream, long lastLsn) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMillis);
+        while (stream.getFlushedLsn() < lastLsn) {
+            if (stream.isClosed() || System.nanoTime() >= deadline) {
+                return false;
+            }
+            TimeUnit.MILLISECONDS.sleep(1L);
+        }
+        return true;
+    }
+
+    /**
+     * Bytes allocated by the live threads except the producer, threads that ended during the run are not counted
+     */
+    private static long allocatedBytes(long producerThreadId) {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported()) {
+            return -1L;
+        }
+        long[] threadIds = Arrays.stream(threads.getAllThreadIds()).filter(id -> id != producerThreadId).toArray();
+        return Arrays.stream(threads.getThreadAllocatedBytes(threadIds)).filter(bytes -> bytes > 0).sum();
+    }
+
+    /**
+     * Load test of the engine with the default decoder and a consumer that drops the changes
+     * Arguments: columns=16 rowsPerTransaction=100 transactionsPerSecond=0 durationSeconds=30 textWidth=32 lazyRows=false pipelined=false
+     * readStrategy=ADAPTIVE_BACKOFF, a comma separated list runs the load once per strategy and reports p50/p99 latency of each
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = Arrays.stream(args)
+                .map(arg -> arg.split("=", 2))
+                .filter(pair -> pair.length == 2)
+                .collect(Collectors.toMap(pair -> pair[0], pair -> pair[1]));
+        int columns = Integer.parseInt(options.getOrDefault("columns", "16"));
+        List<DataType> columnTypes = IntStream.range(0, columns)
+                .mapToObj(i -> DEFAULT_COLUMN_TYPES[i % DEFAULT_COLUMN_TYPES.length])
+                .toList();
+        var table = SyntheticTable.builder()
+                .tableName("load_test")
+                .columnTypes(columnTypes)
+                .textWidth(Integer.parseInt(options.getOrDefault("textWidth", "32")))
+                .build();
+        var load = SyntheticLoad.builder()
+                .tables(List.of(table))
+                .rowsPerTransaction(Integer.parseInt(options.getOrDefault("rowsPerTransaction", "100")))
+                .transactionsPerSecond(Integer.parseInt(options.getOrDefault("transactionsPerSecond", "0")))
+                .durationMillis(TimeUnit.SECONDS.toMillis(Long.parseLong(options.getOrDefault("durationSeconds", "30"))))
+                .build();
+        var engineBuilder = PostgresCDCEngineImpl.builder()
+                .engineName("load-test")
+                .slotName("load_test")
+                .pgoutHendler(new PgoutHendlerImpl(new PgoutMsgDecoderImpl(Boolean.parseBoolean(options.getOrDefault("lazyRows", "false")))))
+                .pipelined(Boolean.parseBoolean(options.getOrDefault("pipelined", "false")))
+                .changesStructureConsumer(changes -> {
+                });
+
+        var complete = true;
+        for (String readStrategy : options.getOrDefault("readStrategy", ReadStrategyEnum.ADAPTIVE_BACKOFF.name()).split(",")) {
+            var report = LoadTestHarness.builder()
+                    .engineBuilder(engineBuilder.readStrategy(ReadStrategyEnum.valueOf(readStrategy.trim())))
+                    .load(load)
+                    .build()
+                    .run();
+            log.info("Load test of {} read strategy finished, latency p50 {} us, p99 {} us: {}",
+                    readStrategy.trim(), report.getLatencyP50Micros(), report.getLatencyP99Micros(), report);
+            complete &= report.isComplete();
+        }
+        System.exit(complete ? 0 : 1);
+    }
+
+}
@@ -0,0 +1,30 @@
+package io.github.moshkabortmanstar.testkit;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * LoadTestReport is the result of LoadTestHarness.run
+ */
+@Data
+@Builder
+public class LoadTestReport {
+
+    private long transactions;
+    private long rows;
+    //bytes of pgoutput messages read by the engine
+    private long bytes;
+    //from the first message to the confirmation of the last transaction
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private double megabytesPerSecond;
+    //bytes allocated by all threads except the producer per row, -1 if the JVM does not measure allocation
+    private long allocatedBytesPerRow;
+    //latency from the commit time of the transaction to the end of the consumer call
+    private long latencyP50Micros;
+    private long latencyP99Micros;
+    private long latencyP999Micros;
+    //false if the engine did not confirm all transactions before the drain timeout
+    private boolean complete;
+
+}
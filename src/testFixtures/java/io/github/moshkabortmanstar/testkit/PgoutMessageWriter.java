@@ -0,0 +1,179 @@
+package io.github.moshkabortmanstar.testkit;
+
+import io.github.moshkabortmanstar.decode.PgoutSession;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PgoutMessageWriter encodes pgoutput messages with text values, or binary values with insertBinary, in the layout of the server
+ * Between streamStart and streamStop the messages are written as protocol version 2 stream messages with the xid of the stream
+ * The writer is reused, every message is returned as a new buffer
+ */
+public final class PgoutMessageWriter {
+
+    private static final byte KEY_COLUMN_FLAG = 1;
+
+    private byte[] bytes = new byte[1024];
+    private int length;
+    //xid of the open stream, 0 outside of the stream
+    private long streamTransactionId;
+
+    public ByteBuffer begin(long finalLsn, long commitTimeMicros, long transactionId) {
+        return start('B').putLong(finalLsn).putLong(toPostgresMicros(commitTimeMicros)).putInt((int) transactionId).finish();
+    }
+
+    public ByteBuffer commit(long commitLsn, long endLsn, long commitTimeMicros) {
+        return start('C').put(0).putLong(commitLsn).putLong(endLsn).putLong(toPostgresMicros(commitTimeMicros)).finish();
+    }
+
+    /**
+     * Relation with replica identity default, the first column is the key
+     */
+    public ByteBuffer relation(int relationId, String schemaName, String tableName, List<String> columnNames, int[] typeOids) {
+        startChange('R').putInt(relationId).putCString(schemaName).putCString(tableName).put('d').putShort(columnNames.size());
+        for (int i = 0; i < columnNames.size(); i++) {
+            put(i == 0 ? KEY_COLUMN_FLAG : 0).putCString(columnNames.get(i)).putInt(typeOids[i]).putInt(-1);
+        }
+        return finish();
+    }
+
+    public ByteBuffer insert(int relationId, String[] values) {
+        return putTuple(startChange('I').putInt(relationId).put('N'), values).finish();
+    }
+
+    /**
+     * Insert with the values in binary format, as the server sends them with binary = true
+     * @param values - send representation of the column types, null for null values
+     */
+    public ByteBuffer insertBinary(int relationId, byte[][] values) {
+        startChange('I').putInt(relationId).put('N').putShort(values.length);
+        for (byte[] value : values) {
+            if (value == null) {
+                put('n');
+                continue;
+            }
+            put('b').putInt(value.length).putBytes(value);
+        }
+        return finish();
+    }
+
+    public ByteBuffer update(int relationId, String[] values) {
+        return putTuple(startChange('U').putInt(relationId).put('N'), values).finish();
+    }
+
+    /**
+     * @param keyValues - values of the key columns, null for the other columns
+     */
+    public ByteBuffer delete(int relationId, String[] keyValues) {
+        return putTuple(startChange('D').putInt(relationId).put('K'), keyValues).finish();
+    }
+
+    /**
+     * @param transactionId - xid of the top level transaction, the next changes are written with the xid of the stream
+     */
+    public ByteBuffer streamStart(long transactionId, boolean firstSegment) {
+        streamTransactionId = transactionId;
+        return start('S').putInt((int) transactionId).put(firstSegment ? 1 : 0).finish();
+    }
+
+    /**
+     * @param transactionId - xid of the change, top level transaction or its subtransaction
+     */
+    public ByteBuffer insert(long transactionId, int relationId, String[] values) {
+        long streamTransactionId = this.streamTransactionId;
+        this.streamTransactionId = transactionId;
+        try {
+            return insert(relationId, values);
+        } finally {
+            this.streamTransactionId = streamTransactionId;
+        }
+    }
+
+    public ByteBuffer streamStop() {
+        streamTransactionId = 0;
+        return start('E').finish();
+    }
+
+    public ByteBuffer streamCommit(long transactionId, long commitLsn, long endLsn, long commitTimeMicros) {
+        return start('c').putInt((int) transactionId).put(0).putLong(commitLsn).putLong(endLsn).putLong(toPostgresMicros(commitTimeMicros)).finish();
+    }
+
+    public ByteBuffer streamAbort(long transactionId, long subTransactionId) {
+        return start('A').putInt((int) transactionId).putInt((int) subTransactionId).finish();
+    }
+
+    private PgoutMessageWriter putTuple(PgoutMessageWriter writer, String[] values) {
+        putShort(values.length);
+        for (String value : values) {
+            if (value == null) {
+                put('n');
+                continue;
+            }
+            byte[] data = value.getBytes(StandardCharsets.UTF_8);
+            put('t').putInt(data.length).putBytes(data);
+        }
+        return writer;
+    }
+
+    private static long toPostgresMicros(long epochMicros) {
+        return epochMicros - PgoutSession.POSTGRES_EPOCH_MICROS;
+    }
+
+    private PgoutMessageWriter start(char type) {
+        length = 0;
+        return put(type);
+    }
+
+    //messages inside the stream contain xid after the message type
+    private PgoutMessageWriter startChange(char type) {
+        start(type);
+        return streamTransactionId == 0 ? this : putInt((int) streamTransactionId);
+    }
+
+    private ByteBuffer finish() {
+        return ByteBuffer.wrap(Arrays.copyOf(bytes, length));
+    }
+
+    private PgoutMessageWriter put(int value) {
+        ensureCapacity(1);
+        bytes[length++] = (byte) value;
+        return this;
+    }
+
+    private PgoutMessageWriter putShort(int value) {
+        return put(value >>> 8).put(value);
+    }
+
+    private PgoutMessageWriter putInt(int value) {
+        return putShort(value >>> 16).putShort(value);
+    }
+
+    private PgoutMessageWriter putLong(long value) {
+        return putInt((int) (value >>> 32)).putInt((int) value);
+    }
+
+    private PgoutMessageWriter putBytes(byte[] data) {
+        ensureCapacity(data.length);
+        System.arraycopy(data, 0, bytes, length, data.length);
+        length += data.length;
+        return this;
+    }
+
+    private PgoutMessageWriter putCString(String value) {
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(data.length + 1);
+        System.arraycopy(data, 0, bytes, length, data.length);
+        length += data.length;
+        return put(0);
+    }
+
+    private void ensureCapacity(int additional) {
+        if (length + additional > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + additional));
+        }
+    }
+
+}
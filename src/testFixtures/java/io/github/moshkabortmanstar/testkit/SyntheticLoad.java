@@ -0,0 +1,34 @@
+package io.github.moshkabortmanstar.testkit;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SyntheticLoad defines the transactions produced by SyntheticPgoutGenerator
+ */
+@Data
+@Builder
+public class SyntheticLoad {
+
+    @Builder.Default
+    private List<SyntheticTable> tables = new ArrayList<>();
+    @Builder.Default
+    private int rowsPerTransaction = 100;
+    //target rate, 0 - as fast as the engine reads
+    @Builder.Default
+    private int transactionsPerSecond = 0;
+    @Builder.Default
+    private long durationMillis = 10_000L;
+    //percent of updates and deletes, the other rows are inserts
+    @Builder.Default
+    private int updatePercent = 0;
+    @Builder.Default
+    private int deletePercent = 0;
+    //seed of the values and operations, the same seed produces the same messages
+    @Builder.Default
+    private long seed = 42L;
+
+}
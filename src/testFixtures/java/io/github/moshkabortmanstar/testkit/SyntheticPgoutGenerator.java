@@ -0,0 +1,202 @@
+package io.github.moshkabortmanstar.testkit;
+
+import io.github.moshkabortmanstar.data.enums.DataType;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+/**
+ * SyntheticPgoutGenerator sends the relations of the load and then its transactions to the in-memory stream
+ * Column values are taken from a pool generated from the seed, so producing a message costs much less than decoding it
+ */
+public class SyntheticPgoutGenerator {
+
+    private static final int FIRST_RELATION_ID = 16384;
+    private static final long START_LSN = 0x1000000L;
+    private static final int BEGIN_MESSAGE_LENGTH = 21;
+    private static final int COMMIT_MESSAGE_LENGTH = 26;
+    private static final int VALUE_POOL_SIZE = 64;
+    private static final String TEXT_ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789 ";
+
+    private final SyntheticLoad load;
+    private final PgoutMessageWriter writer = new PgoutMessageWriter();
+    private final Random random;
+    //index of the table for every unit of weight
+    private final int[] tableByWeight;
+    //pool of values for every table and column
+    private final String[][][] valuePools;
+    private final List<ByteBuffer> transaction = new ArrayList<>();
+    private long lsn = START_LSN;
+    private long transactionId = 1000L;
+    private long insertedRows;
+    private long rows;
+    private long transactions;
+
+    public SyntheticPgoutGenerator(SyntheticLoad load) {
+        if (load.getTables().isEmpty()) {
+            throw new IllegalArgumentException("Synthetic load has no tables");
+        }
+        this.load = load;
+        this.random = new Random(load.getSeed());
+        this.tableByWeight = IntStream.range(0, load.getTables().size())
+                .flatMap(i -> IntStream.range(0, Math.max(1, load.getTables().get(i).getWeight())).map(w -> i))
+                .toArray();
+        this.valuePools = load.getTables().stream().map(this::createValuePool).toArray(String[][][]::new);
+    }
+
+    /**
+     * Send the relations and then transactions until the duration of the load elapses
+     * Commit time is the scheduled time of the transaction, so latency includes the wait of the producer when the engine is behind
+     */
+    public void generate(InMemoryReplicationStream stream) throws InterruptedException {
+        sendRelations(stream);
+        long intervalNanos = load.getTransactionsPerSecond() > 0 ? TimeUnit.SECONDS.toNanos(1) / load.getTransactionsPerSecond() : 0L;
+        long startNanos = System.nanoTime();
+        long startMicros = currentTimeMicros();
+        long deadline = startNanos + TimeUnit.MILLISECONDS.toNanos(load.getDurationMillis());
+        for (long i = 0; ; i++) {
+            long scheduled = startNanos + i * intervalNanos;
+            if (scheduled >= deadline || System.nanoTime() >= deadline) {
+                return;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Synthetic load is interrupted");
+            }
+            long commitTimeMicros = intervalNanos == 0L ? currentTimeMicros() : startMicros + TimeUnit.NANOSECONDS.toMicros(scheduled - startNanos);
+            LockSupport.parkNanos(scheduled - System.nanoTime());
+            sendTransaction(stream, commitTimeMicros);
+        }
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * End LSN of the last sent transaction, the engine confirmed all transactions when its flushed LSN reaches it
+     */
+    public long getLastLsn() {
+        return lsn;
+    }
+
+    private void sendRelations(InMemoryReplicationStream stream) throws InterruptedException {
+        var tables = load.getTables();
+        for (int i = 0; i < tables.size(); i++) {
+            var table = tables.get(i);
+            var columnNames = IntStream.range(0, table.getColumnTypes().size())
+                    .mapToObj(column -> column == 0 ? "id" : "column_" + column)
+                    .toList();
+            int[] typeOids = table.getColumnTypes().stream().mapToInt(DataType::getOid).toArray();
+            send(stream, writer.relation(FIRST_RELATION_ID + i, table.getSchemaName(), table.getTableName(), columnNames, typeOids));
+        }
+    }
+
+    private void sendTransaction(InMemoryReplicationStream stream, long commitTimeMicros) throws InterruptedException {
+        transaction.clear();
+        for (int i = 0; i < load.getRowsPerTransaction(); i++) {
+            transaction.add(nextRow());
+        }
+        long rowsLength = transaction.stream().mapToLong(ByteBuffer::remaining).sum();
+        //final LSN of BEGIN is the LSN of the commit record
+        long commitLsn = lsn + BEGIN_MESSAGE_LENGTH + rowsLength;
+        send(stream, writer.begin(commitLsn, commitTimeMicros, ++transactionId));
+        for (ByteBuffer row : transaction) {
+            send(stream, row);
+        }
+        send(stream, writer.commit(commitLsn, commitLsn + COMMIT_MESSAGE_LENGTH, commitTimeMicros));
+        rows += transaction.size();
+        transactions++;
+    }
+
+    private ByteBuffer nextRow() {
+        int tableIndex = tableByWeight[random.nextInt(tableByWeight.length)];
+        int relationId = FIRST_RELATION_ID + tableIndex;
+        var table = load.getTables().get(tableIndex);
+        int operation = random.nextInt(100);
+        if (insertedRows == 0 || operation >= load.getUpdatePercent() + load.getDeletePercent()) {
+            return writer.insert(relationId, values(table, tableIndex, ++insertedRows));
+        }
+        long key = 1L + (long) (random.nextDouble() * insertedRows);
+        if (operation < load.getUpdatePercent()) {
+            return writer.update(relationId, values(table, tableIndex, key));
+        }
+        String[] keyValues = new String[table.getColumnTypes().size()];
+        keyValues[0] = keyValue(table.getColumnTypes().get(0), key);
+        return writer.delete(relationId, keyValues);
+    }
+
+    private String[] values(SyntheticTable table, int tableIndex, long key) {
+        var pool = valuePools[tableIndex];
+        String[] values = new String[pool.length];
+        values[0] = keyValue(table.getColumnTypes().get(0), key);
+        for (int i = 1; i < values.length; i++) {
+            values[i] = pool[i][random.nextInt(VALUE_POOL_SIZE)];
+        }
+        return values;
+    }
+
+    //message LSN is the end of the message, commit is confirmed with the end LSN of the transaction
+    private void send(InMemoryReplicationStream stream, ByteBuffer message) throws InterruptedException {
+        lsn += message.remaining();
+        stream.send(message, lsn);
+    }
+
+    private String[][] createValuePool(SyntheticTable table) {
+        var types = table.getColumnTypes();
+        String[][] pool = new String[types.size()][VALUE_POOL_SIZE];
+        for (int column = 1; column < types.size(); column++) {
+            for (int i = 0; i < VALUE_POOL_SIZE; i++) {
+                pool[column][i] = randomValue(types.get(column), table.getTextWidth());
+            }
+        }
+        return pool;
+    }
+
+    private String keyValue(DataType type, long key) {
+        return type == DataType.UUID ? new UUID(0L, key).toString() : Long.toString(type == DataType.SMALLINT ? key % Short.MAX_VALUE : key);
+    }
+
+    private String randomValue(DataType type, int textWidth) {
+        return switch (type) {
+            case BIGINT -> Long.toString(random.nextLong());
+            case INTEGER, OID -> Integer.toString(random.nextInt(Integer.MAX_VALUE));
+            case SMALLINT -> Integer.toString(random.nextInt(Short.MAX_VALUE));
+            case NUMERIC, MONEY -> random.nextInt(1_000_000) + "." + String.format("%02d", random.nextInt(100));
+            case DOUBLE_PRECISION, REAL -> Double.toString(random.nextDouble() * 1000.0);
+            case BOOLEAN -> random.nextBoolean() ? "t" : "f";
+            case DATE -> String.format("2024-%02d-%02d", 1 + random.nextInt(12), 1 + random.nextInt(28));
+            case TIMESTAMP -> String.format("2024-%02d-%02d %02d:%02d:%02d.%06d", 1 + random.nextInt(12), 1 + random.nextInt(28),
+                    random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1_000_000));
+            case TIMESTAMP_WITH_TIME_ZONE -> String.format("2024-%02d-%02d %02d:%02d:%02d.%06d+00", 1 + random.nextInt(12), 1 + random.nextInt(28),
+                    random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1_000_000));
+            case UUID -> new UUID(random.nextLong(), random.nextLong()).toString();
+            case JSON, JSONB -> "{\"id\": " + random.nextInt(1_000_000) + ", \"payload\": \"" + randomText(Math.max(0, textWidth - 32)) + "\"}";
+            default -> randomText(textWidth);
+        };
+    }
+
+    private String randomText(int length) {
+        var text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(TEXT_ALPHABET.charAt(random.nextInt(TEXT_ALPHABET.length())));
+        }
+        return text.toString();
+    }
+
+    private static long currentTimeMicros() {
+        Instant now = Instant.now();
+        return TimeUnit.SECONDS.toMicros(now.getEpochSecond()) + TimeUnit.NANOSECONDS.toMicros(now.getNano());
+    }
+
+}
@@ -0,0 +1,28 @@
+package io.github.moshkabortmanstar.testkit;
+
+import io.github.moshkabortmanstar.data.enums.DataType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * SyntheticTable describes the table of the synthetic load, the first column is the replica identity key
+ */
+@Data
+@Builder
+public class SyntheticTable {
+
+    @Builder.Default
+    private String schemaName = "public";
+    private String tableName;
+    @Builder.Default
+    private List<DataType> columnTypes = List.of(DataType.BIGINT, DataType.TEXT);
+    //length of text, varchar and json values in characters
+    @Builder.Default
+    private int textWidth = 32;
+    //share of the rows of the table relative to the weights of other tables
+    @Builder.Default
+    private int weight = 1;
+
+}